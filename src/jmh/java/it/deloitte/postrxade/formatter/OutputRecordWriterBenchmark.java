@@ -0,0 +1,109 @@
+package it.deloitte.postrxade.formatter;
+
+import it.deloitte.postrxade.records.CollegamentiOutputRow;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Section 1 and 2 records of one Collegamenti row: String formatter + getBytes(UTF_8), as the output
+ * job used to write them, against {@link OutputRecordWriter}.
+ * <p>
+ * The setup fails if the two do not produce the same bytes for every sample row.
+ * Run with the {@code benchmark} Maven profile, see pom.xml; add {@code -prof gc} to the JMH
+ * arguments to compare the allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OutputRecordWriterBenchmark {
+
+    private static final CollegamentiOutputRow[] ROWS = {
+            // Persona fisica, numeric CAB
+            new CollegamentiOutputRow(1L, "RAP0000000000000000001", "T", true, "001", null, "01012020", "01234",
+                    true, "RSSMRA80A01F205X", "F", "ROSSI", "MARIO", "M", "01011980", "MILANO", "MI"),
+            // Persona giuridica, tipo rapporto 99 with description, CAB as country code
+            new CollegamentiOutputRow(2L, "RAP0000000000000000002", "E", true, "099", "CONTO DI PAGAMENTO", " ", "ITA",
+                    true, "04107060966", "G", "NEXI PAYMENTS", "SPA", null, null, "MILANO", "MI"),
+            // Non-ASCII names
+            new CollegamentiOutputRow(3L, "RAP0000000000000000003", "d", true, "002", null, "15062021", "",
+                    true, "", "F", "MÜLLER", "JOSÉ", "M", "", "SÃO PAULO", "EE"),
+            // No Rapporto and no Soggetto
+            new CollegamentiOutputRow(4L, "RAP0000000000000000004", null, false, "003", null, null, null,
+                    false, null, null, null, null, null, null, null, null)
+    };
+
+    private OutputRecordWriter recordWriter;
+    private OutputStream sink;
+    private int count;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws IOException {
+        recordWriter = new OutputRecordWriter();
+        sink = new BlackholeOutputStream(blackhole);
+        verifySameBytes();
+    }
+
+    @Benchmark
+    public void stringFormatter() throws IOException {
+        CollegamentiOutputRow row = ROWS[count & 3];
+        sink.write(OutputFileFormatter.toRapportiOutputString(row).getBytes(StandardCharsets.UTF_8));
+        sink.write(OutputFileFormatter.toAnagraficaOutputString(row, count++).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void recordWriter() throws IOException {
+        CollegamentiOutputRow row = ROWS[count & 3];
+        recordWriter.writeRapporti(row, sink);
+        recordWriter.writeAnagrafica(row, count++, sink);
+    }
+
+    private void verifySameBytes() throws IOException {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        for (int i = 0; i < ROWS.length; i++) {
+            written.reset();
+            recordWriter.writeRapporti(ROWS[i], written);
+            check(OutputFileFormatter.toRapportiOutputString(ROWS[i]), written, "Type 1", i);
+
+            written.reset();
+            recordWriter.writeAnagrafica(ROWS[i], i, written);
+            check(OutputFileFormatter.toAnagraficaOutputString(ROWS[i], i), written, "Type 2", i);
+        }
+    }
+
+    private static void check(String expected, ByteArrayOutputStream written, String recordType, int row) {
+        if (!Arrays.equals(expected.getBytes(StandardCharsets.UTF_8), written.toByteArray())) {
+            throw new IllegalStateException(recordType + " record of sample row " + row + " differs from the String formatter");
+        }
+    }
+
+    // Consumes what is written so that neither encoding can be optimized away
+    private static final class BlackholeOutputStream extends OutputStream {
+
+        private final Blackhole blackhole;
+
+        private BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
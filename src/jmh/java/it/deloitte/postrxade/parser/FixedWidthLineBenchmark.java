@@ -0,0 +1,79 @@
+package it.deloitte.postrxade.parser;
+
+import it.deloitte.postrxade.parser.merchants.MerchantFileLineParser;
+import it.deloitte.postrxade.parser.merchants.slices.SoggettiSliceLayout;
+import it.deloitte.postrxade.records.RawRecordSlice;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fields of one Soggetti line: substring + trim of every slice, fillers included, as the parsers used to
+ * slice them, against {@link MerchantFileLineParser} on {@link FixedWidthLine}.
+ * <p>
+ * Run with the {@code benchmark} Maven profile, see pom.xml; add {@code -prof gc} to the JMH arguments
+ * to compare the bytes allocated per line ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FixedWidthLineBenchmark {
+
+    private static final RawRecordSlice[] SOGGETTI_SLICES = {
+            SoggettiSliceLayout.INTERMEDIARIO, SoggettiSliceLayout.NDG, SoggettiSliceLayout.DATA_CENSIMENTO_ANAGRAFICO,
+            SoggettiSliceLayout.DATA_ESTINZIONE_ANAGRAFICO, SoggettiSliceLayout.FILLER_1,
+            SoggettiSliceLayout.FILIALE_CENSIMENTO_ANAGRAFICO, SoggettiSliceLayout.TIPO_SOGGETTO,
+            SoggettiSliceLayout.NATURA_GIURIDICA, SoggettiSliceLayout.SESSO, SoggettiSliceLayout.CODICE_FISCALE,
+            SoggettiSliceLayout.COGNOME, SoggettiSliceLayout.NOME, SoggettiSliceLayout.DATA_NASCITA,
+            SoggettiSliceLayout.COMUNE, SoggettiSliceLayout.PROVINCIA, SoggettiSliceLayout.NAZIONE,
+            SoggettiSliceLayout.FILLER_2, SoggettiSliceLayout.DATA_PREDISPOSIZIONE_FLUSSO, SoggettiSliceLayout.FILLER_3,
+            SoggettiSliceLayout.CONTROLLO_DI_FINE_RIGA
+    };
+
+    private final MerchantFileLineParser parser = new MerchantFileLineParser();
+    private String line;
+
+    @Setup
+    public void setUp() {
+        char[] chars = new char[SoggettiSliceLayout.CONTROLLO_DI_FINE_RIGA.end()];
+        Arrays.fill(chars, ' ');
+        put(chars, SoggettiSliceLayout.INTERMEDIARIO, "08000000001");
+        put(chars, SoggettiSliceLayout.NDG, "0000000000123456");
+        put(chars, SoggettiSliceLayout.DATA_CENSIMENTO_ANAGRAFICO, "20200101");
+        put(chars, SoggettiSliceLayout.FILIALE_CENSIMENTO_ANAGRAFICO, "01234");
+        put(chars, SoggettiSliceLayout.TIPO_SOGGETTO, "F");
+        put(chars, SoggettiSliceLayout.NATURA_GIURIDICA, "PF");
+        put(chars, SoggettiSliceLayout.SESSO, "M");
+        put(chars, SoggettiSliceLayout.CODICE_FISCALE, "RSSMRA80A01F205X");
+        put(chars, SoggettiSliceLayout.COGNOME, "ROSSI");
+        put(chars, SoggettiSliceLayout.NOME, "MARIO");
+        put(chars, SoggettiSliceLayout.DATA_NASCITA, "19800101");
+        put(chars, SoggettiSliceLayout.COMUNE, "MILANO");
+        put(chars, SoggettiSliceLayout.PROVINCIA, "MI");
+        put(chars, SoggettiSliceLayout.NAZIONE, "ITALIA");
+        put(chars, SoggettiSliceLayout.DATA_PREDISPOSIZIONE_FLUSSO, "20241231");
+        put(chars, SoggettiSliceLayout.CONTROLLO_DI_FINE_RIGA, "A");
+        line = new String(chars);
+    }
+
+    @Benchmark
+    public void substringTrim(Blackhole blackhole) {
+        for (RawRecordSlice slice : SOGGETTI_SLICES) {
+            blackhole.consume(line.substring(slice.start(), Math.min(line.length(), slice.end())).trim());
+        }
+    }
+
+    @Benchmark
+    public Object fixedWidthLine() {
+        return parser.parseSoggettiLine(line);
+    }
+
+    private static void put(char[] line, RawRecordSlice slice, String value) {
+        value.getChars(0, value.length(), line, slice.start());
+    }
+}
@@ -1,12 +1,17 @@
 package it.deloitte.postrxade.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuration class for Asynchronous Method Execution.
@@ -18,51 +23,272 @@ import java.util.concurrent.Executor;
  * Without this custom executor, Spring uses {@code SimpleAsyncTaskExecutor}, which
  * creates a new thread for <em>every</em> task—a potential risk for resource exhaustion
  * if many reports are requested simultaneously.
+ * <p>
+ * Every executor decorates its tasks with a {@link ContextPropagatingTaskDecorator}, so that the tenant,
+ * the authenticated user and the MDC of the submitting thread are carried into the task.
+ * With {@code application.async.virtual-threads} the I/O-bound jobs ({@code @Async} methods and validation
+ * reports) run on one virtual thread per task instead, their concurrency being bounded by permits rather
+ * than by a pool of platform threads.
  */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    private static final TaskDecorator CONTEXT_DECORATOR = new ContextPropagatingTaskDecorator();
+
     /**
      * Defines a thread pool for executing asynchronous tasks.
      * <p>
      * Configuration:
      * <ul>
      * <li><strong>Core Pool Size (2):</strong> Keeps 2 threads alive waiting for tasks.</li>
-     * <li><strong>Max Pool Size (50):</strong> Allows expanding to 50 threads under heavy load.</li>
+     * <li><strong>Max Pool Size:</strong> {@code application.async.max-concurrent-tasks} (default 50) threads under heavy load.</li>
      * <li><strong>Queue Capacity (10000):</strong> Buffers up to 10000 tasks if all threads are busy.</li>
      * <li><strong>Thread Prefix:</strong> Names threads "pos-task-" for easier debugging in logs.</li>
-     * <li><strong>Task Decorator:</strong> Ensures AWS credentials are available in async threads.</li>
+     * <li><strong>Task Decorator:</strong> Propagates the tenant, security and MDC context, so that e.g. the
+     * output generation and the audit log run against the tenant database of the request.</li>
+     * <li><strong>Virtual Threads:</strong> With {@code application.async.virtual-threads}, one virtual thread
+     * per task instead, at most {@code application.async.max-concurrent-tasks} running at once (the others wait
+     * for a permit, as they would in the queue).</li>
      * </ul>
-     * <p>
-     * The TaskDecorator ensures that AWS credentials (IAM Role) are properly accessible
-     * in async threads by allowing the DefaultCredentialsProvider to refresh credentials
-     * in the new thread context.
+     * AWS credentials (IAM Role) need no propagation: the DefaultCredentialsProvider resolves them on any thread.
      *
      * @return A configured {@link Executor}.
      */
     @Bean(name = "taskExecutor")
     @org.springframework.context.annotation.Primary
-    public ThreadPoolTaskExecutor taskExecutor() {
+    public AsyncTaskExecutor taskExecutor(
+            @Value("${application.async.virtual-threads:false}") boolean virtualThreads,
+            @Value("${application.async.max-concurrent-tasks:50}") int maxConcurrentTasks) {
+        if (virtualThreads) {
+            return virtualThreadExecutor("pos-task-", maxConcurrentTasks);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(50);
+        executor.setCorePoolSize(Math.min(2, maxConcurrentTasks));
+        executor.setMaxPoolSize(maxConcurrentTasks);
         executor.setQueueCapacity(10000);
         executor.setThreadNamePrefix("pos-task-");
-        
-        // TaskDecorator per assicurarsi che le credenziali AWS siano disponibili nei thread asincroni
-        executor.setTaskDecorator(new TaskDecorator() {
-            @Override
-            public Runnable decorate(Runnable runnable) {
-                return () -> {
-                    // Il thread asincrono userà automaticamente le credenziali IAM Role
-                    // tramite DefaultCredentialsProvider che accede all'IMDS
-                    runnable.run();
-                };
-            }
-        });
-        
+        executor.setTaskDecorator(CONTEXT_DECORATOR);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Defines the bounded thread pool used to load the merchant files to staging concurrently.
+     * <p>
+     * Configuration:
+     * <ul>
+     * <li><strong>Pool Size:</strong> Fixed, {@code application.ingestion.staging-load-parallelism} (default 4,
+     * one per independent file type: collegamenti, soggetti, rapporti, cambiondg).</li>
+     * <li><strong>Queue Capacity (16):</strong> Small on purpose; when full the caller runs the task itself
+     * instead of failing the ingestion.</li>
+     * <li><strong>Thread Prefix:</strong> Names threads "staging-load-" for easier debugging in logs.</li>
+     * <li><strong>Task Decorator:</strong> Propagates the tenant, security and MDC context of the submitting
+     * thread, so that TenantAwareDataSource routes the worker to the same tenant database.</li>
+     * </ul>
+     *
+     * @return A configured {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean(name = "stagingLoadExecutor")
+    public ThreadPoolTaskExecutor stagingLoadExecutor(
+            @Value("${application.ingestion.staging-load-parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(16);
+        executor.setThreadNamePrefix("staging-load-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(CONTEXT_DECORATOR);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Defines the worker pool that parses and validates merchant file chunks during staging loads.
+     * <p>
+     * Configuration:
+     * <ul>
+     * <li><strong>Pool Size:</strong> Fixed, {@code application.ingestion.parse-workers} (default: one per CPU core).</li>
+     * <li><strong>Queue Capacity (256):</strong> Chunks in flight are already bounded per file by the
+     * staging pipeline; when full the caller parses the chunk itself.</li>
+     * <li><strong>Thread Prefix:</strong> Names threads "staging-parse-" for easier debugging in logs.</li>
+     * <li><strong>Task Decorator:</strong> Propagates the tenant, security and MDC context.</li>
+     * </ul>
+     * Tasks on this pool are pure CPU work and never block on other tasks.
+     *
+     * @return A configured {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean(name = "stagingParseExecutor")
+    public ThreadPoolTaskExecutor stagingParseExecutor(
+            @Value("${application.ingestion.parse-workers:0}") int parseWorkers) {
+        int poolSize = parseWorkers > 0 ? parseWorkers : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(256);
+        executor.setThreadNamePrefix("staging-parse-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(CONTEXT_DECORATOR);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Defines the pool running the single DB writer of each staging load.
+     * <p>
+     * One writer per concurrent staging load ({@code application.ingestion.staging-load-parallelism}).
+     * The queue is unbounded on purpose: a writer waiting for a free thread only makes its reader
+     * wait on the bounded hand-off queue, it can never be rejected or run on the reader's thread.
+     *
+     * @return A configured {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean(name = "stagingWriterExecutor")
+    public ThreadPoolTaskExecutor stagingWriterExecutor(
+            @Value("${application.ingestion.staging-load-parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("staging-writer-");
+        executor.setTaskDecorator(CONTEXT_DECORATOR);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Defines the pool uploading the parts of streamed S3 multipart uploads.
+     * <p>
+     * Sized on {@code aws.s3.multipart.max-in-flight-parts}: each upload already blocks its writer
+     * once that many parts are in flight, so the queue is unbounded and tasks are never rejected.
+     *
+     * @return A configured {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean(name = "s3UploadExecutor")
+    public ThreadPoolTaskExecutor s3UploadExecutor(
+            @Value("${aws.s3.multipart.max-in-flight-parts:4}") int maxInFlightParts) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxInFlightParts);
+        executor.setMaxPoolSize(maxInFlightParts);
+        executor.setThreadNamePrefix("s3-upload-");
+        executor.setTaskDecorator(CONTEXT_DECORATOR);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Defines the pool purging the data of failed submissions in the background.
+     * <p>
+     * Configuration:
+     * <ul>
+     * <li><strong>Pool Size (1):</strong> Purges run one at a time, they are paced on purpose.</li>
+     * <li><strong>Thread Prefix:</strong> Names threads "submission-purge-" for easier debugging in logs.</li>
+     * <li><strong>Task Decorator:</strong> Propagates the tenant, security and MDC context.</li>
+     * <li><strong>Shutdown:</strong> Waits up to {@code application.ingestion.purge-shutdown-wait-seconds} for a
+     * running purge, so that a batch task exiting right after a failure still completes it.</li>
+     * </ul>
+     *
+     * @return A configured {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean(name = "submissionPurgeExecutor")
+    public ThreadPoolTaskExecutor submissionPurgeExecutor(
+            @Value("${application.ingestion.purge-shutdown-wait-seconds:3600}") int shutdownWaitSeconds) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("submission-purge-");
+        executor.setTaskDecorator(CONTEXT_DECORATOR);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(shutdownWaitSeconds);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Defines the pool writing the parts (Output entities) of a submission output concurrently.
+     * <p>
+     * Configuration:
+     * <ul>
+     * <li><strong>Pool Size:</strong> Fixed, {@code output.parallel-parts} (default 1, i.e. parts written one
+     * after the other; 0 = one per CPU core). Each worker holds a DB connection while writing its part, so the
+     * pool is capped to the connection pool size minus the two connections of the calling job.</li>
+     * <li><strong>Queue Capacity:</strong> Unbounded, every part of the submission is queued at once.</li>
+     * <li><strong>Thread Prefix:</strong> Names threads "output-part-" for easier debugging in logs.</li>
+     * <li><strong>Task Decorator:</strong> Propagates the tenant, security and MDC context.</li>
+     * </ul>
+     *
+     * @return A configured {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean(name = "outputPartExecutor")
+    public ThreadPoolTaskExecutor outputPartExecutor(
+            @Value("${output.parallel-parts:1}") int parallelParts,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxConnections) {
+        int poolSize = parallelParts > 0 ? parallelParts : Runtime.getRuntime().availableProcessors();
+        poolSize = Math.max(1, Math.min(poolSize, maxConnections - 2));
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("output-part-");
+        executor.setTaskDecorator(CONTEXT_DECORATOR);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Defines the pool generating the validation report files.
+     * <p>
+     * Configuration:
+     * <ul>
+     * <li><strong>Pool Size:</strong> {@code application.validation.report-concurrency} (default 2): reports are
+     * written to disk at a bounded rate, a few at a time, each holding a DB connection while reading.</li>
+     * <li><strong>Queue Capacity (50):</strong> Further requests wait their turn in ACCEPTED status.</li>
+     * <li><strong>Thread Prefix:</strong> Names threads "report-export-" for easier debugging in logs.</li>
+     * <li><strong>Task Decorator:</strong> Propagates the tenant, security and MDC context, the report reads
+     * the tenant database.</li>
+     * <li><strong>Virtual Threads:</strong> With {@code application.async.virtual-threads}, one virtual thread
+     * per report instead, {@code report-concurrency} of them writing at once.</li>
+     * </ul>
+     *
+     * @return A configured {@link AsyncTaskExecutor}.
+     */
+    @Bean(name = "reportExportExecutor")
+    public AsyncTaskExecutor reportExportExecutor(
+            @Value("${application.async.virtual-threads:false}") boolean virtualThreads,
+            @Value("${application.validation.report-concurrency:2}") int reportConcurrency) {
+        if (virtualThreads) {
+            return virtualThreadExecutor("report-export-", reportConcurrency);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(reportConcurrency);
+        executor.setMaxPoolSize(reportConcurrency);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("report-export-");
+        executor.setTaskDecorator(CONTEXT_DECORATOR);
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * One virtual thread per task, for I/O-bound jobs. The concurrency is bounded by permits taken inside the
+     * task: a submitted task never blocks nor is rejected, its virtual thread simply waits for a permit.
+     * The context is propagated as on the platform pools.
+     */
+    private static AsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix, int maxConcurrentTasks) {
+        Semaphore permits = new Semaphore(Math.max(1, maxConcurrentTasks));
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(runnable -> {
+            Runnable decorated = CONTEXT_DECORATOR.decorate(runnable);
+            return () -> {
+                permits.acquireUninterruptibly();
+                try {
+                    decorated.run();
+                } finally {
+                    permits.release();
+                }
+            };
+        });
+        return executor;
+    }
+}
@@ -10,6 +10,9 @@ import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.core.retry.RetryPolicy;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
 
 /**
  * Configuration for AWS S3 integration.
@@ -30,6 +33,13 @@ public class AwsS3Config {
     @Value("${aws.s3.bucket-name}")
     private String bucketName;
 
+    /**
+     * Optional endpoint override for a local S3-compatible stand-in (MinIO, LocalStack).
+     * Empty in AWS environments.
+     */
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
     /**
      * Creates S3Client using DefaultCredentialsProvider.
      * <p>
@@ -59,11 +69,16 @@ public class AwsS3Config {
                     .retryPolicy(RetryPolicy.defaultRetryPolicy())
                     .build();
             
-            S3Client client = S3Client.builder()
+            S3ClientBuilder builder = S3Client.builder()
                     .region(Region.of(region))
                     .credentialsProvider(credentialsProvider)
-                    .overrideConfiguration(clientConfig)
-                    .build();
+                    .overrideConfiguration(clientConfig);
+            if (endpoint != null && !endpoint.isBlank()) {
+                // Local stand-ins do not resolve virtual-hosted bucket names
+                LOGGER.info("Using S3 endpoint override: {}", endpoint);
+                builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+            }
+            S3Client client = builder.build();
             
             LOGGER.info("S3Client created successfully with DefaultCredentialsProvider and retry policy");
             return client;
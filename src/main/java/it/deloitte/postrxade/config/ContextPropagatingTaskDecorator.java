@@ -0,0 +1,73 @@
+package it.deloitte.postrxade.config;
+
+import it.deloitte.postrxade.tenant.TenantContext;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+
+/**
+ * Carries the context of the submitting thread into the tasks of an executor:
+ * <ul>
+ * <li><strong>TenantContext:</strong> so that TenantAwareDataSource routes the task to the same tenant database
+ * instead of the bootstrap tenant.</li>
+ * <li><strong>SecurityContext:</strong> the authentication of the user who started the task (audit, createdBy).</li>
+ * <li><strong>MDC:</strong> the logging context (request/correlation ids) of the submitting thread.</li>
+ * </ul>
+ * The context is captured when the task is submitted and set on the worker for the duration of the task only;
+ * the worker's own context (normally none) is restored afterwards, so pooled threads never leak a tenant or
+ * a user to the next task. Works the same on platform and virtual threads, and when a rejected task runs on
+ * the caller's thread.
+ */
+public final class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        String tenantId = TenantContext.getTenantId();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        return () -> {
+            String previousTenantId = TenantContext.getTenantId();
+            SecurityContext previousSecurityContext = SecurityContextHolder.getContext();
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+
+            setTenant(tenantId);
+            // A context of its own: the submitting thread may change or clear its context meanwhile
+            SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+            securityContext.setAuthentication(authentication);
+            SecurityContextHolder.setContext(securityContext);
+            setMdc(mdc);
+            try {
+                runnable.run();
+            } finally {
+                setTenant(previousTenantId);
+                if (previousSecurityContext.getAuthentication() != null) {
+                    SecurityContextHolder.setContext(previousSecurityContext);
+                } else {
+                    SecurityContextHolder.clearContext();
+                }
+                setMdc(previousMdc);
+            }
+        };
+    }
+
+    private static void setTenant(String tenantId) {
+        if (tenantId != null) {
+            TenantContext.setTenantId(tenantId);
+        } else {
+            TenantContext.clear();
+        }
+    }
+
+    private static void setMdc(Map<String, String> contextMap) {
+        if (contextMap != null) {
+            MDC.setContextMap(contextMap);
+        } else {
+            MDC.clear();
+        }
+    }
+}
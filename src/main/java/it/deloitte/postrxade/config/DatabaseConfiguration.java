@@ -1,5 +1,8 @@
 package it.deloitte.postrxade.config;
 
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
 import it.deloitte.postrxade.tenant.TenantAwareDataSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,4 +31,23 @@ public class DatabaseConfiguration {
     public DataSource dataSource(TenantAwareDataSource tenantAwareDataSource) {
         return tenantAwareDataSource;
     }
+
+    /**
+     * Adds a "tenant" tag to the hikaricp.* metrics of the tenant pools (pool tag {@code Hikari-<tenant>-<workload>}),
+     * so that the pools can be charted and alerted on per tenant.
+     */
+    @Bean
+    @Profile("!output")
+    public MeterFilter tenantPoolMeterFilter() {
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                if (!id.getName().startsWith("hikaricp.")) {
+                    return id;
+                }
+                String tenant = TenantAwareDataSource.tenantOfPool(id.getTag("pool"));
+                return tenant != null ? id.withTag(Tag.of("tenant", tenant)) : id;
+            }
+        };
+    }
 }
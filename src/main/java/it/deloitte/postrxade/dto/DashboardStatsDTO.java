@@ -1,16 +1,23 @@
 package it.deloitte.postrxade.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 /**
  * DTO representing the dashboard statistics to be sent to the frontend.
  * The @JsonProperty annotation ensures the JSON output keys match the snake_case format
  * expected by the frontend.
+ * {@code toBuilder()} gives the copies handed out by the dashboard stats cache.
  */
 @Data
 @ToString
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
 public class DashboardStatsDTO {
 
     @JsonProperty("failed")
@@ -39,6 +39,13 @@ public class ErrorRecord {
     @Column(name = "raw_row", length = 250)
     private String rawRow;
 
+    // STG_* row the record was created from by StagingRepository.insertErrorRecordsFromStaging, null otherwise
+    @Column(name = "stg_table", length = 64)
+    private String stgTable;
+
+    @Column(name = "fk_stg_row")
+    private Long stgRowId;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
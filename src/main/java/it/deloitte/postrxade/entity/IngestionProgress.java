@@ -0,0 +1,70 @@
+package it.deloitte.postrxade.entity;
+
+import it.deloitte.postrxade.enums.IngestionPhaseEnum;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing the checkpoint of a resumable ingestion.
+ * <p>
+ * One row per input file (record type + S3 key) with the number of non-blank lines already
+ * committed to staging, plus one submission row (see {@link #SUBMISSION_RECORD_TYPE}) with
+ * the last set-based phase committed.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "INGESTION_PROGRESS")
+public class IngestionProgress {
+
+    public static final String SUBMISSION_RECORD_TYPE = "submission";
+    public static final String SUBMISSION_FILE_KEY = "*";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "pk_ingestion_progress")
+    private Long id;
+
+    @ManyToOne()
+    @JoinColumn(name = "fk_submission")
+    private Submission submission;
+
+    @ManyToOne()
+    @JoinColumn(name = "fk_ingestion")
+    private Ingestion ingestion;
+
+    @Column(name = "record_type")
+    private String recordType;
+
+    @Column(name = "file_key")
+    private String fileKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase")
+    private IngestionPhaseEnum phase;
+
+    @Column(name = "lines_committed")
+    private long linesCommitted;
+
+    @Column(name = "rows_staged")
+    private long rowsStaged;
+
+    @Column(name = "error_count")
+    private long errorCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public IngestionProgress(Submission submission, Ingestion ingestion, String recordType, String fileKey,
+                             IngestionPhaseEnum phase) {
+        this.submission = submission;
+        this.ingestion = ingestion;
+        this.recordType = recordType;
+        this.fileKey = fileKey;
+        this.phase = phase;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
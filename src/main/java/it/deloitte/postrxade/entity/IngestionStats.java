@@ -0,0 +1,58 @@
+package it.deloitte.postrxade.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding the row counts of a completed ingestion.
+ * <p>
+ * Written once by the ingestion pipeline when the submission has been fully processed, so that
+ * the dashboards, insights and validation pages read them instead of counting the MERCHANT_*,
+ * ERROR_RECORD and ERROR_CAUSE tables on every request.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "INGESTION_STATS")
+public class IngestionStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "pk_ingestion_stats")
+    private Long id;
+
+    @OneToOne()
+    @JoinColumn(name = "fk_ingestion")
+    private Ingestion ingestion;
+
+    @ManyToOne()
+    @JoinColumn(name = "fk_submission")
+    private Submission submission;
+
+    /**
+     * Rows in the MERCHANT_* table of the ingestion type.
+     */
+    @Column(name = "accepted_count")
+    private long acceptedCount;
+
+    @Column(name = "error_record_count")
+    private long errorRecordCount;
+
+    /**
+     * Error causes with WARNING severity.
+     */
+    @Column(name = "warning_count")
+    private long warningCount;
+
+    /**
+     * Error causes with ERROR severity.
+     */
+    @Column(name = "error_count")
+    private long errorCount;
+
+    @Column(name = "computed_at")
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,25 @@
+package it.deloitte.postrxade.enums;
+
+import lombok.Getter;
+
+/**
+ * Enumeration for the kind of process using the tenant databases, each with its own connection-pool sizing
+ * ({@code multi-tenant.tenants.<id>.pool.<workload>}, falling back to {@code multi-tenant.pool-defaults.<workload>}).
+ * The process declares its own through {@code multi-tenant.workload}.
+ */
+@Getter
+public enum DataSourceWorkloadEnum {
+
+    // Web application: many short transactions, one pool per configured tenant
+    WEB("Web"),
+    // ECS batch ingestion: one tenant per run, parallel staging loaders and long bulk statements
+    BATCH("Batch"),
+    // ECS output generation task: single spring.datasource pool, sized through the task environment
+    OUTPUT("Output");
+
+    private final String label;
+
+    DataSourceWorkloadEnum(String label) {
+        this.label = label;
+    }
+}
@@ -0,0 +1,37 @@
+package it.deloitte.postrxade.enums;
+
+import lombok.Getter;
+
+/**
+ * Enumeration of the checkpoints stored in INGESTION_PROGRESS while a submission is ingested.
+ * <p>
+ * File rows go from {@link #LOADING} to {@link #LOADED}; the submission row records the last
+ * set-based step committed. Submission phases are declared in execution order.
+ */
+@Getter
+public enum IngestionPhaseEnum {
+
+    // File rows: chunks are being committed to staging (lines_committed tells how far)
+    LOADING("Loading"),
+    // File rows: file fully staged and, for the self-processing loaders, processed
+    LOADED("Loaded"),
+
+    // Submission row: ingestion started with checkpoints
+    STARTED("Started"),
+    // Submission row: orphans marked in staging and their error records created
+    ORPHANS_VALIDATED("Orphans validated"),
+    // Submission row: collegamenti/soggetti/rapporti promoted and their error records created
+    MERCHANTS_PROMOTED("Merchants promoted"),
+    // Submission row: every step done, nothing left to resume
+    COMPLETED("Completed");
+
+    private final String label;
+
+    IngestionPhaseEnum(String label) {
+        this.label = label;
+    }
+
+    public boolean isReached(IngestionPhaseEnum phase) {
+        return compareTo(phase) >= 0;
+    }
+}
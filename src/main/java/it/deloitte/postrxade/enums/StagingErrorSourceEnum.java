@@ -0,0 +1,37 @@
+package it.deloitte.postrxade.enums;
+
+import lombok.Getter;
+
+/**
+ * Enumeration of the staging rows that become ERROR_RECORD/ERROR_CAUSE rows once the set-based
+ * processing has flagged them: a STG_* table and the {@code process_status} marking the failure
+ * (2 = duplicate, 3 = missing parent/reference, 4 = orphan).
+ */
+@Getter
+public enum StagingErrorSourceEnum {
+
+    SOGGETTI_DUPLICATE("STG_SOGGETTI", "pk_stg_merchant", 2, "Duplicate soggetti"),
+    SOGGETTI_MISSING_PARENT("STG_SOGGETTI", "pk_stg_merchant", 3, "Soggetti without Collegamenti"),
+    SOGGETTI_ORPHAN("STG_SOGGETTI", "pk_stg_merchant", 4, "Orphan soggetti"),
+    RAPPORTI_DUPLICATE("STG_RAPPORTI", "pk_stg_rapporti", 2, "Duplicate rapporti"),
+    RAPPORTI_MISSING_PARENT("STG_RAPPORTI", "pk_stg_rapporti", 3, "Rapporti without Collegamenti"),
+    RAPPORTI_ORPHAN("STG_RAPPORTI", "pk_stg_rapporti", 4, "Orphan rapporti"),
+    DATI_CONTABILI_DUPLICATE("STG_DATI_CONTABILI", "pk_stg_dati_contabili", 2, "Duplicate dati contabili"),
+    DATI_CONTABILI_MISSING_PARENT("STG_DATI_CONTABILI", "pk_stg_dati_contabili", 3, "Dati contabili without Collegamenti"),
+    COLLEGAMENTI_DUPLICATE("STG_COLLEGAMENTI", "pk_stg_collegamenti", 2, "Duplicate collegamenti"),
+    COLLEGAMENTI_MISSING_REFERENCE("STG_COLLEGAMENTI", "pk_stg_collegamenti", 3, "Collegamenti with missing reference"),
+    COLLEGAMENTI_ORPHAN("STG_COLLEGAMENTI", "pk_stg_collegamenti", 4, "Orphan collegamenti"),
+    CAMBIO_NDG_DUPLICATE("STG_CAMBIO_NDG", "pk_stg_cambio_ndg", 2, "Duplicate cambio NDG");
+
+    private final String tableName;
+    private final String pkColumn;
+    private final int processStatus;
+    private final String label;
+
+    StagingErrorSourceEnum(String tableName, String pkColumn, int processStatus, String label) {
+        this.tableName = tableName;
+        this.pkColumn = pkColumn;
+        this.processStatus = processStatus;
+        this.label = label;
+    }
+}
@@ -0,0 +1,25 @@
+package it.deloitte.postrxade.enums;
+
+import lombok.Getter;
+
+/**
+ * Enumeration for the strategy used to land parsed rows into the STG_* staging tables.
+ * Configured globally through {@code application.ingestion.staging-load-mode} and
+ * optionally overridden per tenant ({@code multi-tenant.tenants.<id>.staging-load-mode}).
+ */
+@Getter
+public enum StagingLoadModeEnum {
+
+    // JDBC PreparedStatement addBatch/executeBatch on the tenant DataSource (driver-side multi-row batching)
+    JDBC_BATCH("JDBC batch"),
+    // LOAD DATA LOCAL INFILE fed from an in-memory delimited stream (MariaDB/MySQL only, falls back to JDBC_BATCH)
+    LOAD_DATA_LOCAL_INFILE("Load data local infile"),
+    // Legacy path: one multi-row INSERT string per batch executed through the EntityManager
+    NATIVE_SQL("Native SQL");
+
+    private final String label;
+
+    StagingLoadModeEnum(String label) {
+        this.label = label;
+    }
+}
@@ -1,6 +1,7 @@
 package it.deloitte.postrxade.formatter;
 
 import it.deloitte.postrxade.entity.*;
+import it.deloitte.postrxade.records.CollegamentiOutputRow;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
@@ -11,7 +12,9 @@ import java.util.Map;
 @NoArgsConstructor
 public final class OutputFileFormatter {
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("ddMMyyyy");
-    private static String os = System.getProperty("os.name").toLowerCase();
+    // Resolved once: CRLF for Windows, LF for Unix/Linux
+    private static final String END_OF_LINE =
+            System.getProperty("os.name").toLowerCase().contains("win") ? "\r\n" : "\n";
 
 
         // HashMap statica per memorizzare la corrispondenza tra alpha-3 e codice numerico
@@ -430,31 +433,37 @@ public final class OutputFileFormatter {
      * Format: 398 characters + end-of-line
      */
     public static String toRapportiOutputString(Collegamenti collegamenti) {
-        StringBuilder sb = new StringBuilder(398);
+        return toRapportiOutputString(toOutputRow(collegamenti));
+    }
 
-        Rapporti rapporti = collegamenti.getRapporto();
+    /**
+     * Section 1 (Type 1) from a flat output row, see {@link #toRapportiOutputString(Collegamenti)}.
+     * The output job writes the same bytes through {@link OutputRecordWriter#writeRapporti}.
+     */
+    public static String toRapportiOutputString(CollegamentiOutputRow row) {
+        StringBuilder sb = new StringBuilder(398);
 
         // 1. Tipo record (position 1, length 1): always "1"
         sb.append("1");
 
         // 2. Codice univoco rapporto (positions 2-51, length 50)
         // This is the unique identifier - using chiave_rapporto from Collegamenti
-        sb.append(rightPad(nullSafe(collegamenti.getChiaveRapporto()), 50, ' '));
+        sb.append(rightPad(nullSafe(row.chiaveRapporto()), 50, ' '));
 
         // 3. Tipo rapporto (positions 52-53, length 2)
-        sb.append(rapporti.getTipoRapportoInterno().substring(1));
+        sb.append(row.tipoRapportoInterno().substring(1));
 
         // 4. Descrizione rapporto (positions 54-77, length 24)
         // Only if tipo rapporto = "99", otherwise spaces
-        String tipoRapporto = nullSafe(rapporti.getTipoRapportoInterno()).trim();
+        String tipoRapporto = nullSafe(row.tipoRapportoInterno()).trim();
         if ("99".equals(tipoRapporto)) {
-            sb.append(rightPad(nullSafe(rapporti.getNote()), 24, ' '));
+            sb.append(rightPad(nullSafe(row.note()), 24, ' '));
         } else {
             sb.append(" ".repeat(24));
         }
 
         // 5. Data inizio rapporto (positions 78-85, length 8, format DDMMYYYY)
-        String dataInizio = nullSafe(rapporti.getDataInizioRapporto()).trim();
+        String dataInizio = nullSafe(row.dataInizioRapporto()).trim();
         if (dataInizio.isEmpty()) {
             sb.append("01010001");
         } else {
@@ -474,10 +483,10 @@ public final class OutputFileFormatter {
         // 7. CAB (positions 94-98, length 5)
         // Mandatory for tipo rapporto 1, 2, 3, 12, 13, 96, 97
         // If stored as letters, convert to numeric code; if stored as numbers, leave as-is
-        String cab = nullSafe(rapporti.getCab()).trim();
+        String cab = nullSafe(row.cab()).trim();
         if (cab.isEmpty()) {
             sb.append(" ".repeat(5));
-        } else if (cab.matches("^[0-9]+$")) {
+        } else if (isDigits(cab)) {
             // Already numeric, use as-is (padded to 5 characters)
             sb.append(rightPad(cab, 5, ' '));
         } else {
@@ -507,25 +516,30 @@ public final class OutputFileFormatter {
      * Format: 398 characters + end-of-line
      */
     public static String toAnagraficaOutputString(Collegamenti collegamenti, int count) {
-        StringBuilder sb = new StringBuilder(398);
+        return toAnagraficaOutputString(toOutputRow(collegamenti), count);
+    }
 
-        Rapporti rapporto = collegamenti.getRapporto();
-        Soggetti soggetto = collegamenti.getSoggetto();
+    /**
+     * Section 2 (Type 2) from a flat output row, see {@link #toAnagraficaOutputString(Collegamenti, int)}.
+     * The output job writes the same bytes through {@link OutputRecordWriter#writeAnagrafica}.
+     */
+    public static String toAnagraficaOutputString(CollegamentiOutputRow row, int count) {
+        StringBuilder sb = new StringBuilder(398);
 
         // 1. Tipo record (position 1, length 1): always "2"
         sb.append("2");
 
         // 2. Codice univoco rapporto (positions 2-51, length 50)
-        sb.append(rightPad(nullSafe(collegamenti.getChiaveRapporto()), 50, ' '));
+        sb.append(rightPad(nullSafe(row.chiaveRapporto()), 50, ' '));
 
         // 3. Progressivo anagrafica (positions 52-60, length 9)
         // Progressive counter starting from "000000001"
         int progressiveCounter = count + 1;
         sb.append(leftPad(Integer.toString(progressiveCounter), 9, '0'));
 
-        if (rapporto != null) {
+        if (row.hasRapporto()) {
             // 4. Data inizio partecipazione (positions 61-68, length 8, format DDMMYYYY)
-            String dataInizio = nullSafe(rapporto.getDataInizioRapporto()).trim();
+            String dataInizio = nullSafe(row.dataInizioRapporto()).trim();
             if (dataInizio.isEmpty()) {
                 sb.append("01010001");
             } else {
@@ -544,8 +558,8 @@ public final class OutputFileFormatter {
             sb.append("01010001");  // data_fine default
         }
 
-        if (soggetto != null) {
-            String codiceFiscale = nullSafe(soggetto.getCodiceFiscale()).trim();
+        if (row.hasSoggetto()) {
+            String codiceFiscale = nullSafe(row.codiceFiscale()).trim();
 
             // 6. Flag assenza codice fiscale (position 77, length 1)
             if (codiceFiscale.isEmpty()) {
@@ -560,26 +574,26 @@ public final class OutputFileFormatter {
 
             // 8. Codice ruolo (position 94, length 1)
             // Convert Nexi codes to AdE codes
-            String ruolo = convertRuoloCode(nullSafe(collegamenti.getRuolo()));
+            String ruolo = convertRuoloCode(nullSafe(row.ruolo()));
             sb.append(ruolo);
 
             // Check if person is fisica (F) or giuridica (G)
-            String tipoSoggetto = nullSafe(soggetto.getTipoSoggetto()).trim();
+            String tipoSoggetto = nullSafe(row.tipoSoggetto()).trim();
             boolean isPersonaFisica = "F".equalsIgnoreCase(tipoSoggetto);
 
             if (isPersonaFisica) {
                 // Fields 9-14: For persona fisica
                 // 9. Cognome (positions 95-120, length 26)
-                sb.append(rightPad(nullSafe(soggetto.getCognome()), 26, ' '));
+                sb.append(rightPad(nullSafe(row.cognome()), 26, ' '));
 
                 // 10. Nome (positions 121-145, length 25)
-                sb.append(rightPad(nullSafe(soggetto.getNome()), 25, ' '));
+                sb.append(rightPad(nullSafe(row.nome()), 25, ' '));
 
                 // 11. Sesso (position 146, length 1)
-                sb.append(rightPad(nullSafe(soggetto.getSesso()), 1, ' '));
+                sb.append(rightPad(nullSafe(row.sesso()), 1, ' '));
 
                 // 12. Data di nascita (positions 147-154, length 8, format DDMMYYYY)
-                String dataNascita = nullSafe(soggetto.getDataNascita()).trim();
+                String dataNascita = nullSafe(row.dataNascita()).trim();
                 if (dataNascita.isEmpty()) {
                     sb.append(" ".repeat(8));
                 } else {
@@ -587,10 +601,10 @@ public final class OutputFileFormatter {
                 }
 
                 // 13. Comune di nascita (positions 155-194, length 40)
-                sb.append(rightPad(nullSafe(soggetto.getComune()), 40, ' '));
+                sb.append(rightPad(nullSafe(row.comune()), 40, ' '));
 
                 // 14. Provincia di nascita (positions 195-196, length 2)
-                sb.append(rightPad(nullSafe(soggetto.getProvincia()), 2, ' '));
+                sb.append(rightPad(nullSafe(row.provincia()), 2, ' '));
 
                 // Fields 15-17: Spaces for persona fisica
                 sb.append(" ".repeat(60));  // Denominazione
@@ -608,14 +622,14 @@ public final class OutputFileFormatter {
                 // Fields 15-17: For persona giuridica
                 // 15. Denominazione (positions 197-256, length 60)
                 // Merge cognome + nome for denominazione
-                String denominazione = (nullSafe(soggetto.getCognome()) + " " + nullSafe(soggetto.getNome())).trim();
+                String denominazione = (nullSafe(row.cognome()) + " " + nullSafe(row.nome())).trim();
                 sb.append(rightPad(denominazione, 60, ' '));
 
                 // 16. Comune sede legale (positions 257-296, length 40)
-                sb.append(rightPad(nullSafe(soggetto.getComune()), 40, ' '));
+                sb.append(rightPad(nullSafe(row.comune()), 40, ' '));
 
                 // 17. Provincia sede legale (positions 297-298, length 2)
-                sb.append(rightPad(nullSafe(soggetto.getProvincia()), 2, ' '));
+                sb.append(rightPad(nullSafe(row.provincia()), 2, ' '));
             }
         } else {
             // Default values when Soggetto is null
@@ -645,6 +659,30 @@ public final class OutputFileFormatter {
         return sb.toString();
     }
 
+    // Same values the Collegamenti-based sections read, flattened
+    private static CollegamentiOutputRow toOutputRow(Collegamenti collegamenti) {
+        Rapporti rapporto = collegamenti.getRapporto();
+        Soggetti soggetto = collegamenti.getSoggetto();
+        return new CollegamentiOutputRow(
+                collegamenti.getId() != null ? collegamenti.getId() : 0L,
+                collegamenti.getChiaveRapporto(),
+                collegamenti.getRuolo(),
+                rapporto != null,
+                rapporto != null ? rapporto.getTipoRapportoInterno() : null,
+                rapporto != null ? rapporto.getNote() : null,
+                rapporto != null ? rapporto.getDataInizioRapporto() : null,
+                rapporto != null ? rapporto.getCab() : null,
+                soggetto != null,
+                soggetto != null ? soggetto.getCodiceFiscale() : null,
+                soggetto != null ? soggetto.getTipoSoggetto() : null,
+                soggetto != null ? soggetto.getCognome() : null,
+                soggetto != null ? soggetto.getNome() : null,
+                soggetto != null ? soggetto.getSesso() : null,
+                soggetto != null ? soggetto.getDataNascita() : null,
+                soggetto != null ? soggetto.getComune() : null,
+                soggetto != null ? soggetto.getProvincia() : null);
+    }
+
     /**
      * Convert Nexi role codes to AdE role codes
      * T/C -> 0 (Titolare/Cointestatario)
@@ -882,12 +920,21 @@ public final class OutputFileFormatter {
     }
 
     public static String getEndOfLine() {
-        String os = System.getProperty("os.name").toLowerCase();
-        if (os.contains("win")) {
-            return "\r\n";
-        } else {
-            return "\n";
+        return END_OF_LINE;
+    }
+
+    // Same as matches("^[0-9]+$"), without compiling a regex per row
+    private static boolean isDigits(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
         }
+        return true;
     }
 
     private static String rightPad(String value, int length, char padChar) {
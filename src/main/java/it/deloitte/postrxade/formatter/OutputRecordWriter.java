@@ -0,0 +1,403 @@
+package it.deloitte.postrxade.formatter;
+
+import it.deloitte.postrxade.records.CollegamentiOutputRow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte-level encoder of the output file sections 1 and 2 (Type 1 and Type 2 records).
+ * <p>
+ * Produces exactly the bytes of {@code OutputFileFormatter.toRapportiOutputString(row).getBytes(UTF_8)}
+ * and {@code toAnagraficaOutputString(row, count).getBytes(UTF_8)}, without the intermediate Strings:
+ * fields are UTF-8 encoded straight from the row values into a reusable buffer, padded by character
+ * count like the String formatter (a non-ASCII value still takes more than one byte per character),
+ * while the constant parts (filler, control character, end of line) are copied from pre-filled templates.
+ * <p>
+ * One instance per output file being written: the buffer is reused from record to record,
+ * so an instance must not be shared between threads.
+ */
+public final class OutputRecordWriter {
+
+    private static final byte SPACE = ' ';
+    private static final byte REPLACEMENT = '?';
+    private static final int PROGRESSIVE_LENGTH = 9;
+
+    private static final byte[] DEFAULT_DATE = ascii("01010001");
+    private static final byte[] END_OF_LINE = ascii(OutputFileFormatter.getEndOfLine());
+
+    // Identificativo esito (13) + filler (286) + carattere di controllo + end of line
+    private static final byte[] RAPPORTI_TAIL = tail(13 + 286);
+
+    // Filler (99) + carattere di controllo + end of line
+    private static final byte[] ANAGRAFICA_TAIL = tail(99);
+
+    // A record is 398 characters; only non-ASCII values make it longer, in which case the buffer grows
+    private byte[] buffer = new byte[512];
+    private int position;
+
+    // Unpaired high surrogate just written as '?': the String formatter concatenates the fields before
+    // encoding, so a low surrogate starting the next field still completes the pair
+    private char pendingHighSurrogate;
+    private int pendingHighSurrogateEnd = -1;
+
+    /**
+     * Writes the Section 1 (Type 1) record of the row, end of line included.
+     */
+    public void writeRapporti(CollegamentiOutputRow row, OutputStream out) throws IOException {
+        position = 0;
+        pendingHighSurrogateEnd = -1;
+
+        // 1. Tipo record (position 1, length 1): always "1"
+        put((byte) '1');
+
+        // 2. Codice univoco rapporto (positions 2-51, length 50)
+        padded(row.chiaveRapporto(), 50);
+
+        // 3. Tipo rapporto (positions 52-53, length 2)
+        String tipoRapportoInterno = row.tipoRapportoInterno();
+        if (tipoRapportoInterno.isEmpty()) {
+            // Same failure as substring(1) in the String formatter
+            throw new StringIndexOutOfBoundsException("Empty tipo rapporto for chiave " + row.chiaveRapporto());
+        }
+        chars(tipoRapportoInterno, 1, tipoRapportoInterno.length());
+
+        // 4. Descrizione rapporto (positions 54-77, length 24): only if tipo rapporto = "99"
+        if (isTrimmed99(tipoRapportoInterno)) {
+            padded(row.note(), 24);
+        } else {
+            spaces(24);
+        }
+
+        // 5. Data inizio rapporto (positions 78-85, length 8)
+        dateOrDefault(row.dataInizioRapporto());
+
+        // 6. Data fine rapporto (positions 86-93, length 8)
+        put(DEFAULT_DATE);
+
+        // 7. CAB (positions 94-98, length 5): numeric as-is, letters converted to the numeric country code
+        String cab = nullSafe(row.cab());
+        int cabStart = trimStart(cab);
+        int cabEnd = trimEnd(cab, cabStart);
+        if (cabStart == cabEnd) {
+            spaces(5);
+        } else if (isDigits(cab, cabStart, cabEnd)) {
+            padded(cab, cabStart, cabEnd, 5);
+        } else {
+            padded(OutputFileFormatter.getNumericCountryCode(cab.substring(cabStart, cabEnd)), 5);
+        }
+
+        // 8-11. Identificativo esito, filler, carattere di controllo, end of line
+        put(RAPPORTI_TAIL);
+
+        out.write(buffer, 0, position);
+    }
+
+    /**
+     * Writes the Section 2 (Type 2) record of the row, end of line included.
+     *
+     * @param count records of the section written so far
+     */
+    public void writeAnagrafica(CollegamentiOutputRow row, int count, OutputStream out) throws IOException {
+        position = 0;
+        pendingHighSurrogateEnd = -1;
+
+        // 1. Tipo record (position 1, length 1): always "2"
+        put((byte) '2');
+
+        // 2. Codice univoco rapporto (positions 2-51, length 50)
+        padded(row.chiaveRapporto(), 50);
+
+        // 3. Progressivo anagrafica (positions 52-60, length 9)
+        progressive(count + 1);
+
+        // 4-5. Data inizio / fine partecipazione (positions 61-76)
+        if (row.hasRapporto()) {
+            dateOrDefault(row.dataInizioRapporto());
+        } else {
+            put(DEFAULT_DATE);
+        }
+        put(DEFAULT_DATE);
+
+        if (row.hasSoggetto()) {
+            // 6-7. Flag assenza codice fiscale (position 77) and codice fiscale (positions 78-93)
+            String codiceFiscale = nullSafe(row.codiceFiscale());
+            int cfStart = trimStart(codiceFiscale);
+            int cfEnd = trimEnd(codiceFiscale, cfStart);
+            if (cfStart == cfEnd) {
+                put((byte) '1');
+                spaces(16);
+            } else {
+                put((byte) '0');
+                padded(codiceFiscale, cfStart, cfEnd, 16);
+            }
+
+            // 8. Codice ruolo (position 94, length 1)
+            put(ruoloCode(row.ruolo()));
+
+            if (isPersonaFisica(row.tipoSoggetto())) {
+                // 9-14. Cognome, nome, sesso, data, comune e provincia di nascita (positions 95-196)
+                padded(row.cognome(), 26);
+                padded(row.nome(), 25);
+                padded(row.sesso(), 1);
+                String dataNascita = nullSafe(row.dataNascita());
+                int dataStart = trimStart(dataNascita);
+                int dataEnd = trimEnd(dataNascita, dataStart);
+                if (dataStart == dataEnd) {
+                    spaces(8);
+                } else {
+                    chars(dataNascita, dataStart, dataEnd);
+                }
+                padded(row.comune(), 40);
+                padded(row.provincia(), 2);
+
+                // 15-17. Spaces for persona fisica
+                spaces(60 + 40 + 2);
+            } else {
+                // 9-14. Spaces for persona giuridica
+                spaces(26 + 25 + 1 + 8 + 40 + 2);
+
+                // 15-17. Denominazione (cognome + nome), comune e provincia sede legale (positions 197-298)
+                denominazione(nullSafe(row.cognome()), nullSafe(row.nome()), 60);
+                padded(row.comune(), 40);
+                padded(row.provincia(), 2);
+            }
+        } else {
+            // Default values when Soggetto is null: codice fiscale absent, ruolo titolare, all else spaces
+            put((byte) '1');
+            spaces(16);
+            put((byte) '0');
+            spaces(26 + 25 + 1 + 8 + 40 + 2 + 60 + 40 + 2);
+        }
+
+        // 18-20. Filler, carattere di controllo, end of line
+        put(ANAGRAFICA_TAIL);
+
+        out.write(buffer, 0, position);
+    }
+
+    // Same as rightPad(nullSafe(value), length, ' ')
+    private void padded(String value, int length) {
+        String safe = nullSafe(value);
+        padded(safe, 0, safe.length(), length);
+    }
+
+    // Chars [from, to) of value, cut or space-padded to length characters
+    private void padded(String value, int from, int to, int length) {
+        int end = Math.min(to, from + length);
+        chars(value, from, end);
+        spaces(length - (end - from));
+    }
+
+    // Same as rightPad((cognome + " " + nome).trim(), length, ' '), without building the joined String
+    private void denominazione(String cognome, String nome, int length) {
+        int joinedLength = cognome.length() + 1 + nome.length();
+        int start = 0;
+        while (start < joinedLength && joinedCharAt(cognome, nome, start) <= ' ') {
+            start++;
+        }
+        int end = joinedLength;
+        while (end > start && joinedCharAt(cognome, nome, end - 1) <= ' ') {
+            end--;
+        }
+        end = Math.min(end, start + length);
+
+        int separator = cognome.length();
+        if (start < separator) {
+            chars(cognome, start, Math.min(end, separator));
+        }
+        if (start <= separator && end > separator) {
+            put(SPACE);
+        }
+        if (end > separator + 1) {
+            chars(nome, Math.max(start - separator - 1, 0), end - separator - 1);
+        }
+        spaces(length - (end - start));
+    }
+
+    private static char joinedCharAt(String cognome, String nome, int index) {
+        if (index < cognome.length()) {
+            return cognome.charAt(index);
+        }
+        return index == cognome.length() ? ' ' : nome.charAt(index - cognome.length() - 1);
+    }
+
+    // Trimmed date as-is, the default date when empty
+    private void dateOrDefault(String value) {
+        String date = nullSafe(value);
+        int start = trimStart(date);
+        int end = trimEnd(date, start);
+        if (start == end) {
+            put(DEFAULT_DATE);
+        } else {
+            chars(date, start, end);
+        }
+    }
+
+    // Same as leftPad(Integer.toString(value), 9, '0')
+    private void progressive(int value) {
+        if (value < 0 || value >= 1_000_000_000) {
+            String digits = Integer.toString(value);
+            if (digits.length() >= PROGRESSIVE_LENGTH) {
+                chars(digits, 0, PROGRESSIVE_LENGTH);
+            } else {
+                ensureCapacity(PROGRESSIVE_LENGTH);
+                Arrays.fill(buffer, position, position + PROGRESSIVE_LENGTH - digits.length(), (byte) '0');
+                position += PROGRESSIVE_LENGTH - digits.length();
+                chars(digits, 0, digits.length());
+            }
+            return;
+        }
+        ensureCapacity(PROGRESSIVE_LENGTH);
+        for (int i = position + PROGRESSIVE_LENGTH - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += PROGRESSIVE_LENGTH;
+    }
+
+    /**
+     * UTF-8 encodes chars [from, to) of value like String.getBytes(UTF_8) on the whole record:
+     * an unpaired surrogate, e.g. one cut in half by the field length, becomes '?'.
+     */
+    private void chars(String value, int from, int to) {
+        // At most 3 bytes per char
+        ensureCapacity((to - from) * 3);
+        byte[] buf = buffer;
+        int pos = position;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(value.charAt(i + 1))) {
+                pos = putCodePoint(buf, pos, Character.toCodePoint(c, value.charAt(++i)));
+            } else if (Character.isLowSurrogate(c) && pos == pendingHighSurrogateEnd) {
+                // Completes the high surrogate that ended the previous field
+                pos = putCodePoint(buf, pos - 1, Character.toCodePoint(pendingHighSurrogate, c));
+            } else {
+                buf[pos++] = REPLACEMENT;
+                if (Character.isHighSurrogate(c)) {
+                    pendingHighSurrogate = c;
+                    pendingHighSurrogateEnd = pos;
+                }
+            }
+        }
+        position = pos;
+    }
+
+    private static int putCodePoint(byte[] buf, int pos, int codePoint) {
+        buf[pos++] = (byte) (0xF0 | (codePoint >> 18));
+        buf[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buf[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+        return pos;
+    }
+
+    private void spaces(int count) {
+        ensureCapacity(count);
+        Arrays.fill(buffer, position, position + count, SPACE);
+        position += count;
+    }
+
+    private void put(byte value) {
+        ensureCapacity(1);
+        buffer[position++] = value;
+    }
+
+    private void put(byte[] template) {
+        ensureCapacity(template.length);
+        System.arraycopy(template, 0, buffer, position, template.length);
+        position += template.length;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (position + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+        }
+    }
+
+    // Same as convertRuoloCode: Nexi role code to AdE role code, "0" (titolare) by default
+    private static byte ruoloCode(String nexiCode) {
+        String code = nullSafe(nexiCode);
+        int start = trimStart(code);
+        if (trimEnd(code, start) - start != 1) {
+            return '0';
+        }
+        return switch (Character.toUpperCase(code.charAt(start))) {
+            case 'I' -> '4';
+            case 'D' -> '5';
+            case 'O' -> '6';
+            case 'E' -> '7';
+            case 'G' -> '8';
+            case 'A' -> '9';
+            default -> '0';
+        };
+    }
+
+    private static boolean isPersonaFisica(String tipoSoggetto) {
+        String tipo = nullSafe(tipoSoggetto);
+        int start = trimStart(tipo);
+        if (trimEnd(tipo, start) - start != 1) {
+            return false;
+        }
+        char c = tipo.charAt(start);
+        return c == 'F' || c == 'f';
+    }
+
+    private static boolean isTrimmed99(String value) {
+        int start = trimStart(value);
+        return trimEnd(value, start) - start == 2 && value.charAt(start) == '9' && value.charAt(start + 1) == '9';
+    }
+
+    private static boolean isDigits(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Bounds of String.trim(), without the copy
+    private static int trimStart(String value) {
+        int start = 0;
+        while (start < value.length() && value.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(String value, int start) {
+        int end = value.length();
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static String nullSafe(String value) {
+        return value != null ? value : "";
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] tail(int fillerLength) {
+        byte[] tail = new byte[fillerLength + 1 + END_OF_LINE.length];
+        Arrays.fill(tail, 0, fillerLength, SPACE);
+        tail[fillerLength] = 'A';
+        System.arraycopy(END_OF_LINE, 0, tail, fillerLength + 1, END_OF_LINE.length);
+        return tail;
+    }
+}
@@ -0,0 +1,91 @@
+package it.deloitte.postrxade.parser;
+
+import it.deloitte.postrxade.records.RawRecordSlice;
+
+/**
+ * Allocation-aware access to the fields of a fixed-width line.
+ * <p>
+ * {@link #field(String, RawRecordSlice)} trims by offsets <em>before</em> copying, so a field
+ * costs at most one String (none when it is blank), instead of the substring + trim pair.
+ * {@link #view(String, RawRecordSlice)} returns a zero-copy {@link CharSequence} over the line,
+ * for checks that do not need to keep the value.
+ */
+public final class FixedWidthLine {
+
+    private FixedWidthLine() {
+    }
+
+    /**
+     * Trimmed value of the slice, clipped to the line length ("" when the line is shorter).
+     */
+    public static String field(String line, RawRecordSlice slice) {
+        if (line == null || line.length() <= slice.start()) {
+            return "";
+        }
+        int end = trimmedEnd(line, slice.start(), Math.min(line.length(), slice.end()));
+        int start = trimmedStart(line, slice.start(), end);
+        if (start == end) {
+            return "";
+        }
+        return line.substring(start, end);
+    }
+
+    /**
+     * Trimmed, zero-copy view of the slice. Call {@code toString()} to materialise it.
+     */
+    public static CharSequence view(String line, RawRecordSlice slice) {
+        if (line == null || line.length() <= slice.start()) {
+            return "";
+        }
+        int end = trimmedEnd(line, slice.start(), Math.min(line.length(), slice.end()));
+        int start = trimmedStart(line, slice.start(), end);
+        return start == end ? "" : new FieldView(line, start, end);
+    }
+
+    // Same definition of whitespace as String.trim()
+    private static int trimmedStart(String line, int start, int end) {
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimmedEnd(String line, int start, int end) {
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Read-only window {@code [start, end)} over the backing line.
+     */
+    private record FieldView(String line, int start, int end) implements CharSequence {
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return line.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > length() || from > to) {
+                throw new IndexOutOfBoundsException("[" + from + ", " + to + ") of " + length());
+            }
+            return new FieldView(line, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return line.substring(start, end);
+        }
+    }
+}
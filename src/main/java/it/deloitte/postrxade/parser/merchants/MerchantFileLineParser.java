@@ -1,5 +1,6 @@
 package it.deloitte.postrxade.parser.merchants;
 
+import it.deloitte.postrxade.parser.FixedWidthLine;
 import it.deloitte.postrxade.parser.merchants.slices.*;
 import it.deloitte.postrxade.parser.merchants.types.*;
 import it.deloitte.postrxade.records.RawRecordSlice;
@@ -8,20 +9,17 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 public class MerchantFileLineParser {
+    // Input dates are yyyyMMdd, stored as ddMMyyyy (formatters are immutable and thread-safe)
+    private static final DateTimeFormatter IN_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter OUT_DATE_FORMAT = DateTimeFormatter.ofPattern("ddMMyyyy");
+
+    // One String per non-blank field: trimmed by offsets, then copied once
     private String sliceString(String line, RawRecordSlice s) {
-        if (line == null || line.length() <= s.start()) {
-            return "";
-        }
-        int end = Math.min(line.length(), s.end());
-        return line.substring(s.start(), end).trim();
+        return FixedWidthLine.field(line, s);
     }
 
     private String parseDate(String line, RawRecordSlice s) {
-        String input = sliceString(line, s);
-        DateTimeFormatter inFmt = DateTimeFormatter.ofPattern("yyyyMMdd");
-        DateTimeFormatter outFmt = DateTimeFormatter.ofPattern("ddMMyyyy");
-
-        return LocalDate.parse(input, inFmt).format(outFmt);
+        return LocalDate.parse(FixedWidthLine.view(line, s), IN_DATE_FORMAT).format(OUT_DATE_FORMAT);
     }
 
     public RapportiRecord parseRapportoLine(String line) {
@@ -44,7 +42,6 @@ public class MerchantFileLineParser {
         rapporto.setNote(sliceString(line, RapportiSliceLayout.NOTE));
         rapporto.setFlagStatoRapporto(sliceString(line, RapportiSliceLayout.FLAG_STATO_RAPPORTO));
         rapporto.setDataPredisposizione(sliceString(line, RapportiSliceLayout.DATA_PREDISPOSIZIONE));
-        rapporto.setFiller(sliceString(line, RapportiSliceLayout.FILLER));
         rapporto.setControlloDiFineRiga(sliceString(line, RapportiSliceLayout.CONTROLLO_DI_FINE_RIGA));
 
         return rapporto;
@@ -60,7 +57,6 @@ public class MerchantFileLineParser {
         soggetti.setNdg(sliceString(line, SoggettiSliceLayout.NDG));
         soggetti.setDataCensimentoAnagrafico(sliceString(line, SoggettiSliceLayout.DATA_CENSIMENTO_ANAGRAFICO));
         soggetti.setDataEstinzioneAnagrafico(sliceString(line, SoggettiSliceLayout.DATA_ESTINZIONE_ANAGRAFICO));
-        soggetti.setFiller1(sliceString(line, SoggettiSliceLayout.FILLER_1));
         soggetti.setFilialeCensimentoAnagrafico(sliceString(line, SoggettiSliceLayout.FILIALE_CENSIMENTO_ANAGRAFICO));
         soggetti.setTipoSoggetto(sliceString(line, SoggettiSliceLayout.TIPO_SOGGETTO));
         soggetti.setNaturaGiuridica(sliceString(line, SoggettiSliceLayout.NATURA_GIURIDICA));
@@ -72,9 +68,7 @@ public class MerchantFileLineParser {
         soggetti.setComune(sliceString(line, SoggettiSliceLayout.COMUNE));
         soggetti.setProvincia(sliceString(line, SoggettiSliceLayout.PROVINCIA));
         soggetti.setNazione(sliceString(line, SoggettiSliceLayout.NAZIONE));
-        soggetti.setFiller2(sliceString(line, SoggettiSliceLayout.FILLER_2));
         soggetti.setDataPredisposizioneFlusso(sliceString(line, SoggettiSliceLayout.DATA_PREDISPOSIZIONE_FLUSSO));
-        soggetti.setFiller3(sliceString(line, SoggettiSliceLayout.FILLER_3));
         soggetti.setControlloDiFineRiga(sliceString(line, SoggettiSliceLayout.CONTROLLO_DI_FINE_RIGA));
 
         return soggetti;
@@ -107,12 +101,9 @@ public class MerchantFileLineParser {
         contabili.setAltreInformazioni(sliceString(line, DatiContabiliSliceLayout.ALTRE_INFORMAZIONI));
         contabili.setFlagStatoImporto(sliceString(line, DatiContabiliSliceLayout.FLAG_STATO_IMPORTO));
         contabili.setDataPredisposizione(sliceString(line, DatiContabiliSliceLayout.DATA_PREDISPOSIZIONE));
-        contabili.setFiller1(sliceString(line, DatiContabiliSliceLayout.FILLER_1));
         contabili.setTipoRapportoInterno(sliceString(line, DatiContabiliSliceLayout.TIPO_RAPPORTO_INTERNO));
         contabili.setFormaTecnica(sliceString(line, DatiContabiliSliceLayout.FORMA_TECNICA));
-        contabili.setFiller2(sliceString(line, DatiContabiliSliceLayout.FILLER_2));
         contabili.setFlagSogliaAltreInformazioni(sliceString(line, DatiContabiliSliceLayout.FLAG_SOGLIA_ALTRE_INFORMAZIONI));
-        contabili.setFiller3(sliceString(line, DatiContabiliSliceLayout.FILLER_3));
         contabili.setControlloDiFineRiga(sliceString(line, DatiContabiliSliceLayout.CONTROLLO_DI_FINE_RIGA));
 
         return contabili;
@@ -125,10 +116,8 @@ public class MerchantFileLineParser {
 
         CambioNdgRecord cambio = new CambioNdgRecord();
         cambio.setIntermediario(sliceString(line, CambioNdgSliceLayout.INTERMEDIARIO));
-        cambio.setIntermediario(sliceString(line, CambioNdgSliceLayout.INTERMEDIARIO));
         cambio.setNdgVecchio(sliceString(line, CambioNdgSliceLayout.NDG_VECCHIO));
         cambio.setNdgNuovo(sliceString(line, CambioNdgSliceLayout.NDG_NUOVO));
-        cambio.setFiller(sliceString(line, CambioNdgSliceLayout.FILLER));
         cambio.setControlloDiFineRiga(sliceString(line, CambioNdgSliceLayout.CONTROLLO_DI_FINE_RIGA));
 
         return cambio;
@@ -149,7 +138,6 @@ public class MerchantFileLineParser {
         collegamenti.setRuoloInterno(sliceString(line, CollegamentiSliceLayout.RUOLO_INTERNO));
         collegamenti.setFlagStatoCollegamento(sliceString(line, CollegamentiSliceLayout.FLAG_STATO_COLLEGAMENTO));
         collegamenti.setDataPredisposizioneFlusso(sliceString(line, CollegamentiSliceLayout.DATA_PREDISPOSIZIONE_FLUSSO));
-        collegamenti.setFiller(sliceString(line, CollegamentiSliceLayout.FILLER));
         collegamenti.setControlloDiFineRiga(sliceString(line, CollegamentiSliceLayout.CONTROLLO_DI_FINE_RIGA));
 
         return collegamenti;
@@ -1,39 +1,31 @@
 package it.deloitte.postrxade.parser.merchants;
 
+import static it.deloitte.postrxade.parser.merchants.MerchantValidationRules.IN_DATE_FORMAT;
+import static it.deloitte.postrxade.parser.merchants.MerchantValidationRules.cab;
+import static it.deloitte.postrxade.parser.merchants.MerchantValidationRules.date;
+
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.regex.Pattern;
 
 import it.deloitte.postrxade.enums.IngestionTypeEnum;
+import it.deloitte.postrxade.parser.merchants.MerchantValidationRules.CharClass;
+import it.deloitte.postrxade.parser.merchants.MerchantValidationRules.FieldRule;
+import it.deloitte.postrxade.parser.merchants.MerchantValidationRules.RecordRules;
 import it.deloitte.postrxade.parser.merchants.types.*;
 import it.deloitte.postrxade.parser.merchants.types.CambioNdgRecord;
-import it.deloitte.postrxade.enums.ErrorTypeCode;
 import it.deloitte.postrxade.records.ErrorRecordCause;
 import jakarta.validation.ValidationException;
 
+/**
+ * Field validation of the merchant record types.
+ * <p>
+ * Each record type is a rule table compiled once at class load (see {@link MerchantValidationRules});
+ * the validate* methods return the causes in table order, or an immutable empty list for a valid
+ * record. Callers that append their own causes must copy the list first.
+ */
 public class MerchantFileLineValidator {
 
-    // Regex Patterns
-    private static final Pattern NUMERIC_REGEX = Pattern.compile("^[0-9]+$");
-    private static final Pattern ALPHANUMERIC_REGEX = Pattern.compile("^[a-zA-Z0-9]+$");
-    private static final Pattern WORD_REGEX = Pattern.compile("^\\w+$");
-
-
-    // Error Messages
-    private static final String INVALID_FORMAT_ERROR_MSG = "%s '%s' does not match expected format '%s'";
-    private static final String NULL_VALUE_ERROR_MSG = "%s cannot be null or empty";
-    private static final String LENGTH_MISMATCH_ERROR_MSG = "%s expected length %d but got %d";
-    private static final String INVALID_VALUE_ERROR_MSG = "%s '%s' does not match expected value [ %s ]";
-    private static final String MANDATORY_DATA_IS_MISSING_ERROR_MSG = "%s '%s' does not match expected length (%d)";
-    private static final String INVALID_DATE_ERROR_MSG = "%s '%s' does not match expected date format [ %s ]";
-
-    // Error Codes
-    private static final String INVALID_FORMAT_ERROR_CODE = ErrorTypeCode.INVALID_FORMAT.getErrorCode();
-    private static final String MANDATORY_DATA_IS_MISSING_ERROR_CODE = ErrorTypeCode.MANDATORY_DATA_IS_MISSING.getErrorCode();
-    private static final String INVALID_VALUE_ERROR_CODE = ErrorTypeCode.INVALID_VALUE.getErrorCode();
-    private static final String INVALID_DATE_ERROR_CODE = ErrorTypeCode.INVALID_DATE_FORMAT.getErrorCode();
     private static final Set<String> VALID_CAB_STRING_CODES = new HashSet<>();
     private static final Set<String> VALID_CAB_NUMBER_CODES = new HashSet<>();
 
@@ -75,1080 +67,147 @@ public class MerchantFileLineValidator {
         ));
     }
 
-    // Date Formats
-    DateTimeFormatter inFmt = DateTimeFormatter.ofPattern("yyyyMMdd");
-    DateTimeFormatter outFmt = DateTimeFormatter.ofPattern("ddMMyyyy");
-
+    // Shared field rules
+    private static final FieldRule INTERMEDIARIO = FieldRule.required("Intermediario")
+            .exactLength(11).chars(CharClass.NUMERIC, "numeric");
+    private static final FieldRule CHIAVE_RAPPORTO = FieldRule.required("Chiave Rapporto")
+            .maxLength(50).chars(CharClass.CHIAVE_RAPPORTO, "^[A-Z0-9][A-Z0-9_]* *$");
+    private static final FieldRule NDG = FieldRule.required("NDG").maxLength(16);
+    private static final FieldRule TIPO_RAPPORTO_INTERNO = FieldRule.required("Tipo Rapporto Interno")
+            .exactLength(3).chars(CharClass.NUMERIC, "numeric");
+    private static final FieldRule FORMA_TECNICA = FieldRule.required("Forma Tecnica")
+            .exactLength(5).chars(CharClass.NUMERIC, "numeric");
+    private static final FieldRule DIVISA = FieldRule.required("Divisa")
+            .exactLength(3).formatEqualTo("EUR", "numeric");
+    private static final Set<String> FLAG_STATO_VALUES = Set.of(" ", "C");
+    private static final String FLAG_STATO_LABEL = "C (cancel) or space";
+    private static final Set<String> FLAG_SOGLIA_VALUES = Set.of("0", "1");
+    private static final FieldRule CONTROLLO_FIN_RIGA = FieldRule.unchecked("Controllo di Fine Riga")
+            .exactLength(1).equalTo("A");
+
+    private static final RecordRules<RapportiRecord> RAPPORTI_RULES = new RecordRules<>(
+            INTERMEDIARIO.of(RapportiRecord::getIntermediario),
+            CHIAVE_RAPPORTO.of(RapportiRecord::getChiaveRapporto),
+            TIPO_RAPPORTO_INTERNO.of(RapportiRecord::getTipoRapportoInterno),
+            FORMA_TECNICA.of(RapportiRecord::getFormaTecnica),
+            FieldRule.unchecked("Filiale").maxLength(5).of(RapportiRecord::getFiliale),
+            cab(RapportiRecord::getCab, RapportiRecord::getTipoRapportoInterno, VALID_CAB_STRING_CODES, VALID_CAB_NUMBER_CODES),
+            FieldRule.unchecked("Numero Conto").maxLength(27).of(RapportiRecord::getNumeroConto),
+            FieldRule.optional("CIN").exactLength(2).of(RapportiRecord::getCin),
+            DIVISA.of(RapportiRecord::getDivisa),
+            date("Data inizio rapporto", RapportiRecord::getDataInizioRapporto, RapportiRecord::setDataInizioRapporto),
+            // Data fine rapporto is not validated
+            FieldRule.optional("Note").maxLengthExceeds(24).of(RapportiRecord::getNote),
+            FieldRule.optional("Flag Stato Rapporto").oneOf(FLAG_STATO_VALUES, FLAG_STATO_LABEL).of(RapportiRecord::getFlagStatoRapporto),
+            date("Data predisposizione", RapportiRecord::getDataPredisposizione),
+            CONTROLLO_FIN_RIGA.of(RapportiRecord::getControlloDiFineRiga));
+
+    private static final RecordRules<SoggettiRecord> SOGGETTI_RULES = new RecordRules<>(
+            INTERMEDIARIO.of(SoggettiRecord::getIntermediario),
+            NDG.of(SoggettiRecord::getNdg),
+            date("Data censimento anagrafico", SoggettiRecord::getDataCensimentoAnagrafico),
+            // Data estinzione anagrafica and Filiale censimento anagrafico are not validated
+            FieldRule.required("Tipo Soggetto").exactLength(1)
+                    .oneOfIfLengthValid(Set.of("F", "G"), "F (fisica) or G (giuridica)").of(SoggettiRecord::getTipoSoggetto),
+            FieldRule.optional("Natura Giuridica").exactLength(5)
+                    .chars(CharClass.NUMERIC, "numeric").of(SoggettiRecord::getNaturaGiuridica),
+            FieldRule.optional("Sesso").exactLength(1)
+                    .oneOfIfLengthValid(Set.of(" ", "M", "F"), "M (maschio), F (femmina), or space").of(SoggettiRecord::getSesso),
+            FieldRule.optional("Codice fiscale").maxLength(16)
+                    .chars(CharClass.ALPHANUMERIC, "^[a-zA-Z0-9]+$").of(SoggettiRecord::getCodiceFiscale),
+            FieldRule.optional("Cognome").maxLengthExceeds(75).of(SoggettiRecord::getCognome),
+            FieldRule.optional("Nome").maxLengthExceeds(75).of(SoggettiRecord::getNome),
+            date("Data Nascita", SoggettiRecord::getDataNascita, SoggettiRecord::setDataNascita),
+            FieldRule.unchecked("Comune").maxLength(40).of(SoggettiRecord::getComune),
+            FieldRule.optional("Provincia").maxLength(2)
+                    .charsIfLengthValid(CharClass.UPPER_ALPHANUMERIC_PAIR, "^[A-Z0-9]{2}$").of(SoggettiRecord::getProvincia),
+            FieldRule.optional("Nazione").maxLengthExceeds(40).of(SoggettiRecord::getNazione),
+            date("Data predisposizione flusso", SoggettiRecord::getDataPredisposizioneFlusso),
+            CONTROLLO_FIN_RIGA.of(SoggettiRecord::getControlloDiFineRiga));
+
+    private static final Set<String> VALID_ROLES = Set.of("T", "C", "I", "D", "O", "E", "G", "A");
+
+    private static final RecordRules<CollegamentiRecord> COLLEGAMENTI_RULES = new RecordRules<>(
+            INTERMEDIARIO.of(CollegamentiRecord::getIntermediario),
+            CHIAVE_RAPPORTO.of(CollegamentiRecord::getChiaveRapporto),
+            NDG.of(CollegamentiRecord::getNdg),
+            FieldRule.required("Ruolo").exactLength(1)
+                    .oneOfIfLengthValid(VALID_ROLES, String.join(", ", VALID_ROLES)).of(CollegamentiRecord::getRuolo),
+            date("Data inizio collegamento", CollegamentiRecord::getDataInizioCollegamento),
+            // Data fine collegamento is not validated
+            FieldRule.optional("Ruolo Interno").maxLengthExceeds(3).of(CollegamentiRecord::getRuoloInterno),
+            FieldRule.optional("Flag Stato Collegamento")
+                    .oneOf(FLAG_STATO_VALUES, FLAG_STATO_LABEL).of(CollegamentiRecord::getFlagStatoCollegamento),
+            date("Data predisposizione flusso", CollegamentiRecord::getDataPredisposizioneFlusso),
+            CONTROLLO_FIN_RIGA.of(CollegamentiRecord::getControlloDiFineRiga));
+
+    private static final RecordRules<CambioNdgRecord> CAMBIO_NDG_RULES = new RecordRules<>(
+            INTERMEDIARIO.of(CambioNdgRecord::getIntermediario),
+            FieldRule.required("NDG Vecchio").maxLength(16)
+                    .chars(CharClass.WORD, "alphanumeric").of(CambioNdgRecord::getNdgVecchio),
+            FieldRule.required("NDG Nuovo").maxLength(16)
+                    .chars(CharClass.WORD, "numeric").of(CambioNdgRecord::getNdgNuovo),
+            CONTROLLO_FIN_RIGA.of(CambioNdgRecord::getControlloDiFineRiga));
+
+    private static final RecordRules<DatiContabiliRecord> DATI_CONTABILI_RULES = new RecordRules<>(
+            INTERMEDIARIO.of(DatiContabiliRecord::getIntermediario),
+            CHIAVE_RAPPORTO.of(DatiContabiliRecord::getChiaveRapporto),
+            FieldRule.required("Periodicità").equalTo("000").of(DatiContabiliRecord::getPeriodicita),
+            FieldRule.required("Progressivo Periodicità").equalTo("001").of(DatiContabiliRecord::getProgressivoPeriodicita),
+            DIVISA.of(DatiContabiliRecord::getDivisa),
+            date("Data inizio riferimento", DatiContabiliRecord::getDataInizioRiferimento),
+            date("Data fine riferimento", DatiContabiliRecord::getDataFineRiferimento),
+            FieldRule.optionalIfBlank("Importo Saldo Iniziale").exactLength(18).of(DatiContabiliRecord::getImportoSaldoIniziale),
+            FieldRule.optionalIfBlank("Importo Saldo Finale").exactLength(18).of(DatiContabiliRecord::getImportoSaldoFinale),
+            FieldRule.optionalIfBlank("Totale Operazioni Attive").maxLength(18).of(DatiContabiliRecord::getTotaleOperazioniAttive),
+            FieldRule.optionalIfBlank("Totale Operazioni Passive").maxLength(18).of(DatiContabiliRecord::getTotaleOperazioniPassive),
+            FieldRule.optionalIfBlank("Giacenza Media").exactLength(18).of(DatiContabiliRecord::getGiacenzaMedia),
+            flagSoglia("Flag Soglia Saldo Iniziale").of(DatiContabiliRecord::getFlagSogliaSaldoIniziale),
+            flagSoglia("Flag Soglia Saldo Finale").of(DatiContabiliRecord::getFlagSogliaSaldoFinale),
+            flagSoglia("Flag Soglia Operazioni Attive").of(DatiContabiliRecord::getFlagSogliaOperazioniAttive),
+            flagSoglia("Flag Soglia Operazioni Passive").of(DatiContabiliRecord::getFlagSogliaOperazioniPassive),
+            flagSoglia("Flag Soglia Giacenza Media").of(DatiContabiliRecord::getFlagSogliaGiacenzaMedia),
+            FieldRule.optionalIfBlank("Altre Informazioni").maxLength(18).of(DatiContabiliRecord::getAltreInformazioni),
+            FieldRule.optional("Flag Stato Importo").oneOf(FLAG_STATO_VALUES, FLAG_STATO_LABEL).of(DatiContabiliRecord::getFlagStatoImporto),
+            date("Data predisposizione", DatiContabiliRecord::getDataPredisposizione),
+            TIPO_RAPPORTO_INTERNO.of(DatiContabiliRecord::getTipoRapportoInterno),
+            FORMA_TECNICA.of(DatiContabiliRecord::getFormaTecnica),
+            flagSoglia("Flag Soglia Altre Informazioni").of(DatiContabiliRecord::getFlagSogliaAltreInformazioni),
+            CONTROLLO_FIN_RIGA.of(DatiContabiliRecord::getControlloDiFineRiga));
+
+    private static FieldRule flagSoglia(String fieldName) {
+        return FieldRule.optional(fieldName).oneOf(FLAG_SOGLIA_VALUES, "0 or 1");
+    }
+
+    /**
+     * Validates the record; when Data inizio rapporto is valid it is rewritten as ddMMyyyy.
+     */
     public List<ErrorRecordCause> validateRapporto(RapportiRecord record) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-
-        errors.addAll(validateIntermediario(record.getIntermediario()));
-        errors.addAll(validateChiaveRapporto(record.getChiaveRapporto()));
-        errors.addAll(validateTipoRapportoInterno(record.getTipoRapportoInterno()));
-        errors.addAll(validateFormaTecnica(record.getFormaTecnica()));
-        errors.addAll(validateFiliale(record.getFiliale()));
-        errors.addAll(validateCab(record.getCab(), record.getTipoRapportoInterno()));
-        errors.addAll(validateNumeroConto(record.getNumeroConto()));
-        errors.addAll(validateCin(record.getCin()));
-        errors.addAll(validateDivisa(record.getDivisa()));
-
-        List<ErrorRecordCause> dateErrors = validateDataInizioRapporto(record.getDataInizioRapporto());
-        errors.addAll(dateErrors);
-        if (dateErrors.isEmpty())
-            record.setDataInizioRapporto(LocalDate.parse(record.getDataInizioRapporto(), inFmt).format(outFmt));
-
-
-        errors.addAll(validateDataFineRapporto(record.getDataFineRapporto()));
-        errors.addAll(validateNote(record.getNote()));
-        errors.addAll(validateFlagStatoRapporto(record.getFlagStatoRapporto()));
-        errors.addAll(validateDataPredisposizione(record.getDataPredisposizione()));
-        errors.addAll(validateControlloFinRiga(record.getControlloDiFineRiga()));
-
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateIntermediario(String intermediario) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Intermediario";
-        int expectedLength = 11;
-
-        if (intermediario == null || intermediario.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (intermediario.length() != expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, intermediario.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!NUMERIC_REGEX.matcher(intermediario).matches()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, intermediario, "numeric"),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateChiaveRapporto(String chiaveRapporto) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Chiave Rapporto";
-        int expectedLength = 50;
-        Pattern expectedPattern = Pattern.compile("^[A-Z0-9][A-Z0-9_]* *$");
-
-        if (chiaveRapporto == null || chiaveRapporto.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (chiaveRapporto.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, chiaveRapporto.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!expectedPattern.matcher(chiaveRapporto).matches()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, chiaveRapporto, expectedPattern.pattern()),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateNdg(String ndg) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "NDG";
-        int expectedLength = 16;
-
-        if (ndg == null || ndg.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (ndg.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, ndg.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-//        if (!NUMERIC_REGEX.matcher(ndg).matches()) {
-//            errors.add(new ErrorRecordCause(
-//                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, ndg, "numeric"),
-//                    INVALID_FORMAT_ERROR_CODE));
-//        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateNdgVecchio(String ndgVecchio) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "NDG Vecchio";
-        int expectedLength = 16;
-
-        if (ndgVecchio == null || ndgVecchio.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (ndgVecchio.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, ndgVecchio.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!WORD_REGEX.matcher(ndgVecchio).matches()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, ndgVecchio, "alphanumeric"),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateNdgNuovo(String ndgNuovo) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "NDG Nuovo";
-        int expectedLength = 16;
-
-        if (ndgNuovo == null || ndgNuovo.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (ndgNuovo.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, ndgNuovo.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!WORD_REGEX.matcher(ndgNuovo).matches()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, ndgNuovo, "numeric"),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateTipoRapportoInterno(String tipoRapporto) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Tipo Rapporto Interno";
-        int expectedLength = 3;
-
-        if (tipoRapporto == null || tipoRapporto.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (tipoRapporto.length() != expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, tipoRapporto.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!NUMERIC_REGEX.matcher(tipoRapporto).matches()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, tipoRapporto, "numeric"),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateFormaTecnica(String formaTecnica) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Forma Tecnica";
-        int expectedLength = 5;
-
-        if (formaTecnica == null || formaTecnica.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (formaTecnica.length() != expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, formaTecnica.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!NUMERIC_REGEX.matcher(formaTecnica).matches()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, formaTecnica, "numeric"),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateFiliale(String filiale) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Filiale";
-        int expectedLength = 5;
-
-        if (filiale.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, filiale.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateNumeroConto(String numeroConto) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Numero Conto";
-        int expectedLength = 27;
-
-//        if (numeroConto == null || numeroConto.isEmpty()) {
-//            errors.add(new ErrorRecordCause(
-//                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-//                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-//            return errors;
-//        }
-
-        if (numeroConto.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, numeroConto.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateCin(String cin) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "CIN";
-        int expectedLength = 2;
-
-        if (cin == null || cin.isEmpty()) {
-            // CIN is optional, so return empty if null or empty
-            return errors;
-        }
-
-        if (cin.length() != expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, cin.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateDivisa(String divisa) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Divisa";
-        int expectedLength = 3;
-
-        if (divisa == null || divisa.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (divisa.length() != expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, divisa.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!"EUR".equals(divisa)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, divisa, "numeric"),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateDataInizioRapporto(String dataInizio) {
-        return validateDateField(dataInizio, "Data inizio rapporto");
-    }
-
-    private List<ErrorRecordCause> validateDataFineRapporto(String dataFine) {
-//        return validateDateField(dataFine, "Data fine rapporto");
-        return Collections.emptyList();
-    }
-
-    private List<ErrorRecordCause> validateNote(String note) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Note";
-        int expectedLength = 24;
-
-        if (note == null || note.isEmpty()) {
-            // Note is optional
-            return errors;
-        }
-
-        if (note.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format("%s exceeds maximum length %d (got %d)", fieldName, expectedLength, note.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateFlagStatoRapporto(String flagStato) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Flag Stato Rapporto";
-        Set<String> allowed = Set.of(" ", "C");
-
-        if (flagStato == null || flagStato.isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (!allowed.contains(flagStato)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_VALUE_ERROR_MSG, fieldName, flagStato, "C (cancel) or space"),
-                    INVALID_VALUE_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateDataPredisposizione(String dataPredisposizione) {
-        return validateDateField(dataPredisposizione, "Data predisposizione");
-    }
-
-    private List<ErrorRecordCause> validateDateField(String dateValue, String fieldName) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        int expectedLength = 8;
-        Pattern exepectedPattern = NUMERIC_REGEX;
-
-        if (!exepectedPattern.matcher(dateValue).matches()) {
-            String errorDescription = String.format(INVALID_FORMAT_ERROR_MSG, fieldName, dateValue, exepectedPattern.pattern());
-            errors.add(new ErrorRecordCause(errorDescription, INVALID_FORMAT_ERROR_CODE));
-        }
-        if (dateValue.length() != expectedLength) {
-            String errorDescription = String.format(MANDATORY_DATA_IS_MISSING_ERROR_MSG, fieldName, dateValue, expectedLength);
-            errors.add(new ErrorRecordCause(errorDescription, MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        DateTimeFormatter inFmt = DateTimeFormatter.ofPattern("yyyyMMdd");
-        try {
-            LocalDate date = LocalDate.parse(dateValue, inFmt);
-        } catch (DateTimeParseException e) {
-            // Se il parsing fallisce, è un errore di formato data (WRN2)
-            String errorDescription = String.format(INVALID_DATE_ERROR_MSG, fieldName, dateValue, inFmt);
-            errors.add(new ErrorRecordCause(errorDescription, INVALID_DATE_ERROR_CODE));
-        }
-        return errors;
-
-    }
-
-    private List<ErrorRecordCause> validateCab(String cab, String tipoRapporto) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "CAB";
-        Integer tipoRapportoParsed = Integer.parseInt(tipoRapporto);
-
-        Set<Integer> validTipoRapporto = new HashSet<>();
-        validTipoRapporto.add(1);
-        validTipoRapporto.add(2);
-        validTipoRapporto.add(3);
-        validTipoRapporto.add(12);
-        validTipoRapporto.add(13);
-        validTipoRapporto.add(96);
-        validTipoRapporto.add(97);
-
-        // CAB must be non-empty for specific rapport types
-        if (cab == null || cab.isEmpty()) {
-            if (validTipoRapporto.contains(tipoRapportoParsed)) {
-                errors.add(new ErrorRecordCause(
-                        String.format(MANDATORY_DATA_IS_MISSING_ERROR_MSG, fieldName, cab, 3),
-                        MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            }
-            return errors;
-        }
-
-        // If CAB is populated, validate it against ISO code tables
-        // Check if it's made of letters (ISO country codes)
-        if (cab.matches("^[A-Z]+$")) {
-            if (!VALID_CAB_STRING_CODES.contains(cab)) {
-                errors.add(new ErrorRecordCause(
-                        String.format(INVALID_VALUE_ERROR_MSG, fieldName, cab, "[ITA, AFG, ALB, ...]"),
-                        INVALID_VALUE_ERROR_CODE));
-            }
-        }
-        // Check if it's made of numbers (ISO numeric codes)
-        else if (cab.matches("^[0-9]+$")) {
-            if (!VALID_CAB_NUMBER_CODES.contains(cab)) {
-                errors.add(new ErrorRecordCause(
-                        String.format(INVALID_VALUE_ERROR_MSG, fieldName, cab, "[004, 008, 012, ...]"),
-                        INVALID_VALUE_ERROR_CODE));
-            }
-        }
-        // If it's neither all letters nor all numbers, it's invalid
-        else {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, cab, "ISO country code (letters or numbers)"),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateNumericField(String value, String fieldName, int expectedLength) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-
-        if (value == null || value.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (value.length() != expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, value.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!NUMERIC_REGEX.matcher(value).matches()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, value, "numeric"),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    public List<ErrorRecordCause> validateSoggetti(SoggettiRecord record, Set<String> map) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-
-        errors.addAll(validateIntermediario(record.getIntermediario()));
-        errors.addAll(validateNdg(record.getNdg()));
-        errors.addAll(validateDataCensimentoAnagrafico(record.getDataCensimentoAnagrafico()));
-        errors.addAll(validateDataEstinzioneAnagrafica(record.getDataEstinzioneAnagrafico()));
-        errors.addAll(validateFilialeCensimentoAnagrafico(record.getFilialeCensimentoAnagrafico()));
-        errors.addAll(validateTipoSoggetto(record.getTipoSoggetto()));
-        errors.addAll(validateNaturaGiuridica(record.getNaturaGiuridica()));
-        errors.addAll(validateSesso(record.getSesso()));
-        errors.addAll(validateCodiceFiscale(record.getCodiceFiscale()));
-        errors.addAll(validateCognome(record.getCognome()));
-        errors.addAll(validateNome(record.getNome()));
-
-        List<ErrorRecordCause> dateErrors = validateDataNascita(record.getDataNascita());
-        errors.addAll(dateErrors);
-        if (dateErrors.isEmpty())
-            record.setDataNascita(LocalDate.parse(record.getDataNascita(), inFmt).format(outFmt));
-
-        errors.addAll(validateComune(record.getComune()));
-        errors.addAll(validateProvincia(record.getProvincia()));
-        errors.addAll(validateNazione(record.getNazione()));
-        errors.addAll(validateDataPredisposizioneFlusso(record.getDataPredisposizioneFlusso()));
-        errors.addAll(validateControlloFinRiga(record.getControlloDiFineRiga()));
-
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateDataCensimentoAnagrafico(String dataCensimento) {
-        return validateDateField(dataCensimento, "Data censimento anagrafico");
-    }
-
-    private List<ErrorRecordCause> validateDataEstinzioneAnagrafica(String dataEstinzione) {
-//        return validateDateField(dataEstinzione, "Data estinzione anagrafica");
-        return Collections.emptyList();
-    }
-
-    private List<ErrorRecordCause> validateFilialeCensimentoAnagrafico(String filiale) {
-//        return validateNumericField(filiale, "Filiale censimento anagrafico", 5);
-        return Collections.emptyList();
-    }
-
-    private List<ErrorRecordCause> validateTipoSoggetto(String tipoSoggetto) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Tipo Soggetto";
-        Set<String> allowed = Set.of("F", "G");
-
-        if (tipoSoggetto == null || tipoSoggetto.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (tipoSoggetto.length() != 1) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, 1, tipoSoggetto.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        } else if (!allowed.contains(tipoSoggetto)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_VALUE_ERROR_MSG, fieldName, tipoSoggetto, "F (fisica) or G (giuridica)"),
-                    INVALID_VALUE_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateNaturaGiuridica(String naturaGiuridica) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Natura Giuridica";
-        int expectedLength = 5;
-
-        if (naturaGiuridica == null || naturaGiuridica.isEmpty()) {
-            // Optional field for persone fisiche
-            return errors;
-        }
-
-        if (naturaGiuridica.length() != expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, naturaGiuridica.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!NUMERIC_REGEX.matcher(naturaGiuridica).matches()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, naturaGiuridica, "numeric"),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateSesso(String sesso) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Sesso";
-        Set<String> allowed = Set.of(" ", "M", "F");
-
-        if (sesso == null || sesso.isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (sesso.length() != 1) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, 1, sesso.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        } else if (!allowed.contains(sesso)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_VALUE_ERROR_MSG, fieldName, sesso, "M (maschio), F (femmina), or space"),
-                    INVALID_VALUE_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateCognome(String cognome) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Cognome";
-        int expectedLength = 75;
-
-        if (cognome == null || cognome.isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (cognome.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format("%s exceeds maximum length %d (got %d)", fieldName, expectedLength, cognome.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateNome(String nome) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Nome";
-        int expectedLength = 75;
-
-        if (nome == null || nome.isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (nome.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format("%s exceeds maximum length %d (got %d)", fieldName, expectedLength, nome.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateDataNascita(String dataNascita) {
-        return validateDateField(dataNascita, "Data Nascita");
-    }
-
-    private List<ErrorRecordCause> validateComune(String comune) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Comune";
-        int expectedLength = 40;
-
-//        if (comune == null || comune.isEmpty()) {
-//            errors.add(new ErrorRecordCause(
-//                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-//                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-//            return errors;
-//        }
-
-        if (comune.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, comune.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateProvincia(String provincia) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Provincia";
-        int expectedLength = 2;
-
-//        if (provincia == null || provincia.isEmpty()) {
-//            errors.add(new ErrorRecordCause(
-//                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-//                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-//            return errors;
-//        }
-
-        if (provincia.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        if (provincia.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, provincia.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        } else if (!Pattern.matches("^[A-Z0-9]{2}$", provincia)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, provincia, "^[A-Z0-9]{2}$"),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateNazione(String nazione) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Nazione";
-        int expectedLength = 40;
-
-        if (nazione == null || nazione.isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (nazione.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format("%s exceeds maximum length %d (got %d)", fieldName, expectedLength, nazione.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateDataPredisposizioneFlusso(String dataPredisposizione) {
-        return validateDateField(dataPredisposizione, "Data predisposizione flusso");
-    }
-
-
-    private List<ErrorRecordCause> validateRuolo(String ruolo) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Ruolo";
-        Set<String> validRoles = Set.of("T", "C", "I", "D", "O", "E", "G", "A");
-
-        if (ruolo == null || ruolo.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (ruolo.length() != 1) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, 1, ruolo.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        } else if (!validRoles.contains(ruolo)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_VALUE_ERROR_MSG, fieldName, ruolo, String.join(", ", validRoles)),
-                    INVALID_VALUE_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateDataInizioCollegamento(String dataInizio) {
-        return validateDateField(dataInizio, "Data inizio collegamento");
-    }
-
-    private List<ErrorRecordCause> validateDataFineCollegamento(String dataFine) {
-//        return validateDateField(dataFine, "Data fine collegamento");
-        return Collections.emptyList();
-    }
-
-    private List<ErrorRecordCause> validateRuoloInterno(String ruoloInterno) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Ruolo Interno";
-        int expectedLength = 3;
-
-        if (ruoloInterno == null || ruoloInterno.isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (ruoloInterno.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format("%s exceeds maximum length %d (got %d)", fieldName, expectedLength, ruoloInterno.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateFlagStatoCollegamento(String flagStato) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Flag Stato Collegamento";
-        Set<String> allowed = Set.of(" ", "C");
-
-        if (flagStato == null || flagStato.isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (!allowed.contains(flagStato)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_VALUE_ERROR_MSG, fieldName, flagStato, "C (cancel) or space"),
-                    INVALID_VALUE_ERROR_CODE));
-        }
-        return errors;
+        return RAPPORTI_RULES.validate(record);
     }
 
-
-    private List<ErrorRecordCause> validateCodiceFiscale(String value) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Codice fiscale";
-        int expectedLength = 16;
-        Pattern expectedPattern = Pattern.compile("^[a-zA-Z0-9]+$");
-//        if (value == null || value.isEmpty()) {
-//            errors.add(new ErrorRecordCause(
-//                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-//                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-//            return errors;
-//        }
-
-        if (value.isEmpty()) return Collections.emptyList();
-
-        if (value.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, value.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!expectedPattern.matcher(value).matches()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, value, expectedPattern.pattern()),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
+    /**
+     * Validates the record; when Data Nascita is valid it is rewritten as ddMMyyyy.
+     */
+    public List<ErrorRecordCause> validateSoggetti(SoggettiRecord record) {
+        return SOGGETTI_RULES.validate(record);
     }
 
-
-    public List<ErrorRecordCause> validateCollegamenti(CollegamentiRecord record, Set<String> map) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-
-        errors.addAll(validateIntermediario(record.getIntermediario()));
-        errors.addAll(validateChiaveRapporto(record.getChiaveRapporto()));
-        errors.addAll(validateNdg(record.getNdg()));
-        errors.addAll(validateRuolo(record.getRuolo()));
-        errors.addAll(validateDataInizioCollegamento(record.getDataInizioCollegamento()));
-        errors.addAll(validateDataFineCollegamento(record.getDataFineCollegamento()));
-        errors.addAll(validateRuoloInterno(record.getRuoloInterno()));
-        errors.addAll(validateFlagStatoCollegamento(record.getFlagStatoCollegamento()));
-        errors.addAll(validateDataPredisposizioneFlusso(record.getDataPredisposizioneFlusso()));
-        errors.addAll(validateControlloFinRiga(record.getControlloDiFineRiga()));
-
-        return errors;
+    public List<ErrorRecordCause> validateCollegamenti(CollegamentiRecord record) {
+        return COLLEGAMENTI_RULES.validate(record);
     }
 
-    public List<ErrorRecordCause> validateCambioNdg(CambioNdgRecord record, Set<String> map) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-
-        errors.addAll(validateIntermediario(record.getIntermediario()));
-        errors.addAll(validateNdgVecchio(record.getNdgVecchio()));
-        errors.addAll(validateNdgNuovo(record.getNdgNuovo()));
-        errors.addAll(validateControlloFinRiga(record.getControlloDiFineRiga()));
-
-        return errors;
+    public List<ErrorRecordCause> validateCambioNdg(CambioNdgRecord record) {
+        return CAMBIO_NDG_RULES.validate(record);
     }
 
-    public List<ErrorRecordCause> validateDatiContabili(DatiContabiliRecord record, Set<String> map) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-
-        errors.addAll(validateIntermediario(record.getIntermediario()));
-        errors.addAll(validateChiaveRapporto(record.getChiaveRapporto()));
-        errors.addAll(validatePeriodicita(record.getPeriodicita()));
-        errors.addAll(validateProgressivoPeriodicita(record.getProgressivoPeriodicita()));
-        errors.addAll(validateDivisa(record.getDivisa()));
-        errors.addAll(validateDataInizioRiferimento(record.getDataInizioRiferimento()));
-        errors.addAll(validateDataFineRiferimento(record.getDataFineRiferimento()));
-        errors.addAll(validateImportoSaldoIniziale(record.getImportoSaldoIniziale()));
-        errors.addAll(validateImportoSaldoFinale(record.getImportoSaldoFinale()));
-        errors.addAll(validateTotaleOperazioniAttive(record.getTotaleOperazioniAttive()));
-        errors.addAll(validateTotaleOperazioniPassive(record.getTotaleOperazioniPassive()));
-        errors.addAll(validateGiacenzaMedia(record.getGiacenzaMedia()));
-        errors.addAll(validateFlagSogliaPerField(record.getFlagSogliaSaldoIniziale(), "Flag Soglia Saldo Iniziale"));
-        errors.addAll(validateFlagSogliaPerField(record.getFlagSogliaSaldoFinale(), "Flag Soglia Saldo Finale"));
-        errors.addAll(validateFlagSogliaPerField(record.getFlagSogliaOperazioniAttive(), "Flag Soglia Operazioni Attive"));
-        errors.addAll(validateFlagSogliaPerField(record.getFlagSogliaOperazioniPassive(), "Flag Soglia Operazioni Passive"));
-        errors.addAll(validateFlagSogliaPerField(record.getFlagSogliaGiacenzaMedia(), "Flag Soglia Giacenza Media"));
-        errors.addAll(validateAltreInformazioni(record.getAltreInformazioni()));
-        errors.addAll(validateFlagStatoImporto(record.getFlagStatoImporto()));
-        errors.addAll(validateDataPredisposizione(record.getDataPredisposizione()));
-        errors.addAll(validateTipoRapportoInterno(record.getTipoRapportoInterno()));
-        errors.addAll(validateFormaTecnica(record.getFormaTecnica()));
-        errors.addAll(validateFlagSogliaPerField(record.getFlagSogliaAltreInformazioni(), "Flag Soglia Altre Informazioni"));
-        errors.addAll(validateControlloFinRiga(record.getControlloDiFineRiga()));
-
-        return errors;
+    public List<ErrorRecordCause> validateDatiContabili(DatiContabiliRecord record) {
+        return DATI_CONTABILI_RULES.validate(record);
     }
 
-
-    private List<ErrorRecordCause> validatePeriodicita(String periodicita) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Periodicità";
-        String expectedValue = "000";
-
-        if (periodicita == null || periodicita.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (!expectedValue.equals(periodicita)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_VALUE_ERROR_MSG, fieldName, periodicita, expectedValue),
-                    INVALID_VALUE_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateProgressivoPeriodicita(String progressivo) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Progressivo Periodicità";
-        String expectedValue = "001";
-
-        if (progressivo == null || progressivo.isEmpty()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-            return errors;
-        }
-
-        if (!expectedValue.equals(progressivo)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_VALUE_ERROR_MSG, fieldName, progressivo, expectedValue),
-                    INVALID_VALUE_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateDataInizioRiferimento(String dataInizio) {
-        return validateDateField(dataInizio, "Data inizio riferimento");
-    }
-
-    private List<ErrorRecordCause> validateDataFineRiferimento(String dataFine) {
-        return validateDateField(dataFine, "Data fine riferimento");
-    }
-
-    private List<ErrorRecordCause> validateImportoSaldoIniziale(String importo) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Importo Saldo Iniziale";
-        int expectedLength = 18;
-
-        if (importo == null || importo.isEmpty() || importo.trim().isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (importo.length() != expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, importo.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateImportoSaldoFinale(String importo) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Importo Saldo Finale";
-        int expectedLength = 18;
-
-        if (importo == null || importo.isEmpty() || importo.trim().isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (importo.length() != expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, importo.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateTotaleOperazioniAttive(String totale) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Totale Operazioni Attive";
-        int expectedLength = 18;
-
-        if (totale == null || totale.isEmpty() || totale.trim().isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (totale.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, totale.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateTotaleOperazioniPassive(String totale) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Totale Operazioni Passive";
-        int expectedLength = 18;
-
-        if (totale == null || totale.isEmpty() || totale.trim().isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (totale.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, totale.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateGiacenzaMedia(String giacenza) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Giacenza Media";
-        int expectedLength = 18;
-
-        if (giacenza == null || giacenza.isEmpty() || giacenza.trim().isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (giacenza.length() != expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, giacenza.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateFlagSogliaPerField(String flag, String fieldName) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        Set<String> allowed = Set.of("0", "1");
-
-        if (flag == null || flag.isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (!allowed.contains(flag)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_VALUE_ERROR_MSG, fieldName, flag, "0 or 1"),
-                    INVALID_VALUE_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateAltreInformazioni(String altreInfo) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Altre Informazioni";
-        int expectedLength = 18;
-
-        if (altreInfo == null || altreInfo.isEmpty() || altreInfo.trim().isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (altreInfo.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, altreInfo.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateFlagStatoImporto(String flagStato) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Flag Stato Importo";
-        Set<String> allowed = Set.of(" ", "C");
-
-        if (flagStato == null || flagStato.isEmpty()) {
-            // Optional field
-            return errors;
-        }
-
-        if (!allowed.contains(flagStato)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_VALUE_ERROR_MSG, fieldName, flagStato, "C (cancel) or space"),
-                    INVALID_VALUE_ERROR_CODE));
-        }
-        return errors;
-    }
-
-
-    private List<ErrorRecordCause> validateNaturaValuta(String value) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Natura Valuta";
-        int expectedLength = 2;
-
-
-//        if (value == null || value.isEmpty()) {
-//            errors.add(new ErrorRecordCause(
-//                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-//                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-//            return errors;
-//        }
-
-        if (value.length() > expectedLength) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, expectedLength, value.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!NUMERIC_REGEX.matcher(value).matches()) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_FORMAT_ERROR_MSG, fieldName, value, "numeric"),
-                    INVALID_FORMAT_ERROR_CODE));
-        }
-        return errors;
-    }
-
-    private List<ErrorRecordCause> validateControlloFinRiga(String controlloDiFineRiga) {
-        List<ErrorRecordCause> errors = new ArrayList<>();
-        String fieldName = "Controllo di Fine Riga";
-        String expectedValue = "A";
-
-//        if (controlloDiFineRiga == null || controlloDiFineRiga.isEmpty()) {
-//            errors.add(new ErrorRecordCause(
-//                    String.format(NULL_VALUE_ERROR_MSG, fieldName),
-//                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-//            return errors;
-//        }
-
-        if (controlloDiFineRiga.length() != 1) {
-            errors.add(new ErrorRecordCause(
-                    String.format(LENGTH_MISMATCH_ERROR_MSG, fieldName, 1, controlloDiFineRiga.length()),
-                    MANDATORY_DATA_IS_MISSING_ERROR_CODE));
-        }
-
-        if (!expectedValue.equals(controlloDiFineRiga)) {
-            errors.add(new ErrorRecordCause(
-                    String.format(INVALID_VALUE_ERROR_MSG, fieldName, controlloDiFineRiga, expectedValue),
-                    INVALID_VALUE_ERROR_CODE));
-        }
-        return errors;
-    }
-
-
     public void validateHeader(String first, String ingestionType) throws ValidationException {
         String ingestionTypeMsg = getHeaderOrFooterMsgInit(ingestionType);
         List<String> errors = new ArrayList<>();
-        DateTimeFormatter inFmt = DateTimeFormatter.ofPattern("yyyyMMdd");
 
         if (first.length() < 250) {
             errors.add(String.format("%s Header line is too short: expected 250 characters but got %d",
@@ -1163,7 +222,7 @@ public class MerchantFileLineValidator {
             String startDateStr = first.substring(1, 9).trim();
             if (!startDateStr.isEmpty()) {
                 try {
-                    LocalDate.parse(startDateStr, inFmt);
+                    LocalDate.parse(startDateStr, IN_DATE_FORMAT);
                 } catch (DateTimeParseException e) {
                     errors.add(String.format("%s Header start date: '%s' is not a valid yyyyMMdd date",
                             ingestionTypeMsg, startDateStr));
@@ -1173,7 +232,7 @@ public class MerchantFileLineValidator {
             String endDateStr = first.substring(9, 17).trim();
             if (!endDateStr.isEmpty()) {
                 try {
-                    LocalDate.parse(endDateStr, inFmt);
+                    LocalDate.parse(endDateStr, IN_DATE_FORMAT);
                 } catch (DateTimeParseException e) {
                     errors.add(String.format("%s Header end date: '%s' is not a valid yyyyMMdd date",
                             ingestionTypeMsg, endDateStr));
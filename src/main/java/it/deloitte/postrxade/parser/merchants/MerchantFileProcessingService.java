@@ -708,10 +708,11 @@ public class MerchantFileProcessingService {
             NotFoundRecordException {
         SoggettiRecord record = parser.parseSoggettiLine(line);
         log.debug("Processing soggetti record {}", record);
-        List<ErrorRecordCause> errorCauses = validator.validateSoggetti(record, fileLevelMerchants);
+        List<ErrorRecordCause> errorCauses = validator.validateSoggetti(record);
         String soggettiRecordKey = record.getIntermediario()
                 + "_" + record.getNdg() + "_" + submission.getId();
         if (fileLevelMerchants.contains(soggettiRecordKey)) {
+            errorCauses = new ArrayList<>(errorCauses);
             errorCauses.add(
                     new ErrorRecordCause("Soggetti already exists in the same file", ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())
             );
@@ -742,6 +743,7 @@ public class MerchantFileProcessingService {
         List<ErrorRecordCause> errorCauses = validator.validateRapporto(record);
         String rapportiRecordKey = record.getIntermediario() + "_" + record.getChiaveRapporto();
         if (fileLevelMerchants.contains(rapportiRecordKey)) {
+            errorCauses = new ArrayList<>(errorCauses);
             errorCauses.add(
                     new ErrorRecordCause("Rapporto already exists in the same file", ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())
             );
@@ -767,10 +769,11 @@ public class MerchantFileProcessingService {
             Set<String> fileLevelMerchants) throws NotFoundRecordException {
         DatiContabiliRecord record = parser.parseDatiContabiliLine(line);
         log.debug("Processing dati contabili record {}", record);
-        List<ErrorRecordCause> errorCauses = validator.validateDatiContabili(record, fileLevelMerchants);
+        List<ErrorRecordCause> errorCauses = validator.validateDatiContabili(record);
 
         String datiContabiliRecordKey = record.getIntermediario() + "_" + record.getChiaveRapporto() + "_" + submission.getId();
         if (fileLevelMerchants.contains(datiContabiliRecordKey)) {
+            errorCauses = new ArrayList<>(errorCauses);
             errorCauses.add(
                     new ErrorRecordCause("Dati Contabili already exists in the same file", ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())
             );
@@ -796,9 +799,10 @@ public class MerchantFileProcessingService {
             Set<String> fileLevelMerchants) throws NotFoundRecordException {
         it.deloitte.postrxade.parser.merchants.types.CollegamentiRecord record = parser.parseCollegamentiLine(line);
         log.debug("Processing collegamenti record {}", record);
-        List<ErrorRecordCause> errorCauses = validator.validateCollegamenti(record, fileLevelMerchants);
+        List<ErrorRecordCause> errorCauses = validator.validateCollegamenti(record);
         String collegamentiRecordKey = record.getIntermediario() + "_" + record.getChiaveRapporto() + "_" + record.getNdg();
         if (fileLevelMerchants.contains(collegamentiRecordKey)) {
+            errorCauses = new ArrayList<>(errorCauses);
             errorCauses.add(
                     new ErrorRecordCause("Collegamento already exists in the same file", ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())
             );
@@ -824,9 +828,10 @@ public class MerchantFileProcessingService {
             Set<String> fileLevelMerchants) throws NotFoundRecordException {
         it.deloitte.postrxade.parser.merchants.types.CambioNdgRecord record = parser.parseCambioNdgLine(line);
         log.debug("Processing cambio ndg record {}", record);
-        List<ErrorRecordCause> errorCauses = validator.validateCambioNdg(record, fileLevelMerchants);
+        List<ErrorRecordCause> errorCauses = validator.validateCambioNdg(record);
         String cambioNdgRecordKey = record.getIntermediario() + "_" + record.getNdgVecchio() + "_" + record.getNdgVecchio() + "_" + submission.getId();
         if (fileLevelMerchants.contains(cambioNdgRecordKey)) {
+            errorCauses = new ArrayList<>(errorCauses);
             errorCauses.add(
                     new ErrorRecordCause("CambioNdg already exists in the same file", ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())
             );
@@ -0,0 +1,476 @@
+package it.deloitte.postrxade.parser.merchants;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import it.deloitte.postrxade.enums.ErrorTypeCode;
+import it.deloitte.postrxade.records.ErrorRecordCause;
+
+/**
+ * Building blocks of the declarative rule tables used by {@link MerchantFileLineValidator}.
+ * <p>
+ * A record type is described once as an ordered list of {@link FieldRule}s (plus the few
+ * cross-field checks such as CAB) and compiled into a {@link RecordRules} array. Checks are plain
+ * character loops instead of regular expressions; the error list is only created on the first
+ * failure and messages are formatted only for failing fields, so a valid row allocates nothing.
+ */
+final class MerchantValidationRules {
+
+    // Error Messages
+    static final String INVALID_FORMAT_ERROR_MSG = "%s '%s' does not match expected format '%s'";
+    static final String NULL_VALUE_ERROR_MSG = "%s cannot be null or empty";
+    static final String LENGTH_MISMATCH_ERROR_MSG = "%s expected length %d but got %d";
+    static final String EXCEEDS_MAX_LENGTH_ERROR_MSG = "%s exceeds maximum length %d (got %d)";
+    static final String INVALID_VALUE_ERROR_MSG = "%s '%s' does not match expected value [ %s ]";
+    static final String MANDATORY_DATA_IS_MISSING_ERROR_MSG = "%s '%s' does not match expected length (%d)";
+    static final String INVALID_DATE_ERROR_MSG = "%s '%s' does not match expected date format [ %s ]";
+
+    // Error Codes
+    static final String INVALID_FORMAT_ERROR_CODE = ErrorTypeCode.INVALID_FORMAT.getErrorCode();
+    static final String MANDATORY_DATA_IS_MISSING_ERROR_CODE = ErrorTypeCode.MANDATORY_DATA_IS_MISSING.getErrorCode();
+    static final String INVALID_VALUE_ERROR_CODE = ErrorTypeCode.INVALID_VALUE.getErrorCode();
+    static final String INVALID_DATE_ERROR_CODE = ErrorTypeCode.INVALID_DATE_FORMAT.getErrorCode();
+
+    // Date Formats
+    static final DateTimeFormatter IN_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    static final DateTimeFormatter OUT_DATE_FORMAT = DateTimeFormatter.ofPattern("ddMMyyyy");
+
+    private MerchantValidationRules() {
+    }
+
+    /**
+     * One compiled check. Returns {@code errors} unchanged when the record passes, otherwise the
+     * list with the new causes appended ({@code errors} may be null until the first failure).
+     */
+    @FunctionalInterface
+    interface RecordCheck<R> {
+        List<ErrorRecordCause> check(R record, List<ErrorRecordCause> errors);
+    }
+
+    /**
+     * Flat, ordered rule table for one record type.
+     */
+    static final class RecordRules<R> {
+
+        private final RecordCheck<R>[] checks;
+
+        @SafeVarargs
+        RecordRules(RecordCheck<R>... checks) {
+            this.checks = checks.clone();
+        }
+
+        /**
+         * @return the causes in table order, or an immutable empty list when the record is valid
+         */
+        List<ErrorRecordCause> validate(R record) {
+            List<ErrorRecordCause> errors = null;
+            for (RecordCheck<R> check : checks) {
+                errors = check.check(record, errors);
+            }
+            return errors == null ? List.of() : errors;
+        }
+    }
+
+    /**
+     * Character classes replacing the regular expressions of the original validator.
+     */
+    enum CharClass {
+        /** {@code ^[0-9]+$} */
+        NUMERIC,
+        /** {@code ^[a-zA-Z0-9]+$} */
+        ALPHANUMERIC,
+        /** {@code ^\w+$} */
+        WORD,
+        /** {@code ^[A-Z]+$} */
+        UPPER_LETTERS,
+        /** {@code ^[A-Z0-9]{2}$} */
+        UPPER_ALPHANUMERIC_PAIR,
+        /** {@code ^[A-Z0-9][A-Z0-9_]* *$} */
+        CHIAVE_RAPPORTO;
+
+        boolean matches(String value) {
+            int length = value.length();
+            switch (this) {
+                case UPPER_ALPHANUMERIC_PAIR:
+                    return length == 2 && isUpperOrDigit(value.charAt(0)) && isUpperOrDigit(value.charAt(1));
+                case CHIAVE_RAPPORTO:
+                    if (length == 0 || !isUpperOrDigit(value.charAt(0))) {
+                        return false;
+                    }
+                    int i = 1;
+                    while (i < length && (isUpperOrDigit(value.charAt(i)) || value.charAt(i) == '_')) {
+                        i++;
+                    }
+                    while (i < length && value.charAt(i) == ' ') {
+                        i++;
+                    }
+                    return i == length;
+                default:
+                    if (length == 0) {
+                        return false;
+                    }
+                    for (int j = 0; j < length; j++) {
+                        if (!accepts(value.charAt(j))) {
+                            return false;
+                        }
+                    }
+                    return true;
+            }
+        }
+
+        private boolean accepts(char c) {
+            return switch (this) {
+                case NUMERIC -> isDigit(c);
+                case ALPHANUMERIC -> isDigit(c) || isUpper(c) || (c >= 'a' && c <= 'z');
+                case WORD -> isDigit(c) || isUpper(c) || (c >= 'a' && c <= 'z') || c == '_';
+                case UPPER_LETTERS -> isUpper(c);
+                default -> throw new IllegalStateException("Not a repeated class: " + this);
+            };
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isUpper(char c) {
+            return c >= 'A' && c <= 'Z';
+        }
+
+        private static boolean isUpperOrDigit(char c) {
+            return isDigit(c) || isUpper(c);
+        }
+    }
+
+    private enum Presence {
+        /** Null or empty is an error and stops the field checks */
+        REQUIRED,
+        /** Null or empty is valid */
+        OPTIONAL,
+        /** Null, empty or whitespace-only is valid */
+        OPTIONAL_BLANK,
+        /** No presence check: the remaining checks always run */
+        UNCHECKED
+    }
+
+    private enum LengthCheck {
+        NONE, EXACT, MAX
+    }
+
+    /**
+     * Immutable single-field rule: presence, then length, then content (character class or
+     * allowed values). Built fluently, e.g.
+     * {@code FieldRule.required("Intermediario").exactLength(11).chars(CharClass.NUMERIC, "numeric")}.
+     */
+    static final class FieldRule {
+
+        private final String fieldName;
+        private final Presence presence;
+        private final LengthCheck lengthCheck;
+        private final int length;
+        private final String lengthMessage;
+        private final CharClass charClass;
+        private final Set<String> allowedValues;
+        private final String contentLabel;
+        private final String contentMessage;
+        private final String contentCode;
+        private final boolean contentOnlyIfLengthValid;
+
+        private FieldRule(String fieldName, Presence presence, LengthCheck lengthCheck, int length, String lengthMessage,
+                          CharClass charClass, Set<String> allowedValues, String contentLabel, String contentMessage,
+                          String contentCode, boolean contentOnlyIfLengthValid) {
+            this.fieldName = fieldName;
+            this.presence = presence;
+            this.lengthCheck = lengthCheck;
+            this.length = length;
+            this.lengthMessage = lengthMessage;
+            this.charClass = charClass;
+            this.allowedValues = allowedValues;
+            this.contentLabel = contentLabel;
+            this.contentMessage = contentMessage;
+            this.contentCode = contentCode;
+            this.contentOnlyIfLengthValid = contentOnlyIfLengthValid;
+        }
+
+        private static FieldRule create(String fieldName, Presence presence) {
+            return new FieldRule(fieldName, presence, LengthCheck.NONE, 0, null, null, null, null, null, null, false);
+        }
+
+        static FieldRule required(String fieldName) {
+            return create(fieldName, Presence.REQUIRED);
+        }
+
+        static FieldRule optional(String fieldName) {
+            return create(fieldName, Presence.OPTIONAL);
+        }
+
+        static FieldRule optionalIfBlank(String fieldName) {
+            return create(fieldName, Presence.OPTIONAL_BLANK);
+        }
+
+        static FieldRule unchecked(String fieldName) {
+            return create(fieldName, Presence.UNCHECKED);
+        }
+
+        FieldRule exactLength(int expected) {
+            return withLength(LengthCheck.EXACT, expected, LENGTH_MISMATCH_ERROR_MSG);
+        }
+
+        FieldRule maxLength(int max) {
+            return withLength(LengthCheck.MAX, max, LENGTH_MISMATCH_ERROR_MSG);
+        }
+
+        /**
+         * Same as {@link #maxLength(int)} with the "exceeds maximum length" wording.
+         */
+        FieldRule maxLengthExceeds(int max) {
+            return withLength(LengthCheck.MAX, max, EXCEEDS_MAX_LENGTH_ERROR_MSG);
+        }
+
+        /**
+         * Character class check, reported as INVALID_FORMAT with {@code label} as expected format.
+         */
+        FieldRule chars(CharClass expected, String label) {
+            return withContent(expected, null, label, INVALID_FORMAT_ERROR_MSG, INVALID_FORMAT_ERROR_CODE, false);
+        }
+
+        /**
+         * Like {@link #chars} but only checked when the length is valid.
+         */
+        FieldRule charsIfLengthValid(CharClass expected, String label) {
+            return withContent(expected, null, label, INVALID_FORMAT_ERROR_MSG, INVALID_FORMAT_ERROR_CODE, true);
+        }
+
+        /**
+         * Allowed values check, reported as INVALID_VALUE with {@code label} as expected value.
+         */
+        FieldRule oneOf(Set<String> allowed, String label) {
+            return withContent(null, allowed, label, INVALID_VALUE_ERROR_MSG, INVALID_VALUE_ERROR_CODE, false);
+        }
+
+        /**
+         * Like {@link #oneOf} but only checked when the length is valid.
+         */
+        FieldRule oneOfIfLengthValid(Set<String> allowed, String label) {
+            return withContent(null, allowed, label, INVALID_VALUE_ERROR_MSG, INVALID_VALUE_ERROR_CODE, true);
+        }
+
+        FieldRule equalTo(String expected) {
+            return oneOf(Set.of(expected), expected);
+        }
+
+        /**
+         * Equality check reported as INVALID_FORMAT (Divisa).
+         */
+        FieldRule formatEqualTo(String expected, String label) {
+            return withContent(null, Set.of(expected), label, INVALID_FORMAT_ERROR_MSG, INVALID_FORMAT_ERROR_CODE, false);
+        }
+
+        <R> RecordCheck<R> of(Function<R, String> getter) {
+            return (record, errors) -> check(getter.apply(record), errors);
+        }
+
+        private FieldRule withLength(LengthCheck check, int expected, String message) {
+            return new FieldRule(fieldName, presence, check, expected, message, charClass, allowedValues, contentLabel,
+                    contentMessage, contentCode, contentOnlyIfLengthValid);
+        }
+
+        private FieldRule withContent(CharClass chars, Set<String> allowed, String label, String message, String code,
+                                      boolean onlyIfLengthValid) {
+            return new FieldRule(fieldName, presence, lengthCheck, length, lengthMessage, chars, allowed, label,
+                    message, code, onlyIfLengthValid);
+        }
+
+        List<ErrorRecordCause> check(String value, List<ErrorRecordCause> errors) {
+            String v = value == null ? "" : value;
+            switch (presence) {
+                case REQUIRED -> {
+                    if (v.isEmpty()) {
+                        return add(errors, String.format(NULL_VALUE_ERROR_MSG, fieldName), MANDATORY_DATA_IS_MISSING_ERROR_CODE);
+                    }
+                }
+                case OPTIONAL -> {
+                    if (v.isEmpty()) {
+                        return errors;
+                    }
+                }
+                case OPTIONAL_BLANK -> {
+                    if (isBlank(v)) {
+                        return errors;
+                    }
+                }
+                case UNCHECKED -> {
+                }
+            }
+
+            boolean lengthValid = switch (lengthCheck) {
+                case NONE -> true;
+                case EXACT -> v.length() == length;
+                case MAX -> v.length() <= length;
+            };
+            if (!lengthValid) {
+                errors = add(errors, String.format(lengthMessage, fieldName, length, v.length()),
+                        MANDATORY_DATA_IS_MISSING_ERROR_CODE);
+            }
+
+            if (contentCode != null && (lengthValid || !contentOnlyIfLengthValid) && !contentMatches(v)) {
+                errors = add(errors, String.format(contentMessage, fieldName, v, contentLabel), contentCode);
+            }
+            return errors;
+        }
+
+        private boolean contentMatches(String v) {
+            return charClass != null ? charClass.matches(v) : allowedValues.contains(v);
+        }
+
+        // Same definition of whitespace as String.trim()
+        private static boolean isBlank(String v) {
+            for (int i = 0; i < v.length(); i++) {
+                if (v.charAt(i) > ' ') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * yyyyMMdd date check: numeric, then length 8, then calendar validity. Each failure is
+     * reported independently, as before.
+     */
+    static <R> RecordCheck<R> date(String fieldName, Function<R, String> getter) {
+        return date(fieldName, getter, null);
+    }
+
+    /**
+     * Same as {@link #date(String, Function)}; when the date is valid it is rewritten as ddMMyyyy
+     * through {@code setter}.
+     */
+    static <R> RecordCheck<R> date(String fieldName, Function<R, String> getter, BiConsumer<R, String> setter) {
+        return (record, errors) -> {
+            String value = getter.apply(record);
+            String v = value == null ? "" : value;
+            boolean numeric = CharClass.NUMERIC.matches(v);
+            boolean valid = true;
+            if (!numeric) {
+                valid = false;
+                errors = add(errors, String.format(INVALID_FORMAT_ERROR_MSG, fieldName, v, "^[0-9]+$"), INVALID_FORMAT_ERROR_CODE);
+            }
+            if (v.length() != 8) {
+                valid = false;
+                errors = add(errors, String.format(MANDATORY_DATA_IS_MISSING_ERROR_MSG, fieldName, v, 8),
+                        MANDATORY_DATA_IS_MISSING_ERROR_CODE);
+            }
+            if (!(numeric && v.length() == 8 && isCalendarDate(v)) && !parses(v)) {
+                valid = false;
+                errors = add(errors, String.format(INVALID_DATE_ERROR_MSG, fieldName, v, IN_DATE_FORMAT), INVALID_DATE_ERROR_CODE);
+            }
+            if (valid && setter != null) {
+                setter.accept(record, toOutputFormat(v));
+            }
+            return errors;
+        };
+    }
+
+    /**
+     * CAB: mandatory only for some Tipo Rapporto Interno values; when present it must be an ISO
+     * country code, alphabetic or numeric.
+     */
+    static <R> RecordCheck<R> cab(Function<R, String> cabGetter, Function<R, String> tipoRapportoGetter,
+                                  Set<String> validStringCodes, Set<String> validNumberCodes) {
+        String fieldName = "CAB";
+        return (record, errors) -> {
+            String cab = cabGetter.apply(record);
+            // Not guarded on purpose: a non-numeric Tipo Rapporto Interno turns the line into a parse error
+            int tipoRapporto = Integer.parseInt(tipoRapportoGetter.apply(record));
+
+            if (cab == null || cab.isEmpty()) {
+                if (isCabMandatory(tipoRapporto)) {
+                    return add(errors, String.format(MANDATORY_DATA_IS_MISSING_ERROR_MSG, fieldName, cab, 3),
+                            MANDATORY_DATA_IS_MISSING_ERROR_CODE);
+                }
+                return errors;
+            }
+
+            if (CharClass.UPPER_LETTERS.matches(cab)) {
+                if (!validStringCodes.contains(cab)) {
+                    errors = add(errors, String.format(INVALID_VALUE_ERROR_MSG, fieldName, cab, "[ITA, AFG, ALB, ...]"),
+                            INVALID_VALUE_ERROR_CODE);
+                }
+            } else if (CharClass.NUMERIC.matches(cab)) {
+                if (!validNumberCodes.contains(cab)) {
+                    errors = add(errors, String.format(INVALID_VALUE_ERROR_MSG, fieldName, cab, "[004, 008, 012, ...]"),
+                            INVALID_VALUE_ERROR_CODE);
+                }
+            } else {
+                errors = add(errors, String.format(INVALID_FORMAT_ERROR_MSG, fieldName, cab, "ISO country code (letters or numbers)"),
+                        INVALID_FORMAT_ERROR_CODE);
+            }
+            return errors;
+        };
+    }
+
+    private static boolean isCabMandatory(int tipoRapporto) {
+        return switch (tipoRapporto) {
+            case 1, 2, 3, 12, 13, 96, 97 -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Fast path for 8 ASCII digits: a real calendar date is always accepted by
+     * {@link #IN_DATE_FORMAT}, anything else is left to {@link #parses(String)}.
+     */
+    private static boolean isCalendarDate(String v) {
+        int year = digits(v, 0, 4);
+        int month = digits(v, 4, 6);
+        int day = digits(v, 6, 8);
+        if (year < 1 || month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        return day <= switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean parses(String v) {
+        try {
+            LocalDate.parse(v, IN_DATE_FORMAT);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static String toOutputFormat(String v) {
+        if (v.length() == 8 && isCalendarDate(v)) {
+            char[] out = {v.charAt(6), v.charAt(7), v.charAt(4), v.charAt(5),
+                    v.charAt(0), v.charAt(1), v.charAt(2), v.charAt(3)};
+            return new String(out);
+        }
+        return LocalDate.parse(v, IN_DATE_FORMAT).format(OUT_DATE_FORMAT);
+    }
+
+    private static int digits(String v, int from, int to) {
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            n = n * 10 + (v.charAt(i) - '0');
+        }
+        return n;
+    }
+
+    private static List<ErrorRecordCause> add(List<ErrorRecordCause> errors, String description, String code) {
+        if (errors == null) {
+            errors = new ArrayList<>(4);
+        }
+        errors.add(new ErrorRecordCause(description, code));
+        return errors;
+    }
+}
@@ -9,6 +9,5 @@ public class CambioNdgRecord {
     String intermediario;
     String ndgVecchio;
     String ndgNuovo;
-    String filler;
     String controlloDiFineRiga;
 }
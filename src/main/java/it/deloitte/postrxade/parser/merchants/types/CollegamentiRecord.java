@@ -15,6 +15,5 @@ public class CollegamentiRecord {
      String ruoloInterno;
      String flagStatoCollegamento;
      String dataPredisposizioneFlusso;
-     String filler;
      String controlloDiFineRiga;
 }
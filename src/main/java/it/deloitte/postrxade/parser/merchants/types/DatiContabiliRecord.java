@@ -27,11 +27,8 @@ public class DatiContabiliRecord {
     String altreInformazioni;
     String flagStatoImporto;
     String dataPredisposizione;
-    String filler1;
     String tipoRapportoInterno;
     String formaTecnica;
-    String filler2;
     String flagSogliaAltreInformazioni;
-    String filler3;
     String controlloDiFineRiga;
 }
@@ -20,6 +20,5 @@ public class RapportiRecord {
     String note;
     String flagStatoRapporto;
     String dataPredisposizione;
-    String filler;
     String controlloDiFineRiga;
 }
@@ -10,7 +10,6 @@ public class SoggettiRecord {
     String ndg;
     String dataCensimentoAnagrafico;
     String dataEstinzioneAnagrafico;
-    String filler1;
     String filialeCensimentoAnagrafico;
     String tipoSoggetto;
     String naturaGiuridica;
@@ -22,8 +21,6 @@ public class SoggettiRecord {
     String comune;
     String provincia;
     String nazione;
-    String filler2;
     String dataPredisposizioneFlusso;
-    String filler3;
     String controlloDiFineRiga;
 }
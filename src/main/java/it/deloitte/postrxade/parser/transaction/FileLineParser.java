@@ -1,24 +1,22 @@
 package it.deloitte.postrxade.parser.transaction;
 
+import it.deloitte.postrxade.parser.FixedWidthLine;
 import it.deloitte.postrxade.records.RawRecordSlice;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 public class FileLineParser {
+    // Input dates are yyyyMMdd, stored as ddMMyyyy (formatters are immutable and thread-safe)
+    private static final DateTimeFormatter IN_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter OUT_DATE_FORMAT = DateTimeFormatter.ofPattern("ddMMyyyy");
+
+    // One String per non-blank field: trimmed by offsets, then copied once
     private String sliceString(String line, RawRecordSlice s) {
-        if (line == null || line.length() <= s.start()) {
-            return "";
-        }
-        int end = Math.min(line.length(), s.end());
-        return line.substring(s.start(), end).trim();
+        return FixedWidthLine.field(line, s);
     }
     private String parseDate(String line, RawRecordSlice s) {
-        String input = sliceString(line, s);
-        DateTimeFormatter inFmt = DateTimeFormatter.ofPattern("yyyyMMdd");
-        DateTimeFormatter outFmt = DateTimeFormatter.ofPattern("ddMMyyyy");
-
-        return LocalDate.parse(input, inFmt).format(outFmt);
+        return LocalDate.parse(FixedWidthLine.view(line, s), IN_DATE_FORMAT).format(OUT_DATE_FORMAT);
     }
 
     public TransactionRecord parseTransaction(String line) {
@@ -40,7 +38,6 @@ public class FileLineParser {
         trRec.setNumeroOperazioniGiorno(sliceString(line, TransactionSliceLayout.NUMERO_OPERAZIONI_GIORNO));
         trRec.setStatoOperazioni(sliceString(line, TransactionSliceLayout.STATO_OPERAZIONI));
         trRec.setDataPredisposizioneFlusso(sliceString(line, TransactionSliceLayout.DATA_PREDISPOSIZIONE_FLUSSO));
-        trRec.setFiller(sliceString(line, TransactionSliceLayout.FILLER));
         trRec.setCarattereDiControllo(sliceString(line, TransactionSliceLayout.CARATTERE_DI_CONTROLLO));
 
         return trRec;
@@ -58,7 +55,6 @@ public class FileLineParser {
         merRec.setPartitaIva(sliceString(line, MerchantSliceLayout.PARTITA_IVA));
         merRec.setIdSalmov(sliceString(line, MerchantSliceLayout.ID_SALMOV));
         merRec.setCodiceFiscaleEsercente(sliceString(line, MerchantSliceLayout.CODICE_FISCALE_ESERCENTE));
-        merRec.setFiller(sliceString(line, MerchantSliceLayout.FILLER));
         merRec.setCarattereDiControllo(sliceString(line, MerchantSliceLayout.CARATTERE_DI_CONTROLLO));
 
         return merRec;
@@ -17,6 +17,5 @@ public class MerchantRecord {
     String tipoSoggetto;
     String denominazione;
     String dataDiPredisposizioneFlusso;
-    String filler;
     String carattereDiControllo;
 }
@@ -23,6 +23,5 @@ public class TransactionRecord {
     String numeroOperazioniGiorno;
     String statoOperazioni;
     String dataPredisposizioneFlusso;
-    String filler;
     String carattereDiControllo;
 }
@@ -0,0 +1,29 @@
+package it.deloitte.postrxade.records;
+
+/**
+ * Flat projection of a Collegamenti row with the Rapporti and Soggetti columns used by the
+ * output file sections 1 and 2.
+ * <p>
+ * {@code hasRapporto} / {@code hasSoggetto} tell whether the LEFT JOINed child exists, since its
+ * columns may legitimately be null.
+ */
+public record CollegamentiOutputRow(
+        long pkCollegamenti,
+        String chiaveRapporto,
+        String ruolo,
+        boolean hasRapporto,
+        String tipoRapportoInterno,
+        String note,
+        String dataInizioRapporto,
+        String cab,
+        boolean hasSoggetto,
+        String codiceFiscale,
+        String tipoSoggetto,
+        String cognome,
+        String nome,
+        String sesso,
+        String dataNascita,
+        String comune,
+        String provincia
+) {
+}
@@ -0,0 +1,25 @@
+package it.deloitte.postrxade.records;
+
+/**
+ * One group of the dashboard aggregation: the rows of an ingestion counted in one source table,
+ * and for error causes in one severity level.
+ */
+public record IngestionCountRow(
+        Long ingestionId,
+        String source,
+        Integer severityLevel,
+        long count
+) {
+    /**
+     * Rows promoted to the MERCHANT_* table of the ingestion type.
+     */
+    public static final String SOURCE_ACCEPTED = "accepted";
+    /**
+     * Rejected rows (ERROR_RECORD).
+     */
+    public static final String SOURCE_ERROR_RECORD = "errorRecord";
+    /**
+     * Validation findings (ERROR_CAUSE), grouped by severity level.
+     */
+    public static final String SOURCE_ERROR_CAUSE = "errorCause";
+}
@@ -0,0 +1,28 @@
+package it.deloitte.postrxade.records;
+
+/**
+ * Row counts of one ingestion, or summed over several.
+ */
+public record IngestionCounts(
+        long acceptedCount,
+        long errorRecordCount,
+        long warningCount,
+        long errorCount
+) {
+    public static final IngestionCounts EMPTY = new IngestionCounts(0, 0, 0, 0);
+
+    public IngestionCounts plus(IngestionCounts other) {
+        return new IngestionCounts(
+                acceptedCount + other.acceptedCount,
+                errorRecordCount + other.errorRecordCount,
+                warningCount + other.warningCount,
+                errorCount + other.errorCount);
+    }
+
+    /**
+     * Accepted plus rejected rows, i.e. the records received.
+     */
+    public long receivedCount() {
+        return acceptedCount + errorRecordCount;
+    }
+}
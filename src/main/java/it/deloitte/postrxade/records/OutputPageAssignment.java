@@ -0,0 +1,12 @@
+package it.deloitte.postrxade.records;
+
+/**
+ * Rows assigned to one output file (fk_output) by a set-based page assignment, per table.
+ */
+public record OutputPageAssignment(
+        int collegamenti,
+        int soggetti,
+        int rapporti,
+        int datiContabili
+) {
+}
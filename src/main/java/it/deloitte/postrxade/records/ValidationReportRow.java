@@ -0,0 +1,17 @@
+package it.deloitte.postrxade.records;
+
+import java.time.LocalDateTime;
+
+/**
+ * One error cause of the validation report, with the error record and ingestion it belongs to.
+ */
+public record ValidationReportRow(
+        long errorCauseId,
+        String rawRow,
+        Integer severityLevel,
+        String errorName,
+        String errorDescription,
+        LocalDateTime ingestedAt,
+        String ingestionType
+) {
+}
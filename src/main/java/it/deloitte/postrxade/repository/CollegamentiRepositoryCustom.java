@@ -2,10 +2,13 @@ package it.deloitte.postrxade.repository;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import it.deloitte.postrxade.entity.Collegamenti;
 import it.deloitte.postrxade.entity.Submission;
+import it.deloitte.postrxade.records.CollegamentiOutputRow;
 import it.deloitte.postrxade.records.MerchantOutputData;
+import it.deloitte.postrxade.records.OutputPageAssignment;
 
 public interface CollegamentiRepositoryCustom {
     void bulkInsert(List<Collegamenti> collegamenti, Submission submission);
@@ -36,6 +39,24 @@ public interface CollegamentiRepositoryCustom {
 
     List<Long> findCollegamentiIdsBySubmissionIdAndNullOutput(Long submissionId, int rowsPerPage);
 
+    /**
+     * Highest pk_collegamenti among the next {@code rowsPerPage} Collegamenti of the submission without output,
+     * i.e. the upper bound of the pk range making up the next output file.
+     *
+     * @return the upper bound, or null when every Collegamenti already has an output
+     */
+    Long findNextOutputPageUpperBound(Long submissionId, int rowsPerPage);
+
+    /**
+     * Assign the output to the Collegamenti of the submission without output up to {@code upperPk} (inclusive),
+     * then to their Soggetti (by ndg), Rapporti and DatiContabili (by chiave_rapporto):
+     * one statement per table, the children being matched through an UPDATE ... JOIN on the Collegamenti
+     * just assigned. Runs in the caller's transaction.
+     *
+     * @return rows assigned per table
+     */
+    OutputPageAssignment assignOutputPage(Long submissionId, Long outputId, long upperPk);
+
     /**
      * Fetch Collegamenti with all children (Rapporti, Soggetti, DatiContabili) using JOINs.
      * This method is optimized for output generation to avoid N+1 queries.
@@ -47,6 +68,20 @@ public interface CollegamentiRepositoryCustom {
      */
     List<Collegamenti> findCollegamentiWithChildrenByOutputId(Long submissionId, Long outputId, int limit);
 
+    /**
+     * Forward-only variant of {@link #findCollegamentiWithChildrenByOutputId(Long, Long, int)} for output generation.
+     * Rows are read lazily in keyset pages of {@code pageSize} Collegamenti (pk_collegamenti ascending) and mapped
+     * straight to flat records, so only one page is held in memory at a time.
+     * The stream must be consumed inside the caller's transaction and should be closed after use.
+     *
+     * @param submissionId The submission ID
+     * @param outputId The output ID to filter by
+     * @param limit Maximum number of rows to return, as in the list variant
+     * @param pageSize Number of Collegamenti fetched per query
+     * @return Rows in pk_collegamenti order
+     */
+    Stream<CollegamentiOutputRow> streamCollegamentiOutputRows(Long submissionId, Long outputId, int limit, int pageSize);
+
     /**
      * Fetch NDG and chiave_rapporto for given Collegamenti IDs.
      * Returns List<Object[]> where each array contains [ndg, chiave_rapporto].
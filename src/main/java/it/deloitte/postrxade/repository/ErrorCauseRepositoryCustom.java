@@ -2,6 +2,7 @@ package it.deloitte.postrxade.repository;
 
 import it.deloitte.postrxade.dto.ErrorTypeCountDTO;
 import it.deloitte.postrxade.entity.ErrorCause;
+import it.deloitte.postrxade.records.ValidationReportRow;
 
 import java.util.List;
 
@@ -22,4 +23,12 @@ public interface ErrorCauseRepositoryCustom {
     List<ErrorTypeCountDTO> findErrorTypeCountsBySubmissionIdAndSeverityNative(Long submissionId, Integer severity);
 
     List<ErrorTypeCountDTO> findErrorTypeCountsBySubmissionIdAndSeverityAndIngestionType(Long submissionId, Integer severity, String ingestionTypeName);
+
+    long countBySubmissionIdNative(Long submissionId);
+
+    /**
+     * Next page of the validation report of a submission, by keyset over pk_error_cause:
+     * a bounded query per page instead of one result set holding every cause.
+     */
+    List<ValidationReportRow> findReportRowsBySubmissionId(Long submissionId, long afterErrorCauseId, int limit);
 }
\ No newline at end of file
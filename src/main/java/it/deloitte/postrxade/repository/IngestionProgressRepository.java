@@ -0,0 +1,71 @@
+package it.deloitte.postrxade.repository;
+
+import it.deloitte.postrxade.entity.IngestionProgress;
+import it.deloitte.postrxade.enums.IngestionPhaseEnum;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for IngestionProgress entity.
+ */
+@Repository
+public interface IngestionProgressRepository extends JpaRepository<IngestionProgress, Long> {
+
+    Optional<IngestionProgress> findFirstBySubmission_IdAndRecordTypeAndFileKey(
+            Long submissionId,
+            String recordType,
+            String fileKey
+    );
+
+    Optional<IngestionProgress> findFirstByIngestion_Id(Long ingestionId);
+
+    @Query("""
+            SELECT MAX(p.updatedAt)
+            FROM IngestionProgress p
+            WHERE p.submission.id = :submissionId
+            """)
+    Optional<LocalDateTime> findLastUpdateBySubmissionId(@Param("submissionId") Long submissionId);
+
+    /**
+     * Record the lines committed so far. Runs in the caller's transaction, so the checkpoint
+     * commits together with the staging rows and error records it covers.
+     */
+    @Modifying
+    @Query("""
+            UPDATE IngestionProgress p
+            SET p.linesCommitted = :linesCommitted, p.rowsStaged = :rowsStaged,
+                p.errorCount = :errorCount, p.updatedAt = :updatedAt
+            WHERE p.id = :id
+            """)
+    int updateCheckpoint(@Param("id") Long id,
+                         @Param("linesCommitted") long linesCommitted,
+                         @Param("rowsStaged") long rowsStaged,
+                         @Param("errorCount") long errorCount,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE IngestionProgress p
+            SET p.phase = :phase, p.updatedAt = :updatedAt
+            WHERE p.id = :id
+            """)
+    int updatePhase(@Param("id") Long id,
+                    @Param("phase") IngestionPhaseEnum phase,
+                    @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            DELETE FROM IngestionProgress p
+            WHERE p.submission.id = :submissionId
+            """)
+    int deleteBySubmissionId(@Param("submissionId") Long submissionId);
+}
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,7 +18,7 @@ import java.util.Optional;
  * Repository for Ingestion entity.
  */
 @Repository
-public interface IngestionRepository extends JpaRepository<Ingestion, Long> {
+public interface IngestionRepository extends JpaRepository<Ingestion, Long>, IngestionRepositoryCustom {
 
     /**
      * Find all ingestions ordered by ingestion date (most recent first).
@@ -41,6 +42,14 @@ public interface IngestionRepository extends JpaRepository<Ingestion, Long> {
      */
     List<Ingestion> findBySubmission_Id(Long submissionId);
 
+    /**
+     * Find the ingestions of several submissions.
+     *
+     * @param submissionIds the submission IDs
+     * @return List of ingestions for the given submissions
+     */
+    List<Ingestion> findBySubmission_IdIn(Collection<Long> submissionIds);
+
     @Query("""
                 SELECT i
                 FROM Ingestion i
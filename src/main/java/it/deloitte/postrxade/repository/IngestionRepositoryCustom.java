@@ -0,0 +1,18 @@
+package it.deloitte.postrxade.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import it.deloitte.postrxade.records.IngestionCountRow;
+
+public interface IngestionRepositoryCustom {
+
+    /**
+     * Accepted rows, error records and error causes by severity of the given ingestions,
+     * in a single grouped query (GROUP BY ingestion, source, severity).
+     *
+     * @param ingestionIds merchant ingestions (soggetti, rapporti, dati contabili, collegamenti, cambio ndg)
+     * @return one row per non-empty group
+     */
+    List<IngestionCountRow> aggregateCountsByIngestion(Collection<Long> ingestionIds);
+}
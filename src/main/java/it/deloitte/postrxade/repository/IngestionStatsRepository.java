@@ -0,0 +1,29 @@
+package it.deloitte.postrxade.repository;
+
+import it.deloitte.postrxade.entity.IngestionStats;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for IngestionStats entity.
+ */
+@Repository
+public interface IngestionStatsRepository extends JpaRepository<IngestionStats, Long> {
+
+    List<IngestionStats> findByIngestion_IdIn(Collection<Long> ingestionIds);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            DELETE FROM IngestionStats s
+            WHERE s.submission.id = :submissionId
+            """)
+    int deleteBySubmissionId(@Param("submissionId") Long submissionId);
+}
@@ -3,6 +3,7 @@ package it.deloitte.postrxade.repository;
 import java.util.List;
 
 import it.deloitte.postrxade.entity.Soggetti;
+import it.deloitte.postrxade.enums.StagingErrorSourceEnum;
 import it.deloitte.postrxade.records.StagingResult;
 
 /**
@@ -12,7 +13,14 @@ import it.deloitte.postrxade.records.StagingResult;
 public interface StagingRepository {
 
     /**
-     * Clear all staging data for a submission.
+     * Create the per-submission partition of every STG_* table.
+     * Must be called before loading, outside any transaction (partition DDL commits implicitly).
+     */
+    void prepareStaging(Long submissionId);
+
+    /**
+     * Clear all staging data for a submission by dropping its partition
+     * (DELETE on tables not yet partitioned). Must be called outside any transaction.
      */
     void clearStaging(Long submissionId);
 
@@ -156,105 +164,6 @@ public interface StagingRepository {
 //     */
 //    List<String> getMissingMerchantTransactionRawRows(Long submissionId);
 
-    /**
-     * Get detailed info for duplicate merchants (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getDuplicateSoggettiDetails(Long submissionId);
-
-    /**
-     * Get detailed info for duplicate merchants (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getDuplicateRapportiDetails(Long submissionId);
-
-    /**
-     * Get detailed info for duplicate merchants (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getDuplicateDatiContabiliDetails(Long submissionId);
-
-    /**
-     * Get detailed info for duplicate merchants (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getDuplicateCollegamentiDetails(Long submissionId);
-
-    /**
-     * Get detailed info for collegamenti with missing reference (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getMissingReferenceCollegamentiDetails(Long submissionId);
-
-    /**
-     * Get detailed info for soggetti with missing Collegamenti parent (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getMissingSoggettiCollegamentiDetails(Long submissionId);
-
-    /**
-     * Get detailed info for rapporti with missing Collegamenti parent (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getMissingRapportiCollegamentiDetails(Long submissionId);
-
-    /**
-     * Get detailed info for dati contabili with missing Collegamenti parent (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getMissingDatiContabiliCollegamentiDetails(Long submissionId);
-
-    /**
-     * Get detailed info for duplicate merchants (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getDuplicateCambioNdgDetails(Long submissionId);
-
-//    /**
-//     * Get detailed info for duplicate transactions (for ErrorRecord creation).
-//     * Returns: raw_row, error_message
-//     *
-//     * @param submissionId the submission ID
-//     * @return list of Object[] with [raw_row, error_message]
-//     */
-//    List<Object[]> getDuplicateTransactionDetails(Long submissionId);
-
-//    /**
-//     * Get detailed info for transactions with missing merchants (for ErrorRecord creation).
-//     * Returns: raw_row, error_message
-//     *
-//     * @param submissionId the submission ID
-//     * @return list of Object[] with [raw_row, error_message]
-//     */
-//    List<Object[]> getMissingMerchantTransactionDetails(Long submissionId);
-
     /**
      * Validate and mark orphan Collegamenti in staging (missing Soggetti OR Rapporti children).
      * Marks records with process_status = 4 (orphan).
@@ -286,29 +195,23 @@ public interface StagingRepository {
     int validateOrphanRapportiInStaging(Long submissionId);
 
     /**
-     * Get detailed info for orphan Collegamenti in staging (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getOrphanCollegamentiDetails(Long submissionId);
-
-    /**
-     * Get detailed info for orphan Soggetti in staging (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getOrphanSoggettiDetails(Long submissionId);
-
-    /**
-     * Get detailed info for orphan Rapporti in staging (for ErrorRecord creation).
-     * Returns: raw_row, error_message
-     *
-     * @param submissionId the submission ID
-     * @return list of Object[] with [raw_row, error_message]
-     */
-    List<Object[]> getOrphanRapportiDetails(Long submissionId);
+     * Create one ERROR_RECORD and one ERROR_CAUSE per flagged staging row with INSERT ... SELECT,
+     * without reading the rows into the application. Each record keeps its staging row in
+     * stg_table/fk_stg_row, which pairs it with its cause. Rows that already have a record of the
+     * ingestion are skipped, so a resumed run can repeat the call without reporting a row twice.
+     * The cause message is the staging error_message ({@code defaultMessage} when null) and its
+     * ErrorType is resolved by {@code errorCode}.
+     * Fails with IllegalStateException, rolling back the caller's transaction, when there are flagged
+     * rows but no ErrorType with that code, or when a new record cannot be paired with its staging row.
+     *
+     * @param source          staging table and process_status of the rows
+     * @param ingestionId     the ingestion ID
+     * @param submissionId    the submission ID
+     * @param errorCode       ErrorType code of the causes
+     * @param defaultMessage  cause message for rows without error_message
+     * @param rawRowMaxLength raw_row is cut to this length, null to keep it as staged
+     * @return count of ERROR_RECORD rows created
+     */
+    int insertErrorRecordsFromStaging(StagingErrorSourceEnum source, Long ingestionId, Long submissionId,
+                                      String errorCode, String defaultMessage, Integer rawRowMaxLength);
 }
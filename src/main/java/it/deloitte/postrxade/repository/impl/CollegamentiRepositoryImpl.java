@@ -1,7 +1,9 @@
 package it.deloitte.postrxade.repository.impl;
 
 import it.deloitte.postrxade.entity.*;
+import it.deloitte.postrxade.records.CollegamentiOutputRow;
 import it.deloitte.postrxade.records.MerchantOutputData;
+import it.deloitte.postrxade.records.OutputPageAssignment;
 import it.deloitte.postrxade.repository.CollegamentiRepositoryCustom;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -12,6 +14,8 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Repository
 public class CollegamentiRepositoryImpl implements CollegamentiRepositoryCustom {
@@ -108,6 +112,62 @@ public class CollegamentiRepositoryImpl implements CollegamentiRepositoryCustom
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Long findNextOutputPageUpperBound(Long submissionId, int rowsPerPage) {
+        String nativeSql = "SELECT MAX(page.pk) FROM (" +
+                "SELECT mc.pk_collegamenti AS pk " +
+                "FROM MERCHANT_COLLEGAMENTI mc " +
+                "WHERE mc.fk_submission = :submissionId " +
+                "AND mc.fk_output IS NULL " +
+                "ORDER BY mc.pk_collegamenti ASC " +
+                "LIMIT :limit) page";
+
+        Object upperBound = entityManager.createNativeQuery(nativeSql)
+                .setParameter("submissionId", submissionId)
+                .setParameter("limit", rowsPerPage)
+                .getSingleResult();
+        return upperBound instanceof Number ? ((Number) upperBound).longValue() : null;
+    }
+
+    @Override
+    public OutputPageAssignment assignOutputPage(Long submissionId, Long outputId, long upperPk) {
+        int collegamenti = entityManager.createNativeQuery(
+                        "UPDATE MERCHANT_COLLEGAMENTI " +
+                                "SET fk_output = :outputId " +
+                                "WHERE fk_submission = :submissionId " +
+                                "AND fk_output IS NULL " +
+                                "AND pk_collegamenti <= :upperPk")
+                .setParameter("outputId", outputId)
+                .setParameter("submissionId", submissionId)
+                .setParameter("upperPk", upperPk)
+                .executeUpdate();
+
+        // The Collegamenti key is intermediario + chiave_rapporto + ndg, so a child row may join several
+        // Collegamenti of the page, or of different pages. MySQL updates a multi-table UPDATE target row once
+        // whatever the number of matches, and a later page overwrites the output: the last page wins, as with
+        // the former IN lists
+        int soggetti = assignChildrenToOutput("MERCHANT_SOGGETTI", "ndg", submissionId, outputId);
+        int rapporti = assignChildrenToOutput("MERCHANT_RAPPORTI", "chiave_rapporto", submissionId, outputId);
+        int datiContabili = assignChildrenToOutput("MERCHANT_DATI_CONTABILI", "chiave_rapporto", submissionId, outputId);
+
+        return new OutputPageAssignment(collegamenti, soggetti, rapporti, datiContabili);
+    }
+
+    private int assignChildrenToOutput(String childTable, String joinColumn, Long submissionId, Long outputId) {
+        String nativeSql = "UPDATE " + childTable + " child " +
+                "JOIN MERCHANT_COLLEGAMENTI mc " +
+                "ON mc." + joinColumn + " = child." + joinColumn + " " +
+                "AND mc.fk_submission = child.fk_submission " +
+                "SET child.fk_output = :outputId " +
+                "WHERE mc.fk_submission = :submissionId " +
+                "AND mc.fk_output = :outputId";
+
+        return entityManager.createNativeQuery(nativeSql)
+                .setParameter("outputId", outputId)
+                .setParameter("submissionId", submissionId)
+                .executeUpdate();
+    }
+
     @Override
     public List<MerchantOutputData> findCollegamentiDetailsBySubmissionId(Long submissionId, int limit) {
         String nativeSql = "SELECT mc.ruolo, " +
@@ -398,7 +458,135 @@ public class CollegamentiRepositoryImpl implements CollegamentiRepositoryCustom
 
         return collegamentiList;
     }
-    
+
+    @Override
+    public Stream<CollegamentiOutputRow> streamCollegamentiOutputRows(Long submissionId, Long outputId, int limit, int pageSize) {
+        Iterator<CollegamentiOutputRow> pages = new OutputRowPageIterator(submissionId, outputId, limit, Math.max(1, pageSize));
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Reads one keyset page of output rows: the page of Collegamenti after {@code :lastId} is selected first
+     * (so children multiplying a Collegamenti never straddle two pages), then joined with its children.
+     * DatiContabili is still joined, without reading its columns, so a Collegamenti gets the same number of
+     * rows as in findCollegamentiWithChildrenByOutputId.
+     */
+    private List<CollegamentiOutputRow> findOutputRowPage(Long submissionId, Long outputId, long lastId, int pageSize) {
+        String nativeSql = """
+            SELECT
+                c.pk_collegamenti, c.chiave_rapporto, c.ruolo,
+                r.pk_rapporti, r.tipo_rapporto_interno, r.note, r.data_inizio_rapporto, r.cab,
+                s.pk_soggetti, s.codice_fiscale, s.tipo_soggetto, s.cognome, s.nome, s.sesso,
+                s.data_nascita, s.comune, s.provincia
+            FROM (
+                SELECT pk_collegamenti, fk_submission, chiave_rapporto, ndg, ruolo
+                FROM MERCHANT_COLLEGAMENTI
+                WHERE fk_submission = :submissionId
+                  AND fk_output = :outputId
+                  AND pk_collegamenti > :lastId
+                ORDER BY pk_collegamenti ASC
+                LIMIT :pageSize
+            ) c
+            LEFT JOIN MERCHANT_RAPPORTI r
+                ON c.chiave_rapporto = r.chiave_rapporto
+                AND c.fk_submission = r.fk_submission
+                AND r.fk_output = :outputId
+            LEFT JOIN MERCHANT_SOGGETTI s
+                ON c.ndg = s.ndg
+                AND c.fk_submission = s.fk_submission
+                AND s.fk_output = :outputId
+            LEFT JOIN MERCHANT_DATI_CONTABILI d
+                ON c.chiave_rapporto = d.chiave_rapporto
+                AND c.fk_submission = d.fk_submission
+                AND d.fk_output = :outputId
+            ORDER BY c.pk_collegamenti ASC
+            """;
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> results = entityManager.createNativeQuery(nativeSql)
+                .setParameter("submissionId", submissionId)
+                .setParameter("outputId", outputId)
+                .setParameter("lastId", lastId)
+                .setParameter("pageSize", pageSize)
+                .getResultList();
+
+        List<CollegamentiOutputRow> rows = new ArrayList<>(results.size());
+        for (Object[] row : results) {
+            rows.add(new CollegamentiOutputRow(
+                    getLong(row[0]),
+                    getString(row[1]),
+                    getString(row[2]),
+                    row[3] != null,
+                    getString(row[4]),
+                    getString(row[5]),
+                    getString(row[6]),
+                    getString(row[7]),
+                    row[8] != null,
+                    getString(row[9]),
+                    getString(row[10]),
+                    getString(row[11]),
+                    getString(row[12]),
+                    getString(row[13]),
+                    getString(row[14]),
+                    getString(row[15]),
+                    getString(row[16])));
+        }
+        return rows;
+    }
+
+    /**
+     * Walks the output rows page by page, fetching the next page only when the current one is consumed.
+     */
+    private final class OutputRowPageIterator implements Iterator<CollegamentiOutputRow> {
+
+        private final Long submissionId;
+        private final Long outputId;
+        private final int pageSize;
+        private int remaining;
+        private long lastId;
+        private Iterator<CollegamentiOutputRow> page = Collections.emptyIterator();
+        private boolean lastPage;
+
+        OutputRowPageIterator(Long submissionId, Long outputId, int limit, int pageSize) {
+            this.submissionId = submissionId;
+            this.outputId = outputId;
+            this.pageSize = pageSize;
+            this.remaining = limit;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (remaining <= 0) {
+                return false;
+            }
+            while (!page.hasNext()) {
+                if (lastPage) {
+                    return false;
+                }
+                List<CollegamentiOutputRow> rows = findOutputRowPage(submissionId, outputId, lastId, pageSize);
+                if (rows.isEmpty()) {
+                    lastPage = true;
+                    return false;
+                }
+                lastId = rows.get(rows.size() - 1).pkCollegamenti();
+                // Fewer rows than Collegamenti requested: nothing left after this page
+                lastPage = rows.size() < pageSize;
+                page = rows.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public CollegamentiOutputRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            return page.next();
+        }
+    }
+
     // Helper methods for safe type conversion
     private Long getLong(Object value) {
         return value != null ? ((Number) value).longValue() : null;
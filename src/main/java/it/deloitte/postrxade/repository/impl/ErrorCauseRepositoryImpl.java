@@ -2,6 +2,7 @@ package it.deloitte.postrxade.repository.impl;
 
 import it.deloitte.postrxade.dto.ErrorTypeCountDTO;
 import it.deloitte.postrxade.entity.ErrorCause;
+import it.deloitte.postrxade.records.ValidationReportRow;
 import it.deloitte.postrxade.repository.ErrorCauseRepositoryCustom;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -9,6 +10,8 @@ import jakarta.persistence.Query;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Slf4j
@@ -236,5 +239,66 @@ public class ErrorCauseRepositoryImpl implements ErrorCauseRepositoryCustom {
         return dtos;
     }
 
-}
 
+    @Override
+    @Transactional(readOnly = true, timeout = 180)
+    public long countBySubmissionIdNative(Long submissionId) {
+        Object result = entityManager.createNativeQuery(
+                        "SELECT COUNT(*) FROM ERROR_CAUSE WHERE fk_submission = :submissionId")
+                .setParameter("submissionId", submissionId)
+                .getSingleResult();
+        return result instanceof Number ? ((Number) result).longValue() : 0L;
+    }
+
+    @Override
+    @Transactional(readOnly = true, timeout = 180)
+    public List<ValidationReportRow> findReportRowsBySubmissionId(Long submissionId, long afterErrorCauseId, int limit) {
+        String nativeSql = """
+            SELECT
+                ec.pk_error_cause,
+                er.raw_row,
+                et.serverity_level,
+                et.name,
+                et.description,
+                i.ingested_at,
+                it.name
+            FROM ERROR_CAUSE ec
+            INNER JOIN ERROR_RECORD er ON ec.fk_error_record = er.pk_error_record
+            INNER JOIN ERROR_TYPE et ON ec.fk_error_type = et.pk_error_type
+            LEFT JOIN INGESTION i ON er.fk_ingestion = i.pk_ingestion
+            LEFT JOIN INGESTION_TYPE it ON i.fk_ingestion_type = it.pk_ingestion_type
+            WHERE ec.fk_submission = :submissionId
+              AND ec.pk_error_cause > :afterErrorCauseId
+            ORDER BY ec.pk_error_cause
+            LIMIT :limit
+            """;
+
+        Query query = entityManager.createNativeQuery(nativeSql);
+        query.setParameter("submissionId", submissionId);
+        query.setParameter("afterErrorCauseId", afterErrorCauseId);
+        query.setParameter("limit", limit);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> results = query.getResultList();
+
+        List<ValidationReportRow> rows = new ArrayList<>(results.size());
+        for (Object[] row : results) {
+            rows.add(new ValidationReportRow(
+                    ((Number) row[0]).longValue(),
+                    (String) row[1],
+                    row[2] != null ? ((Number) row[2]).intValue() : null,
+                    (String) row[3],
+                    (String) row[4],
+                    toLocalDateTime(row[5]),
+                    (String) row[6]));
+        }
+        return rows;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,131 @@
+package it.deloitte.postrxade.repository.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import it.deloitte.postrxade.entity.ErrorCause;
+import it.deloitte.postrxade.entity.ErrorRecord;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JDBC batched writer for ERROR_RECORD and its ERROR_CAUSE rows.
+ *
+ * <p>ERROR_RECORD rows are inserted with one batched {@link PreparedStatement} and their
+ * primary keys are read back from {@link Statement#getGeneratedKeys()} in insert order, so the
+ * ERROR_CAUSE rows can be bound in the same pass without looking the records up again by
+ * raw_row (which is unindexed and ambiguous when two identical lines fail).</p>
+ *
+ * <p>The connection is obtained through {@link DataSourceUtils} and joins the caller's Spring
+ * transaction, like {@link StagingJdbcBatchWriter}.</p>
+ */
+@Component
+@Slf4j
+public class ErrorRecordJdbcWriter {
+
+    private static final String INSERT_RECORD_SQL =
+            "INSERT INTO ERROR_RECORD (fk_ingestion, fk_submission, raw_row, created_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
+
+    private static final String INSERT_CAUSE_SQL =
+            "INSERT INTO ERROR_CAUSE (fk_error_record, fk_error_type, fk_submission, error_message) VALUES (?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+
+    public ErrorRecordJdbcWriter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Inserts the records and returns their generated ids, {@code ids[i]} belonging to
+     * {@code records.get(i)}.
+     *
+     * @return the ids
+     * @throws IllegalStateException when the driver did not return one key per row: the causes could
+     *                               not be attached to their records
+     */
+    long[] insertRecords(List<ErrorRecord> records) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_RECORD_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (ErrorRecord record : records) {
+                setNullableLong(ps, 1, record.getIngestion() != null ? record.getIngestion().getId() : null);
+                setNullableLong(ps, 2, record.getSubmission() != null ? record.getSubmission().getId() : null);
+                ps.setString(3, record.getRawRow());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+
+            long[] ids = new long[records.size()];
+            int count = 0;
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                while (keys.next()) {
+                    if (count == ids.length) {
+                        count++;
+                        break;
+                    }
+                    ids[count++] = keys.getLong(1);
+                }
+            }
+            if (count != ids.length) {
+                throw new IllegalStateException("ERROR_RECORD batch of " + ids.length + " rows returned "
+                        + (count > ids.length ? "more" : String.valueOf(count)) + " generated keys");
+            }
+            return ids;
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("JDBC batch insert into ERROR_RECORD failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Inserts the causes of each record, {@code records.get(i)} being stored with id {@code ids[i]}.
+     *
+     * @return number of ERROR_CAUSE rows written
+     */
+    int insertCauses(List<ErrorRecord> records, long[] ids) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_CAUSE_SQL)) {
+            int pending = 0;
+            for (int i = 0; i < records.size(); i++) {
+                List<ErrorCause> causes = records.get(i).getErrorCauses();
+                if (causes == null) {
+                    continue;
+                }
+                for (ErrorCause cause : causes) {
+                    ps.setLong(1, ids[i]);
+                    ps.setLong(2, cause.getErrorType().getId());
+                    ps.setLong(3, cause.getSubmission().getId());
+                    ps.setString(4, cause.getErrorMessage());
+                    ps.addBatch();
+                    pending++;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+            return pending;
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("JDBC batch insert into ERROR_CAUSE failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package it.deloitte.postrxade.repository.impl;
+
+import it.deloitte.postrxade.records.IngestionCountRow;
+import it.deloitte.postrxade.repository.IngestionRepositoryCustom;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@Slf4j
+public class IngestionRepositoryImpl implements IngestionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true, timeout = 180)
+    public List<IngestionCountRow> aggregateCountsByIngestion(Collection<Long> ingestionIds) {
+        if (ingestionIds == null || ingestionIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long startTime = System.currentTimeMillis();
+
+        // Each branch is served by the fk_ingestion index of its table; an ingestion only has
+        // rows in the MERCHANT_* table of its own type, so the accepted branches do not overlap
+        String nativeSql = """
+            SELECT fk_ingestion, 'accepted', NULL, COUNT(*)
+            FROM MERCHANT_SOGGETTI WHERE fk_ingestion IN (:ingestionIds) GROUP BY fk_ingestion
+            UNION ALL
+            SELECT fk_ingestion, 'accepted', NULL, COUNT(*)
+            FROM MERCHANT_RAPPORTI WHERE fk_ingestion IN (:ingestionIds) GROUP BY fk_ingestion
+            UNION ALL
+            SELECT fk_ingestion, 'accepted', NULL, COUNT(*)
+            FROM MERCHANT_DATI_CONTABILI WHERE fk_ingestion IN (:ingestionIds) GROUP BY fk_ingestion
+            UNION ALL
+            SELECT fk_ingestion, 'accepted', NULL, COUNT(*)
+            FROM MERCHANT_COLLEGAMENTI WHERE fk_ingestion IN (:ingestionIds) GROUP BY fk_ingestion
+            UNION ALL
+            SELECT fk_ingestion, 'accepted', NULL, COUNT(*)
+            FROM MERCHANT_CAMBIO_NDG WHERE fk_ingestion IN (:ingestionIds) GROUP BY fk_ingestion
+            UNION ALL
+            SELECT fk_ingestion, 'errorRecord', NULL, COUNT(*)
+            FROM ERROR_RECORD WHERE fk_ingestion IN (:ingestionIds) GROUP BY fk_ingestion
+            UNION ALL
+            SELECT er.fk_ingestion, 'errorCause', et.serverity_level, COUNT(*)
+            FROM ERROR_RECORD er
+            INNER JOIN ERROR_CAUSE ec ON ec.fk_error_record = er.pk_error_record
+            INNER JOIN ERROR_TYPE et ON ec.fk_error_type = et.pk_error_type
+            WHERE er.fk_ingestion IN (:ingestionIds)
+            GROUP BY er.fk_ingestion, et.serverity_level
+            """;
+
+        Query query = entityManager.createNativeQuery(nativeSql);
+        query.setParameter("ingestionIds", ingestionIds);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> results = query.getResultList();
+
+        List<IngestionCountRow> rows = new ArrayList<>(results.size());
+        for (Object[] row : results) {
+            rows.add(new IngestionCountRow(
+                    ((Number) row[0]).longValue(),
+                    (String) row[1],
+                    row[2] != null ? ((Number) row[2]).intValue() : null,
+                    ((Number) row[3]).longValue()));
+        }
+
+        log.debug("aggregateCountsByIngestion completed in {}ms: ingestions={}, groups={}",
+                System.currentTimeMillis() - startTime, ingestionIds.size(), rows.size());
+        return rows;
+    }
+}
@@ -0,0 +1,267 @@
+package it.deloitte.postrxade.repository.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single-pass classifier for the unprocessed rows of a STG_* table.
+ *
+ * <p>Replaces the chain of UPDATE ... JOIN passes (existing duplicates, batch duplicates via
+ * GROUP BY/MIN(pk), missing parents, final {@code process_status = 1}) with one UPDATE joined
+ * to a derived table that computes the final status of every row:</p>
+ * <ul>
+ *   <li>2 when the row already exists in the main table (EXISTS probe on its unique key);</li>
+ *   <li>2 when an earlier row of the same batch has the same key
+ *       ({@code ROW_NUMBER() OVER (PARTITION BY key ORDER BY pk) > 1});</li>
+ *   <li>3 when the MERCHANT_COLLEGAMENTI parent is missing;</li>
+ *   <li>1 otherwise, ready to be copied to the main table.</li>
+ * </ul>
+ *
+ * <p>Rules are applied in that order, exactly as the former sequential passes did: a batch
+ * duplicate key only considers rows not already marked by a previous rule. The probes compare
+ * columns directly (no COLLATE wrapping), so STG_* and MERCHANT_* must share the
+ * utf8mb4_0900_ai_ci collation (see Script_DB_Initialization_NEW) for the indexes to be used.</p>
+ *
+ * <p>Runs on the caller's transaction; process*FromStaging commit it before promoting the rows.</p>
+ */
+@Component
+@Slf4j
+public class StagingClassifier {
+
+    static final int STATUS_VALID = 1;
+    static final int STATUS_DUPLICATE = 2;
+    static final int STATUS_MISSING_PARENT = 3;
+
+    /**
+     * A batch duplicate rule: rows sharing {@code columns} after the first one (by pk) are duplicates.
+     *
+     * @param columns partition key
+     * @param message SQL expression stored in error_message
+     */
+    record DuplicateKey(List<String> columns, String message) {
+    }
+
+    /**
+     * Classification rules of a staging table. SQL fragments refer to the staging row as {@code s}.
+     *
+     * @param table                  staging table
+     * @param pkColumn               staging primary key
+     * @param columns                columns referenced by the keys, conditions and messages
+     * @param existingCondition      true when the row already exists in the main table
+     * @param existingMessage        SQL expression stored in error_message for existing rows
+     * @param duplicateKeys          batch duplicate rules, in evaluation order
+     * @param missingParentCondition true when the parent is missing, or null when not checked
+     * @param missingParentMessage   SQL expression stored in error_message for missing parents
+     */
+    record Spec(String table, String pkColumn, List<String> columns, String existingCondition,
+                String existingMessage, List<DuplicateKey> duplicateKeys, String missingParentCondition,
+                String missingParentMessage) {
+    }
+
+    /**
+     * Outcome of a classification. Rows with {@code process_status = 1} in [firstPk, lastPk] are
+     * the ones to insert; {@link #isEmpty()} when there was nothing to classify.
+     */
+    record Classification(long firstPk, long lastPk, int duplicates, int missingParents, int valid) {
+
+        static final Classification EMPTY = new Classification(0, -1, 0, 0, 0);
+
+        boolean isEmpty() {
+            return lastPk < firstPk;
+        }
+    }
+
+    static final Spec SOGGETTI = new Spec("STG_SOGGETTI", "pk_stg_merchant",
+            List.of("intermediario", "ndg", "fk_submission"),
+            """
+            EXISTS (SELECT 1 FROM MERCHANT_SOGGETTI m
+                    WHERE m.ndg = s.ndg AND m.fk_submission = s.fk_submission
+                      AND m.intermediario = s.intermediario)""",
+            "'Duplicate: soggetto already exists'",
+            List.of(new DuplicateKey(List.of("intermediario", "ndg"), "'Duplicate within submission'")),
+            """
+            NOT EXISTS (SELECT 1 FROM MERCHANT_COLLEGAMENTI c
+                        WHERE c.ndg = s.ndg AND c.fk_submission = s.fk_submission)""",
+            "CONCAT('Missing Collegamenti parent for ndg: ', s.ndg)");
+
+    static final Spec RAPPORTI = new Spec("STG_RAPPORTI", "pk_stg_rapporti",
+            List.of("intermediario", "chiave_rapporto", "fk_submission"),
+            """
+            EXISTS (SELECT 1 FROM MERCHANT_RAPPORTI m
+                    WHERE m.chiave_rapporto = s.chiave_rapporto AND m.fk_submission = s.fk_submission
+                      AND m.intermediario = s.intermediario)""",
+            "'Duplicate: rapporto already exists'",
+            List.of(new DuplicateKey(List.of("intermediario", "chiave_rapporto"), "'Duplicate within submission'")),
+            """
+            NOT EXISTS (SELECT 1 FROM MERCHANT_COLLEGAMENTI c
+                        WHERE c.chiave_rapporto = s.chiave_rapporto AND c.fk_submission = s.fk_submission)""",
+            "CONCAT('Missing Collegamenti parent for chiave_rapporto: ', s.chiave_rapporto)");
+
+    static final Spec DATI_CONTABILI = new Spec("STG_DATI_CONTABILI", "pk_stg_dati_contabili",
+            List.of("intermediario", "chiave_rapporto", "anno_di_riferimento", "periodicita",
+                    "progressivo_periodicita", "fk_submission"),
+            """
+            EXISTS (SELECT 1 FROM MERCHANT_DATI_CONTABILI m
+                    WHERE m.chiave_rapporto = s.chiave_rapporto AND m.anno_di_riferimento = s.anno_di_riferimento
+                      AND m.periodicita = s.periodicita AND m.progressivo_periodicita = s.progressivo_periodicita
+                      AND m.fk_submission = s.fk_submission AND m.intermediario = s.intermediario)""",
+            "'Duplicate: record already exists'",
+            List.of(new DuplicateKey(List.of("intermediario", "chiave_rapporto", "anno_di_riferimento",
+                    "periodicita", "progressivo_periodicita"), "'Duplicate within submission'")),
+            """
+            NOT EXISTS (SELECT 1 FROM MERCHANT_COLLEGAMENTI c
+                        WHERE c.chiave_rapporto = s.chiave_rapporto AND c.fk_submission = s.fk_submission)""",
+            "CONCAT('Missing Collegamenti parent for chiave_rapporto: ', s.chiave_rapporto)");
+
+    // Both unique constraints of MERCHANT_COLLEGAMENTI: (ndg, fk_submission) and (chiave_rapporto, fk_submission)
+    static final Spec COLLEGAMENTI = new Spec("STG_COLLEGAMENTI", "pk_stg_collegamenti",
+            List.of("ndg", "chiave_rapporto", "fk_submission"),
+            """
+            (EXISTS (SELECT 1 FROM MERCHANT_COLLEGAMENTI m
+                     WHERE m.ndg = s.ndg AND m.fk_submission = s.fk_submission)
+             OR EXISTS (SELECT 1 FROM MERCHANT_COLLEGAMENTI m
+                        WHERE m.chiave_rapporto = s.chiave_rapporto AND m.fk_submission = s.fk_submission))""",
+            "'Duplicate: collegamento already exists in database'",
+            List.of(new DuplicateKey(List.of("ndg"), "'Duplicate within submission: same ndg'"),
+                    new DuplicateKey(List.of("chiave_rapporto"), "'Duplicate within submission: same chiave_rapporto'")),
+            null, null);
+
+    static final Spec CAMBIO_NDG = new Spec("STG_CAMBIO_NDG", "pk_stg_cambio_ndg",
+            List.of("intermediario", "ndg_vecchio", "ndg_nuovo", "fk_submission"),
+            """
+            EXISTS (SELECT 1 FROM MERCHANT_CAMBIO_NDG m
+                    WHERE m.ndg_vecchio = s.ndg_vecchio AND m.ndg_nuovo = s.ndg_nuovo
+                      AND m.fk_submission = s.fk_submission AND m.intermediario = s.intermediario)""",
+            "'Duplicate: change already exists'",
+            List.of(new DuplicateKey(List.of("intermediario", "ndg_vecchio", "ndg_nuovo"), "'Duplicate within submission'")),
+            null, null);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Sets the final process_status (and error_message) of every unprocessed row of the submission.
+     */
+    Classification classify(Spec spec, Long submissionId) {
+        long stepStart = System.currentTimeMillis();
+        Object[] range = (Object[]) entityManager.createNativeQuery(
+                        "SELECT MIN(" + spec.pkColumn() + "), MAX(" + spec.pkColumn() + ") FROM " + spec.table()
+                                + " WHERE fk_submission = :submissionId AND process_status IS NULL")
+                .setParameter("submissionId", submissionId)
+                .getSingleResult();
+        if (range[0] == null) {
+            log.info("{} classification: no unprocessed rows for submission {}", spec.table(), submissionId);
+            return Classification.EMPTY;
+        }
+        long firstPk = ((Number) range[0]).longValue();
+        long lastPk = ((Number) range[1]).longValue();
+        long rangeMs = System.currentTimeMillis() - stepStart;
+
+        stepStart = System.currentTimeMillis();
+        int classified = entityManager.createNativeQuery(buildClassifyUpdate(spec))
+                .setParameter("submissionId", submissionId)
+                .setParameter("firstPk", firstPk)
+                .setParameter("lastPk", lastPk)
+                .executeUpdate();
+        long classifyMs = System.currentTimeMillis() - stepStart;
+
+        stepStart = System.currentTimeMillis();
+        Object[] counts = (Object[]) entityManager.createNativeQuery(
+                        "SELECT COALESCE(SUM(process_status = " + STATUS_DUPLICATE + "), 0),"
+                                + " COALESCE(SUM(process_status = " + STATUS_MISSING_PARENT + "), 0),"
+                                + " COALESCE(SUM(process_status = " + STATUS_VALID + "), 0)"
+                                + " FROM " + spec.table()
+                                + " WHERE fk_submission = :submissionId"
+                                + " AND " + spec.pkColumn() + " BETWEEN :firstPk AND :lastPk")
+                .setParameter("submissionId", submissionId)
+                .setParameter("firstPk", firstPk)
+                .setParameter("lastPk", lastPk)
+                .getSingleResult();
+        long countMs = System.currentTimeMillis() - stepStart;
+
+        Classification classification = new Classification(firstPk, lastPk, ((Number) counts[0]).intValue(),
+                ((Number) counts[1]).intValue(), ((Number) counts[2]).intValue());
+        log.info("{} classification for submission {}: rows={}, duplicates={}, missingParents={}, valid={} "
+                        + "(range {}ms, classify {}ms, count {}ms)",
+                spec.table(), submissionId, classified, classification.duplicates(),
+                classification.missingParents(), classification.valid(), rangeMs, classifyMs, countMs);
+        return classification;
+    }
+
+    /*
+     * UPDATE <table> stg JOIN (<final status per pk>) cls ON pk SET process_status, error_message.
+     *
+     * The derived table is built in layers, each aliased "s":
+     *   base     unprocessed rows in the pk range + "existing" flag
+     *   rn_i     one layer per duplicate key: ROW_NUMBER() partitioned by the key and by
+     *            eligibility (not existing and rn_1..rn_{i-1} = 1), so earlier rules win
+     *   status   CASE over the flags in rule order (parent probe only for rows still valid)
+     *   message  error_message matching the status
+     */
+    private static String buildClassifyUpdate(Spec spec) {
+        String pk = spec.pkColumn();
+        String projected = String.join(", ", spec.columns().stream().map(c -> "s." + c).toList());
+
+        String derived = "SELECT s." + pk + ", " + projected + ",\n"
+                + "       CASE WHEN " + spec.existingCondition() + " THEN 1 ELSE 0 END AS existing\n"
+                + "FROM " + spec.table() + " s\n"
+                + "WHERE s.fk_submission = :submissionId AND s.process_status IS NULL\n"
+                + "  AND s." + pk + " BETWEEN :firstPk AND :lastPk";
+
+        List<String> previousRn = new ArrayList<>();
+        for (int i = 0; i < spec.duplicateKeys().size(); i++) {
+            String eligible = eligibility(previousRn);
+            String partition = String.join(", ", spec.duplicateKeys().get(i).columns().stream()
+                    .map(c -> "s." + c).toList());
+            String rn = "rn_" + i;
+            derived = "SELECT s.*, ROW_NUMBER() OVER (PARTITION BY " + partition + ", (" + eligible
+                    + ") ORDER BY s." + pk + ") AS " + rn + "\n"
+                    + "FROM (\n" + derived + "\n) s";
+            previousRn.add(rn);
+        }
+
+        StringBuilder status = new StringBuilder("CASE WHEN s.existing = 1 THEN " + STATUS_DUPLICATE);
+        StringBuilder message = new StringBuilder("CASE WHEN s.existing = 1 THEN " + spec.existingMessage());
+        for (int i = 0; i < previousRn.size(); i++) {
+            status.append(" WHEN s.").append(previousRn.get(i)).append(" > 1 THEN ").append(STATUS_DUPLICATE);
+            message.append(" WHEN s.").append(previousRn.get(i)).append(" > 1 THEN ")
+                    .append(spec.duplicateKeys().get(i).message());
+        }
+        if (spec.missingParentCondition() != null) {
+            // Probed once, in the status layer; the message layer reads the resulting status
+            status.append(" WHEN ").append(spec.missingParentCondition()).append(" THEN ").append(STATUS_MISSING_PARENT);
+            message.append(" WHEN s.status = ").append(STATUS_MISSING_PARENT).append(" THEN ")
+                    .append(spec.missingParentMessage());
+        }
+        status.append(" ELSE ").append(STATUS_VALID).append(" END");
+        message.append(" END");
+
+        return "UPDATE " + spec.table() + " stg\n"
+                + "INNER JOIN (\n"
+                + "SELECT s." + pk + " AS pk, s.status,\n"
+                + "       " + message + " AS message\n"
+                + "FROM (\n"
+                + "SELECT s.*, " + status + " AS status\n"
+                + "FROM (\n" + derived + "\n) s\n"
+                + ") s\n"
+                + ") cls ON cls.pk = stg." + pk + "\n"
+                + "SET stg.process_status = cls.status,\n"
+                + "    stg.error_message = COALESCE(cls.message, stg.error_message)\n"
+                + "WHERE stg.fk_submission = :submissionId AND stg.process_status IS NULL";
+    }
+
+    // A row competes for a duplicate key only when no earlier rule has already marked it
+    private static String eligibility(List<String> previousRn) {
+        StringBuilder eligible = new StringBuilder("s.existing = 0");
+        for (String rn : previousRn) {
+            eligible.append(" AND s.").append(rn).append(" = 1");
+        }
+        return eligible.toString();
+    }
+}
@@ -0,0 +1,200 @@
+package it.deloitte.postrxade.repository.impl;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import it.deloitte.postrxade.repository.impl.StagingTables.StagingTable;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * LOAD DATA LOCAL INFILE writer for the STG_* staging tables.
+ *
+ * <p>Rows are encoded on the fly as a tab-delimited UTF-8 stream and handed to the MariaDB
+ * connector through {@code org.mariadb.jdbc.Statement#setLocalInfileInputStream}: nothing
+ * is written to disk and only one encoded row is held in memory at a time.</p>
+ *
+ * <p>Requires the MariaDB driver ({@code jdbc:mariadb:} URL), {@code local_infile=ON} on the server
+ * and {@code allowLocalInfile=true} on the connection (set by TenantAwareDataSource for tenants whose
+ * effective mode is {@code LOAD_DATA_LOCAL_INFILE}, which refuses other URLs at pool creation).
+ * Server-side failures are surfaced as DataAccessException; only a refused LOCAL INFILE
+ * ({@link #isLocalInfileDisabled}) leaves nothing behind and lets the caller fall back to the INSERT
+ * path. A connection of another driver is a configuration error and fails with
+ * IllegalStateException instead.</p>
+ *
+ * <p>LOCAL implies IGNORE: the server truncates or skips bad rows with a warning instead of failing
+ * the statement. Any warning, or a loaded count other than the rows sent, therefore fails the load
+ * with DataIntegrityViolationException, as the INSERT path would.</p>
+ */
+@Component
+@Slf4j
+public class StagingLoadDataWriter {
+
+    // LOCAL INFILE refused by the server or the driver: "command not allowed" (MySQL/MariaDB),
+    // ER_CLIENT_LOCAL_FILES_DISABLED (MySQL 8), ER_LOAD_INFILE_CAPABILITY_DISABLED (MariaDB, and the driver)
+    private static final Set<Integer> LOCAL_INFILE_DISABLED = Set.of(1148, 3948, 4166);
+
+    // Warnings quoted in the failure message
+    private static final int MAX_REPORTED_WARNINGS = 5;
+
+    private final DataSource dataSource;
+
+    public StagingLoadDataWriter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Stream all rows into the staging table with a single LOAD DATA LOCAL INFILE statement.
+     *
+     * @return number of rows loaded, as reported by the server
+     */
+    <T> int load(StagingTable<T> table, List<T> rows, Long ingestionId, Long submissionId) {
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+
+        // The file name is only a placeholder: the driver sends the registered InputStream instead
+        String sql = "LOAD DATA LOCAL INFILE '" + table.name().toLowerCase() + ".tsv'"
+                + " INTO TABLE " + table.name()
+                + " CHARACTER SET utf8mb4"
+                + " FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'"
+                + " LINES TERMINATED BY '\\n'"
+                + " (" + table.columnList() + ")";
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = connection.createStatement()) {
+            if (!statement.isWrapperFor(org.mariadb.jdbc.Statement.class)) {
+                throw new IllegalStateException("LOAD DATA LOCAL INFILE into " + table.name()
+                        + " requires a MariaDB connection (jdbc:mariadb: URL)");
+            }
+            statement.unwrap(org.mariadb.jdbc.Statement.class)
+                    .setLocalInfileInputStream(new DelimitedRowInputStream<>(table, rows.iterator(), ingestionId, submissionId));
+            int loaded = statement.executeUpdate(sql);
+            SQLWarning warning = statement.getWarnings();
+            if (loaded != rows.size() || warning != null) {
+                throw new DataIntegrityViolationException("LOAD DATA into " + table.name() + " loaded " + loaded
+                        + " of " + rows.size() + " rows" + describe(warning));
+            }
+            return loaded;
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("LOAD DATA LOCAL INFILE into " + table.name() + " failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Whether the load failed because LOCAL INFILE is disabled on the server or the connection: the
+     * statement was refused before any row was read, so the rows can be written another way.
+     */
+    static boolean isLocalInfileDisabled(DataAccessException e) {
+        return e.getCause() instanceof SQLException sqlException
+                && LOCAL_INFILE_DISABLED.contains(sqlException.getErrorCode());
+    }
+
+    private static String describe(SQLWarning warning) {
+        StringJoiner messages = new StringJoiner("; ", ": ", "");
+        messages.setEmptyValue("");
+        for (int i = 0; warning != null && i < MAX_REPORTED_WARNINGS; i++, warning = warning.getNextWarning()) {
+            messages.add(warning.getMessage());
+        }
+        return messages.toString();
+    }
+
+    /**
+     * Lazily encodes rows as {@code field\tfield\t...\n} lines in the LOAD DATA escape format.
+     */
+    private static final class DelimitedRowInputStream<T> extends InputStream {
+
+        private final StagingTable<T> table;
+        private final Iterator<T> rows;
+        private final String ingestionId;
+        private final String submissionId;
+        private final StringBuilder line = new StringBuilder(1024);
+        private byte[] buffer = new byte[0];
+        private int position;
+
+        DelimitedRowInputStream(StagingTable<T> table, Iterator<T> rows, Long ingestionId, Long submissionId) {
+            this.table = table;
+            this.rows = rows;
+            this.ingestionId = String.valueOf(ingestionId);
+            this.submissionId = String.valueOf(submissionId);
+        }
+
+        @Override
+        public int read() {
+            if (!ensureBuffer()) {
+                return -1;
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureBuffer()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.length - position);
+            System.arraycopy(buffer, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        private boolean ensureBuffer() {
+            while (position >= buffer.length) {
+                if (!rows.hasNext()) {
+                    return false;
+                }
+                encode(rows.next());
+            }
+            return true;
+        }
+
+        private void encode(T row) {
+            line.setLength(0);
+            for (String value : table.values().apply(row)) {
+                appendEscaped(StagingTables.nvl(value));
+                line.append('\t');
+            }
+            line.append(ingestionId).append('\t')
+                    .append(submissionId).append('\t');
+            appendEscaped(StagingTables.truncateRawRow(table.rawRow().apply(row)));
+            line.append('\n');
+
+            buffer = line.toString().getBytes(StandardCharsets.UTF_8);
+            position = 0;
+        }
+
+        private void appendEscaped(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> line.append("\\\\");
+                    case '\t' -> line.append("\\t");
+                    case '\n' -> line.append("\\n");
+                    case '\r' -> line.append("\\r");
+                    case '\0' -> line.append("\\0");
+                    default -> line.append(c);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package it.deloitte.postrxade.repository.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-submission LIST partitions of the STG_* staging tables.
+ *
+ * <p>Every staging table is {@code PARTITION BY LIST (fk_submission)} with an anchor partition
+ * {@code p0} (see Script_DB_Initialization_NEW): each submission gets its own partition
+ * {@code p_<submissionId>} before loading, and cleanup drops it, which is a metadata operation
+ * instead of a row-by-row DELETE with undo logging. Queries filtering on fk_submission are
+ * pruned to that partition by the optimizer.</p>
+ *
+ * <p>Partition DDL commits implicitly, so it runs on its own connection and must not be called
+ * inside a transaction. Tables not yet migrated to the partitioned layout are handled with the
+ * former {@code DELETE ... WHERE fk_submission = ?}, committed right away.</p>
+ *
+ * <p>ADD/DROP PARTITION takes an exclusive metadata lock on the table: it waits for the open
+ * transactions of other submissions on that table to end, and their next statements wait behind
+ * it, up to {@code lock_wait_timeout}. The DDL itself is a metadata change and holds the lock briefly.</p>
+ */
+@Component
+@Slf4j
+public class StagingPartitionManager {
+
+    static final List<String> STAGING_TABLES = List.of(
+            StagingTables.COLLEGAMENTI.name(),
+            StagingTables.SOGGETTI.name(),
+            StagingTables.RAPPORTI.name(),
+            StagingTables.DATI_CONTABILI.name(),
+            StagingTables.CAMBIO_NDG.name());
+
+    // MySQL/MariaDB "Duplicate partition name"
+    private static final int ER_SAME_NAME_PARTITION = 1517;
+
+    private final DataSource dataSource;
+
+    public StagingPartitionManager(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    static String partitionName(Long submissionId) {
+        return "p_" + submissionId;
+    }
+
+    /**
+     * Adds the submission partition to every partitioned staging table that does not have it yet.
+     */
+    void addPartitions(Long submissionId) {
+        String partition = partitionName(submissionId);
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            for (String table : STAGING_TABLES) {
+                Set<String> partitions = partitions(connection, table);
+                if (partitions.isEmpty()) {
+                    log.warn("{} is not partitioned, staging cleanup will fall back to DELETE", table);
+                    continue;
+                }
+                if (partitions.contains(partition)) {
+                    continue;
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ALTER TABLE " + table + " ADD PARTITION (PARTITION " + partition
+                            + " VALUES IN (" + submissionId + "))");
+                    log.debug("Added partition {} to {}", partition, table);
+                } catch (SQLException e) {
+                    if (e.getErrorCode() != ER_SAME_NAME_PARTITION) {
+                        throw e;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException(
+                    "Failed to add staging partition " + partition + ": " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Removes all staging rows of the submission: DROP PARTITION on partitioned tables, DELETE otherwise.
+     */
+    void dropPartitions(Long submissionId) {
+        String partition = partitionName(submissionId);
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            for (String table : STAGING_TABLES) {
+                long start = System.currentTimeMillis();
+                Set<String> partitions = partitions(connection, table);
+                if (partitions.isEmpty()) {
+                    try (PreparedStatement ps = connection.prepareStatement(
+                            "DELETE FROM " + table + " WHERE fk_submission = ?")) {
+                        ps.setLong(1, submissionId);
+                        int deleted = ps.executeUpdate();
+                        // The tenant pools do not autocommit
+                        if (!connection.getAutoCommit() && !DataSourceUtils.isConnectionTransactional(connection, dataSource)) {
+                            connection.commit();
+                        }
+                        log.info("Deleted {} rows from {} in {}ms", deleted, table, System.currentTimeMillis() - start);
+                    }
+                } else if (partitions.contains(partition)) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("ALTER TABLE " + table + " DROP PARTITION " + partition);
+                    }
+                    log.info("Dropped partition {} of {} in {}ms", partition, table, System.currentTimeMillis() - start);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException(
+                    "Failed to clear staging partition " + partition + ": " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // Partition names of the table in the current schema, empty when the table is not partitioned
+    private static Set<String> partitions(Connection connection, String table) throws SQLException {
+        Set<String> partitions = new HashSet<>();
+        try (PreparedStatement ps = connection.prepareStatement("""
+                SELECT PARTITION_NAME FROM information_schema.PARTITIONS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL
+                """)) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    partitions.add(rs.getString(1));
+                }
+            }
+        }
+        return partitions;
+    }
+}
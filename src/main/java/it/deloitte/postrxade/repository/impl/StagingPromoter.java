@@ -0,0 +1,127 @@
+package it.deloitte.postrxade.repository.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Copies the classified rows ({@code process_status = 1}) of a STG_* table to its MERCHANT_* table.
+ *
+ * <p>Rows are promoted in pk ranges of {@code application.ingestion.promotion-chunk-size} rows
+ * (0 = the whole submission in one statement). Each range is inserted and checkpointed in
+ * STG_PROMOTION_CHECKPOINT in its own transaction, so locks and undo stay bounded and a task
+ * that crashed half way resumes after the last committed range instead of starting over.</p>
+ *
+ * <p>Must be called outside a transaction: each range runs in a new transaction of its own, which is
+ * also the only scope of the {@code foreign_key_checks = 0} it may set on the pooled connection.</p>
+ */
+@Component
+@Slf4j
+public class StagingPromoter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.ingestion.promotion-chunk-size:100000}")
+    private int promotionChunkSize;
+
+    public StagingPromoter(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Promotes the rows not yet covered by the checkpoint.
+     *
+     * @param table                   staging table
+     * @param pkColumn                staging primary key
+     * @param insertSql               INSERT ... SELECT restricted to {@code process_status = 1} and
+     *                                {@code pkColumn BETWEEN :firstPk AND :lastPk} of {@code :submissionId}
+     * @param disableForeignKeyChecks run each range with {@code foreign_key_checks = 0}
+     * @return number of rows inserted
+     */
+    int promote(String table, String pkColumn, Long submissionId, String insertSql, boolean disableForeignKeyChecks) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Promotion of " + table + " must not run inside a transaction");
+        }
+        long startTime = System.currentTimeMillis();
+        long[] bounds = transactionTemplate.execute(status -> new long[]{
+                checkpoint(table, submissionId),
+                ((Number) entityManager.createNativeQuery("SELECT COALESCE(MAX(" + pkColumn + "), 0) FROM " + table
+                                + " WHERE fk_submission = :submissionId AND process_status = 1")
+                        .setParameter("submissionId", submissionId)
+                        .getSingleResult()).longValue()});
+        long lastPk = bounds[0];
+        long maxPk = bounds[1];
+        if (lastPk > 0) {
+            log.info("Resuming {} promotion for submission {} after pk {}", table, submissionId, lastPk);
+        }
+
+        int inserted = 0;
+        int chunks = 0;
+        while (lastPk < maxPk) {
+            long firstPk = lastPk + 1;
+            long toPk = promotionChunkSize > 0 ? Math.min(lastPk + promotionChunkSize, maxPk) : maxPk;
+            long chunkStart = System.currentTimeMillis();
+            int chunkInserted = transactionTemplate.execute(status -> promoteRange(
+                    table, submissionId, insertSql, firstPk, toPk, disableForeignKeyChecks));
+            inserted += chunkInserted;
+            chunks++;
+            lastPk = toPk;
+            log.debug("Promoted {} rows of {} (pk {}..{}) in {}ms",
+                    chunkInserted, table, firstPk, toPk, System.currentTimeMillis() - chunkStart);
+        }
+
+        log.info("Promoted {} rows of {} for submission {} in {} chunk(s), {}ms",
+                inserted, table, submissionId, chunks, System.currentTimeMillis() - startTime);
+        return inserted;
+    }
+
+    // INSERT of one pk range + checkpoint, in the caller's (per-range) transaction
+    private int promoteRange(String table, Long submissionId, String insertSql, long firstPk, long lastPk,
+                             boolean disableForeignKeyChecks) {
+        if (disableForeignKeyChecks) {
+            entityManager.createNativeQuery("SET foreign_key_checks = 0").executeUpdate();
+        }
+        try {
+            int inserted = entityManager.createNativeQuery(insertSql)
+                    .setParameter("submissionId", submissionId)
+                    .setParameter("firstPk", firstPk)
+                    .setParameter("lastPk", lastPk)
+                    .executeUpdate();
+            entityManager.createNativeQuery("""
+                    INSERT INTO STG_PROMOTION_CHECKPOINT (fk_submission, table_name, last_pk)
+                    VALUES (:submissionId, :tableName, :lastPk)
+                    ON DUPLICATE KEY UPDATE last_pk = VALUES(last_pk), updated_at = CURRENT_TIMESTAMP
+                    """)
+                    .setParameter("submissionId", submissionId)
+                    .setParameter("tableName", table)
+                    .setParameter("lastPk", lastPk)
+                    .executeUpdate();
+            return inserted;
+        } finally {
+            if (disableForeignKeyChecks) {
+                entityManager.createNativeQuery("SET foreign_key_checks = 1").executeUpdate();
+            }
+        }
+    }
+
+    private long checkpoint(String table, Long submissionId) {
+        return ((Number) entityManager.createNativeQuery("""
+                        SELECT COALESCE(MAX(last_pk), 0) FROM STG_PROMOTION_CHECKPOINT
+                        WHERE fk_submission = :submissionId AND table_name = :tableName
+                        """)
+                .setParameter("submissionId", submissionId)
+                .setParameter("tableName", table)
+                .getSingleResult()).longValue();
+    }
+}
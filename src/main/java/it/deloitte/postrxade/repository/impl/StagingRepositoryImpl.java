@@ -4,17 +4,26 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import it.deloitte.postrxade.entity.CambioNdg;
 import it.deloitte.postrxade.entity.Collegamenti;
 import it.deloitte.postrxade.entity.DatiContabili;
 import it.deloitte.postrxade.entity.Rapporti;
 import it.deloitte.postrxade.entity.Soggetti;
+import it.deloitte.postrxade.enums.StagingErrorSourceEnum;
+import it.deloitte.postrxade.enums.StagingLoadModeEnum;
 import it.deloitte.postrxade.records.StagingResult;
 import it.deloitte.postrxade.repository.RapportiRepository;
 import it.deloitte.postrxade.repository.StagingRepository;
+import it.deloitte.postrxade.tenant.TenantConfiguration;
+import it.deloitte.postrxade.tenant.TenantContext;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
@@ -33,35 +42,50 @@ public class StagingRepositoryImpl implements StagingRepository {
     @Autowired
     private RapportiRepository rapportiRepository;
 
+    @Autowired
+    private StagingJdbcBatchWriter stagingJdbcBatchWriter;
+
+    @Autowired
+    private StagingLoadDataWriter stagingLoadDataWriter;
+
+    @Autowired
+    private StagingClassifier stagingClassifier;
+
+    @Autowired
+    private StagingPartitionManager stagingPartitionManager;
+
+    @Autowired
+    private StagingPromoter stagingPromoter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TenantConfiguration tenantConfiguration;
+
     // Batch size for bulk inserts into staging
     private static final int STAGING_BATCH_SIZE = 5000;
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void prepareStaging(Long submissionId) {
+        log.info("Preparing staging partitions for submission: {}", submissionId);
+        stagingPartitionManager.addPartitions(submissionId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void clearStaging(Long submissionId) {
         log.info("Clearing staging tables for submission: {}", submissionId);
+        long startTime = System.currentTimeMillis();
 
-        entityManager.createNativeQuery("DELETE FROM STG_SOGGETTI WHERE fk_submission = :submissionId")
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        entityManager.createNativeQuery("DELETE FROM STG_RAPPORTI WHERE fk_submission = :submissionId")
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        entityManager.createNativeQuery("DELETE FROM STG_DATI_CONTABILI WHERE fk_submission = :submissionId")
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        entityManager.createNativeQuery("DELETE FROM STG_COLLEGAMENTI WHERE fk_submission = :submissionId")
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        entityManager.createNativeQuery("DELETE FROM STG_CAMBIO_NDG WHERE fk_submission = :submissionId")
+        stagingPartitionManager.dropPartitions(submissionId);
+        inTransaction(status -> entityManager.createNativeQuery(
+                        "DELETE FROM STG_PROMOTION_CHECKPOINT WHERE fk_submission = :submissionId")
                 .setParameter("submissionId", submissionId)
-                .executeUpdate();
+                .executeUpdate());
 
-        log.info("Staging tables cleared for submission: {}", submissionId);
+        log.info("Staging tables cleared for submission {} in {}ms", submissionId, System.currentTimeMillis() - startTime);
     }
 
     @Override
@@ -74,28 +98,39 @@ public class StagingRepositoryImpl implements StagingRepository {
         log.info("Loading {} Soggetti to staging for submission: {}", soggettiList.size(), submissionId);
         long startTime = System.currentTimeMillis();
 
-        // Process in batches to avoid memory issues
-        for (int i = 0; i < soggettiList.size(); i += STAGING_BATCH_SIZE) {
-            int endIndex = Math.min(i + STAGING_BATCH_SIZE, soggettiList.size());
-            List<Soggetti> batch = soggettiList.subList(i, endIndex);
+        StagingLoadModeEnum loadMode = resolveStagingLoadMode();
+        if (loadMode != StagingLoadModeEnum.NATIVE_SQL) {
+            loadMode = writeToStaging(StagingTables.SOGGETTI, soggettiList, ingestionId, submissionId, loadMode);
+        } else {
+            // Process in batches to avoid memory issues
+            for (int i = 0; i < soggettiList.size(); i += STAGING_BATCH_SIZE) {
+                int endIndex = Math.min(i + STAGING_BATCH_SIZE, soggettiList.size());
+                List<Soggetti> batch = soggettiList.subList(i, endIndex);
 
-            insertSoggettiBatchToStaging(batch, ingestionId, submissionId);
+                insertSoggettiBatchToStaging(batch, ingestionId, submissionId);
 
-            // Clear persistence context to free memory
-            entityManager.flush();
-            entityManager.clear();
+                // Clear persistence context to free memory
+                entityManager.flush();
+                entityManager.clear();
 
-            if (i > 0 && i % 50000 == 0) {
-                log.info("Loaded {}/{} merchants to staging", i, soggettiList.size());
+                if (i > 0 && i % 50000 == 0) {
+                    log.info("Loaded {}/{} merchants to staging", i, soggettiList.size());
+                }
             }
         }
 
-        long elapsed = System.currentTimeMillis() - startTime;
-        log.info("Loaded {} merchants to staging in {}ms", soggettiList.size(), elapsed);
+        logStagingThroughput("merchants", soggettiList.size(), startTime, loadMode);
     }
     private void insertSoggettiBatchToStaging(List<Soggetti> soggettiList, Long ingestionId, Long submissionId) {
         if (soggettiList.isEmpty()) return;
 
+        entityManager.createNativeQuery(soggettiInsertSql(soggettiList, ingestionId, submissionId)).executeUpdate();
+    }
+
+    /**
+     * Multi-row INSERT of the NATIVE_SQL mode for a batch of Soggetti (also run by the staging load benchmark).
+     */
+    static String soggettiInsertSql(List<Soggetti> soggettiList, Long ingestionId, Long submissionId) {
         StringBuilder sql = new StringBuilder();
         sql.append("""
         INSERT INTO STG_SOGGETTI (
@@ -134,7 +169,7 @@ public class StagingRepositoryImpl implements StagingRepository {
         }
 
         sql.append(String.join(", ", valueRows));
-        entityManager.createNativeQuery(sql.toString()).executeUpdate();
+        return sql.toString();
     }
 
     @Override
@@ -147,24 +182,28 @@ public class StagingRepositoryImpl implements StagingRepository {
         log.info("Loading {} rapporti to staging for submission: {}", rapportiList.size(), submissionId);
         long startTime = System.currentTimeMillis();
 
-        // Process in batches to avoid memory issues
-        for (int i = 0; i < rapportiList.size(); i += STAGING_BATCH_SIZE) {
-            int endIndex = Math.min(i + STAGING_BATCH_SIZE, rapportiList.size());
-            List<Rapporti> batch = rapportiList.subList(i, endIndex);
+        StagingLoadModeEnum loadMode = resolveStagingLoadMode();
+        if (loadMode != StagingLoadModeEnum.NATIVE_SQL) {
+            loadMode = writeToStaging(StagingTables.RAPPORTI, rapportiList, ingestionId, submissionId, loadMode);
+        } else {
+            // Process in batches to avoid memory issues
+            for (int i = 0; i < rapportiList.size(); i += STAGING_BATCH_SIZE) {
+                int endIndex = Math.min(i + STAGING_BATCH_SIZE, rapportiList.size());
+                List<Rapporti> batch = rapportiList.subList(i, endIndex);
 
-            insertRapportiBatchToStaging(batch, ingestionId, submissionId);
+                insertRapportiBatchToStaging(batch, ingestionId, submissionId);
 
-            // Clear persistence context to free memory
-            entityManager.flush();
-            entityManager.clear();
+                // Clear persistence context to free memory
+                entityManager.flush();
+                entityManager.clear();
 
-            if (i > 0 && i % 50000 == 0) {
-                log.info("Loaded {}/{} rapporti to staging", i, rapportiList.size());
+                if (i > 0 && i % 50000 == 0) {
+                    log.info("Loaded {}/{} rapporti to staging", i, rapportiList.size());
+                }
             }
         }
 
-        long elapsed = System.currentTimeMillis() - startTime;
-        log.info("Loaded {} rapporti to staging in {}ms", rapportiList.size(), elapsed);
+        logStagingThroughput("rapporti", rapportiList.size(), startTime, loadMode);
     }
 
     private void insertRapportiBatchToStaging(List<Rapporti> rapportiList, Long ingestionId, Long submissionId) {
@@ -218,24 +257,28 @@ public class StagingRepositoryImpl implements StagingRepository {
         log.info("Loading {} dati contabili to staging for submission: {}", datiContabiliList.size(), submissionId);
         long startTime = System.currentTimeMillis();
 
-        // Process in batches to avoid memory issues
-        for (int i = 0; i < datiContabiliList.size(); i += STAGING_BATCH_SIZE) {
-            int endIndex = Math.min(i + STAGING_BATCH_SIZE, datiContabiliList.size());
-            List<DatiContabili> batch = datiContabiliList.subList(i, endIndex);
+        StagingLoadModeEnum loadMode = resolveStagingLoadMode();
+        if (loadMode != StagingLoadModeEnum.NATIVE_SQL) {
+            loadMode = writeToStaging(StagingTables.DATI_CONTABILI, datiContabiliList, ingestionId, submissionId, loadMode);
+        } else {
+            // Process in batches to avoid memory issues
+            for (int i = 0; i < datiContabiliList.size(); i += STAGING_BATCH_SIZE) {
+                int endIndex = Math.min(i + STAGING_BATCH_SIZE, datiContabiliList.size());
+                List<DatiContabili> batch = datiContabiliList.subList(i, endIndex);
 
-            insertDatiContabiliBatchToStaging(batch, ingestionId, submissionId);
+                insertDatiContabiliBatchToStaging(batch, ingestionId, submissionId);
 
-            // Clear persistence context to free memory
-            entityManager.flush();
-            entityManager.clear();
+                // Clear persistence context to free memory
+                entityManager.flush();
+                entityManager.clear();
 
-            if (i > 0 && i % 50000 == 0) {
-                log.info("Loaded {}/{} dati contabili to staging", i, datiContabiliList.size());
+                if (i > 0 && i % 50000 == 0) {
+                    log.info("Loaded {}/{} dati contabili to staging", i, datiContabiliList.size());
+                }
             }
         }
 
-        long elapsed = System.currentTimeMillis() - startTime;
-        log.info("Loaded {} dati contabili to staging in {}ms", datiContabiliList.size(), elapsed);
+        logStagingThroughput("dati contabili", datiContabiliList.size(), startTime, loadMode);
     }
 
     private void insertDatiContabiliBatchToStaging(List<DatiContabili> datiContabiliList, Long ingestionId, Long submissionId) {
@@ -304,24 +347,28 @@ public class StagingRepositoryImpl implements StagingRepository {
         log.info("Loading {} collegamenti to staging for submission: {}", collegamentiList.size(), submissionId);
         long startTime = System.currentTimeMillis();
 
-        // Process in batches to avoid memory issues
-        for (int i = 0; i < collegamentiList.size(); i += STAGING_BATCH_SIZE) {
-            int endIndex = Math.min(i + STAGING_BATCH_SIZE, collegamentiList.size());
-            List<Collegamenti> batch = collegamentiList.subList(i, endIndex);
+        StagingLoadModeEnum loadMode = resolveStagingLoadMode();
+        if (loadMode != StagingLoadModeEnum.NATIVE_SQL) {
+            loadMode = writeToStaging(StagingTables.COLLEGAMENTI, collegamentiList, ingestionId, submissionId, loadMode);
+        } else {
+            // Process in batches to avoid memory issues
+            for (int i = 0; i < collegamentiList.size(); i += STAGING_BATCH_SIZE) {
+                int endIndex = Math.min(i + STAGING_BATCH_SIZE, collegamentiList.size());
+                List<Collegamenti> batch = collegamentiList.subList(i, endIndex);
 
-            insertCollegamentiBatchToStaging(batch, ingestionId, submissionId);
+                insertCollegamentiBatchToStaging(batch, ingestionId, submissionId);
 
-            // Clear persistence context to free memory
-            entityManager.flush();
-            entityManager.clear();
+                // Clear persistence context to free memory
+                entityManager.flush();
+                entityManager.clear();
 
-            if (i > 0 && i % 50000 == 0) {
-                log.info("Loaded {}/{} collegamenti to staging", i, collegamentiList.size());
+                if (i > 0 && i % 50000 == 0) {
+                    log.info("Loaded {}/{} collegamenti to staging", i, collegamentiList.size());
+                }
             }
         }
 
-        long elapsed = System.currentTimeMillis() - startTime;
-        log.info("Loaded {} collegamenti to staging in {}ms", collegamentiList.size(), elapsed);
+        logStagingThroughput("collegamenti", collegamentiList.size(), startTime, loadMode);
     }
     private void insertCollegamentiBatchToStaging(List<Collegamenti> collegamentiList, Long ingestionId, Long submissionId) {
         if (collegamentiList.isEmpty()) return;
@@ -369,24 +416,28 @@ public class StagingRepositoryImpl implements StagingRepository {
         log.info("Loading {} cambio ndg to staging for submission: {}", cambioNdgList.size(), submissionId);
         long startTime = System.currentTimeMillis();
 
-        // Process in batches to avoid memory issues
-        for (int i = 0; i < cambioNdgList.size(); i += STAGING_BATCH_SIZE) {
-            int endIndex = Math.min(i + STAGING_BATCH_SIZE, cambioNdgList.size());
-            List<CambioNdg> batch = cambioNdgList.subList(i, endIndex);
+        StagingLoadModeEnum loadMode = resolveStagingLoadMode();
+        if (loadMode != StagingLoadModeEnum.NATIVE_SQL) {
+            loadMode = writeToStaging(StagingTables.CAMBIO_NDG, cambioNdgList, ingestionId, submissionId, loadMode);
+        } else {
+            // Process in batches to avoid memory issues
+            for (int i = 0; i < cambioNdgList.size(); i += STAGING_BATCH_SIZE) {
+                int endIndex = Math.min(i + STAGING_BATCH_SIZE, cambioNdgList.size());
+                List<CambioNdg> batch = cambioNdgList.subList(i, endIndex);
 
-            insertCambioNdgBatchToStaging(batch, ingestionId, submissionId);
+                insertCambioNdgBatchToStaging(batch, ingestionId, submissionId);
 
-            // Clear persistence context to free memory
-            entityManager.flush();
-            entityManager.clear();
+                // Clear persistence context to free memory
+                entityManager.flush();
+                entityManager.clear();
 
-            if (i > 0 && i % 50000 == 0) {
-                log.info("Loaded {}/{} cambio ndg to staging", i, cambioNdgList.size());
+                if (i > 0 && i % 50000 == 0) {
+                    log.info("Loaded {}/{} cambio ndg to staging", i, cambioNdgList.size());
+                }
             }
         }
 
-        long elapsed = System.currentTimeMillis() - startTime;
-        log.info("Loaded {} cambio ndg to staging in {}ms", cambioNdgList.size(), elapsed);
+        logStagingThroughput("cambio ndg", cambioNdgList.size(), startTime, loadMode);
     }
 
     private void insertCambioNdgBatchToStaging(List<CambioNdg> cambioNdgList, Long ingestionId, Long submissionId) {
@@ -418,68 +469,19 @@ public class StagingRepositoryImpl implements StagingRepository {
     }
 
     @Override
-    @Transactional
     public StagingResult processSoggettiFromStaging(Long submissionId) {
         log.info("Processing soggetti from staging for submission: {}", submissionId);
         long startTime = System.currentTimeMillis();
 
-        // Step 1: Mark duplicates existing in production (using COLLATE fix)
-        int existingDuplicates = entityManager.createNativeQuery("""
-                    UPDATE STG_SOGGETTI stg
-                    INNER JOIN MERCHANT_SOGGETTI ms
-                        ON stg.intermediario COLLATE utf8mb4_0900_ai_ci = ms.intermediario COLLATE utf8mb4_0900_ai_ci
-                        AND stg.ndg COLLATE utf8mb4_0900_ai_ci = ms.ndg COLLATE utf8mb4_0900_ai_ci
-                        AND stg.fk_submission = ms.fk_submission
-                    SET stg.process_status = 2,
-                        stg.error_message = 'Duplicate: soggetto already exists'
-                    WHERE stg.fk_submission = :submissionId
-                      AND stg.process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        // Step 2: Mark duplicates within the staging batch (keeping only the first record by PK)
-        int batchDuplicates = entityManager.createNativeQuery("""
-                    UPDATE STG_SOGGETTI stg
-                    INNER JOIN (
-                        SELECT intermediario, ndg, MIN(pk_stg_merchant) as first_pk
-                        FROM STG_SOGGETTI
-                        WHERE fk_submission = :submissionId AND process_status IS NULL
-                        GROUP BY intermediario, ndg
-                        HAVING COUNT(*) > 1
-                    ) dups ON stg.intermediario = dups.intermediario
-                          AND stg.ndg = dups.ndg
-                          AND stg.pk_stg_merchant > dups.first_pk
-                    SET stg.process_status = 2,
-                        stg.error_message = 'Duplicate within submission'
-                    WHERE stg.fk_submission = :submissionId
-                      AND stg.process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        // Step 3: CRITICAL - Mark records with missing Collegamenti parent (FK validation)
-        // This MUST happen BEFORE the INSERT to prevent FK constraint violations
-        int missingParents = entityManager.createNativeQuery("""
-                    UPDATE STG_SOGGETTI stg
-                    LEFT JOIN MERCHANT_COLLEGAMENTI c 
-                        ON stg.ndg COLLATE utf8mb4_0900_ai_ci = c.ndg COLLATE utf8mb4_0900_ai_ci
-                        AND stg.fk_submission = c.fk_submission
-                    SET stg.process_status = 3,
-                        stg.error_message = CONCAT('Missing Collegamenti parent for ndg: ', stg.ndg)
-                    WHERE stg.fk_submission = :submissionId
-                      AND stg.process_status IS NULL
-                      AND c.pk_collegamenti IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        int totalDuplicates = existingDuplicates + batchDuplicates;
-        
-        log.info("Soggetti validation: duplicates={}, missingParents={}", totalDuplicates, missingParents);
+        // Step 1: Classify every unprocessed row in one pass (duplicates, missing Collegamenti parent, valid)
+        // Missing parents MUST be marked BEFORE the INSERT to prevent FK constraint violations
+        StagingClassifier.Classification classification =
+                inTransaction(status -> stagingClassifier.classify(StagingClassifier.SOGGETTI, submissionId));
+        int totalDuplicates = classification.duplicates();
+        int missingParents = classification.missingParents();
 
-        // Step 3: Insert new records (Synchronized with Soggetti entity fields)
-        int insertedCount = entityManager.createNativeQuery("""
+        // Step 2: Promote the rows classified as valid, in committed pk-range chunks (Synchronized with Soggetti entity fields)
+        int insertedCount = stagingPromoter.promote("STG_SOGGETTI", "pk_stg_merchant", submissionId, """
                     INSERT INTO MERCHANT_SOGGETTI (
                         fk_ingestion, fk_submission, intermediario, ndg, 
                         data_censimento_anagrafico, data_estinzione_anagrafica, 
@@ -497,20 +499,9 @@ public class StagingRepositoryImpl implements StagingRepository {
                         controllo_di_fine_riga, CURRENT_TIMESTAMP
                     FROM STG_SOGGETTI
                     WHERE fk_submission = :submissionId
-                      AND process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        // Step 4: Finalize - Mark as success in staging
-        entityManager.createNativeQuery("""
-                    UPDATE STG_SOGGETTI
-                    SET process_status = 1
-                    WHERE fk_submission = :submissionId
-                      AND process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
+                      AND process_status = 1
+                      AND pk_stg_merchant BETWEEN :firstPk AND :lastPk
+                    """, false);
 
         long elapsed = System.currentTimeMillis() - startTime;
         log.info("Processed soggetti from staging in {}ms: inserted={}, duplicates={}, missingParents={}",
@@ -520,69 +511,19 @@ public class StagingRepositoryImpl implements StagingRepository {
     }
 
     @Override
-    @Transactional
     public StagingResult processRapportiFromStaging(Long submissionId) {
         log.info("Processing rapporti from staging for submission: {}", submissionId);
         long startTime = System.currentTimeMillis();
 
-        // Step 1: Mark duplicates (existing in MERCHANT_RAPPORTI)
-        // We use COLLATE to prevent the "Illegal mix of collations" error
-        int existingDuplicates = entityManager.createNativeQuery("""
-                    UPDATE STG_RAPPORTI stg
-                    INNER JOIN MERCHANT_RAPPORTI mr
-                        ON stg.intermediario COLLATE utf8mb4_0900_ai_ci = mr.intermediario COLLATE utf8mb4_0900_ai_ci
-                        AND stg.chiave_rapporto COLLATE utf8mb4_0900_ai_ci = mr.chiave_rapporto COLLATE utf8mb4_0900_ai_ci
-                        AND stg.fk_submission = mr.fk_submission
-                    SET stg.process_status = 2,
-                        stg.error_message = 'Duplicate: rapporto already exists'
-                    WHERE stg.fk_submission = :submissionId
-                      AND stg.process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
+        // Step 1: Classify every unprocessed row in one pass (duplicates, missing Collegamenti parent, valid)
+        // Missing parents MUST be marked BEFORE the INSERT to prevent FK constraint violations
+        StagingClassifier.Classification classification =
+                inTransaction(status -> stagingClassifier.classify(StagingClassifier.RAPPORTI, submissionId));
+        int totalDuplicates = classification.duplicates();
+        int missingParents = classification.missingParents();
 
-        // Step 2: Mark duplicates within the same staging batch (keep the first record)
-        int batchDuplicates = entityManager.createNativeQuery("""
-                    UPDATE STG_RAPPORTI stg
-                    INNER JOIN (
-                        SELECT intermediario, chiave_rapporto, MIN(pk_stg_rapporti) as first_pk
-                        FROM STG_RAPPORTI
-                        WHERE fk_submission = :submissionId AND process_status IS NULL
-                        GROUP BY intermediario, chiave_rapporto
-                        HAVING COUNT(*) > 1
-                    ) dups ON stg.intermediario = dups.intermediario
-                          AND stg.chiave_rapporto = dups.chiave_rapporto
-                          AND stg.pk_stg_rapporti > dups.first_pk
-                    SET stg.process_status = 2,
-                        stg.error_message = 'Duplicate within submission'
-                    WHERE stg.fk_submission = :submissionId
-                      AND stg.process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        // Step 3: CRITICAL - Mark records with missing Collegamenti parent (FK validation)
-        // This MUST happen BEFORE the INSERT to prevent FK constraint violations
-        int missingParents = entityManager.createNativeQuery("""
-                    UPDATE STG_RAPPORTI stg
-                    LEFT JOIN MERCHANT_COLLEGAMENTI c 
-                        ON stg.chiave_rapporto COLLATE utf8mb4_0900_ai_ci = c.chiave_rapporto COLLATE utf8mb4_0900_ai_ci
-                        AND stg.fk_submission = c.fk_submission
-                    SET stg.process_status = 3,
-                        stg.error_message = CONCAT('Missing Collegamenti parent for chiave_rapporto: ', stg.chiave_rapporto)
-                    WHERE stg.fk_submission = :submissionId
-                      AND stg.process_status IS NULL
-                      AND c.pk_collegamenti IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        int totalDuplicates = existingDuplicates + batchDuplicates;
-        
-        log.info("Rapporti validation: duplicates={}, missingParents={}", totalDuplicates, missingParents);
-
-        // Step 3: Insert new records with ALL columns from the entity
-        int insertedCount = entityManager.createNativeQuery("""
+        // Step 2: Promote the rows classified as valid, in committed pk-range chunks, with ALL columns from the entity
+        int insertedCount = stagingPromoter.promote("STG_RAPPORTI", "pk_stg_rapporti", submissionId, """
                     INSERT INTO MERCHANT_RAPPORTI (
                         fk_ingestion, fk_submission, intermediario, chiave_rapporto, 
                         tipo_rapporto_interno, forma_tecnica, filiale, cab, 
@@ -598,22 +539,11 @@ public class StagingRepositoryImpl implements StagingRepository {
                         data_predisposizione, controllo_di_fine_riga, CURRENT_TIMESTAMP
                     FROM STG_RAPPORTI
                     WHERE fk_submission = :submissionId
-                      AND process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        // Step 4: Finalize - Mark staging records as successfully inserted
-        entityManager.createNativeQuery("""
-                UPDATE STG_RAPPORTI 
-                SET process_status = 1 
-                WHERE fk_submission = :submissionId 
-                  AND process_status IS NULL
-                """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
+                      AND process_status = 1
+                      AND pk_stg_rapporti BETWEEN :firstPk AND :lastPk
+                    """, false);
 
-        // Step 5: Update ADE_RAPPORTO_IDENTIFIER for newly inserted records
+        // Step 3: Update ADE_RAPPORTO_IDENTIFIER for newly inserted records
         int identifiersUpdated = rapportiRepository.bulkUpdateAdeRapportoIdentifier(submissionId);
         log.info("Updated {} ADE_RAPPORTO_IDENTIFIER values", identifiersUpdated);
 
@@ -625,73 +555,19 @@ public class StagingRepositoryImpl implements StagingRepository {
     }
 
     @Override
-    @Transactional
     public StagingResult processDatiContabiliFromStaging(Long submissionId) {
         log.info("Processing dati contabili from staging for submission: {}", submissionId);
         long startTime = System.currentTimeMillis();
 
-        // Step 1: Global Dups (Composite Key with Collation Fix)
-        int existingDuplicates = entityManager.createNativeQuery("""
-                    UPDATE STG_DATI_CONTABILI stg
-                    INNER JOIN MERCHANT_DATI_CONTABILI mdc
-                        ON stg.intermediario COLLATE utf8mb4_0900_ai_ci = mdc.intermediario COLLATE utf8mb4_0900_ai_ci
-                        AND stg.chiave_rapporto COLLATE utf8mb4_0900_ai_ci = mdc.chiave_rapporto COLLATE utf8mb4_0900_ai_ci
-                        AND stg.anno_di_riferimento = mdc.anno_di_riferimento
-                        AND stg.periodicita = mdc.periodicita
-                        AND stg.progressivo_periodicita = mdc.progressivo_periodicita
-                        AND stg.fk_submission = mdc.fk_submission
-                    SET stg.process_status = 2,
-                        stg.error_message = 'Duplicate: record already exists'
-                    WHERE stg.fk_submission = :submissionId
-                      AND stg.process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        // Step 2: Batch Dups
-        int batchDuplicates = entityManager.createNativeQuery("""
-                    UPDATE STG_DATI_CONTABILI stg
-                    INNER JOIN (
-                        SELECT intermediario, chiave_rapporto, anno_di_riferimento, periodicita, progressivo_periodicita, MIN(pk_stg_dati_contabili) as first_pk
-                        FROM STG_DATI_CONTABILI
-                        WHERE fk_submission = :submissionId AND process_status IS NULL
-                        GROUP BY intermediario, chiave_rapporto, anno_di_riferimento, periodicita, progressivo_periodicita
-                    ) dups ON stg.intermediario = dups.intermediario 
-                          AND stg.chiave_rapporto = dups.chiave_rapporto 
-                          AND stg.anno_di_riferimento = dups.anno_di_riferimento 
-                          AND stg.periodicita = dups.periodicita 
-                          AND stg.progressivo_periodicita = dups.progressivo_periodicita 
-                          AND stg.pk_stg_dati_contabili > dups.first_pk
-                    SET stg.process_status = 2,
-                        stg.error_message = 'Duplicate within submission'
-                    WHERE stg.fk_submission = :submissionId
-                      AND stg.process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        // Step 3: CRITICAL - Mark records with missing Collegamenti parent (FK validation)
-        // This MUST happen BEFORE the INSERT to prevent FK constraint violations
-        int missingParents = entityManager.createNativeQuery("""
-                    UPDATE STG_DATI_CONTABILI stg
-                    LEFT JOIN MERCHANT_COLLEGAMENTI c 
-                        ON stg.chiave_rapporto COLLATE utf8mb4_0900_ai_ci = c.chiave_rapporto COLLATE utf8mb4_0900_ai_ci
-                        AND stg.fk_submission = c.fk_submission
-                    SET stg.process_status = 3,
-                        stg.error_message = CONCAT('Missing Collegamenti parent for chiave_rapporto: ', stg.chiave_rapporto)
-                    WHERE stg.fk_submission = :submissionId
-                      AND stg.process_status IS NULL
-                      AND c.pk_collegamenti IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        int totalDuplicates = existingDuplicates + batchDuplicates;
-        
-        log.info("DatiContabili validation: duplicates={}, missingParents={}", totalDuplicates, missingParents);
+        // Step 1: Classify every unprocessed row in one pass (duplicates, missing Collegamenti parent, valid)
+        // Missing parents MUST be marked BEFORE the INSERT to prevent FK constraint violations
+        StagingClassifier.Classification classification =
+                inTransaction(status -> stagingClassifier.classify(StagingClassifier.DATI_CONTABILI, submissionId));
+        int totalDuplicates = classification.duplicates();
+        int missingParents = classification.missingParents();
 
-        // Step 3: Insert (Fully mapping all 25+ fields from the Entity)
-        int insertedCount = entityManager.createNativeQuery("""
+        // Step 2: Promote the rows classified as valid, in committed pk-range chunks (Fully mapping all 25+ fields from the Entity)
+        int insertedCount = stagingPromoter.promote("STG_DATI_CONTABILI", "pk_stg_dati_contabili", submissionId, """
                     INSERT INTO MERCHANT_DATI_CONTABILI (
                         fk_ingestion, fk_submission, intermediario, chiave_rapporto, 
                         anno_di_riferimento, periodicita, progressivo_periodicita, divisa,
@@ -714,20 +590,10 @@ public class StagingRepositoryImpl implements StagingRepository {
                         data_predisposizione, tipo_rapporto_interno, forma_tecnica,
                         flag_soglia_altre_informazioni, controllo_di_fine_riga, CURRENT_TIMESTAMP
                     FROM STG_DATI_CONTABILI
-                    WHERE fk_submission = :submissionId AND process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        // Step 4: Finalize status
-        entityManager.createNativeQuery("""
-                UPDATE STG_DATI_CONTABILI 
-                SET process_status = 1 
-                WHERE fk_submission = :submissionId 
-                  AND process_status IS NULL
-                """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
+                    WHERE fk_submission = :submissionId
+                      AND process_status = 1
+                      AND pk_stg_dati_contabili BETWEEN :firstPk AND :lastPk
+                    """, false);
 
         long elapsed = System.currentTimeMillis() - startTime;
         log.info("Processed dati contabili in {}ms: inserted={}, duplicates={}, missingParents={}", 
@@ -736,183 +602,54 @@ public class StagingRepositoryImpl implements StagingRepository {
     }
 
     @Override
-    @Transactional
     public StagingResult processCollegamentiFromStaging(Long submissionId) {
         log.info("Processing collegamenti from staging for submission: {}", submissionId);
         long startTime = System.currentTimeMillis();
 
-        // Disable foreign key checks during insertion
-        entityManager.createNativeQuery("SET foreign_key_checks = 0").executeUpdate();
-
-        try {
-            // Step 1: Mark duplicates that already exist in MERCHANT_COLLEGAMENTI
-            // Check both unique constraints: (ndg, fk_submission) AND (chiave_rapporto, fk_submission)
-            int existingDuplicates = entityManager.createNativeQuery("""
-                        UPDATE STG_COLLEGAMENTI stg
-                        INNER JOIN MERCHANT_COLLEGAMENTI mc
-                            ON ((stg.ndg COLLATE utf8mb4_0900_ai_ci = mc.ndg COLLATE utf8mb4_0900_ai_ci
-                                 AND stg.fk_submission = mc.fk_submission)
-                                OR
-                                (stg.chiave_rapporto COLLATE utf8mb4_0900_ai_ci = mc.chiave_rapporto COLLATE utf8mb4_0900_ai_ci
-                                 AND stg.fk_submission = mc.fk_submission))
-                        SET stg.process_status = 2,
-                            stg.error_message = 'Duplicate: collegamento already exists in database'
-                        WHERE stg.fk_submission = :submissionId
-                          AND stg.process_status IS NULL
-                        """)
-                    .setParameter("submissionId", submissionId)
-                    .executeUpdate();
-
-            // Step 2a: Mark duplicates within batch based on (ndg, fk_submission)
-            int batchDuplicatesNdg = entityManager.createNativeQuery("""
-                        UPDATE STG_COLLEGAMENTI stg
-                        INNER JOIN (
-                            SELECT ndg, fk_submission, MIN(pk_stg_collegamenti) as first_pk
-                            FROM STG_COLLEGAMENTI
-                            WHERE fk_submission = :submissionId AND process_status IS NULL
-                            GROUP BY ndg, fk_submission
-                            HAVING COUNT(*) > 1
-                        ) dups ON stg.ndg = dups.ndg 
-                              AND stg.fk_submission = dups.fk_submission
-                              AND stg.pk_stg_collegamenti > dups.first_pk
-                        SET stg.process_status = 2,
-                            stg.error_message = 'Duplicate within submission: same ndg'
-                        WHERE stg.fk_submission = :submissionId
-                          AND stg.process_status IS NULL
-                        """)
-                    .setParameter("submissionId", submissionId)
-                    .executeUpdate();
-
-            // Step 2b: Mark duplicates within batch based on (chiave_rapporto, fk_submission)
-            int batchDuplicatesChiave = entityManager.createNativeQuery("""
-                        UPDATE STG_COLLEGAMENTI stg
-                        INNER JOIN (
-                            SELECT chiave_rapporto, fk_submission, MIN(pk_stg_collegamenti) as first_pk
-                            FROM STG_COLLEGAMENTI
-                            WHERE fk_submission = :submissionId AND process_status IS NULL
-                            GROUP BY chiave_rapporto, fk_submission
-                            HAVING COUNT(*) > 1
-                        ) dups ON stg.chiave_rapporto = dups.chiave_rapporto 
-                              AND stg.fk_submission = dups.fk_submission
-                              AND stg.pk_stg_collegamenti > dups.first_pk
-                        SET stg.process_status = 2,
-                            stg.error_message = 'Duplicate within submission: same chiave_rapporto'
-                        WHERE stg.fk_submission = :submissionId
-                          AND stg.process_status IS NULL
-                        """)
-                    .setParameter("submissionId", submissionId)
-                    .executeUpdate();
-
-            int totalDuplicates = existingDuplicates + batchDuplicatesNdg + batchDuplicatesChiave;
-            
-            log.info("Collegamenti duplicate detection: existing={}, batch_ndg={}, batch_chiave={}, total={}",
-                    existingDuplicates, batchDuplicatesNdg, batchDuplicatesChiave, totalDuplicates);
-
-            // Step 3: Insert all non-duplicate records (no FK validation for collegamenti)
-            // Collegamenti is the base entity, other entities will be validated against it
-            int insertedCount = entityManager.createNativeQuery("""
-                        INSERT INTO MERCHANT_COLLEGAMENTI (
-                            fk_ingestion, fk_submission, intermediario, chiave_rapporto, 
-                            ndg, ruolo, data_inizio_collegamento, data_fine_collegamento, 
-                            ruolo_interno, flag_stato_collegamento, data_predisposizione_flusso, 
-                            controllo_di_fine_riga, created_at
-                        )
-                        SELECT 
-                            fk_ingestion, fk_submission, intermediario, chiave_rapporto, 
-                            ndg, ruolo, data_inizio_collegamento, data_fine_collegamento, 
-                            ruolo_interno, flag_stato_collegamento, data_predisposizione_flusso, 
-                            controllo_di_fine_riga, CURRENT_TIMESTAMP
-                        FROM STG_COLLEGAMENTI
-                        WHERE fk_submission = :submissionId 
-                          AND process_status IS NULL
-                        """)
-                    .setParameter("submissionId", submissionId)
-                    .executeUpdate();
-
-            // Count statistics for logging
-            Long validRecordsCount = (Long) entityManager.createNativeQuery("""
-                        SELECT COUNT(*) FROM STG_COLLEGAMENTI
-                        WHERE fk_submission = :submissionId AND process_status IS NULL
-                        """)
-                    .setParameter("submissionId", submissionId)
-                    .getSingleResult();
-
-            Long duplicateRecordsCount = (Long) entityManager.createNativeQuery("""
-                        SELECT COUNT(*) FROM STG_COLLEGAMENTI
-                        WHERE fk_submission = :submissionId AND process_status = 2
-                        """)
-                    .setParameter("submissionId", submissionId)
-                    .getSingleResult();
-
-            log.info("Staging statistics for submission {}: inserted={}, duplicates={}",
-                    submissionId, insertedCount, totalDuplicates);
+        // Step 1: Classify every unprocessed row in one pass, checking both unique constraints:
+        // (ndg, fk_submission) AND (chiave_rapporto, fk_submission), against the DB and within the batch
+        StagingClassifier.Classification classification =
+                inTransaction(status -> stagingClassifier.classify(StagingClassifier.COLLEGAMENTI, submissionId));
+        int totalDuplicates = classification.duplicates();
+
+        // Step 2: Promote all non-duplicate records in committed pk-range chunks, with foreign key checks
+        // disabled (no FK validation for collegamenti)
+        // Collegamenti is the base entity, other entities will be validated against it
+        int insertedCount = stagingPromoter.promote("STG_COLLEGAMENTI", "pk_stg_collegamenti", submissionId, """
+                    INSERT INTO MERCHANT_COLLEGAMENTI (
+                        fk_ingestion, fk_submission, intermediario, chiave_rapporto, 
+                        ndg, ruolo, data_inizio_collegamento, data_fine_collegamento, 
+                        ruolo_interno, flag_stato_collegamento, data_predisposizione_flusso, 
+                        controllo_di_fine_riga, created_at
+                    )
+                    SELECT 
+                        fk_ingestion, fk_submission, intermediario, chiave_rapporto, 
+                        ndg, ruolo, data_inizio_collegamento, data_fine_collegamento, 
+                        ruolo_interno, flag_stato_collegamento, data_predisposizione_flusso, 
+                        controllo_di_fine_riga, CURRENT_TIMESTAMP
+                    FROM STG_COLLEGAMENTI
+                    WHERE fk_submission = :submissionId
+                      AND process_status = 1
+                      AND pk_stg_collegamenti BETWEEN :firstPk AND :lastPk
+                    """, true);
 
-            // Step 4: Finalize
-            entityManager.createNativeQuery("""
-                    UPDATE STG_COLLEGAMENTI 
-                    SET process_status = 1 
-                    WHERE fk_submission = :submissionId 
-                      AND process_status IS NULL
-                    """)
-                    .setParameter("submissionId", submissionId)
-                    .executeUpdate();
-
-            long elapsed = System.currentTimeMillis() - startTime;
-            log.info("Processed collegamenti in {}ms: inserted={}, duplicates={}", elapsed, insertedCount, totalDuplicates);
-            return new StagingResult(insertedCount, totalDuplicates);
-        } finally {
-            // Re-enable foreign key checks
-            entityManager.createNativeQuery("SET foreign_key_checks = 1").executeUpdate();
-        }
+        long elapsed = System.currentTimeMillis() - startTime;
+        log.info("Processed collegamenti in {}ms: inserted={}, duplicates={}", elapsed, insertedCount, totalDuplicates);
+        return new StagingResult(insertedCount, totalDuplicates);
     }
 
     @Override
-    @Transactional
     public StagingResult processCambioNdgFromStaging(Long submissionId) {
         log.info("Processing cambio NDG from staging for submission: {}", submissionId);
         long startTime = System.currentTimeMillis();
 
-        // Step 1: Global Dups (with Collation Fix)
-        int existingDuplicates = entityManager.createNativeQuery("""
-                    UPDATE STG_CAMBIO_NDG stg
-                    INNER JOIN MERCHANT_CAMBIO_NDG mcn
-                        ON stg.intermediario COLLATE utf8mb4_0900_ai_ci = mcn.intermediario COLLATE utf8mb4_0900_ai_ci
-                        AND stg.ndg_vecchio COLLATE utf8mb4_0900_ai_ci = mcn.ndg_vecchio COLLATE utf8mb4_0900_ai_ci
-                        AND stg.ndg_nuovo COLLATE utf8mb4_0900_ai_ci = mcn.ndg_nuovo COLLATE utf8mb4_0900_ai_ci
-                        AND stg.fk_submission = mcn.fk_submission
-                    SET stg.process_status = 2,
-                        stg.error_message = 'Duplicate: change already exists'
-                    WHERE stg.fk_submission = :submissionId
-                      AND stg.process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        // Step 2: Batch Dups (duplicates within the same submission batch)
-        int batchDuplicates = entityManager.createNativeQuery("""
-                    UPDATE STG_CAMBIO_NDG stg
-                    INNER JOIN (
-                        SELECT intermediario, ndg_vecchio, ndg_nuovo, MIN(pk_stg_cambio_ndg) as first_pk
-                        FROM STG_CAMBIO_NDG
-                        WHERE fk_submission = :submissionId AND process_status IS NULL
-                        GROUP BY intermediario, ndg_vecchio, ndg_nuovo
-                        HAVING COUNT(*) > 1
-                    ) dups ON stg.intermediario = dups.intermediario 
-                          AND stg.ndg_vecchio = dups.ndg_vecchio 
-                          AND stg.ndg_nuovo = dups.ndg_nuovo 
-                          AND stg.pk_stg_cambio_ndg > dups.first_pk
-                    SET stg.process_status = 2,
-                        stg.error_message = 'Duplicate within submission'
-                    WHERE stg.fk_submission = :submissionId
-                      AND stg.process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        int totalDuplicates = existingDuplicates + batchDuplicates;
+        // Step 1: Classify every unprocessed row in one pass (duplicates against the DB and within the batch)
+        StagingClassifier.Classification classification =
+                inTransaction(status -> stagingClassifier.classify(StagingClassifier.CAMBIO_NDG, submissionId));
+        int totalDuplicates = classification.duplicates();
 
-        // Step 3: Insert into Production (Including all entity fields)
-        int insertedCount = entityManager.createNativeQuery("""
+        // Step 2: Promote the rows classified as valid into Production, in committed pk-range chunks (Including all entity fields)
+        int insertedCount = stagingPromoter.promote("STG_CAMBIO_NDG", "pk_stg_cambio_ndg", submissionId, """
                     INSERT INTO MERCHANT_CAMBIO_NDG (
                         fk_ingestion, fk_submission, intermediario, 
                         ndg_vecchio, ndg_nuovo, controllo_di_fine_riga, created_at
@@ -921,151 +658,16 @@ public class StagingRepositoryImpl implements StagingRepository {
                         fk_ingestion, fk_submission, intermediario, 
                         ndg_vecchio, ndg_nuovo, controllo_di_fine_riga, CURRENT_TIMESTAMP
                     FROM STG_CAMBIO_NDG
-                    WHERE fk_submission = :submissionId 
-                      AND process_status IS NULL
-                    """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
-
-        // Step 4: Finalize Staging Status
-        entityManager.createNativeQuery("""
-                UPDATE STG_CAMBIO_NDG 
-                SET process_status = 1 
-                WHERE fk_submission = :submissionId 
-                  AND process_status IS NULL
-                """)
-                .setParameter("submissionId", submissionId)
-                .executeUpdate();
+                    WHERE fk_submission = :submissionId
+                      AND process_status = 1
+                      AND pk_stg_cambio_ndg BETWEEN :firstPk AND :lastPk
+                    """, false);
 
         long elapsed = System.currentTimeMillis() - startTime;
         log.info("Processed cambio NDG in {}ms: inserted={}, duplicates={}", elapsed, insertedCount, totalDuplicates);
         return new StagingResult(insertedCount, totalDuplicates);
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getDuplicateSoggettiDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                        SELECT raw_row, error_message FROM STG_SOGGETTI
-                        WHERE fk_submission = :submissionId AND process_status = 2
-                        """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
-    }
-
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getDuplicateRapportiDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                        SELECT raw_row, error_message FROM STG_RAPPORTI
-                        WHERE fk_submission = :submissionId AND process_status = 2
-                        """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getDuplicateDatiContabiliDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                        SELECT raw_row, error_message FROM STG_DATI_CONTABILI
-                        WHERE fk_submission = :submissionId AND process_status = 2
-                        """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getDuplicateCollegamentiDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                        SELECT raw_row, error_message FROM STG_COLLEGAMENTI
-                        WHERE fk_submission = :submissionId AND process_status = 2
-                        """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getMissingReferenceCollegamentiDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                        SELECT raw_row, error_message FROM STG_COLLEGAMENTI
-                        WHERE fk_submission = :submissionId AND process_status = 3
-                        """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getMissingSoggettiCollegamentiDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                SELECT raw_row, error_message
-                FROM STG_SOGGETTI
-                WHERE fk_submission = :submissionId
-                  AND process_status = 3
-                """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getMissingRapportiCollegamentiDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                SELECT raw_row, error_message
-                FROM STG_RAPPORTI
-                WHERE fk_submission = :submissionId
-                  AND process_status = 3
-                """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getMissingDatiContabiliCollegamentiDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                SELECT raw_row, error_message
-                FROM STG_DATI_CONTABILI
-                WHERE fk_submission = :submissionId
-                  AND process_status = 3
-                """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getDuplicateCambioNdgDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                        SELECT raw_row, error_message FROM STG_CAMBIO_NDG
-                        WHERE fk_submission = :submissionId AND process_status = 2
-                        """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
-    }
-
     @Override
     @Transactional
     public int validateOrphanCollegamentiInStaging(Long submissionId) {
@@ -1151,57 +753,144 @@ public class StagingRepositoryImpl implements StagingRepository {
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getOrphanCollegamentiDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                SELECT raw_row, error_message
-                FROM STG_COLLEGAMENTI
-                WHERE fk_submission = :submissionId
-                  AND process_status = 4
-                """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
+    @Transactional
+    public int insertErrorRecordsFromStaging(StagingErrorSourceEnum source, Long ingestionId, Long submissionId,
+                                             String errorCode, String defaultMessage, Integer rawRowMaxLength) {
+        long startTime = System.currentTimeMillis();
+        String rawRow = rawRowMaxLength != null
+                ? "COALESCE(LEFT(stg.raw_row, " + rawRowMaxLength + "), '')"
+                : "COALESCE(stg.raw_row, '')";
+
+        Number errorTypeId = (Number) entityManager.createNativeQuery(
+                        "SELECT MIN(pk_error_type) FROM ERROR_TYPE WHERE error_code = :errorCode")
+                .setParameter("errorCode", errorCode)
+                .getSingleResult();
+        if (errorTypeId == null) {
+            Number flagged = (Number) entityManager.createNativeQuery("""
+                    SELECT COUNT(*) FROM %s
+                    WHERE fk_submission = :submissionId AND process_status = :processStatus
+                    """.formatted(source.getTableName()))
+                    .setParameter("submissionId", submissionId)
+                    .setParameter("processStatus", source.getProcessStatus())
+                    .getSingleResult();
+            if (flagged.longValue() == 0) {
+                return 0;
+            }
+            log.error("{}: error type {} not found, {} flagged rows of submission {} cannot be reported",
+                    source.getLabel(), errorCode, flagged, submissionId);
+            throw new IllegalStateException("Error type with code " + errorCode + " is not found");
+        }
+
+        // Each record carries its staging row (stg_table, fk_stg_row), which pairs it with its cause below.
+        // Rows already reported by a previous (interrupted) run of the ingestion are skipped
+        int recordCount = entityManager.createNativeQuery("""
+                INSERT INTO ERROR_RECORD (fk_ingestion, fk_submission, raw_row, stg_table, fk_stg_row, created_at)
+                SELECT :ingestionId, :submissionId, %s, :stgTable, stg.%s, CURRENT_TIMESTAMP
+                FROM %s stg
+                WHERE stg.fk_submission = :submissionId
+                  AND stg.process_status = :processStatus
+                  AND NOT EXISTS (SELECT 1 FROM ERROR_RECORD er
+                                  WHERE er.fk_ingestion = :ingestionId
+                                    AND er.stg_table = :stgTable
+                                    AND er.fk_stg_row = stg.%s)
+                """.formatted(rawRow, source.getPkColumn(), source.getTableName(), source.getPkColumn()))
+                .setParameter("ingestionId", ingestionId)
+                .setParameter("submissionId", submissionId)
+                .setParameter("stgTable", source.getTableName())
+                .setParameter("processStatus", source.getProcessStatus())
+                .executeUpdate();
+        if (recordCount == 0) {
+            return 0;
+        }
+
+        // Records of these staging rows that have no cause yet are exactly the ones just inserted
+        int causeCount = entityManager.createNativeQuery("""
+                INSERT INTO ERROR_CAUSE (fk_error_record, fk_error_type, fk_submission, error_message)
+                SELECT er.pk_error_record, :errorTypeId, :submissionId, COALESCE(stg.error_message, :defaultMessage)
+                FROM ERROR_RECORD er
+                JOIN %s stg ON stg.%s = er.fk_stg_row
+                           AND stg.fk_submission = :submissionId
+                           AND stg.process_status = :processStatus
+                WHERE er.fk_ingestion = :ingestionId
+                  AND er.stg_table = :stgTable
+                  AND NOT EXISTS (SELECT 1 FROM ERROR_CAUSE ec WHERE ec.fk_error_record = er.pk_error_record)
+                """.formatted(source.getTableName(), source.getPkColumn()))
+                .setParameter("ingestionId", ingestionId)
+                .setParameter("submissionId", submissionId)
+                .setParameter("stgTable", source.getTableName())
+                .setParameter("processStatus", source.getProcessStatus())
+                .setParameter("defaultMessage", defaultMessage)
+                .setParameter("errorTypeId", errorTypeId.longValue())
+                .executeUpdate();
+        if (causeCount != recordCount) {
+            // A record without its cause would be reported with no reason: roll both inserts back
+            log.error("{}: created {} error records but {} error causes for submission {}",
+                    source.getLabel(), recordCount, causeCount, submissionId);
+            throw new IllegalStateException(source.getLabel() + ": " + (recordCount - causeCount)
+                    + " error records of submission " + submissionId + " could not be paired with their staging row");
+        }
+
+        log.info("{}: created {} error records from {} in {}ms",
+                source.getLabel(), recordCount, source.getTableName(), System.currentTimeMillis() - startTime);
+        return recordCount;
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getOrphanSoggettiDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                SELECT raw_row, error_message
-                FROM STG_SOGGETTI
-                WHERE fk_submission = :submissionId
-                  AND process_status = 4
-                """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
+    /**
+     * Staging load mode for the current tenant (TenantConfiguration#getEffectiveStagingLoadMode,
+     * the same mode the tenant pool is configured for).
+     */
+    private StagingLoadModeEnum resolveStagingLoadMode() {
+        String tenantId = TenantContext.getTenantId();
+        if (tenantId == null) {
+            tenantId = tenantConfiguration.getBootstrapTenantResolved();
+        }
+        return tenantConfiguration.getEffectiveStagingLoadMode(tenantId);
+    }
+
+    /**
+     * Write rows through the JDBC loaders. LOAD DATA LOCAL INFILE falls back to the JDBC
+     * batch INSERT path only when LOCAL INFILE is disabled on the server or the connection:
+     * the statement was refused before reading any row. Any other failure may have left the
+     * transaction half written, so it is rethrown.
+     *
+     * @return the mode actually used
+     */
+    private <T> StagingLoadModeEnum writeToStaging(StagingTables.StagingTable<T> table, List<T> rows,
+                                                   Long ingestionId, Long submissionId, StagingLoadModeEnum loadMode) {
+        if (loadMode == StagingLoadModeEnum.LOAD_DATA_LOCAL_INFILE) {
+            try {
+                stagingLoadDataWriter.load(table, rows, ingestionId, submissionId);
+                return loadMode;
+            } catch (DataAccessException e) {
+                if (!StagingLoadDataWriter.isLocalInfileDisabled(e)) {
+                    throw e;
+                }
+                log.warn("LOAD DATA LOCAL INFILE into {} refused, falling back to JDBC batch insert: {}",
+                        table.name(), e.getMessage());
+            }
+        }
+        stagingJdbcBatchWriter.insert(table, rows, ingestionId, submissionId);
+        return StagingLoadModeEnum.JDBC_BATCH;
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getOrphanRapportiDetails(Long submissionId) {
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery("""
-                SELECT raw_row, error_message
-                FROM STG_RAPPORTI
-                WHERE fk_submission = :submissionId
-                  AND process_status = 4
-                """)
-                .setParameter("submissionId", submissionId)
-                .getResultList();
-        return results != null ? results : new ArrayList<>();
+    private void logStagingThroughput(String label, int rows, long startTime, StagingLoadModeEnum loadMode) {
+        long elapsed = Math.max(System.currentTimeMillis() - startTime, 1L);
+        log.info("Loaded {} {} to staging in {}ms ({} rows/sec, mode={})",
+                rows, label, elapsed, rows * 1000L / elapsed, loadMode);
     }
 
-    private String escape(String s) {
+    private static String escape(String s) {
         if (s == null) return "";
         return s.replace("'", "''").replace("\\", "\\\\");
     }
 
-    private String truncate(String s, int maxLength) {
+    private static String truncate(String s, int maxLength) {
         if (s == null) return "";
         return s.length() > maxLength ? s.substring(0, maxLength) : s;
     }
+
+    // Own transaction for a set-based step, so the chunked promotion that follows does not join it
+    private <T> T inTransaction(TransactionCallback<T> action) {
+        return new TransactionTemplate(transactionManager).execute(action);
+    }
 }
@@ -0,0 +1,120 @@
+package it.deloitte.postrxade.repository.impl;
+
+import java.util.List;
+import java.util.function.Function;
+
+import it.deloitte.postrxade.entity.CambioNdg;
+import it.deloitte.postrxade.entity.Collegamenti;
+import it.deloitte.postrxade.entity.DatiContabili;
+import it.deloitte.postrxade.entity.Rapporti;
+import it.deloitte.postrxade.entity.Soggetti;
+
+/**
+ * Column layout of the STG_* staging tables, shared by the JDBC batch and LOAD DATA loaders.
+ *
+ * <p>Every staging table ends with {@code fk_ingestion, fk_submission, raw_row}; each
+ * {@link StagingTable} describes the business columns that precede them and how to read
+ * them from the entity.</p>
+ */
+final class StagingTables {
+
+    static final int RAW_ROW_MAX_LENGTH = 1000;
+
+    /**
+     * Staging table definition.
+     *
+     * @param name        table name
+     * @param dataColumns business columns, in insert order
+     * @param values      entity → values of {@code dataColumns}, same order
+     * @param rawRow      entity → original file line
+     */
+    record StagingTable<T>(String name, List<String> dataColumns, Function<T, String[]> values,
+                           Function<T, String> rawRow) {
+
+        /**
+         * Full column list: business columns + fk_ingestion, fk_submission, raw_row.
+         */
+        String columnList() {
+            return String.join(", ", dataColumns) + ", fk_ingestion, fk_submission, raw_row";
+        }
+
+        int columnCount() {
+            return dataColumns.size() + 3;
+        }
+    }
+
+    static final StagingTable<Soggetti> SOGGETTI = new StagingTable<>("STG_SOGGETTI",
+            List.of("intermediario", "ndg", "data_censimento_anagrafico", "data_estinzione_anagrafica",
+                    "filiale_censimento_anagrafico", "tipo_soggetto", "natura_giuridica", "sesso",
+                    "codice_fiscale", "cognome", "nome", "data_nascita", "comune", "provincia", "nazione",
+                    "data_predisposizione_flusso", "controllo_di_fine_riga"),
+            s -> new String[]{
+                    s.getIntermediario(), s.getNdg(), s.getDataCensimentoAnagrafico(), s.getDataEstinzioneAnagrafica(),
+                    s.getFilialeCensimentoAnagrafico(), s.getTipoSoggetto(), s.getNaturaGiuridica(), s.getSesso(),
+                    s.getCodiceFiscale(), s.getCognome(), s.getNome(), s.getDataNascita(), s.getComune(),
+                    s.getProvincia(), s.getNazione(), s.getDataPredisposizioneFlusso(), s.getControlloDiFineRiga()},
+            Soggetti::getRawRow);
+
+    static final StagingTable<Rapporti> RAPPORTI = new StagingTable<>("STG_RAPPORTI",
+            List.of("intermediario", "chiave_rapporto", "tipo_rapporto_interno", "forma_tecnica",
+                    "filiale", "cab", "numero_conto", "cin", "divisa", "data_inizio_rapporto",
+                    "data_fine_rapporto", "note", "flag_stato_rapporto", "data_predisposizione",
+                    "controllo_di_fine_riga"),
+            r -> new String[]{
+                    r.getIntermediario(), r.getChiaveRapporto(), r.getTipoRapportoInterno(), r.getFormaTecnica(),
+                    r.getFiliale(), r.getCab(), r.getNumeroConto(), r.getCin(), r.getDivisa(), r.getDataInizioRapporto(),
+                    r.getDataFineRapporto(), r.getNote(), r.getFlagStatoRapporto(), r.getDataPredisposizione(),
+                    r.getControlloDiFineRiga()},
+            Rapporti::getRawRow);
+
+    static final StagingTable<DatiContabili> DATI_CONTABILI = new StagingTable<>("STG_DATI_CONTABILI",
+            List.of("intermediario", "chiave_rapporto", "anno_di_riferimento", "periodicita",
+                    "progressivo_periodicita", "divisa", "data_inizio_riferimento", "data_fine_riferimento",
+                    "importo_saldo_iniziale", "importo_saldo_finale", "totale_operazioni_attive",
+                    "totale_operazioni_passive", "giacenza_media", "flag_soglia_saldo_iniziale",
+                    "flag_soglia_saldo_finale", "flag_soglia_operazioni_attive",
+                    "flag_soglia_operazioni_passive", "flag_soglia_giacenza_media",
+                    "altre_informazioni", "flag_stato_importo", "data_predisposizione",
+                    "tipo_rapporto_interno", "forma_tecnica", "flag_soglia_altre_informazioni",
+                    "controllo_di_fine_riga"),
+            d -> new String[]{
+                    d.getIntermediario(), d.getChiaveRapporto(), d.getAnnoDiRiferimento(), d.getPeriodicita(),
+                    d.getProgressivoPeriodicita(), d.getDivisa(), d.getDataInizioRiferimento(), d.getDataFineRiferimento(),
+                    d.getImportoSaldoIniziale(), d.getImportoSaldoFinale(), d.getTotaleOperazioniAttive(),
+                    d.getTotaleOperazioniPassive(), d.getGiacenzaMedia(), d.getFlagSogliaSaldoIniziale(),
+                    d.getFlagSogliaSaldoFinale(), d.getFlagSogliaOperazioniAttive(),
+                    d.getFlagSogliaOperazioniPassive(), d.getFlagSogliaGiacenzaMedia(),
+                    d.getAltreInformazioni(), d.getFlagStatoImporto(), d.getDataPredisposizione(),
+                    d.getTipoRapportoInterno(), d.getFormaTecnica(), d.getFlagSogliaAltreInformazioni(),
+                    d.getControlloDiFineRiga()},
+            DatiContabili::getRawRow);
+
+    static final StagingTable<Collegamenti> COLLEGAMENTI = new StagingTable<>("STG_COLLEGAMENTI",
+            List.of("intermediario", "chiave_rapporto", "ndg", "ruolo",
+                    "data_inizio_collegamento", "data_fine_collegamento", "ruolo_interno",
+                    "flag_stato_collegamento", "data_predisposizione_flusso", "controllo_di_fine_riga"),
+            c -> new String[]{
+                    c.getIntermediario(), c.getChiaveRapporto(), c.getNdg(), c.getRuolo(),
+                    c.getDataInizioCollegamento(), c.getDataFineCollegamento(), c.getRuoloInterno(),
+                    c.getFlagStatoCollegamento(), c.getDataPredisposizioneFlusso(), c.getControlloDiFineRiga()},
+            Collegamenti::getRawRow);
+
+    static final StagingTable<CambioNdg> CAMBIO_NDG = new StagingTable<>("STG_CAMBIO_NDG",
+            List.of("intermediario", "ndg_vecchio", "ndg_nuovo", "controllo_di_fine_riga"),
+            cn -> new String[]{
+                    cn.getIntermediario(), cn.getNdgVecchio(), cn.getNdgNuovo(), cn.getControlloDiFineRiga()},
+            CambioNdg::getRawRow);
+
+    private StagingTables() {
+    }
+
+    // Same semantics as the native SQL path: NULL values are stored as empty strings
+    static String nvl(String s) {
+        return s == null ? "" : s;
+    }
+
+    static String truncateRawRow(String s) {
+        if (s == null) return "";
+        return s.length() > RAW_ROW_MAX_LENGTH ? s.substring(0, RAW_ROW_MAX_LENGTH) : s;
+    }
+}
@@ -0,0 +1,36 @@
+package it.deloitte.postrxade.service;
+
+import it.deloitte.postrxade.entity.Submission;
+import it.deloitte.postrxade.records.IngestionCounts;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Service maintaining and serving the materialised row counts of the ingestions (INGESTION_STATS).
+ * <p>
+ * The ingestion pipeline records the counts once, when a submission has been fully processed.
+ * Readers get them with a primary-key lookup; ingestions without a stats row (still processing,
+ * or loaded before the table existed) are counted live with a single grouped query.
+ */
+public interface IngestionStatsService {
+
+    /**
+     * Count the rows of every ingestion of the submission and store them, replacing any previous stats.
+     *
+     * @param submission a submission whose data will not change any more
+     */
+    void recordSubmissionStats(Submission submission);
+
+    /**
+     * @param ingestionIds the ingestions to look up
+     * @return the counts of each ingestion, ingestions without any row are absent
+     */
+    Map<Long, IngestionCounts> getCountsByIngestion(Collection<Long> ingestionIds);
+
+    /**
+     * @param submissionIds the submissions to sum over
+     * @return the counts of all their ingestions summed by ingestion type name, types without ingestions are absent
+     */
+    Map<String, IngestionCounts> getCountsByIngestionType(Collection<Long> submissionIds);
+}
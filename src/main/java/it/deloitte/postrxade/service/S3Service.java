@@ -6,6 +6,7 @@ import software.amazon.awssdk.services.s3.model.S3Object;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -23,6 +24,18 @@ public interface S3Service {
      */
     String uploadFile(String key, InputStream inputStream, String contentType);
 
+    /**
+     * Streams a file to S3 with a multipart upload: parts are uploaded in parallel while
+     * {@code writer} is still producing the content, so the file is never held in memory.
+     * The object is published only if the writer returns normally, otherwise the upload is aborted.
+     *
+     * @param key the S3 object key
+     * @param contentType the content type
+     * @param writer writes the file content; the stream must not be closed by the writer to publish it
+     * @return the S3 object key
+     */
+    String uploadStream(String key, String contentType, StreamWriter writer) throws IOException;
+
     /**
      * Downloads a file from S3.
      *
@@ -77,4 +90,11 @@ public interface S3Service {
 
     List<String> fetchFileKeysFromBucketTest() throws NotFoundRecordException;
 
+    /**
+     * Producer of the content of a streamed upload.
+     */
+    @FunctionalInterface
+    interface StreamWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
 }
@@ -0,0 +1,23 @@
+package it.deloitte.postrxade.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service physically removing the data of a failed submission.
+ * <p>
+ * The purge runs in the background and deletes the MERCHANT_*, ERROR_CAUSE, ERROR_RECORD and INGESTION_STATS rows
+ * of the submission in bounded, separately committed pk-range chunks (children before parents),
+ * so that a large submission never turns into one huge DELETE holding locks and undo on the
+ * shared cluster. The caller is expected to have marked the submission ERROR already.
+ */
+public interface SubmissionPurgeService {
+
+    /**
+     * Schedule the purge of all data of a submission. Safe to call again for a submission whose
+     * purge was interrupted: it continues with whatever rows are left.
+     *
+     * @param submissionId the failed submission
+     * @return completes when every row has been deleted
+     */
+    CompletableFuture<Void> purgeSubmissionAsync(Long submissionId);
+}
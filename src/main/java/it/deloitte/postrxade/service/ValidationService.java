@@ -1,10 +1,9 @@
 package it.deloitte.postrxade.service;
 
 import it.deloitte.postrxade.dto.DataQualityIssueDTO;
-import it.deloitte.postrxade.dto.ExcelExportDTO;
 import it.deloitte.postrxade.dto.ValidationPageDTO;
 import it.deloitte.postrxade.exception.NotFoundRecordException;
-import org.springframework.scheduling.annotation.Async;
+import it.deloitte.postrxade.utils.ReportJob;
 
 import java.util.List;
 
@@ -54,30 +53,29 @@ public interface ValidationService {
     String startReportJob(Integer fy, String period);
 
     /**
-     * Checks the current status of a job.
+     * Returns the current state of a job: status, progress and rows written.
      *
      * @param jobId The UUID string of the job.
-     * @return The status string (ACCEPTED, PROCESSING, COMPLETED, FAILED, NOT_FOUND).
+     * @return The {@link ReportJob}, or null if the job does not exist.
      */
-    String getJobStatus(String jobId);
+    ReportJob getJob(String jobId);
 
     /**
-     * Retrieves the final result, handles audit logging, and cleans up the job.
+     * Retrieves the completed job, handles audit logging, and cleans up the job.
      *
      * @param jobId The UUID string of the job.
-     * @return The final {@link ExcelExportDTO} report.
+     * @return The completed {@link ReportJob}, whose result file holds the .xlsx report.
      * @throws IllegalStateException if the job is not completed.
      */
-    ExcelExportDTO getJobResult(String jobId);
+    ReportJob getJobResult(String jobId);
 
     /**
-     * Asynchronous worker method.
-     * Kept in the interface to allow for Async proxying if needed.
+     * Worker method writing the report file of a job.
+     * Runs on the report executor, submitted by {@link #startReportJob(Integer, String)}.
      *
      * @param jobId  The job ID to update.
      * @param fy     The Fiscal Year.
      * @param period The specific Period.
      */
-    @Async
     void generateExcelDataAsync(String jobId, Integer fy, String period);
 }
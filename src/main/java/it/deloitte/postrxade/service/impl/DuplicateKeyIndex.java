@@ -0,0 +1,175 @@
+package it.deloitte.postrxade.service.impl;
+
+/**
+ * Intra-file duplicate index of the staging pipeline: for every key seen in a file, the lowest
+ * line number on which it occurred as a valid line.
+ *
+ * <p>Keys are never stored. Each one is reduced to a 128-bit {@link Fingerprint} (two independent
+ * 64-bit hashes of the key fields) kept in open-addressing {@code long} tables, i.e. about
+ * 24 bytes per key plus free slots, instead of a String, a map node and a boxed Long. The first
+ * hash picks the slot, the second one is compared on every probe so that two keys colliding on 64
+ * bits are still told apart; a false duplicate needs both hashes to collide (about 10^-25 for
+ * 10 million keys).</p>
+ *
+ * <p>Parse workers register concurrently while the writer reads: the table is split in segments
+ * chosen by the high bits of the hash, each guarded by its own monitor.</p>
+ */
+class DuplicateKeyIndex {
+
+    /**
+     * 128-bit fingerprint of a duplicate key.
+     */
+    record Fingerprint(long hash, long check) {
+
+        private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+        private static final long FNV_PRIME = 0x100000001b3L;
+        private static final long MIX_SEED = 0x9e3779b97f4a7c15L;
+        private static final long MIX_MULTIPLIER = 0xbf58476d1ce4e5b9L;
+        // Between fields, so that ("ab", "c") and ("a", "bc") differ
+        private static final char FIELD_SEPARATOR = '\u001f';
+        private static final char NULL_FIELD = '\u0000';
+
+        /**
+         * Fingerprint of the key made of the given fields, in order.
+         */
+        static Fingerprint of(String... fields) {
+            long hash = FNV_OFFSET;
+            long check = MIX_SEED;
+            for (String field : fields) {
+                if (field == null) {
+                    hash = (hash ^ NULL_FIELD) * FNV_PRIME;
+                    check = Long.rotateLeft(check ^ NULL_FIELD * MIX_MULTIPLIER, 27) * MIX_SEED;
+                } else {
+                    for (int i = 0; i < field.length(); i++) {
+                        char c = field.charAt(i);
+                        hash = (hash ^ c) * FNV_PRIME;
+                        check = Long.rotateLeft(check ^ (c + 1L) * MIX_MULTIPLIER, 27) * MIX_SEED;
+                    }
+                }
+                hash = (hash ^ FIELD_SEPARATOR) * FNV_PRIME;
+                check = Long.rotateLeft(check ^ FIELD_SEPARATOR * MIX_MULTIPLIER, 27) * MIX_SEED;
+            }
+            return new Fingerprint(finish(hash), finish(check));
+        }
+
+        // splitmix64 finalizer: spreads FNV's weak low bits over the whole word
+        private static long finish(long z) {
+            z = (z ^ (z >>> 30)) * MIX_MULTIPLIER;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    static final long ABSENT = Long.MAX_VALUE;
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int INITIAL_SEGMENT_CAPACITY = 256;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    DuplicateKeyIndex() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Record that the key occurs on {@code lineNumber} (1-based), keeping the lowest line seen.
+     */
+    void register(Fingerprint key, long lineNumber) {
+        segmentFor(key).register(key.hash(), key.check(), lineNumber);
+    }
+
+    /**
+     * @return the lowest line registered for the key, {@link #ABSENT} if none
+     */
+    long firstLine(Fingerprint key) {
+        return segmentFor(key).firstLine(key.hash(), key.check());
+    }
+
+    long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    long allocatedBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.allocatedBytes();
+        }
+        return bytes;
+    }
+
+    private Segment segmentFor(Fingerprint key) {
+        return segments[(int) (key.hash() >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    /**
+     * Linear-probing table; a slot is free while its line is 0 (lines are 1-based).
+     */
+    private static final class Segment {
+
+        private long[] hashes = new long[INITIAL_SEGMENT_CAPACITY];
+        private long[] checks = new long[INITIAL_SEGMENT_CAPACITY];
+        private long[] lines = new long[INITIAL_SEGMENT_CAPACITY];
+        private int size;
+
+        synchronized void register(long hash, long check, long lineNumber) {
+            int slot = find(hash, check);
+            if (lines[slot] != 0) {
+                lines[slot] = Math.min(lines[slot], lineNumber);
+                return;
+            }
+            hashes[slot] = hash;
+            checks[slot] = check;
+            lines[slot] = lineNumber;
+            // Keep the load factor under 0.75
+            if (++size * 4L > lines.length * 3L) {
+                grow();
+            }
+        }
+
+        synchronized long firstLine(long hash, long check) {
+            long line = lines[find(hash, check)];
+            return line != 0 ? line : ABSENT;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long allocatedBytes() {
+            return lines.length * 3L * Long.BYTES;
+        }
+
+        // Slot holding the key, or the free slot where it belongs
+        private int find(long hash, long check) {
+            int mask = lines.length - 1;
+            int slot = (int) hash & mask;
+            while (lines[slot] != 0 && (hashes[slot] != hash || checks[slot] != check)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldHashes = hashes;
+            long[] oldChecks = checks;
+            long[] oldLines = lines;
+            hashes = new long[oldLines.length * 2];
+            checks = new long[oldLines.length * 2];
+            lines = new long[oldLines.length * 2];
+            for (int i = 0; i < oldLines.length; i++) {
+                if (oldLines[i] != 0) {
+                    int slot = find(oldHashes[i], oldChecks[i]);
+                    hashes[slot] = oldHashes[i];
+                    checks[slot] = oldChecks[i];
+                    lines[slot] = oldLines[i];
+                }
+            }
+        }
+    }
+}
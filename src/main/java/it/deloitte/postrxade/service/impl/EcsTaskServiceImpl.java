@@ -1,5 +1,6 @@
 package it.deloitte.postrxade.service.impl;
 
+import it.deloitte.postrxade.enums.DataSourceWorkloadEnum;
 import it.deloitte.postrxade.service.EcsTaskService;
 import it.deloitte.postrxade.tenant.TenantConfiguration;
 import it.deloitte.postrxade.tenant.TenantConfiguration.TenantProperties;
@@ -150,6 +151,15 @@ public class EcsTaskServiceImpl implements EcsTaskService {
                 log.debug("Overriding OUTPUT_ROWS_PER_FILE with value: {}", outputRowsPerFile);
             }
 
+            // Pool sizing of the output task for this tenant (multi-tenant.tenants.<id>.pool.output / pool-defaults.output)
+            TenantConfiguration.PoolProperties outputPool = tenantConfiguration.getPoolProperties(tenantId, DataSourceWorkloadEnum.OUTPUT);
+            if (outputPool.getMaximumPoolSize() != null) {
+                environmentVariables.put("OUTPUT_DB_POOL_MAX_SIZE", String.valueOf(outputPool.getMaximumPoolSize()));
+            }
+            if (outputPool.getMinimumIdle() != null) {
+                environmentVariables.put("OUTPUT_DB_POOL_MIN_IDLE", String.valueOf(outputPool.getMinimumIdle()));
+            }
+
             // Build container overrides
             // IMPORTANTE: .name() deve essere il nome del container nella task definition (case-sensitive)
             ContainerOverride containerOverride = ContainerOverride.builder()
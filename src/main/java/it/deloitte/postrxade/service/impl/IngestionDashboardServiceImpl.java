@@ -9,7 +9,9 @@ import it.deloitte.postrxade.entity.Submission;
 import it.deloitte.postrxade.enums.IngestionStatusEnum;
 import it.deloitte.postrxade.enums.IngestionTypeEnum;
 import it.deloitte.postrxade.repository.*;
+import it.deloitte.postrxade.records.IngestionCounts;
 import it.deloitte.postrxade.service.IngestionDashboardService;
+import it.deloitte.postrxade.service.IngestionStatsService;
 import ma.glasnost.orika.MapperFacade;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -36,17 +38,9 @@ public class IngestionDashboardServiceImpl implements IngestionDashboardService
     @Autowired
     TransactionRepository transactionRepository;
     @Autowired
-    SoggettiRepository soggettiRepository;
-    @Autowired
-    RapportiRepository rapportiRepository;
-    @Autowired
-    DatiContabiliRepository datiContabiliRepository;
-    @Autowired
-    CollegamentiRepository collegamentiRepository;
-    @Autowired
-    ErrorRecordRepository errorRecordRepository;
-    @Autowired
     MerchantRepository merchantRepository;
+    @Autowired
+    IngestionStatsService ingestionStatsService;
 
     @Autowired
     private @Qualifier("alternativeMapperFacade") MapperFacade alternativeMapperFacade;
@@ -57,7 +51,8 @@ public class IngestionDashboardServiceImpl implements IngestionDashboardService
      * Logic:
      * 1. Fetches all submissions (including Cancelled/Rejected).
      * 2. Iterates through the Ingestions within each Submission.
-     * 3. <strong>Aggregation:</strong> Sums up transaction and error counts for "transato" and "anagrafe" types.
+     * 3. <strong>Aggregation:</strong> Sums up the accepted and error counts of each merchant type, read for all
+     * ingestions at once from the materialised INGESTION_STATS.
      * 4. <strong>Status Determination:</strong> Calculates the overall batch status based on priority:
      * <ul>
      * <li>If ANY ingestion failed -> Batch is <strong>Failed</strong>.</li>
@@ -73,6 +68,15 @@ public class IngestionDashboardServiceImpl implements IngestionDashboardService
 
         List<Submission> submissions = submissionRepository.findAll();
 
+        List<Long> ingestionIds = submissions.stream()
+                .filter(Objects::nonNull)
+                .filter(submission -> submission.getIngestions() != null)
+                .flatMap(submission -> submission.getIngestions().stream())
+                .filter(Objects::nonNull)
+                .map(Ingestion::getId)
+                .toList();
+        Map<Long, IngestionCounts> countsByIngestion = ingestionStatsService.getCountsByIngestion(ingestionIds);
+
         DateTimeFormatter PRETTY_FORMATTER = DateTimeFormatter
                 .ofPattern("d MMMM yyyy, HH:mm", Locale.ENGLISH);
 
@@ -120,24 +124,19 @@ public class IngestionDashboardServiceImpl implements IngestionDashboardService
                             String statusName = (ingestion.getIngestionStatus() != null) ? ingestion.getIngestionStatus().getName() : "";
 
                             // A. COUNTING LOGIC (Using IngestionTypeEnum)
+                            IngestionCounts counts = countsByIngestion.getOrDefault(ingestion.getId(), IngestionCounts.EMPTY);
                             if (IngestionTypeEnum.SOGGETTI.getLabel().equals(typeName)) {
-                                totalNoSoggetti += soggettiRepository.countByIngestionId(ingestion.getId());
-                                totalNoSoggettiErrors += errorRecordRepository
-                                        .countByIngestionIdAndIngestionIngestionTypeName(ingestion.getId(), IngestionTypeEnum.SOGGETTI.getLabel());
+                                totalNoSoggetti += counts.acceptedCount();
+                                totalNoSoggettiErrors += counts.errorRecordCount();
                             } else if (IngestionTypeEnum.RAPPORTI.getLabel().equals(typeName)) {
-                                totalNoRapporti += rapportiRepository.countByIngestionId(ingestion.getId());
-                                totalNoRapportiErrors += errorRecordRepository
-                                        .countByIngestionIdAndIngestionIngestionTypeName(ingestion.getId(), IngestionTypeEnum.RAPPORTI.getLabel());
+                                totalNoRapporti += counts.acceptedCount();
+                                totalNoRapportiErrors += counts.errorRecordCount();
                             } else if (IngestionTypeEnum.DATI_CONTABILI.getLabel().equals(typeName)) {
-                                totalNoDatiContabili += datiContabiliRepository.countByIngestionId(ingestion.getId());
-                                totalNoDatiContabiliErrors += errorRecordRepository
-                                        .countByIngestionIdAndIngestionIngestionTypeName(ingestion.getId(), IngestionTypeEnum.DATI_CONTABILI.getLabel());
-
+                                totalNoDatiContabili += counts.acceptedCount();
+                                totalNoDatiContabiliErrors += counts.errorRecordCount();
                             } else if (IngestionTypeEnum.COLLEGAMENTI.getLabel().equals(typeName)) {
-                                totalNoCollegamenti += collegamentiRepository.countByIngestionId(ingestion.getId());
-                                totalNoCollegamentiErrors += errorRecordRepository
-                                        .countByIngestionIdAndIngestionIngestionTypeName(ingestion.getId(), IngestionTypeEnum.COLLEGAMENTI.getLabel());
-
+                                totalNoCollegamenti += counts.acceptedCount();
+                                totalNoCollegamentiErrors += counts.errorRecordCount();
                             }
 
                             // B. STATUS LOGIC (Using IngestionStatusEnum)
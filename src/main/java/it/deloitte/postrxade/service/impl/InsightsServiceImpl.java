@@ -6,8 +6,10 @@ import it.deloitte.postrxade.enums.IngestionTypeEnum;
 import it.deloitte.postrxade.enums.PaymentTypeEnum;
 import it.deloitte.postrxade.enums.SubmissionStatusEnum;
 import it.deloitte.postrxade.exception.NotFoundRecordException;
+import it.deloitte.postrxade.records.IngestionCounts;
 import it.deloitte.postrxade.records.TransactionDateCount;
 import it.deloitte.postrxade.repository.*;
+import it.deloitte.postrxade.service.IngestionStatsService;
 import it.deloitte.postrxade.service.InsightsService;
 import it.deloitte.postrxade.service.ObligationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,19 +45,11 @@ public class InsightsServiceImpl implements InsightsService {
     @Autowired
     private TransactionRepository transactionRepository;
     @Autowired
-    private SoggettiRepository soggettiRepository;
-    @Autowired
-    private RapportiRepository rapportiRepository;
-    @Autowired
-    private CollegamentiRepository collegamentiRepository;
-    @Autowired
-    private DatiContabiliRepository datiContabiliRepository;
-    @Autowired
-    private ErrorRecordRepository errorRecordRepository;
-    @Autowired
     private ErrorCauseRepository errorCauseRepository;
     @Autowired
     private ErrorTypeRepository errorTypeRepository;
+    @Autowired
+    private IngestionStatsService ingestionStatsService;
 
     /**
      * Retrieves a high-level summary of transactions for the current period and the previous period.
@@ -236,7 +230,8 @@ public class InsightsServiceImpl implements InsightsService {
 
         Map<String, Long> errorCounts = new HashMap<>();
         long totalNoErrorTransactions = transactionRepository.countTransactionsBySubmissionIds(submissionIds);
-        long errorRecords = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(submissionIds, ingestionType.getLabel());
+        long errorRecords = ingestionStatsService.getCountsByIngestionType(submissionIds)
+                .getOrDefault(ingestionType.getLabel(), IngestionCounts.EMPTY).errorRecordCount();
 
         List<ErrorType> distinctErrorTypes = errorTypeRepository.findDistinctErrorTypesBySubmissionIdsAndIngestionType(
                 submissionIds, ingestionType.getLabel());
@@ -419,45 +414,38 @@ public class InsightsServiceImpl implements InsightsService {
         List<Long> submissoinIds = submissions.stream().map(Submission::getId).toList();
         List<Long> prevSubmissoinIds = prevSubmissions.stream().map(Submission::getId).toList();
 
-        long totalNoErrorSoggetti = soggettiRepository.countBySubmissionIn(submissoinIds);
-        long totalNoErrorRapporti = rapportiRepository.countBySubmissionIn(submissoinIds);
-        long totalNoErrorDatiContabili = datiContabiliRepository.countBySubmissionIn(submissoinIds);
-        long totalNoErrorCollegamenti = collegamentiRepository.countBySubmissionIn(submissoinIds);
-
-        long totalPrevNoErrorSoggetti = soggettiRepository.countBySubmissionIn(prevSubmissoinIds);
-        long totalPrevNoErrorRapporti = rapportiRepository.countBySubmissionIn(prevSubmissoinIds);
-        long totalPrevNoErrorDatiContabili = datiContabiliRepository.countBySubmissionIn(prevSubmissoinIds);
-        long totalPrevNoErrorCollegamenti = collegamentiRepository.countBySubmissionIn(prevSubmissoinIds);
-
-        long soggetiErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(submissoinIds, IngestionTypeEnum.SOGGETTI.getLabel());
-        long rapportiErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(submissoinIds, IngestionTypeEnum.RAPPORTI.getLabel());
-        long datiCollegamentiErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(submissoinIds, IngestionTypeEnum.DATI_CONTABILI.getLabel());
-        long collegamentiErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(submissoinIds, IngestionTypeEnum.COLLEGAMENTI.getLabel());
-
-        long soggetiPrevErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(prevSubmissoinIds, IngestionTypeEnum.SOGGETTI.getLabel());
-        long rapportiPrevErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(prevSubmissoinIds, IngestionTypeEnum.RAPPORTI.getLabel());
-        long datiContabiliPrevErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(prevSubmissoinIds, IngestionTypeEnum.DATI_CONTABILI.getLabel());
-        long collegamentiPrevErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(prevSubmissoinIds, IngestionTypeEnum.COLLEGAMENTI.getLabel());
-
-        stats.setSoggettiAccepted(totalNoErrorSoggetti);
-        stats.setSoggettiReceived(totalNoErrorSoggetti + soggetiErrors);
-        stats.setPreviousSoggettiAccepted(totalPrevNoErrorSoggetti);
-        stats.setPreviousSoggettiReceived(totalPrevNoErrorSoggetti + soggetiPrevErrors);
-
-        stats.setRapportiAccepted(totalNoErrorRapporti);
-        stats.setRapportiReceived(totalNoErrorRapporti + rapportiErrors);
-        stats.setPreviousRapportiAccepted(totalPrevNoErrorRapporti);
-        stats.setPreviousRapportiReceived(totalPrevNoErrorRapporti + rapportiPrevErrors);
-
-        stats.setDatiContabiliAccepted(totalNoErrorDatiContabili);
-        stats.setDatiContabiliReceived(totalNoErrorDatiContabili + datiCollegamentiErrors);
-        stats.setPreviousDatiContabiliAccepted(totalPrevNoErrorDatiContabili);
-        stats.setPreviousDatiContabiliReceived(totalPrevNoErrorDatiContabili + datiContabiliPrevErrors);
-
-        stats.setCollegamentiAccepted(totalNoErrorCollegamenti);
-        stats.setCollegamentiReceived(totalNoErrorCollegamenti + collegamentiErrors);
-        stats.setPreviousCollegamentiAccepted(totalPrevNoErrorCollegamenti);
-        stats.setPreviousCollegamentiReceived(totalPrevNoErrorCollegamenti + collegamentiPrevErrors);
+        Map<String, IngestionCounts> countsByType = ingestionStatsService.getCountsByIngestionType(submissoinIds);
+        Map<String, IngestionCounts> prevCountsByType = ingestionStatsService.getCountsByIngestionType(prevSubmissoinIds);
+
+        IngestionCounts soggetti = countsByType.getOrDefault(IngestionTypeEnum.SOGGETTI.getLabel(), IngestionCounts.EMPTY);
+        IngestionCounts rapporti = countsByType.getOrDefault(IngestionTypeEnum.RAPPORTI.getLabel(), IngestionCounts.EMPTY);
+        IngestionCounts datiContabili = countsByType.getOrDefault(IngestionTypeEnum.DATI_CONTABILI.getLabel(), IngestionCounts.EMPTY);
+        IngestionCounts collegamenti = countsByType.getOrDefault(IngestionTypeEnum.COLLEGAMENTI.getLabel(), IngestionCounts.EMPTY);
+
+        IngestionCounts prevSoggetti = prevCountsByType.getOrDefault(IngestionTypeEnum.SOGGETTI.getLabel(), IngestionCounts.EMPTY);
+        IngestionCounts prevRapporti = prevCountsByType.getOrDefault(IngestionTypeEnum.RAPPORTI.getLabel(), IngestionCounts.EMPTY);
+        IngestionCounts prevDatiContabili = prevCountsByType.getOrDefault(IngestionTypeEnum.DATI_CONTABILI.getLabel(), IngestionCounts.EMPTY);
+        IngestionCounts prevCollegamenti = prevCountsByType.getOrDefault(IngestionTypeEnum.COLLEGAMENTI.getLabel(), IngestionCounts.EMPTY);
+
+        stats.setSoggettiAccepted(soggetti.acceptedCount());
+        stats.setSoggettiReceived(soggetti.receivedCount());
+        stats.setPreviousSoggettiAccepted(prevSoggetti.acceptedCount());
+        stats.setPreviousSoggettiReceived(prevSoggetti.receivedCount());
+
+        stats.setRapportiAccepted(rapporti.acceptedCount());
+        stats.setRapportiReceived(rapporti.receivedCount());
+        stats.setPreviousRapportiAccepted(prevRapporti.acceptedCount());
+        stats.setPreviousRapportiReceived(prevRapporti.receivedCount());
+
+        stats.setDatiContabiliAccepted(datiContabili.acceptedCount());
+        stats.setDatiContabiliReceived(datiContabili.receivedCount());
+        stats.setPreviousDatiContabiliAccepted(prevDatiContabili.acceptedCount());
+        stats.setPreviousDatiContabiliReceived(prevDatiContabili.receivedCount());
+
+        stats.setCollegamentiAccepted(collegamenti.acceptedCount());
+        stats.setCollegamentiReceived(collegamenti.receivedCount());
+        stats.setPreviousCollegamentiAccepted(prevCollegamenti.acceptedCount());
+        stats.setPreviousCollegamentiReceived(prevCollegamenti.receivedCount());
     }
 
     /**
@@ -467,8 +455,8 @@ public class InsightsServiceImpl implements InsightsService {
         List<Long> submissionIds = submissions.stream().map(Submission::getId).toList();
 
         long totalNoErrorTransactions = transactionRepository.countTransactionsBySubmissionIds(submissionIds);
-        long errors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(
-                submissionIds, IngestionTypeEnum.SOGGETTI.getLabel());
+        long errors = ingestionStatsService.getCountsByIngestionType(submissionIds)
+                .getOrDefault(IngestionTypeEnum.SOGGETTI.getLabel(), IngestionCounts.EMPTY).errorRecordCount();
 
         long totalTransactions = totalNoErrorTransactions + errors;
 
@@ -3,6 +3,7 @@ package it.deloitte.postrxade.service.impl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.format.TextStyle;
 import java.util.ArrayList;
@@ -13,6 +14,8 @@ import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
 import it.deloitte.postrxade.entity.*;
@@ -21,9 +24,14 @@ import it.deloitte.postrxade.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import it.deloitte.postrxade.dto.PeriodSubmissionData;
 import it.deloitte.postrxade.dto.SubmissionCustomDTO;
@@ -35,9 +43,11 @@ import it.deloitte.postrxade.records.FileDescriptor;
 import it.deloitte.postrxade.records.ProcessedRecordBatch;
 import it.deloitte.postrxade.records.StagingResult;
 import it.deloitte.postrxade.service.IngestionService;
+import it.deloitte.postrxade.service.IngestionStatsService;
 import it.deloitte.postrxade.service.ObligationService;
 import it.deloitte.postrxade.service.S3Service;
 import it.deloitte.postrxade.service.StagingIngestionService;
+import it.deloitte.postrxade.service.SubmissionPurgeService;
 import it.deloitte.postrxade.service.SubmissionService;
 import lombok.extern.slf4j.Slf4j;
 import ma.glasnost.orika.MapperFacade;
@@ -60,6 +70,8 @@ public class ObligationServiceImpl implements ObligationService {
     private static final String OBLIGATION_NOT_VALID_MSG = "Obligation with period %s and fiscal year %s has invalid number of active submission.";
     private static final String ERROR_TAG = "error";
     private static final String WARNING_TAG = "warning";
+    // raw_row kept on the error records of this service
+    private static final int ERROR_RAW_ROW_MAX_LENGTH = 250;
 
     @Autowired
     private ObligationRepository obligationRepository;
@@ -140,6 +152,22 @@ public class ObligationServiceImpl implements ObligationService {
     @Autowired
     private StagingRepository stagingRepository;
 
+    @Autowired
+    private IngestionProgressRepository ingestionProgressRepository;
+
+    @Autowired
+    private SubmissionPurgeService submissionPurgeService;
+
+    @Autowired
+    private IngestionStatsService ingestionStatsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("stagingLoadExecutor")
+    private AsyncTaskExecutor stagingLoadExecutor;
+
     @Value("${aws.s3.input-folder}")
     private String inputFolder;
 
@@ -148,6 +176,14 @@ public class ObligationServiceImpl implements ObligationService {
     @Value("${application.ingestion.use-staging:true}")
     private boolean useStagingIngestion;
 
+    // Resume an interrupted staging ingestion of the same obligation instead of rejecting the rerun
+    @Value("${application.ingestion.resume-enabled:false}")
+    private boolean resumeEnabled;
+
+    // Checkpoints must be older than this before a rerun takes the submission over (guards against a live task)
+    @Value("${application.ingestion.resume-idle-minutes:15}")
+    private long resumeIdleMinutes;
+
     /**
      * Retrieves all submissions for a given Fiscal Year and Period.
      * <p>
@@ -495,40 +531,51 @@ public class ObligationServiceImpl implements ObligationService {
                 obligation.getId(), obligation.getFiscalYear(),
                 period != null ? period.getName() : "null");
 
-        boolean hasActiveSubmission = hasActiveSubmission(obligation);
-        log.info("hasActiveSubmission check result: {} for obligation id={}, fiscalYear={}, period={}",
-                hasActiveSubmission, obligation.getId(), obligation.getFiscalYear(),
-                period != null ? period.getName() : "null");
-
-        if (hasActiveSubmission) {
-            log.warn("Found active submission for obligation id={}, fiscalYear={}, period={}. " +
-                            "Cannot start new ingestion. Please cancel/close existing submissions first.",
-                    obligation.getId(), obligation.getFiscalYear(),
+        Submission submission = findResumableSubmission(obligation).orElse(null);
+        if (submission != null) {
+            log.info("Resuming interrupted ingestion of submission id={} for obligation id={} from its checkpoints",
+                    submission.getId(), obligation.getId());
+        } else {
+            boolean hasActiveSubmission = hasActiveSubmission(obligation);
+            log.info("hasActiveSubmission check result: {} for obligation id={}, fiscalYear={}, period={}",
+                    hasActiveSubmission, obligation.getId(), obligation.getFiscalYear(),
                     period != null ? period.getName() : "null");
-        }
 
-        Submission submission = this.submissionService.createSubmissionByObligation(obligation);
-        log.info("Created submission: id={} with status: {}",
-                submission.getId(),
-                submission.getCurrentSubmissionStatus() != null ? submission.getCurrentSubmissionStatus().getName() : "null");
+            if (hasActiveSubmission) {
+                log.warn("Found active submission for obligation id={}, fiscalYear={}, period={}. " +
+                                "Cannot start new ingestion. Please cancel/close existing submissions first.",
+                        obligation.getId(), obligation.getFiscalYear(),
+                        period != null ? period.getName() : "null");
+            }
 
-        if (hasActiveSubmission) {
-            log.error("Aborting ingestion - active submission exists for obligation id={}. Marking new submission as ERROR.",
-                    obligation.getId());
-            submissionService.markAsError(submission);
-            return;
-        }
+            submission = this.submissionService.createSubmissionByObligation(obligation);
+            log.info("Created submission: id={} with status: {}",
+                    submission.getId(),
+                    submission.getCurrentSubmissionStatus() != null ? submission.getCurrentSubmissionStatus().getName() : "null");
+
+            if (hasActiveSubmission) {
+                log.error("Aborting ingestion - active submission exists for obligation id={}. Marking new submission as ERROR.",
+                        obligation.getId());
+                submissionService.markAsError(submission);
+                return;
+            }
 
-        log.info("No active submissions found. Proceeding with ingestion for submission id={}", submission.getId());
+            log.info("No active submissions found. Proceeding with ingestion for submission id={}", submission.getId());
 
-        // Update status to DATA_VALIDATION when starting data processing
-        try {
-            submissionService.updateStatusInternal(submission, 2); // DATA_VALIDATION
-            log.info("Updated submission {} status to DATA_VALIDATION - starting data processing", submission.getId());
-        } catch (NotFoundRecordException e) {
-            log.error("Failed to update submission status to DATA_VALIDATION", e);
-            submissionService.markAsError(submission);
-            return;
+            // Update status to DATA_VALIDATION when starting data processing
+            try {
+                submissionService.updateStatusInternal(submission, 2); // DATA_VALIDATION
+                log.info("Updated submission {} status to DATA_VALIDATION - starting data processing", submission.getId());
+            } catch (NotFoundRecordException e) {
+                log.error("Failed to update submission status to DATA_VALIDATION", e);
+                submissionService.markAsError(submission);
+                return;
+            }
+
+            // Only the staging approach checkpoints its work, so only it can be resumed
+            if (useStagingIngestion) {
+                markSubmissionPhase(submission, IngestionPhaseEnum.STARTED);
+            }
         }
 
         AtomicReference<Ingestion> ingestionRef = new AtomicReference<>();
@@ -552,6 +599,18 @@ public class ObligationServiceImpl implements ObligationService {
             }
 //            s3Service.moveFileFromInputToInputLoaded(fileProps.eotFileName());
 
+            // The data of the submission is final: materialise its counts for the dashboards
+            try {
+                ingestionStatsService.recordSubmissionStats(submission);
+            } catch (RuntimeException e) {
+                // Not fatal, the readers count ingestions without stats live
+                log.warn("Failed to record ingestion stats of submission {}: {}", submission.getId(), e.getMessage(), e);
+            }
+
+            if (useStagingIngestion) {
+                markSubmissionPhase(submission, IngestionPhaseEnum.COMPLETED);
+            }
+
             // All files processed successfully - update status to VALIDATION_COMPLETED
             try {
                 submissionService.updateStatusInternal(submission, 3); // VALIDATION_COMPLETED
@@ -566,6 +625,39 @@ public class ObligationServiceImpl implements ObligationService {
         }
     }
 
+    /**
+     * Finds the submission of an interrupted staging ingestion that this run can continue.
+     * <p>
+     * Candidates are in DATA_VALIDATION with a submission checkpoint not yet COMPLETED (a failure
+     * that was handled went through cleanUpFailedSubmission and is in ERROR instead). The
+     * checkpoints must have been idle for {@code resume-idle-minutes}, so that a task that is
+     * still running is never taken over.
+     */
+    private Optional<Submission> findResumableSubmission(Obligation obligation) {
+        if (!resumeEnabled || !useStagingIngestion) {
+            return Optional.empty();
+        }
+        LocalDateTime idleSince = LocalDateTime.now().minusMinutes(resumeIdleMinutes);
+        for (Submission candidate : submissionRepository.findByObligationId(obligation.getId())) {
+            if (!SubmissionStatusEnum.DATA_VALIDATION.getDbName().equals(candidate.getCurrentSubmissionStatus().getName())) {
+                continue;
+            }
+            IngestionPhaseEnum phase = submissionPhase(candidate);
+            if (phase == null || phase == IngestionPhaseEnum.COMPLETED) {
+                continue;
+            }
+            LocalDateTime lastUpdate = ingestionProgressRepository.findLastUpdateBySubmissionId(candidate.getId())
+                    .orElse(LocalDateTime.MIN);
+            if (lastUpdate.isAfter(idleSince)) {
+                log.warn("Submission id={} has checkpoints updated at {}, less than {} minutes ago: not resuming it",
+                        candidate.getId(), lastUpdate, resumeIdleMinutes);
+                continue;
+            }
+            return Optional.of(candidate);
+        }
+        return Optional.empty();
+    }
+
     private boolean hasActiveSubmission(Obligation obligation) {
         List<Submission> submissions = submissionRepository.findByObligationId(obligation.getId());
         log.debug("Found {} total submission(s) for obligation id={}", submissions.size(), obligation.getId());
@@ -907,112 +999,97 @@ public class ObligationServiceImpl implements ObligationService {
         // This ensures main tables NEVER have orphans (not even temporarily)
         // =============================================================================
 
-        // Phase 1: Load Collegamenti files to STAGING ONLY (don't process to main yet)
-        log.info("=== STAGING Phase 1: Loading {} collegamenti file(s) to STAGING ONLY ===", collegamentiFiles.size());
+        // Phases 1, 2, 3 and 5 write to independent STG_* tables (and CambioNdg has no FK
+        // constraints at all), so they are loaded concurrently on the bounded staging executor.
+        // Ingestion types are resolved up-front so a missing type fails before anything is submitted.
         IngestionType collegamentiType = ingestionTypeRepository.findByNameIgnoreCase("Collegamenti")
                 .orElseThrow(() -> new NotFoundRecordException("Ingestion type 'collegamenti' is not found"));
+        IngestionType soggettiType = ingestionTypeRepository.findByNameIgnoreCase("soggetti")
+                .orElseThrow(() -> new NotFoundRecordException("Ingestion type 'soggetti' is not found"));
+        IngestionType rapportiType = ingestionTypeRepository.findByNameIgnoreCase("rapporti")
+                .orElseThrow(() -> new NotFoundRecordException("Ingestion type 'rapporti' is not found"));
+        IngestionType cambiondgType = ingestionTypeRepository.findByNameIgnoreCase("cambioNdg")
+                .orElseThrow(() -> new NotFoundRecordException("Ingestion type 'cambiondg' is not found"));
 
-        int totalCollegamentiParsed = 0;
-        int totalCollegamentiValidationErrors = 0;
-
-        for (String keyName : collegamentiFiles) {
-            String fileName = keyName.substring(keyName.lastIndexOf('/') + 1);
-            try (InputStream inputStream = s3Service.downloadFileAsStreamTest("COLLEGAMENTI.txt")) {
-                RemoteFile remoteFile = new RemoteFile(fileName, inputStream);
-
-                log.info("Loading collegamenti file to staging: {}", fileName);
-                ingestionRef.set(this.ingestionService.createIngestionBySubmission(submission, collegamentiType));
-
-                long fileStartTime = System.currentTimeMillis();
-                StagingResult result = stagingIngestionService.loadCollegamentiToStagingOnly(remoteFile, ingestionRef.get(), submission);
-                long fileElapsed = System.currentTimeMillis() - fileStartTime;
-
-                totalCollegamentiParsed += result.insertedCount();
-                totalCollegamentiValidationErrors += result.errorCount();
-
-                log.info("Loaded collegamenti file {} to staging in {}ms: parsed={}, validationErrors={}",
-                        fileName, fileElapsed, result.insertedCount(), result.errorCount());
+        // Each submission stages into its own STG_* partition, dropped in one go by cleanupStaging
+        stagingRepository.prepareStaging(submission.getId());
 
-                ingestionService.markAsSuccess(ingestionRef.get());
-            }
+        // Last set-based step committed by a previous run of this submission (STARTED on a fresh run)
+        IngestionPhaseEnum phase = Objects.requireNonNullElse(submissionPhase(submission), IngestionPhaseEnum.STARTED);
+        if (phase != IngestionPhaseEnum.STARTED) {
+            log.info("Submission {} resumes after phase {}", submission.getId(), phase.getLabel());
         }
 
-        log.info("=== STAGING Phase 1 Complete: {} collegamenti loaded to staging, {} validation errors ===",
-                totalCollegamentiParsed, totalCollegamentiValidationErrors);
-
+        // Phase 1: Load Collegamenti files to STAGING ONLY (don't process to main yet)
+        log.info("=== STAGING Phase 1: Loading {} collegamenti file(s) to STAGING ONLY ===", collegamentiFiles.size());
+        Future<StagingLoadSummary> collegamentiLoad = stagingLoadExecutor.submit(() ->
+                loadFilesToStaging("collegamenti", collegamentiFiles, "COLLEGAMENTI.txt", collegamentiType, submission,
+                        stagingIngestionService::loadCollegamentiToStagingOnly));
 
         // Phase 2: Load Soggetti files to STAGING ONLY (don't process to main yet)
         log.info("=== STAGING Phase 2: Loading {} soggetti file(s) to STAGING ONLY ===", soggettiFiles.size());
-        IngestionType soggettiType = ingestionTypeRepository.findByNameIgnoreCase("soggetti")
-                .orElseThrow(() -> new NotFoundRecordException("Ingestion type 'soggetti' is not found"));
-
-        int totalSoggettiParsed = 0;
-        int totalSoggettiValidationErrors = 0;
-
-        for (String keyName : soggettiFiles) {
-            String fileName = keyName.substring(keyName.lastIndexOf('/') + 1);
-            try (InputStream inputStream = s3Service.downloadFileAsStreamTest("SOGGETTI.txt")) {
-                RemoteFile remoteFile = new RemoteFile(fileName, inputStream);
-
-                log.info("Loading soggetti file to staging: {}", fileName);
-                ingestionRef.set(this.ingestionService.createIngestionBySubmission(submission, soggettiType));
-
-                long fileStartTime = System.currentTimeMillis();
-                StagingResult result = stagingIngestionService.loadSoggettiToStagingOnly(remoteFile, ingestionRef.get(), submission);
-                long fileElapsed = System.currentTimeMillis() - fileStartTime;
-
-                totalSoggettiParsed += result.insertedCount();
-                totalSoggettiValidationErrors += result.errorCount();
-
-                log.info("Loaded soggetti file {} to staging in {}ms: parsed={}, validationErrors={}",
-                        fileName, fileElapsed, result.insertedCount(), result.errorCount());
-
-                ingestionService.markAsSuccess(ingestionRef.get());
-            }
-        }
-
-        log.info("=== STAGING Phase 2 Complete: {} soggetti loaded to staging, {} validation errors ===",
-                totalSoggettiParsed, totalSoggettiValidationErrors);
+        Future<StagingLoadSummary> soggettiLoad = stagingLoadExecutor.submit(() ->
+                loadFilesToStaging("soggetti", soggettiFiles, "SOGGETTI.txt", soggettiType, submission,
+                        stagingIngestionService::loadSoggettiToStagingOnly));
 
         // Phase 3: Load Rapporti files to STAGING ONLY (don't process to main yet)
         log.info("=== STAGING Phase 3: Loading {} rapporti file(s) to STAGING ONLY ===", rapportiFiles.size());
-        IngestionType rapportiType = ingestionTypeRepository.findByNameIgnoreCase("rapporti")
-                .orElseThrow(() -> new NotFoundRecordException("Ingestion type 'rapporti' is not found"));
+        Future<StagingLoadSummary> rapportiLoad = stagingLoadExecutor.submit(() ->
+                loadFilesToStaging("rapporti", rapportiFiles, "RAPPORTI.txt", rapportiType, submission,
+                        stagingIngestionService::loadRapportiToStagingOnly));
 
-        int totalRapportiParsed = 0;
-        int totalRapportiValidationErrors = 0;
-
-        for (String keyName : rapportiFiles) {
-            String fileName = keyName.substring(keyName.lastIndexOf('/') + 1);
-            try (InputStream inputStream = s3Service.downloadFileAsStreamTest("RAPPORTI.txt")) {
-                RemoteFile remoteFile = new RemoteFile(fileName, inputStream);
-
-                log.info("Loading rapporti file to staging: {}", fileName);
-                ingestionRef.set(this.ingestionService.createIngestionBySubmission(submission, rapportiType));
-
-                long fileStartTime = System.currentTimeMillis();
-                StagingResult result = stagingIngestionService.loadRapportiToStagingOnly(remoteFile, ingestionRef.get(), submission);
-                long fileElapsed = System.currentTimeMillis() - fileStartTime;
-
-                totalRapportiParsed += result.insertedCount();
-                totalRapportiValidationErrors += result.errorCount();
-
-                log.info("Loaded rapporti file {} to staging in {}ms: parsed={}, validationErrors={}",
-                        fileName, fileElapsed, result.insertedCount(), result.errorCount());
+        // Phase 5: Process Cambio NDG files (INDEPENDENT - no FK constraints)
+        log.info("=== STAGING Phase 5: Processing {} cambiondg file(s) (INDEPENDENT) ===", cambiondgFiles.size());
+        Future<StagingLoadSummary> cambiondgLoad = stagingLoadExecutor.submit(() ->
+                loadFilesToStaging("cambiondg", cambiondgFiles, "CAMBIO_NDG.txt", cambiondgType, submission,
+                        stagingIngestionService::processCambioNdgFile));
+
+        // Barrier: orphan validation needs all three parent/child tables fully staged
+        List<StagingLoadSummary> loads = awaitStagingLoads(List.of(collegamentiLoad, soggettiLoad, rapportiLoad, cambiondgLoad),
+                ingestionRef);
+        StagingLoadSummary collegamentiSummary = loads.get(0);
+        StagingLoadSummary soggettiSummary = loads.get(1);
+        StagingLoadSummary rapportiSummary = loads.get(2);
+        StagingLoadSummary cambiondgSummary = loads.get(3);
 
-                ingestionService.markAsSuccess(ingestionRef.get());
-            }
+        log.info("=== STAGING Phase 1 Complete: {} collegamenti loaded to staging, {} validation errors ===",
+                collegamentiSummary.inserted(), collegamentiSummary.errors());
+        log.info("=== STAGING Phase 2 Complete: {} soggetti loaded to staging, {} validation errors ===",
+                soggettiSummary.inserted(), soggettiSummary.errors());
+        log.info("=== STAGING Phase 3 Complete: {} rapporti loaded to staging, {} validation errors ===",
+                rapportiSummary.inserted(), rapportiSummary.errors());
+        log.info("=== STAGING Phase 5 Complete: {} cambiondg inserted, {} duplicates ===",
+                cambiondgSummary.inserted(), cambiondgSummary.duplicates());
+
+        // The ingestion the sequential flow would have left in ingestionRef (last rapporti, then soggetti, then collegamenti)
+        Ingestion parentIngestion = rapportiSummary.lastIngestion() != null ? rapportiSummary.lastIngestion()
+                : soggettiSummary.lastIngestion() != null ? soggettiSummary.lastIngestion()
+                : collegamentiSummary.lastIngestion();
+        if (parentIngestion != null) {
+            ingestionRef.set(parentIngestion);
         }
 
-        log.info("=== STAGING Phase 3 Complete: {} rapporti loaded to staging, {} validation errors ===",
-                totalRapportiParsed, totalRapportiValidationErrors);
+        int totalCambioNdgInserted = cambiondgSummary.inserted();
+        int totalCambioNdgDuplicate = cambiondgSummary.duplicates();
 
         // =====================================================
         // ORPHAN VALIDATION PHASE (ON STAGING - BEFORE MAIN TABLES)
         // This is the KEY change: validate BEFORE data reaches main tables
         // =====================================================
         log.info("=== STAGING Orphan Validation: Checking Collegamenti integrity in STAGING (BEFORE main tables) ===");
-        OrphanValidationResult stagingOrphanResult = validateAndMarkOrphansInStaging(submission, ingestionRef.get());
+        OrphanValidationResult stagingOrphanResult;
+        if (phase.isReached(IngestionPhaseEnum.ORPHANS_VALIDATED)) {
+            log.info("Orphan validation already committed by a previous run, skipping");
+            stagingOrphanResult = new OrphanValidationResult(0, 0, 0);
+        } else {
+            // Orphan flags, their error records and the checkpoint commit together
+            Ingestion orphanIngestion = ingestionRef.get();
+            stagingOrphanResult = new TransactionTemplate(transactionManager).execute(status -> {
+                OrphanValidationResult result = validateAndMarkOrphansInStaging(submission, orphanIngestion);
+                markSubmissionPhase(submission, IngestionPhaseEnum.ORPHANS_VALIDATED);
+                return result;
+            });
+        }
         log.info("=== STAGING Orphan Validation Complete: {} total records marked as orphans (Collegamenti: {}, Soggetti: {}, Rapporti: {}) ===",
                 stagingOrphanResult.totalDeleted(), stagingOrphanResult.collegamentiDeleted(), 
                 stagingOrphanResult.soggettiDeleted(), stagingOrphanResult.rapportiDeleted());
@@ -1024,35 +1101,54 @@ public class ObligationServiceImpl implements ObligationService {
         // =====================================================
         log.info("=== Processing from STAGING to MAIN tables (orphans will be skipped) ===");
 
-        // Process Collegamenti
-        log.info("Processing Collegamenti from staging to main...");
-        StagingResult collegamentiResult = stagingRepository.processCollegamentiFromStaging(submission.getId());
+        StagingResult collegamentiResult;
+        StagingResult soggettiResult;
+        StagingResult rapportiResult;
+        if (phase.isReached(IngestionPhaseEnum.MERCHANTS_PROMOTED)) {
+            log.info("Collegamenti, Soggetti and Rapporti already promoted by a previous run, skipping");
+            collegamentiResult = new StagingResult(0, 0);
+            soggettiResult = new StagingResult(0, 0);
+            rapportiResult = new StagingResult(0, 0);
+        } else {
+            // Process Collegamenti
+            log.info("Processing Collegamenti from staging to main...");
+            collegamentiResult = stagingRepository.processCollegamentiFromStaging(submission.getId());
+            log.info("Collegamenti processed: inserted={}, duplicates={}", 
+                    collegamentiResult.insertedCount(), collegamentiResult.duplicateCount());
+
+            // Process Soggetti
+            log.info("Processing Soggetti from staging to main...");
+            soggettiResult = stagingRepository.processSoggettiFromStaging(submission.getId());
+            log.info("Soggetti processed: inserted={}, duplicates={}, missingParents={}", 
+                    soggettiResult.insertedCount(), soggettiResult.duplicateCount(), soggettiResult.missingMerchantCount());
+
+            // Process Rapporti
+            log.info("Processing Rapporti from staging to main...");
+            rapportiResult = stagingRepository.processRapportiFromStaging(submission.getId());
+            log.info("Rapporti processed: inserted={}, duplicates={}, missingParents={}", 
+                    rapportiResult.insertedCount(), rapportiResult.duplicateCount(), rapportiResult.missingMerchantCount());
+
+            log.info("=== Processing Complete: Collegamenti={} inserted, Soggetti={} inserted, Rapporti={} inserted ===",
+                    collegamentiResult.insertedCount(), soggettiResult.insertedCount(), rapportiResult.insertedCount());
+
+            // Create error records for duplicates and missing parents from staging, together with the checkpoint.
+            // Rows classified before an interruption are no longer in the counts, so a resumed step looks at every flagged row.
+            boolean countsIncomplete = phase == IngestionPhaseEnum.ORPHANS_VALIDATED;
+            StagingResult collegamenti = collegamentiResult;
+            StagingResult soggetti = soggettiResult;
+            StagingResult rapporti = rapportiResult;
+            Ingestion errorIngestion = ingestionRef.get();
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                createErrorRecordsFromStaging(errorIngestion, submission, collegamenti, soggetti, rapporti, countsIncomplete);
+                markSubmissionPhase(submission, IngestionPhaseEnum.MERCHANTS_PROMOTED);
+            });
+        }
         int totalCollegamentiInserted = collegamentiResult.insertedCount();
         int totalCollegamentiDuplicate = collegamentiResult.duplicateCount();
-        log.info("Collegamenti processed: inserted={}, duplicates={}", 
-                collegamentiResult.insertedCount(), collegamentiResult.duplicateCount());
-
-        // Process Soggetti
-        log.info("Processing Soggetti from staging to main...");
-        StagingResult soggettiResult = stagingRepository.processSoggettiFromStaging(submission.getId());
         int totalSoggettiInserted = soggettiResult.insertedCount();
         int totalSoggettiDuplicate = soggettiResult.duplicateCount();
-        log.info("Soggetti processed: inserted={}, duplicates={}, missingParents={}", 
-                soggettiResult.insertedCount(), soggettiResult.duplicateCount(), soggettiResult.missingMerchantCount());
-
-        // Process Rapporti
-        log.info("Processing Rapporti from staging to main...");
-        StagingResult rapportiResult = stagingRepository.processRapportiFromStaging(submission.getId());
         int totalRapportiInserted = rapportiResult.insertedCount();
         int totalRapportiDuplicate = rapportiResult.duplicateCount();
-        log.info("Rapporti processed: inserted={}, duplicates={}, missingParents={}", 
-                rapportiResult.insertedCount(), rapportiResult.duplicateCount(), rapportiResult.missingMerchantCount());
-
-        log.info("=== Processing Complete: Collegamenti={} inserted, Soggetti={} inserted, Rapporti={} inserted ===",
-                collegamentiResult.insertedCount(), soggettiResult.insertedCount(), rapportiResult.insertedCount());
-
-        // Create error records for duplicates and missing parents from staging
-        createErrorRecordsFromStaging(ingestionRef.get(), submission, collegamentiResult, soggettiResult, rapportiResult);
 
         // Phase 4: Process Dati Contabili files (CHILD - requires Collegamenti.chiave_rapporto)
         log.info("=== STAGING Phase 4: Processing {} daticontabili file(s) (CHILD) ===", daticontabiliFiles.size());
@@ -1064,11 +1160,23 @@ public class ObligationServiceImpl implements ObligationService {
 
         for (String keyName : daticontabiliFiles) {
             String fileName = keyName.substring(keyName.lastIndexOf('/') + 1);
+            IngestionProgress progress = findFileProgress(submission, "daticontabili", keyName);
+            if (progress != null && progress.getPhase() == IngestionPhaseEnum.LOADED) {
+                log.info("Skipping daticontabili file {}: already processed by a previous run", fileName);
+                ingestionRef.set(progress.getIngestion());
+                totalDatiContabiliInserted += (int) progress.getRowsStaged();
+                continue;
+            }
             try (InputStream inputStream = s3Service.downloadFileAsStreamTest(keyName)) {
                 RemoteFile remoteFile = new RemoteFile(fileName, inputStream);
 
                 log.info("Processing daticontabili file: {}", fileName);
-                ingestionRef.set(this.ingestionService.createIngestionBySubmission(submission, daticontabiliType));
+                if (progress != null) {
+                    ingestionRef.set(progress.getIngestion());
+                } else {
+                    ingestionRef.set(this.ingestionService.createIngestionBySubmission(submission, daticontabiliType));
+                    progress = startFileProgress(submission, ingestionRef.get(), "daticontabili", keyName);
+                }
 
                 long fileStartTime = System.currentTimeMillis();
                 StagingResult result = stagingIngestionService.processDaticontabiliFile(remoteFile, ingestionRef.get(), submission);
@@ -1081,6 +1189,7 @@ public class ObligationServiceImpl implements ObligationService {
                         fileName, fileElapsed, result.insertedCount(), result.duplicateCount());
 
                 ingestionService.markAsSuccess(ingestionRef.get());
+                ingestionProgressRepository.updatePhase(progress.getId(), IngestionPhaseEnum.LOADED, LocalDateTime.now());
             }
         }
 
@@ -1088,39 +1197,11 @@ public class ObligationServiceImpl implements ObligationService {
                 totalDatiContabiliInserted, totalDatiContabiliDuplicate);
 
 
-        // Phase 5: Process Cambio NDG files (INDEPENDENT - no FK constraints)
-        log.info("=== STAGING Phase 5: Processing {} cambiondg file(s) (INDEPENDENT) ===", cambiondgFiles.size());
-        IngestionType cambiondgType = ingestionTypeRepository.findByNameIgnoreCase("cambioNdg")
-                .orElseThrow(() -> new NotFoundRecordException("Ingestion type 'cambiondg' is not found"));
-
-        int totalCambioNdgInserted = 0;
-        int totalCambioNdgDuplicate = 0;
-
-        for (String keyName : cambiondgFiles) {
-            String fileName = keyName.substring(keyName.lastIndexOf('/') + 1);
-            try (InputStream inputStream = s3Service.downloadFileAsStreamTest("CAMBIO_NDG.txt")) {
-                RemoteFile remoteFile = new RemoteFile(fileName, inputStream);
-
-                log.info("Processing cambiondg file: {}", fileName);
-                ingestionRef.set(this.ingestionService.createIngestionBySubmission(submission, cambiondgType));
-
-                long fileStartTime = System.currentTimeMillis();
-                StagingResult result = stagingIngestionService.processCambioNdgFile(remoteFile, ingestionRef.get(), submission);
-                long fileElapsed = System.currentTimeMillis() - fileStartTime;
-
-                totalCambioNdgInserted += result.insertedCount();
-                totalCambioNdgDuplicate += result.duplicateCount();
-
-                log.info("Completed cambiondg file {} in {}ms: inserted={}, duplicates={}",
-                        fileName, fileElapsed, result.insertedCount(), result.duplicateCount());
-
-                ingestionService.markAsSuccess(ingestionRef.get());
-            }
+        // Phase 5 (cambiondg) already ran alongside the staging loads above
+        if (cambiondgSummary.lastIngestion() != null) {
+            ingestionRef.set(cambiondgSummary.lastIngestion());
         }
 
-        log.info("=== STAGING Phase 5 Complete: {} cambiondg inserted, {} duplicates ===",
-                totalCambioNdgInserted, totalCambioNdgDuplicate);
-
         // =====================================================
         // LEGACY ORPHAN VALIDATION (SAFETY NET - SHOULD FIND ZERO)
         // This verifies that staging validation worked correctly
@@ -1590,59 +1671,24 @@ public class ObligationServiceImpl implements ObligationService {
         int orphanRapportiCount = stagingRepository.validateOrphanRapportiInStaging(submission.getId());
         log.info("Marked {} orphan Rapporti in staging", orphanRapportiCount);
         
-        // Step 4: Create error records for all orphaned staging records
-        List<ErrorRecord> allErrorRecords = new ArrayList<>();
-        
-        // Get error types
-        ErrorType orphanCollegamentiType = errorTypeRepository.findByErrorCode(ErrorTypeCode.ORPHAN_COLLEGAMENTI.getErrorCode())
-                .orElseThrow(() -> new RuntimeException("Error type ORPHAN_COLLEGAMENTI not found in database"));
-        ErrorType orphanSoggettiType = errorTypeRepository.findByErrorCode(ErrorTypeCode.ORPHAN_SOGGETTI.getErrorCode())
-                .orElseThrow(() -> new RuntimeException("Error type ORPHAN_SOGGETTI not found in database"));
-        ErrorType orphanRapportiType = errorTypeRepository.findByErrorCode(ErrorTypeCode.ORPHAN_RAPPORTI.getErrorCode())
-                .orElseThrow(() -> new RuntimeException("Error type ORPHAN_RAPPORTI not found in database"));
-        
-        // Create error records for orphan Collegamenti
+        // Step 4: Create error records for all orphaned staging records, INSERT ... SELECT straight from staging
+        int orphanErrorRecords = 0;
         if (orphanCollegamentiCount > 0) {
-            List<Object[]> orphanCollegamenti = stagingRepository.getOrphanCollegamentiDetails(submission.getId());
-            for (Object[] orphan : orphanCollegamenti) {
-                String rawRow = (String) orphan[0];
-                String errorMessage = (String) orphan[1];
-                ErrorRecord errorRecord = createErrorRecordObject(ingestion, submission, rawRow, orphanCollegamentiType, errorMessage);
-                allErrorRecords.add(errorRecord);
-            }
-            log.info("Created {} error records for orphan Collegamenti", orphanCollegamenti.size());
+            orphanErrorRecords += stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.COLLEGAMENTI_ORPHAN,
+                    ingestion.getId(), submission.getId(), ErrorTypeCode.ORPHAN_COLLEGAMENTI.getErrorCode(),
+                    null, ERROR_RAW_ROW_MAX_LENGTH);
         }
-        
-        // Create error records for orphan Soggetti
         if (orphanSoggettiCount > 0) {
-            List<Object[]> orphanSoggetti = stagingRepository.getOrphanSoggettiDetails(submission.getId());
-            for (Object[] orphan : orphanSoggetti) {
-                String rawRow = (String) orphan[0];
-                String errorMessage = (String) orphan[1];
-                ErrorRecord errorRecord = createErrorRecordObject(ingestion, submission, rawRow, orphanSoggettiType, errorMessage);
-                allErrorRecords.add(errorRecord);
-            }
-            log.info("Created {} error records for orphan Soggetti", orphanSoggetti.size());
+            orphanErrorRecords += stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.SOGGETTI_ORPHAN,
+                    ingestion.getId(), submission.getId(), ErrorTypeCode.ORPHAN_SOGGETTI.getErrorCode(),
+                    null, ERROR_RAW_ROW_MAX_LENGTH);
         }
-        
-        // Create error records for orphan Rapporti
         if (orphanRapportiCount > 0) {
-            List<Object[]> orphanRapporti = stagingRepository.getOrphanRapportiDetails(submission.getId());
-            for (Object[] orphan : orphanRapporti) {
-                String rawRow = (String) orphan[0];
-                String errorMessage = (String) orphan[1];
-                ErrorRecord errorRecord = createErrorRecordObject(ingestion, submission, rawRow, orphanRapportiType, errorMessage);
-                allErrorRecords.add(errorRecord);
-            }
-            log.info("Created {} error records for orphan Rapporti", orphanRapporti.size());
-        }
-        
-        // Bulk insert all error records
-        if (!allErrorRecords.isEmpty()) {
-            log.info("Bulk inserting {} error records for orphaned staging records", allErrorRecords.size());
-            errorRecordRepository.bulkInsertRecordsWithCauses(allErrorRecords, ingestion.getId());
-            log.info("Successfully bulk inserted {} error records", allErrorRecords.size());
+            orphanErrorRecords += stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.RAPPORTI_ORPHAN,
+                    ingestion.getId(), submission.getId(), ErrorTypeCode.ORPHAN_RAPPORTI.getErrorCode(),
+                    null, ERROR_RAW_ROW_MAX_LENGTH);
         }
+        log.info("Created {} error records for orphaned staging records", orphanErrorRecords);
         
         long elapsedTime = System.currentTimeMillis() - startTime;
         log.info("Staging orphan validation completed in {}ms - Marked: {} Collegamenti, {} Soggetti, {} Rapporti",
@@ -1653,83 +1699,44 @@ public class ObligationServiceImpl implements ObligationService {
 
     /**
      * Create error records for duplicates and missing parents found during staging processing.
+     * With {@code countsIncomplete} every source is looked up, whatever the counts say.
      */
     private void createErrorRecordsFromStaging(Ingestion ingestion, Submission submission,
                                                StagingResult collegamentiResult,
                                                StagingResult soggettiResult,
-                                               StagingResult rapportiResult) {
-        List<ErrorRecord> allErrorRecords = new ArrayList<>();
-
-        // Get error types
-        ErrorType duplicateType = errorTypeRepository.findByErrorCode(ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())
-                .orElseThrow(() -> new RuntimeException("Error type MERCHANT_ALREADY_EXISTS not found"));
-        ErrorType missingParentType = errorTypeRepository.findByErrorCode(ErrorTypeCode.FOREIGN_KEY_ERROR.getErrorCode())
-                .orElseThrow(() -> new RuntimeException("Error type FOREIGN_KEY_ERROR not found"));
+                                               StagingResult rapportiResult,
+                                               boolean countsIncomplete) {
+        String duplicateCode = ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode();
+        String missingParentCode = ErrorTypeCode.FOREIGN_KEY_ERROR.getErrorCode();
 
         // Collegamenti duplicates
-        if (collegamentiResult.duplicateCount() > 0) {
-            List<Object[]> duplicates = stagingRepository.getDuplicateCollegamentiDetails(submission.getId());
-            for (Object[] row : duplicates) {
-                String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-                String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Collegamenti already exists";
-                ErrorRecord errorRecord = createErrorRecordObject(ingestion, submission, rawRow, duplicateType, errorMessage);
-                allErrorRecords.add(errorRecord);
-            }
-            log.info("Created {} error records for duplicate Collegamenti", duplicates.size());
+        if (collegamentiResult.duplicateCount() > 0 || countsIncomplete) {
+            stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.COLLEGAMENTI_DUPLICATE,
+                    ingestion.getId(), submission.getId(), duplicateCode, "Collegamenti already exists", ERROR_RAW_ROW_MAX_LENGTH);
         }
 
         // Soggetti duplicates
-        if (soggettiResult.duplicateCount() > 0) {
-            List<Object[]> duplicates = stagingRepository.getDuplicateSoggettiDetails(submission.getId());
-            for (Object[] row : duplicates) {
-                String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-                String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Soggetti already exists";
-                ErrorRecord errorRecord = createErrorRecordObject(ingestion, submission, rawRow, duplicateType, errorMessage);
-                allErrorRecords.add(errorRecord);
-            }
-            log.info("Created {} error records for duplicate Soggetti", duplicates.size());
+        if (soggettiResult.duplicateCount() > 0 || countsIncomplete) {
+            stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.SOGGETTI_DUPLICATE,
+                    ingestion.getId(), submission.getId(), duplicateCode, "Soggetti already exists", ERROR_RAW_ROW_MAX_LENGTH);
         }
 
         // Soggetti missing Collegamenti parent
-        if (soggettiResult.missingMerchantCount() > 0) {
-            List<Object[]> missing = stagingRepository.getMissingSoggettiCollegamentiDetails(submission.getId());
-            for (Object[] row : missing) {
-                String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-                String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Missing Collegamenti parent";
-                ErrorRecord errorRecord = createErrorRecordObject(ingestion, submission, rawRow, missingParentType, errorMessage);
-                allErrorRecords.add(errorRecord);
-            }
-            log.info("Created {} error records for Soggetti with missing Collegamenti", missing.size());
+        if (soggettiResult.missingMerchantCount() > 0 || countsIncomplete) {
+            stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.SOGGETTI_MISSING_PARENT,
+                    ingestion.getId(), submission.getId(), missingParentCode, "Missing Collegamenti parent", ERROR_RAW_ROW_MAX_LENGTH);
         }
 
         // Rapporti duplicates
-        if (rapportiResult.duplicateCount() > 0) {
-            List<Object[]> duplicates = stagingRepository.getDuplicateRapportiDetails(submission.getId());
-            for (Object[] row : duplicates) {
-                String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-                String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Rapporti already exists";
-                ErrorRecord errorRecord = createErrorRecordObject(ingestion, submission, rawRow, duplicateType, errorMessage);
-                allErrorRecords.add(errorRecord);
-            }
-            log.info("Created {} error records for duplicate Rapporti", duplicates.size());
+        if (rapportiResult.duplicateCount() > 0 || countsIncomplete) {
+            stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.RAPPORTI_DUPLICATE,
+                    ingestion.getId(), submission.getId(), duplicateCode, "Rapporti already exists", ERROR_RAW_ROW_MAX_LENGTH);
         }
 
         // Rapporti missing Collegamenti parent
-        if (rapportiResult.missingMerchantCount() > 0) {
-            List<Object[]> missing = stagingRepository.getMissingRapportiCollegamentiDetails(submission.getId());
-            for (Object[] row : missing) {
-                String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-                String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Missing Collegamenti parent";
-                ErrorRecord errorRecord = createErrorRecordObject(ingestion, submission, rawRow, missingParentType, errorMessage);
-                allErrorRecords.add(errorRecord);
-            }
-            log.info("Created {} error records for Rapporti with missing Collegamenti", missing.size());
-        }
-
-        // Bulk insert all error records
-        if (!allErrorRecords.isEmpty()) {
-            log.info("Bulk inserting {} error records for duplicates and missing parents", allErrorRecords.size());
-            errorRecordRepository.bulkInsertRecordsWithCauses(allErrorRecords, ingestion.getId());
+        if (rapportiResult.missingMerchantCount() > 0 || countsIncomplete) {
+            stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.RAPPORTI_MISSING_PARENT,
+                    ingestion.getId(), submission.getId(), missingParentCode, "Missing Collegamenti parent", ERROR_RAW_ROW_MAX_LENGTH);
         }
     }
     
@@ -1742,7 +1749,7 @@ public class ObligationServiceImpl implements ObligationService {
         ErrorRecord errorRecord = new ErrorRecord();
         errorRecord.setIngestion(ingestion);
         errorRecord.setSubmission(submission);
-        errorRecord.setRawRow(rawRow != null && rawRow.length() > 250 ? rawRow.substring(0, 250) : rawRow);
+        errorRecord.setRawRow(rawRow != null && rawRow.length() > ERROR_RAW_ROW_MAX_LENGTH ? rawRow.substring(0, ERROR_RAW_ROW_MAX_LENGTH) : rawRow);
         
         ErrorCause errorCause = new ErrorCause();
         errorCause.setErrorRecord(errorRecord);
@@ -1764,7 +1771,7 @@ public class ObligationServiceImpl implements ObligationService {
         ErrorRecord errorRecord = new ErrorRecord();
         errorRecord.setIngestion(ingestion);
         errorRecord.setSubmission(submission);
-        errorRecord.setRawRow(rawRow != null && rawRow.length() > 250 ? rawRow.substring(0, 250) : rawRow);
+        errorRecord.setRawRow(rawRow != null && rawRow.length() > ERROR_RAW_ROW_MAX_LENGTH ? rawRow.substring(0, ERROR_RAW_ROW_MAX_LENGTH) : rawRow);
         errorRecordRepository.save(errorRecord);
         
         ErrorCause errorCause = new ErrorCause();
@@ -1775,9 +1782,192 @@ public class ObligationServiceImpl implements ObligationService {
         errorCauseRepository.save(errorCause);
     }
     
+    /**
+     * Loads every file of one type through the given staging loader, one ingestion per file.
+     * <p>
+     * Runs on the staging load executor: the TenantContext is propagated by its TaskDecorator,
+     * and each repository call opens its own transaction on the worker thread.
+     * <p>
+     * Every file has an INGESTION_PROGRESS checkpoint: files loaded by a previous run of the
+     * submission are skipped, a file interrupted half-way continues with its ingestion after the
+     * last committed chunk.
+     *
+     * @param label      record type, used for logging only
+     * @param files      S3 keys of the files to load
+     * @param objectKey  S3 object actually downloaded for each file
+     * @return totals for all the files, plus the ingestion created for the last one
+     * @throws StagingLoadException wrapping the failure, with the ingestion of the file being loaded
+     */
+    private StagingLoadSummary loadFilesToStaging(
+            String label,
+            List<String> files,
+            String objectKey,
+            IngestionType ingestionType,
+            Submission submission,
+            StagingFileLoader loader) {
+
+        int totalInserted = 0;
+        int totalErrors = 0;
+        int totalDuplicates = 0;
+        Ingestion ingestion = null;
+
+        try {
+            for (String keyName : files) {
+                // Set once the file has an ingestion: a failure before that has none to mark FAILED
+                ingestion = null;
+                String fileName = keyName.substring(keyName.lastIndexOf('/') + 1);
+                IngestionProgress progress = findFileProgress(submission, label, keyName);
+                if (progress != null && progress.getPhase() == IngestionPhaseEnum.LOADED) {
+                    log.info("Skipping {} file {}: already loaded by a previous run", label, fileName);
+                    ingestion = progress.getIngestion();
+                    totalInserted += (int) progress.getRowsStaged();
+                    totalErrors += (int) progress.getErrorCount();
+                    continue;
+                }
+                try (InputStream inputStream = s3Service.downloadFileAsStreamTest(objectKey)) {
+                    RemoteFile remoteFile = new RemoteFile(fileName, inputStream);
+
+                    log.info("Loading {} file to staging: {}", label, fileName);
+                    if (progress != null) {
+                        ingestion = progress.getIngestion();
+                    } else {
+                        ingestion = this.ingestionService.createIngestionBySubmission(submission, ingestionType);
+                        progress = startFileProgress(submission, ingestion, label, keyName);
+                    }
+
+                    long fileStartTime = System.currentTimeMillis();
+                    StagingResult result = loader.load(remoteFile, ingestion, submission);
+                    long fileElapsed = System.currentTimeMillis() - fileStartTime;
+
+                    totalInserted += result.insertedCount();
+                    totalErrors += result.errorCount();
+                    totalDuplicates += result.duplicateCount();
+
+                    log.info("Loaded {} file {} to staging in {}ms: inserted={}, duplicates={}, validationErrors={}",
+                            label, fileName, fileElapsed, result.insertedCount(), result.duplicateCount(), result.errorCount());
+
+                    ingestionService.markAsSuccess(ingestion);
+                    ingestionProgressRepository.updatePhase(progress.getId(), IngestionPhaseEnum.LOADED, LocalDateTime.now());
+                }
+            }
+        } catch (NotFoundRecordException | IOException | RuntimeException e) {
+            throw new StagingLoadException(ingestion, e);
+        }
+
+        return new StagingLoadSummary(totalInserted, totalErrors, totalDuplicates, ingestion);
+    }
+
+    // Checkpoint of one input file of the submission, null if no run has started it yet
+    private IngestionProgress findFileProgress(Submission submission, String recordType, String keyName) {
+        return ingestionProgressRepository.findFirstBySubmission_IdAndRecordTypeAndFileKey(
+                submission.getId(), recordType, keyName).orElse(null);
+    }
+
+    private IngestionProgress startFileProgress(Submission submission, Ingestion ingestion, String recordType, String keyName) {
+        return ingestionProgressRepository.save(
+                new IngestionProgress(submission, ingestion, recordType, keyName, IngestionPhaseEnum.LOADING));
+    }
+
+    // Last set-based phase committed for the submission, null if it was not ingested with checkpoints
+    private IngestionPhaseEnum submissionPhase(Submission submission) {
+        return ingestionProgressRepository.findFirstBySubmission_IdAndRecordTypeAndFileKey(submission.getId(),
+                        IngestionProgress.SUBMISSION_RECORD_TYPE, IngestionProgress.SUBMISSION_FILE_KEY)
+                .map(IngestionProgress::getPhase)
+                .orElse(null);
+    }
+
+    // Joins the caller's transaction, if any, so a phase commits together with the work it stands for
+    private void markSubmissionPhase(Submission submission, IngestionPhaseEnum phase) {
+        IngestionProgress progress = ingestionProgressRepository.findFirstBySubmission_IdAndRecordTypeAndFileKey(
+                        submission.getId(), IngestionProgress.SUBMISSION_RECORD_TYPE, IngestionProgress.SUBMISSION_FILE_KEY)
+                .orElseGet(() -> new IngestionProgress(submission, null,
+                        IngestionProgress.SUBMISSION_RECORD_TYPE, IngestionProgress.SUBMISSION_FILE_KEY, phase));
+        progress.setPhase(phase);
+        progress.setUpdatedAt(LocalDateTime.now());
+        ingestionProgressRepository.save(progress);
+    }
+
+    /**
+     * Barrier for the concurrent staging loads.
+     * <p>
+     * Waits for <em>every</em> load before reporting a failure, so that cleanUpFailedSubmission
+     * never runs while another worker is still writing to staging. The first failure is rethrown
+     * unchanged (later ones are attached as suppressed), so the error message stored on the
+     * submission is the original one rather than an ExecutionException wrapper, and
+     * {@code failedIngestionRef} is set to the ingestion of the file that failed, the one
+     * cleanUpFailedSubmission then marks FAILED.
+     *
+     * @return the load results, in the same order as {@code loads}
+     */
+    private List<StagingLoadSummary> awaitStagingLoads(List<Future<StagingLoadSummary>> loads,
+                                                       AtomicReference<Ingestion> failedIngestionRef)
+            throws NotFoundRecordException, IOException {
+        List<StagingLoadSummary> results = new ArrayList<>(loads.size());
+        Throwable failure = null;
+
+        for (Future<StagingLoadSummary> load : loads) {
+            try {
+                results.add(load.get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                Ingestion failedIngestion = null;
+                if (cause instanceof StagingLoadException loadFailure) {
+                    failedIngestion = loadFailure.getIngestion();
+                    cause = loadFailure.getCause();
+                }
+                if (failure == null) {
+                    failure = cause;
+                    failedIngestionRef.set(failedIngestion);
+                } else {
+                    failure.addSuppressed(cause);
+                }
+                results.add(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                loads.forEach(l -> l.cancel(true));
+                throw new IllegalStateException("Interrupted while waiting for staging loads", e);
+            }
+        }
+
+        if (failure instanceof NotFoundRecordException notFound) throw notFound;
+        if (failure instanceof IOException ioException) throw ioException;
+        if (failure instanceof RuntimeException runtimeException) throw runtimeException;
+        if (failure instanceof Error error) throw error;
+        if (failure != null) throw new IllegalStateException(failure.getMessage(), failure);
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface StagingFileLoader {
+        StagingResult load(RemoteFile remoteFile, Ingestion ingestion, Submission submission)
+                throws NotFoundRecordException, IOException;
+    }
+
+    private record StagingLoadSummary(int inserted, int errors, int duplicates, Ingestion lastIngestion) {
+    }
+
+    /**
+     * Failure of a staging load worker, carrying the ingestion of the file it was loading
+     * (null if the file had none yet). Unwrapped by awaitStagingLoads.
+     */
+    private static final class StagingLoadException extends RuntimeException {
+
+        private final transient Ingestion ingestion;
+
+        StagingLoadException(Ingestion ingestion, Exception cause) {
+            super(cause.getMessage(), cause);
+            this.ingestion = ingestion;
+        }
+
+        Ingestion getIngestion() {
+            return ingestion;
+        }
+    }
+
     /**
      * Result of orphan validation containing counts of deleted records.
      */
+
     private record OrphanValidationResult(int collegamentiDeleted, int soggettiDeleted, int rapportiDeleted) {
         public int totalDeleted() {
             return collegamentiDeleted + soggettiDeleted + rapportiDeleted;
@@ -1787,7 +1977,9 @@ public class ObligationServiceImpl implements ObligationService {
     private void cleanUpFailedSubmission(Submission submission, Ingestion ingestion, Exception exception) throws NotFoundRecordException {
         // Build comprehensive error message with full exception details
         StringBuilder fullErrorMsg = new StringBuilder();
-        fullErrorMsg.append("Ingestion ID: ").append(ingestion.getId()).append(" failed\n");
+        // No ingestion when the failing file had not got one yet
+        String ingestionId = ingestion != null ? String.valueOf(ingestion.getId()) : "n/a";
+        fullErrorMsg.append("Ingestion ID: ").append(ingestionId).append(" failed\n");
         fullErrorMsg.append("Error Type: ").append(exception.getClass().getName()).append("\n");
         fullErrorMsg.append("Error Message: ").append(exception.getMessage()).append("\n");
         
@@ -1809,62 +2001,48 @@ public class ObligationServiceImpl implements ObligationService {
         String fullError = fullErrorMsg.toString();
         
         // Log the full error message
-        log.error("=== FULL ERROR DETAILS FOR INGESTION {} ===", ingestion.getId());
+        log.error("=== FULL ERROR DETAILS FOR INGESTION {} ===", ingestionId);
         log.error(fullError);
         log.error("=== END ERROR DETAILS ===");
         
-        // Save to Log table (now supports TEXT, no truncation needed)
-        Log logEntry = new Log();
-        logEntry.setSubmission(submission);
-        logEntry.setBeforeSubmissionStatus(submission.getCurrentSubmissionStatus());
-        logEntry.setMessage(fullError); // Full error message, no truncation
+        IngestionStatus errorStatus = ingestionStatusRepository.findOneByName(IngestionStatusEnum.FAILED.name())
+                .orElseThrow(() -> new NotFoundRecordException("Ingestion status with name failed is not found"));
 
-        submissionService.markAsError(submission);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Save to Log table (now supports TEXT, no truncation needed)
+            Log logEntry = new Log();
+            logEntry.setSubmission(submission);
+            logEntry.setBeforeSubmissionStatus(submission.getCurrentSubmissionStatus());
+            logEntry.setMessage(fullError); // Full error message, no truncation
 
-        logEntry.setAfterSubmissionStatus(submission.getCurrentSubmissionStatus());
-        logRepository.save(logEntry);
+            submissionService.markAsError(submission);
 
-        // Delete in correct order: children before parent (respecting FK constraints)
-        log.info("Cleaning up failed submission {} - deleting records in correct order", submission.getId());
-        
-        // Phase 1: Delete independent table
-        int cambioNdgDeleted = cambioNdgRepository.deleteBySubmissionId(submission.getId());
-        log.info("Deleted {} CambioNdg records", cambioNdgDeleted);
-        
-        // Phase 2: Delete children (have FK to Collegamenti)
-        int datiContabiliDeleted = datiContabiliRepository.deleteBySubmissionId(submission.getId());
-        log.info("Deleted {} DatiContabili records", datiContabiliDeleted);
-        
-        int rapportiDeleted = rapportiRepository.deleteBySubmissionId(submission.getId());
-        log.info("Deleted {} Rapporti records", rapportiDeleted);
-        
-        int soggettiDeleted = soggettiRepository.deleteBySubmissionId(submission.getId());
-        log.info("Deleted {} Soggetti records", soggettiDeleted);
-        
-        // Phase 3: Delete parent (must be last)
-        int collegamentiDeleted = collegamentiRepository.deleteBySubmissionId(submission.getId());
-        log.info("Deleted {} Collegamenti records", collegamentiDeleted);
-        
-        // Phase 4: Delete error tracking
-        int errorCauseDeleted = errorCauseRepository.deleteBySubmissionId(submission.getId());
-        log.info("Deleted {} ErrorCause records", errorCauseDeleted);
-        
-        int errorRecordDeleted = errorRecordRepository.deleteBySubmissionId(submission.getId());
-        log.info("Deleted {} ErrorRecord records", errorRecordDeleted);
+            logEntry.setAfterSubmissionStatus(submission.getCurrentSubmissionStatus());
+            logRepository.save(logEntry);
 
-        IngestionStatus errorStatus = ingestionStatusRepository.findOneByName(IngestionStatusEnum.FAILED.name())
-                .orElseThrow(() -> new NotFoundRecordException("Ingestion status with name failed is not found"));
+            IngestionError ingestionError = new IngestionError();
+            // Full error message, no truncation (TEXT column supports it)
+            ingestionError.setDescription(fullError);
+            ingestionErrorRepository.save(ingestionError);
 
-        IngestionError ingestionError = new IngestionError();
-        // Full error message, no truncation (TEXT column supports it)
-        ingestionError.setDescription(fullError);
-        ingestionErrorRepository.save(ingestionError);
+            if (ingestion != null) {
+                ingestion.setIngestionStatus(errorStatus);
+                ingestion.setIngestionError(ingestionError);
+                ingestionRepository.save(ingestion);
+            }
 
-        ingestion.setIngestionStatus(errorStatus);
-        ingestion.setIngestionError(ingestionError);
-        ingestionRepository.save(ingestion);
-        
-        log.info("Cleanup completed for failed submission {}", submission.getId());
+            // Once the ERROR status is committed, the rows of the submission are deleted in paced chunks in the
+            // background (children before parents, staging partitions included) instead of one DELETE per table.
+            // Not scheduled at all if the status change rolls back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submissionPurgeService.purgeSubmissionAsync(submission.getId());
+                }
+            });
+        });
+
+        log.info("Failed submission {} marked as ERROR, purge of its data scheduled", submission.getId());
     }
 
 //    private void retryFailedTransactions(Obligation obligation, Period period, Submission currentSubmission) {
@@ -3,14 +3,20 @@ package it.deloitte.postrxade.service.impl;
 import it.deloitte.postrxade.entity.*;
 import it.deloitte.postrxade.exception.NotFoundRecordException;
 import it.deloitte.postrxade.formatter.OutputFileFormatter;
+import it.deloitte.postrxade.formatter.OutputRecordWriter;
+import it.deloitte.postrxade.records.CollegamentiOutputRow;
+import it.deloitte.postrxade.records.OutputPageAssignment;
 import it.deloitte.postrxade.repository.*;
 import it.deloitte.postrxade.service.EcsTaskService;
 import it.deloitte.postrxade.service.OutputService;
 import it.deloitte.postrxade.service.S3Service;
+import it.deloitte.postrxade.utils.DeflatedZipWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,8 +31,13 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -38,7 +49,6 @@ public class OutputServiceImpl implements OutputService {
     private int rowsPerOutputFile;
     private static final int ROWS_PER_OUTPUT_FILE = 100000;
     private static final String OUTPUT_FILE_EXTENSION = "txt";
-    private static final int UPDATE_BATCH_SIZE = 100;
     @Value("${aws.s3.output-folder}")
     private String s3OutputFolder;
 
@@ -74,6 +84,17 @@ public class OutputServiceImpl implements OutputService {
 
     @Value("${aws.s3.output-folder}")
     private String outputFolder;
+
+    @Value("${output.upload-to-s3:false}")
+    private boolean uploadOutputToS3;
+
+    @Value("${output.fetch-page-size:10000}")
+    private int outputFetchPageSize;
+
+    @Autowired
+    @Qualifier("outputPartExecutor")
+    private ThreadPoolTaskExecutor outputPartExecutor;
+
     private final TransactionTemplate transactionTemplate;
     private final PlatformTransactionManager transactionManager;
 
@@ -101,34 +122,18 @@ public class OutputServiceImpl implements OutputService {
         List<Output> outputs = new ArrayList<>();
         int pageNumber = 0;
         boolean hasNextPage = true;
+        final Long submissionId = submission.getId();
 
         while (hasNextPage) {
-            // 1) Fetch a page of Collegamenti IDs with fk_output IS NULL
-            List<Long> collegamentiIds = collegamentiRepository
-                    .findCollegamentiIdsBySubmissionIdAndNullOutput(
-                            submission.getId(),
-                            rowsPerOutputFile
-                    );
-
-            log.info("Merchant page {} for submissionId={}. Collegamenti found: {} (expected max: {})",
-                    pageNumber, submission.getId(), collegamentiIds.size(), rowsPerOutputFile);
-
-            if (collegamentiIds.isEmpty()) {
+            // 1) Upper pk of the next page of Collegamenti with fk_output IS NULL: the page is the pk range up to it
+            Long upperPk = collegamentiRepository.findNextOutputPageUpperBound(submissionId, rowsPerOutputFile);
+            if (upperPk == null) {
+                log.info("Merchant page {} for submissionId={}. No Collegamenti left without output",
+                        pageNumber, submissionId);
                 break;
             }
 
-            if (collegamentiIds.size() > rowsPerOutputFile) {
-                log.error("BUG DETECTED: Query returned {} collegamenti, LIMIT was {}. Truncating.",
-                        collegamentiIds.size(), rowsPerOutputFile);
-                collegamentiIds = collegamentiIds.subList(0, rowsPerOutputFile);
-            }
-
-            if (collegamentiIds.size() < rowsPerOutputFile) {
-                hasNextPage = false;
-            }
-
             final int currentPageNumber = pageNumber;
-            final Long submissionId = submission.getId();
 
             // 2) Create Output in short transaction
             Output outputEntity = transactionTemplate.execute(status -> {
@@ -157,51 +162,17 @@ public class OutputServiceImpl implements OutputService {
                 return outputRepository.save(output);
             });
 
-            // 3) Fetch only the NDG/chiave_rapporto needed for dependent updates (for this page only)
-            List<Object[]> ndgChiaviRows = collegamentiRepository.findNdgAndChiaviByIds(collegamentiIds);
-
-            List<String> ndgs = ndgChiaviRows.stream()
-                    .map(r -> (String) r[0])
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .toList();
-
-            List<String> chiavi = ndgChiaviRows.stream()
-                    .map(r -> (String) r[1])
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .toList();
-
-            // 4) Update fk_output on MERCHANT_COLLEGAMENTI in batches
-            List<List<Long>> idBatches = partitionList(collegamentiIds, UPDATE_BATCH_SIZE);
-
-            int batchNumber = 0;
-            for (List<Long> batch : idBatches) {
-                batchNumber++;
-                final int currentBatch = batchNumber;
-                final int totalBatches = idBatches.size();
-
-                TransactionTemplate batchTemplate = createBatchTransactionTemplate(600);
-                batchTemplate.execute(status -> {
-                    log.info("Updating collegamenti batch {}/{} for outputId={}, size={}",
-                            currentBatch, totalBatches, outputEntity.getId(), batch.size());
-                    collegamentiRepository.updateOutputForeignKey(batch, outputEntity);
-                    return null;
-                });
-            }
+            // 3) Assign the page to the Output: one set-based UPDATE per table, committed together
+            OutputPageAssignment assignment = createBatchTransactionTemplate(600).execute(status ->
+                    collegamentiRepository.assignOutputPage(submissionId, outputEntity.getId(), upperPk));
 
-            // 5) Update dependent tables (same logic as old method, but page-scoped)
-            if (!ndgs.isEmpty()) {
-                soggettiRepository.updateOutputForeignKeyByNdgs(
-                        ndgs, submission.getId(), outputEntity);
-            }
+            log.info("Merchant page {} for submissionId={} assigned to outputId={}. "
+                            + "Collegamenti: {} (expected max: {}), Soggetti: {}, Rapporti: {}, DatiContabili: {}",
+                    pageNumber, submissionId, outputEntity.getId(), assignment.collegamenti(), rowsPerOutputFile,
+                    assignment.soggetti(), assignment.rapporti(), assignment.datiContabili());
 
-            if (!chiavi.isEmpty()) {
-                rapportiRepository.updateOutputForeignKeyByChiavi(
-                        chiavi, submission.getId(), outputEntity);
-
-                datiContabiliRepository.updateOutputForeignKeyByChiavi(
-                        chiavi, submission.getId(), outputEntity);
+            if (assignment.collegamenti() < rowsPerOutputFile) {
+                hasNextPage = false;
             }
 
             outputs.add(outputEntity);
@@ -231,76 +202,191 @@ public class OutputServiceImpl implements OutputService {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
         String zipFileName = String.format("SUBMISSION_%d_OUTPUT_%s.zip", submissionId, timestamp);
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ZipOutputStream zos = new ZipOutputStream(baos, StandardCharsets.UTF_8)) {
-
-            for (Output output : outputs) {
-                log.info("Processing output file {} for submission {}", output.getId(), submissionId);
+        if (uploadOutputToS3) {
+            // ZIP entries are written straight into the multipart upload: nothing is buffered in heap
+            String s3Key = outputFolder + "/" + zipFileName;
+            s3Service.uploadStream(s3Key, "application/zip", out -> writeSubmissionZip(out, submissionId, outputs));
+            log.info("Uploaded ZIP to S3: {} for submission {}", s3Key, submissionId);
+        } else {
+            // --- LOCAL TESTING BLOCK ---
+            saveFileToResources(zipFileName, out -> writeSubmissionZip(out, submissionId, outputs));
+        }
+    }
 
-                // Fetch Collegamenti with ALL children using optimized JOIN query
-                List<Collegamenti> collegamentiList = collegamentiRepository.findCollegamentiWithChildrenByOutputId(
-                        submissionId, output.getId(), rowsPerOutputFile);
+    /**
+     * Writes the submission ZIP (one TXT entry per output) to {@code out}, one Collegamenti row at a time.
+     * The stream is finished but not closed: closing is up to the owner of {@code out}.
+     * <p>
+     * With {@code output.parallel-parts} above 1 the parts are generated concurrently,
+     * see {@link #writeSubmissionZipParallel}.
+     */
+    private void writeSubmissionZip(OutputStream out, Long submissionId, List<Output> outputs) throws IOException {
+        if (outputs.size() > 1 && outputPartExecutor.getCorePoolSize() > 1) {
+            writeSubmissionZipParallel(out, submissionId, outputs);
+            return;
+        }
 
-                log.info("Fetched {} collegamenti with children for output {}", collegamentiList.size(), output.getId());
+        ZipOutputStream zos = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        for (Output output : outputs) {
+            zos.putNextEntry(new ZipEntry(entryName(output)));
+            writeOutputPart(zos, submissionId, output);
+            zos.closeEntry();
+        }
+        zos.finish();
+    }
 
-                // Count records for each section
-                int section1Count = 0; // Collegamenti + Rapporti
-                int section2Count = 0; // Collegamenti + Rapporti + Soggetti  
-                int section3Count = 0; // Collegamenti + DatiContabili
+    /**
+     * Writes the submission ZIP with its parts generated concurrently on the outputPartExecutor.
+     * <p>
+     * Each part is read in its own read-only transaction (its own connection), formatted and
+     * compressed by its worker into a temporary file; the entries are then appended in the order of
+     * {@code outputs}, each one as soon as it and the previous ones are ready, so the archive is
+     * identical whatever the order in which the parts complete.
+     */
+    private void writeSubmissionZipParallel(OutputStream out, Long submissionId, List<Output> outputs) throws IOException {
+        long startTime = System.currentTimeMillis();
+        log.info("Writing {} output parts of submission {} with {} workers",
+                outputs.size(), submissionId, outputPartExecutor.getCorePoolSize());
+
+        TransactionTemplate partTemplate = new TransactionTemplate(transactionManager);
+        partTemplate.setReadOnly(true);
+        AtomicBoolean aborted = new AtomicBoolean();
+
+        List<CompletableFuture<DeflatedZipWriter.DeflatedEntry>> parts = new ArrayList<>(outputs.size());
+        for (Output output : outputs) {
+            parts.add(outputPartExecutor.submitCompletable(
+                    () -> deflateOutputPart(partTemplate, submissionId, output, aborted)));
+        }
 
-                // Use the filename generated in generateOutputMerchant
-                String entryName = output.getFullPath().substring(output.getFullPath().lastIndexOf("/") + 1);
-                zos.putNextEntry(new ZipEntry(entryName));
+        DeflatedZipWriter zipWriter = new DeflatedZipWriter(out);
+        int appended = 0;
+        try {
+            for (CompletableFuture<DeflatedZipWriter.DeflatedEntry> part : parts) {
+                DeflatedZipWriter.DeflatedEntry entry = awaitPart(part);
+                appended++;
+                try {
+                    zipWriter.addEntry(entry);
+                } finally {
+                    Files.deleteIfExists(entry.file());
+                }
+            }
+            zipWriter.finish();
+        } catch (IOException | RuntimeException e) {
+            // Queued parts are skipped, running ones drop their file when done
+            aborted.set(true);
+            for (CompletableFuture<DeflatedZipWriter.DeflatedEntry> part : parts.subList(appended, parts.size())) {
+                part.thenAccept(entry -> deleteQuietly(entry.file()));
+            }
+            throw e;
+        }
 
-                // 1. Header
-                zos.write(OutputFileFormatter.createHeader().getBytes(StandardCharsets.UTF_8));
+        log.info("Wrote {} output parts of submission {} in {}ms",
+                outputs.size(), submissionId, System.currentTimeMillis() - startTime);
+    }
 
-                // 2. Generate lines for each collegamenti: rapporti line, then anagrafica line, then dati contabili
-                for (Collegamenti c : collegamentiList) {
-                    // Section 1: Rapporti line (Type 1 record)
-                    String rapportiLine = OutputFileFormatter.toRapportiOutputString(c);
-                    zos.write(rapportiLine.getBytes(StandardCharsets.UTF_8));
-                    section1Count++;
+    // Generates one part into a raw-deflated temporary file, on an outputPartExecutor worker
+    private DeflatedZipWriter.DeflatedEntry deflateOutputPart(
+            TransactionTemplate partTemplate, Long submissionId, Output output, AtomicBoolean aborted) throws IOException {
+        if (aborted.get()) {
+            throw new CancellationException("Output generation of submission " + submissionId + " aborted");
+        }
 
-                    // Section 2: Anagrafica/Soggetti line (Type 2 record)
-                    String anagraficaLine = OutputFileFormatter.toAnagraficaOutputString(c, section2Count);
-                    zos.write(anagraficaLine.getBytes(StandardCharsets.UTF_8));
-                    section2Count++;
+        Path file = Files.createTempFile("output-part-" + output.getId() + "-", ".deflate");
+        try {
+            DeflatedZipWriter.EntryOutputStream entryOut = new DeflatedZipWriter.EntryOutputStream(entryName(output), file);
+            try (entryOut) {
+                partTemplate.executeWithoutResult(status -> {
+                    try {
+                        writeOutputPart(entryOut, submissionId, output);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return entryOut.toEntry();
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
 
-                    // Section 3: DatiContabili line (Type 3 record) - currently commented out
-//                    if (c.getDatiContabili() != null) {
-//                        String datiContabiliLine = OutputFileFormatter.toSaldiEMovementiOutputString(c);
-//                        zos.write(datiContabiliLine.getBytes(StandardCharsets.UTF_8));
-//                        section3Count++;
-//                    }
-                }
+    private DeflatedZipWriter.DeflatedEntry awaitPart(CompletableFuture<DeflatedZipWriter.DeflatedEntry> part) throws IOException {
+        try {
+            return part.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Output part generation failed", e.getCause());
+        }
+    }
 
-                // 3. Footer with counts for the 3 sections
-                String footer = OutputFileFormatter.createFooter(section1Count, section2Count, section3Count);
-                zos.write(footer.getBytes(StandardCharsets.UTF_8));
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary output part {}: {}", file, e.getMessage());
+        }
+    }
 
-                log.info("Output file {} completed: Section1={}, Section2={}, Section3={}",
-                        output.getId(), section1Count, section2Count, section3Count);
+    // Use the filename generated in generateOutputMerchant
+    private String entryName(Output output) {
+        return output.getFullPath().substring(output.getFullPath().lastIndexOf("/") + 1);
+    }
 
-                zos.closeEntry();
+    /**
+     * Writes the TXT file of one output: header, the section 1 and 2 records of each of its
+     * Collegamenti, footer.
+     */
+    private void writeOutputPart(OutputStream out, Long submissionId, Output output) throws IOException {
+        log.info("Processing output file {} for submission {}", output.getId(), submissionId);
+
+        // Count records for each section
+        int section1Count = 0; // Collegamenti + Rapporti
+        int section2Count = 0; // Collegamenti + Rapporti + Soggetti
+        int section3Count = 0; // Collegamenti + DatiContabili
+
+        // Encodes the section 1 and 2 records into one reused buffer, no String per line
+        OutputRecordWriter recordWriter = new OutputRecordWriter();
+
+        // 1. Header
+        out.write(OutputFileFormatter.createHeader().getBytes(StandardCharsets.UTF_8));
+
+        // 2. Generate lines for each collegamenti: rapporti line, then anagrafica line.
+        // Rows are streamed in keyset pages, so writing starts with the first page and memory does not grow with the file
+        try (Stream<CollegamentiOutputRow> rows = collegamentiRepository.streamCollegamentiOutputRows(
+                submissionId, output.getId(), rowsPerOutputFile, outputFetchPageSize)) {
+            Iterator<CollegamentiOutputRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                CollegamentiOutputRow row = iterator.next();
+
+                // Section 1: Rapporti line (Type 1 record)
+                recordWriter.writeRapporti(row, out);
+                section1Count++;
+
+                // Section 2: Anagrafica/Soggetti line (Type 2 record)
+                recordWriter.writeAnagrafica(row, section2Count, out);
+                section2Count++;
+
+                // Section 3: DatiContabili line (Type 3 record) - currently commented out,
+                // see OutputFileFormatter.toSaldiEMovementiOutputString(Collegamenti)
             }
-            zos.finish();
-
-            // --- LOCAL TESTING BLOCK ---
-            saveFileToResources(zipFileName, baos.toByteArray());
-
-            // --- S3 UPLOAD (Commented out for testing) ---
-        /*
-        byte[] zipBytes = baos.toByteArray();
-        String s3Key = outputFolder + "/" + zipFileName;
-        try (ByteArrayInputStream zipInputStream = new ByteArrayInputStream(zipBytes)) {
-            s3Service.uploadFile(s3Key, zipInputStream, "application/zip");
-        }
-        */
         }
+
+        // 3. Footer with counts for the 3 sections
+        String footer = OutputFileFormatter.createFooter(section1Count, section2Count, section3Count);
+        out.write(footer.getBytes(StandardCharsets.UTF_8));
+
+        log.info("Output file {} completed: Section1={}, Section2={}, Section3={}",
+                output.getId(), section1Count, section2Count, section3Count);
     }
 
-    private void saveFileToResources(String fileName, byte[] content) throws IOException {
+    private void saveFileToResources(String fileName, S3Service.StreamWriter writer) throws IOException {
         // Navigate to src/main/resources/output
         Path resourceDirectory = Paths.get("src", "main", "resources", "output");
 
@@ -310,7 +396,9 @@ public class OutputServiceImpl implements OutputService {
         }
 
         Path filePath = resourceDirectory.resolve(fileName);
-        Files.write(filePath, content);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(filePath), 64 * 1024)) {
+            writer.writeTo(out);
+        }
 
         log.info("Test file saved locally to: {}", filePath.toAbsolutePath());
     }
@@ -369,13 +457,6 @@ public class OutputServiceImpl implements OutputService {
         return basePath + "/" + subPath;
     }
 
-    private <T> List<List<T>> partitionList(List<T> list, int batchSize) {
-        List<List<T>> batches = new ArrayList<>();
-        for (int i = 0; i < list.size(); i += batchSize) {
-            batches.add(list.subList(i, Math.min(i + batchSize, list.size())));
-        }
-        return batches;
-    }
 //
 //    //    @Transactional(rollbackFor = Exception.class)
 //    @Override
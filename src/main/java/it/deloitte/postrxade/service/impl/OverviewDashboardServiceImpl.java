@@ -5,18 +5,25 @@ import it.deloitte.postrxade.entity.Ingestion;
 import it.deloitte.postrxade.entity.Submission;
 import it.deloitte.postrxade.enums.IngestionStatusEnum;
 import it.deloitte.postrxade.enums.IngestionTypeEnum;
-import it.deloitte.postrxade.enums.SeverityEnum;
 import it.deloitte.postrxade.enums.SubmissionStatusEnum;
 import it.deloitte.postrxade.exception.NotFoundRecordException;
+import it.deloitte.postrxade.records.IngestionCounts;
 import it.deloitte.postrxade.repository.*;
+import it.deloitte.postrxade.service.IngestionStatsService;
 import it.deloitte.postrxade.service.ObligationService;
 import it.deloitte.postrxade.service.OverviewDashboardService;
+import it.deloitte.postrxade.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of the DashboardService.
@@ -30,30 +37,38 @@ import java.util.List;
  * <li>Summarizing validation issues (Errors vs Warnings).</li>
  * <li>Tracking obligation statuses (Completed, Pending, Cancelled).</li>
  * </ul>
+ * <p>
+ * The per-ingestion counts come from {@link IngestionStatsService}, and the result is
+ * cached per tenant, fiscal year and period. A cached entry is only served while the status of
+ * every submission and ingestion it was computed from is unchanged: the statuses are re-read on
+ * each call (a few small rows) and compared with the ones stored with the entry, so a status change
+ * made by any instance, including the batch task, invalidates it. Counts that move without a status
+ * change (e.g. the background purge of a failed submission) are bounded by
+ * {@code application.dashboard.stats-cache-ttl-seconds}.
  */
 @Service
 @Transactional
+@Slf4j
 public class OverviewDashboardServiceImpl implements OverviewDashboardService {
 
+    private record StatsCacheKey(String tenantId, Integer fiscalYear, String period) {
+    }
+
+    // stats is a private copy, never handed out
+    private record CachedStats(String statusVersion, DashboardStatsDTO stats, long cachedAtMillis) {
+    }
+
     @Autowired
     private ObligationService obligationService;
     @Autowired
     private TransactionRepository transactionRepository;
     @Autowired
-    private SoggettiRepository soggettiRepository;
-    @Autowired
-    private RapportiRepository rapportiRepository;
-    @Autowired
-    private DatiContabiliRepository datiContabiliRepository;
-    @Autowired
-    private CollegamentiRepository collegamentiRepository;
-    @Autowired
-    private CambioNdgRepository cambioNdgRepository;
-    @Autowired
-    private ErrorRecordRepository errorRecordRepository;
-    @Autowired
-    private ErrorCauseRepository errorCauseRepository;
+    private IngestionStatsService ingestionStatsService;
+
+    @Value("${application.dashboard.stats-cache-ttl-seconds:300}")
+    private long statsCacheTtlSeconds;
 
+    private final Map<StatsCacheKey, CachedStats> statsCache = new ConcurrentHashMap<>();
 
     /**
      * Retrieves the aggregated dashboard statistics for a given Fiscal Year and Period.
@@ -76,6 +91,15 @@ public class OverviewDashboardServiceImpl implements OverviewDashboardService {
             preSubmissions = Collections.emptyList();
         }
 
+        StatsCacheKey cacheKey = new StatsCacheKey(TenantContext.getTenantId(), fiscalYear, period);
+        String statusVersion = statusVersion(submissions, preSubmissions);
+        CachedStats cached = statsCache.get(cacheKey);
+        if (cached != null && cached.statusVersion().equals(statusVersion)
+                && System.currentTimeMillis() - cached.cachedAtMillis() < statsCacheTtlSeconds * 1000) {
+            // Callers own (and may modify) what they get: never the cached instance itself
+            return cached.stats().toBuilder().build();
+        }
+
         // 2. Initialize DTO
         DashboardStatsDTO stats = new DashboardStatsDTO();
 
@@ -84,12 +108,40 @@ public class OverviewDashboardServiceImpl implements OverviewDashboardService {
 
         // 4. Single-Pass Aggregation for Previous Period
         aggregatePastPeriodStats(preSubmissions, stats);
+
+        statsCache.put(cacheKey, new CachedStats(statusVersion, stats.toBuilder().build(), System.currentTimeMillis()));
         return stats;
     }
 
+    /**
+     * Status snapshot the cached stats depend on: every submission with its status and the status of
+     * each of its ingestions. New, removed or re-ingested files change it as well.
+     */
+    private String statusVersion(List<Submission> submissions, List<Submission> preSubmissions) {
+        StringBuilder version = new StringBuilder();
+        for (Submission submission : submissions) {
+            version.append('S').append(submission.getId()).append(':')
+                    .append(submission.getCurrentSubmissionStatus().getName());
+            if (submission.getIngestions() != null) {
+                for (Ingestion ingestion : submission.getIngestions()) {
+                    version.append(",I").append(ingestion.getId()).append(':')
+                            .append(ingestion.getIngestionStatus().getName());
+                }
+            }
+            version.append(';');
+        }
+        version.append('|');
+        for (Submission submission : preSubmissions) {
+            version.append('P').append(submission.getId()).append(':')
+                    .append(submission.getCurrentSubmissionStatus().getName()).append(';');
+        }
+        return version.toString();
+    }
+
     /**
      * Optimized method that calculates Obligation, Ingestion, Validation, and Transaction stats
-     * in a SINGLE iteration over the list.
+     * in a SINGLE iteration over the list, with the row counts of all the counted ingestions
+     * read in one lookup.
      */
     private void aggregateCurrentPeriodStats(List<Submission> submissions, DashboardStatsDTO stats) {
         int registeredAbandoned = 0;
@@ -110,9 +162,11 @@ public class OverviewDashboardServiceImpl implements OverviewDashboardService {
         long datiContabiliErrors = 0;
 
         long totalErrors = 0;
-        long totalErrorRecords = 0;
         long totalWarnings = 0;
 
+        // Ingestions whose rows are counted, with their type
+        Map<Long, String> typeByIngestionId = new HashMap<>();
+
         for (Submission submission : submissions) {
             String subStatus = submission.getCurrentSubmissionStatus().getName();
 
@@ -143,42 +197,37 @@ public class OverviewDashboardServiceImpl implements OverviewDashboardService {
                             ingSuccess++;
                         }
 
-                        if (ingestion.getIngestionType().getName().equals(IngestionTypeEnum.SOGGETTI.getLabel())) {
-                            soggettiAccepted += soggettiRepository.countByIngestionId(ingestion.getId());
-                            soggettiErrors += errorRecordRepository.countErrorRecordsByIngestionIdAndIngestionTypeName(
-                                    ingestion.getId(), IngestionTypeEnum.SOGGETTI.getLabel());
-                            totalWarnings += errorCauseRepository.countByIngestionAndSeverity(ingestion.getId(), SeverityEnum.WARNING.getLevel());
-                            totalErrors += errorCauseRepository.countByIngestionAndSeverity(ingestion.getId(), SeverityEnum.ERROR.getLevel());
-                        }
-
-                        if (ingestion.getIngestionType().getName().equals(IngestionTypeEnum.RAPPORTI.getLabel())) {
-                            rapportiAccepted += rapportiRepository.countByIngestionId(ingestion.getId());
-                            rapportiErrors += errorRecordRepository.countErrorRecordsByIngestionIdAndIngestionTypeName(
-                                    ingestion.getId(), IngestionTypeEnum.RAPPORTI.getLabel());
-                            totalWarnings += errorCauseRepository.countByIngestionAndSeverity(ingestion.getId(), SeverityEnum.WARNING.getLevel());
-                            totalErrors += errorCauseRepository.countByIngestionAndSeverity(ingestion.getId(), SeverityEnum.ERROR.getLevel());
-                        }
-
-                        if (ingestion.getIngestionType().getName().equals(IngestionTypeEnum.DATI_CONTABILI.getLabel())) {
-                            datiContabiliAccepted += datiContabiliRepository.countByIngestionId(ingestion.getId());
-                            datiContabiliErrors += errorRecordRepository.countErrorRecordsByIngestionIdAndIngestionTypeName(
-                                    ingestion.getId(), IngestionTypeEnum.DATI_CONTABILI.getLabel());
-                            totalWarnings += errorCauseRepository.countByIngestionAndSeverity(ingestion.getId(), SeverityEnum.WARNING.getLevel());
-                            totalErrors += errorCauseRepository.countByIngestionAndSeverity(ingestion.getId(), SeverityEnum.ERROR.getLevel());
-                        }
-
-                        if (ingestion.getIngestionType().getName().equals(IngestionTypeEnum.COLLEGAMENTI.getLabel())) {
-                            collegamentiAccepted += collegamentiRepository.countByIngestionId(ingestion.getId());
-                            collegamentiErrors += errorRecordRepository.countErrorRecordsByIngestionIdAndIngestionTypeName(
-                                    ingestion.getId(), IngestionTypeEnum.COLLEGAMENTI.getLabel());
-                            totalWarnings += errorCauseRepository.countByIngestionAndSeverity(ingestion.getId(), SeverityEnum.WARNING.getLevel());
-                            totalErrors += errorCauseRepository.countByIngestionAndSeverity(ingestion.getId(), SeverityEnum.ERROR.getLevel());
+                        if (isCountedIngestionType(ingestion.getIngestionType().getName())) {
+                            typeByIngestionId.put(ingestion.getId(), ingestion.getIngestionType().getName());
                         }
                     }
                 }
             }
         }
 
+        Map<Long, IngestionCounts> countsByIngestion = ingestionStatsService.getCountsByIngestion(typeByIngestionId.keySet());
+        for (Map.Entry<Long, IngestionCounts> entry : countsByIngestion.entrySet()) {
+            String ingestionType = typeByIngestionId.get(entry.getKey());
+            IngestionCounts counts = entry.getValue();
+
+            totalWarnings += counts.warningCount();
+            totalErrors += counts.errorCount();
+
+            if (IngestionTypeEnum.SOGGETTI.getLabel().equals(ingestionType)) {
+                soggettiAccepted += counts.acceptedCount();
+                soggettiErrors += counts.errorRecordCount();
+            } else if (IngestionTypeEnum.RAPPORTI.getLabel().equals(ingestionType)) {
+                rapportiAccepted += counts.acceptedCount();
+                rapportiErrors += counts.errorRecordCount();
+            } else if (IngestionTypeEnum.DATI_CONTABILI.getLabel().equals(ingestionType)) {
+                datiContabiliAccepted += counts.acceptedCount();
+                datiContabiliErrors += counts.errorRecordCount();
+            } else if (IngestionTypeEnum.COLLEGAMENTI.getLabel().equals(ingestionType)) {
+                collegamentiAccepted += counts.acceptedCount();
+                collegamentiErrors += counts.errorRecordCount();
+            }
+        }
+
         stats.setObligationTotal(submissions.size());
         stats.setObligationRejectedAbandoned(registeredAbandoned);
         stats.setObligationApproved(approved);
@@ -207,34 +256,35 @@ public class OverviewDashboardServiceImpl implements OverviewDashboardService {
         stats.setObligationCompleted(completed);
     }
 
+    private static boolean isCountedIngestionType(String ingestionType) {
+        return IngestionTypeEnum.SOGGETTI.getLabel().equals(ingestionType)
+                || IngestionTypeEnum.RAPPORTI.getLabel().equals(ingestionType)
+                || IngestionTypeEnum.DATI_CONTABILI.getLabel().equals(ingestionType)
+                || IngestionTypeEnum.COLLEGAMENTI.getLabel().equals(ingestionType);
+    }
+
     /**
      * Optimized method for Past Period (only needs Transaction stats).
      */
     private void aggregatePastPeriodStats(List<Submission> submissions, DashboardStatsDTO stats) {
         List<Long> submissionIds = submissions.stream().map(Submission::getId).toList();
-        long totalSoggetti = soggettiRepository.countBySubmissionIn(submissionIds);
-        long totalSoggettiErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(submissionIds, IngestionTypeEnum.SOGGETTI.getLabel());
-
-        long totalRapporti = rapportiRepository.countBySubmissionIn(submissionIds);
-        long totalRapportiErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(submissionIds, IngestionTypeEnum.RAPPORTI.getLabel());
-
-        long totalDatiContabili = datiContabiliRepository.countBySubmissionIn(submissionIds);
-        long totalDatiContabiliErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(submissionIds, IngestionTypeEnum.DATI_CONTABILI.getLabel());
-
-        long totalCollegamenti = collegamentiRepository.countBySubmissionIn(submissionIds);
-        long totalCollegamentiErrors = errorRecordRepository.countErrorRecordsBySubmissionIdsAndIngestionType(submissionIds, IngestionTypeEnum.COLLEGAMENTI.getLabel());
+        Map<String, IngestionCounts> countsByType = ingestionStatsService.getCountsByIngestionType(submissionIds);
 
-        stats.setPreviousSoggettiAccepted(totalSoggetti);
-        stats.setPreviousSoggettiReceived(totalSoggetti + totalSoggettiErrors);
+        IngestionCounts soggetti = countsByType.getOrDefault(IngestionTypeEnum.SOGGETTI.getLabel(), IngestionCounts.EMPTY);
+        stats.setPreviousSoggettiAccepted(soggetti.acceptedCount());
+        stats.setPreviousSoggettiReceived(soggetti.receivedCount());
 
-        stats.setPreviousRapportiAccepted(totalRapporti);
-        stats.setPreviousRapportiReceived(totalRapporti + totalRapportiErrors);
+        IngestionCounts rapporti = countsByType.getOrDefault(IngestionTypeEnum.RAPPORTI.getLabel(), IngestionCounts.EMPTY);
+        stats.setPreviousRapportiAccepted(rapporti.acceptedCount());
+        stats.setPreviousRapportiReceived(rapporti.receivedCount());
 
-        stats.setPreviousDatiContabiliAccepted(totalDatiContabili);
-        stats.setPreviousDatiContabiliReceived(totalDatiContabili + totalDatiContabiliErrors);
+        IngestionCounts datiContabili = countsByType.getOrDefault(IngestionTypeEnum.DATI_CONTABILI.getLabel(), IngestionCounts.EMPTY);
+        stats.setPreviousDatiContabiliAccepted(datiContabili.acceptedCount());
+        stats.setPreviousDatiContabiliReceived(datiContabili.receivedCount());
 
-        stats.setPreviousCollegamentiAccepted(totalCollegamenti);
-        stats.setPreviousCollegamentiReceived(totalCollegamenti + totalCollegamentiErrors);
+        IngestionCounts collegamenti = countsByType.getOrDefault(IngestionTypeEnum.COLLEGAMENTI.getLabel(), IngestionCounts.EMPTY);
+        stats.setPreviousCollegamentiAccepted(collegamenti.acceptedCount());
+        stats.setPreviousCollegamentiReceived(collegamenti.receivedCount());
     }
 
 
@@ -0,0 +1,235 @@
+package it.deloitte.postrxade.service.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+/**
+ * OutputStream writing an S3 object through a multipart upload.
+ * <p>
+ * Bytes are collected in a part buffer of {@code partSize}; every full buffer is uploaded as a part
+ * on {@code executor} while the caller keeps writing into a new one. At most {@code maxInFlightParts}
+ * uploads run at once (the writer blocks beyond that), so memory stays at about
+ * {@code (maxInFlightParts + 1) * partSize} whatever the object size. An object smaller than one part
+ * is sent with a single PutObject.
+ * <p>
+ * {@link #close()} does not publish the object: the owner calls {@link #complete()} once all data
+ * has been written, or {@link #abort()} on failure, so a half-written stream (e.g. closed by a
+ * try-with-resources during an exception) never becomes a visible object.
+ */
+@Slf4j
+class S3MultipartOutputStream extends OutputStream {
+
+    // S3 minimum size of every part but the last
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String key;
+    private final String contentType;
+    private final int partSize;
+    private final Executor executor;
+    private final Semaphore inFlight;
+
+    private final List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+    private byte[] buffer;
+    private int count;
+    private String uploadId;
+    private long totalBytes;
+    private boolean finished;
+
+    S3MultipartOutputStream(S3Client s3Client, String bucket, String key, String contentType,
+                            int partSize, int maxInFlightParts, Executor executor) {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("Part size must be at least " + MIN_PART_SIZE + " bytes, got " + partSize);
+        }
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.key = key;
+        this.contentType = contentType;
+        this.partSize = partSize;
+        this.inFlight = new Semaphore(Math.max(1, maxInFlightParts));
+        this.executor = executor;
+        this.buffer = new byte[partSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == partSize) {
+            dispatchPart(true);
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (count == partSize) {
+                dispatchPart(true);
+            }
+            int n = Math.min(len, partSize - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Uploads the remaining bytes, waits for every part and completes the multipart upload.
+     * Aborts the upload if any part failed.
+     */
+    void complete() throws IOException {
+        ensureOpen();
+        try {
+            if (uploadId == null) {
+                // Smaller than one part: a single PutObject, no multipart bookkeeping
+                s3Client.putObject(PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, count), count));
+                totalBytes += count;
+                finished = true;
+                log.info("Uploaded s3://{}/{} with a single request ({} bytes)", bucket, key, totalBytes);
+                return;
+            }
+            if (count > 0) {
+                dispatchPart(false);
+            }
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (CompletableFuture<CompletedPart> part : parts) {
+                completed.add(part.join());
+            }
+            completed.sort(Comparator.comparing(CompletedPart::partNumber));
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                    .build());
+            finished = true;
+            log.info("Completed multipart upload s3://{}/{}: {} parts, {} bytes", bucket, key, completed.size(), totalBytes);
+        } catch (CompletionException e) {
+            abort();
+            throw new IOException("Multipart upload of s3://" + bucket + "/" + key + " failed", e.getCause());
+        } catch (RuntimeException e) {
+            abort();
+            throw new IOException("Upload of s3://" + bucket + "/" + key + " failed", e);
+        } finally {
+            buffer = null;
+        }
+    }
+
+    /**
+     * Discards the upload: pending parts are waited for and the multipart upload is aborted so S3
+     * does not keep (and bill) the orphan parts. Safe to call more than once.
+     */
+    void abort() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        buffer = null;
+        if (uploadId == null) {
+            return;
+        }
+        for (CompletableFuture<CompletedPart> part : parts) {
+            part.exceptionally(e -> null).join();
+        }
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket).key(key).uploadId(uploadId).build());
+            log.warn("Aborted multipart upload s3://{}/{}", bucket, key);
+        } catch (RuntimeException e) {
+            log.error("Failed to abort multipart upload s3://{}/{} ({}): {}", bucket, key, uploadId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Does not publish the object, see {@link #complete()}.
+     */
+    @Override
+    public void close() {
+        // Intentionally empty
+    }
+
+    private void dispatchPart(boolean moreData) throws IOException {
+        failFast();
+        if (uploadId == null) {
+            uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(bucket).key(key).contentType(contentType).build()).uploadId();
+            log.debug("Started multipart upload s3://{}/{} ({})", bucket, key, uploadId);
+        }
+
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an upload slot", e);
+        }
+
+        int partNumber = parts.size() + 1;
+        byte[] data = buffer;
+        int length = count;
+        totalBytes += length;
+        CompletableFuture<CompletedPart> part;
+        try {
+            part = CompletableFuture.supplyAsync(() -> uploadPart(partNumber, data, length), executor);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        part.whenComplete((p, e) -> inFlight.release());
+        parts.add(part);
+
+        // The previous buffer belongs to the upload task now
+        buffer = moreData ? new byte[partSize] : null;
+        count = 0;
+    }
+
+    private CompletedPart uploadPart(int partNumber, byte[] data, int length) {
+        String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucket).key(key).uploadId(uploadId)
+                        .partNumber(partNumber).contentLength((long) length)
+                        .build(),
+                RequestBody.fromInputStream(new ByteArrayInputStream(data, 0, length), length)).eTag();
+        log.debug("Uploaded part {} of s3://{}/{} ({} bytes)", partNumber, bucket, key, length);
+        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+    }
+
+    // Stop producing data as soon as an upload has failed
+    private void failFast() throws IOException {
+        for (CompletableFuture<CompletedPart> part : parts) {
+            if (part.isCompletedExceptionally()) {
+                try {
+                    part.join();
+                } catch (CompletionException e) {
+                    throw new IOException("Upload of a part of s3://" + bucket + "/" + key + " failed", e.getCause());
+                }
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (finished) {
+            throw new IOException("Upload of s3://" + bucket + "/" + key + " is already completed or aborted");
+        }
+    }
+}
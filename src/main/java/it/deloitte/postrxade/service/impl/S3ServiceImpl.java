@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.InputStreamResource;
@@ -13,7 +14,6 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -48,6 +49,16 @@ public class S3ServiceImpl implements S3Service {
     @Value("${aws.s3.output-folder}")
     private String outputFolder;
 
+    @Value("${aws.s3.multipart.part-size-mb:16}")
+    private int multipartPartSizeMb;
+
+    @Value("${aws.s3.multipart.max-in-flight-parts:4}")
+    private int multipartMaxInFlightParts;
+
+    @Autowired
+    @Qualifier("s3UploadExecutor")
+    private Executor s3UploadExecutor;
+
     /**
      * Verifica che il S3Client sia disponibile e funzionante.
      * Se non lo è, tenta di ricreare le credenziali.
@@ -65,13 +76,8 @@ public class S3ServiceImpl implements S3Service {
         try {
             LOGGER.info("Uploading file to S3: s3://{}/{}", s3BucketName, key);
 
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(s3BucketName)
-                    .key(key)
-                    .contentType(contentType)
-                    .build();
-
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(inputStream, inputStream.available()));
+            // Streamed: InputStream.available() is not the length of the stream
+            uploadStream(key, contentType, inputStream::transferTo);
 
             LOGGER.info("File uploaded successfully to S3: s3://{}/{}", s3BucketName, key);
             return key;
@@ -85,6 +91,25 @@ public class S3ServiceImpl implements S3Service {
         }
     }
 
+    @Override
+    public String uploadStream(String key, String contentType, StreamWriter writer) throws IOException {
+        ensureS3ClientAvailable();
+        LOGGER.info("Streaming file to S3: s3://{}/{}", s3BucketName, key);
+
+        int partSize = Math.max(S3MultipartOutputStream.MIN_PART_SIZE, multipartPartSizeMb * 1024 * 1024);
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3Client, s3BucketName, key, contentType,
+                partSize, multipartMaxInFlightParts, s3UploadExecutor);
+        try {
+            writer.writeTo(out);
+            out.complete();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Error streaming file to S3 s3://{}/{}: {}", s3BucketName, key, e.getMessage(), e);
+            out.abort();
+            throw e;
+        }
+        return key;
+    }
+
     @Override
     public Resource downloadFile(String key) {
         try {
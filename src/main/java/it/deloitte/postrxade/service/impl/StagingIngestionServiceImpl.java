@@ -4,23 +4,37 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import it.deloitte.postrxade.entity.DatiContabili;
 import it.deloitte.postrxade.entity.ErrorCause;
 import it.deloitte.postrxade.entity.ErrorRecord;
 import it.deloitte.postrxade.entity.ErrorType;
 import it.deloitte.postrxade.entity.Ingestion;
+import it.deloitte.postrxade.entity.IngestionProgress;
 import it.deloitte.postrxade.entity.Soggetti;
 import it.deloitte.postrxade.entity.Submission;
 import it.deloitte.postrxade.enums.ErrorTypeCode;
+import it.deloitte.postrxade.enums.StagingErrorSourceEnum;
 import it.deloitte.postrxade.exception.NotFoundRecordException;
 import it.deloitte.postrxade.parser.merchants.MerchantFileLineParser;
 import it.deloitte.postrxade.parser.merchants.MerchantFileLineValidator;
@@ -31,6 +45,7 @@ import it.deloitte.postrxade.parser.transaction.RemoteFile;
 import it.deloitte.postrxade.records.ErrorRecordCause;
 import it.deloitte.postrxade.records.StagingResult;
 import it.deloitte.postrxade.repository.ErrorRecordRepository;
+import it.deloitte.postrxade.repository.IngestionProgressRepository;
 import it.deloitte.postrxade.repository.StagingRepository;
 import it.deloitte.postrxade.service.ErrorTypeService;
 import it.deloitte.postrxade.service.StagingIngestionService;
@@ -57,20 +72,38 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
 
     private final StagingRepository stagingRepository;
     private final ErrorRecordRepository errorRecordRepository;
+    private final IngestionProgressRepository ingestionProgressRepository;
+    private final TransactionTemplate transactionTemplate;
     private final ErrorTypeService errorTypeService;
     private final MapperFacade mapperFacade;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor stagingParseExecutor;
+    private final ThreadPoolTaskExecutor stagingWriterExecutor;
+    private final int maxInFlightChunks;
     private final MerchantFileLineParser parser = new MerchantFileLineParser();
     private final MerchantFileLineValidator validator = new MerchantFileLineValidator();
 
     public StagingIngestionServiceImpl(
             StagingRepository stagingRepository,
             ErrorRecordRepository errorRecordRepository,
+            IngestionProgressRepository ingestionProgressRepository,
+            PlatformTransactionManager transactionManager,
             ErrorTypeService errorTypeService,
-            @Qualifier("mapperFacade") MapperFacade mapperFacade) {
+            @Qualifier("mapperFacade") MapperFacade mapperFacade,
+            MeterRegistry meterRegistry,
+            @Qualifier("stagingParseExecutor") ThreadPoolTaskExecutor stagingParseExecutor,
+            @Qualifier("stagingWriterExecutor") ThreadPoolTaskExecutor stagingWriterExecutor) {
         this.stagingRepository = stagingRepository;
         this.errorRecordRepository = errorRecordRepository;
+        this.ingestionProgressRepository = ingestionProgressRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.errorTypeService = errorTypeService;
         this.mapperFacade = mapperFacade;
+        this.meterRegistry = meterRegistry;
+        this.stagingParseExecutor = stagingParseExecutor;
+        this.stagingWriterExecutor = stagingWriterExecutor;
+        // Enough parsed chunks queued to keep every worker busy while the writer flushes
+        this.maxInFlightChunks = Math.max(2, stagingParseExecutor.getMaxPoolSize() * 2);
     }
 
     // ==================== MERCHANT FILE PROCESSING ====================
@@ -84,72 +117,17 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
                 file.name(), submission.getId());
         long startTime = System.currentTimeMillis();
 
-        // Phase 1: Read all lines as strings (low memory footprint)
-        List<String> lines = readAllLines(file);
-        if (lines.isEmpty()) {
+        // Stream lines straight off the file in bounded chunks (never holds the whole file)
+        StreamingLoadResult load = this.<Soggetti>streamFileToStaging(file, "soggetti", ingestion, submission,
+                line -> parseSoggettiLine(line, ingestion, submission),
+                chunk -> stagingRepository.bulkLoadSoggettiToStaging(chunk, ingestion.getId(), submission.getId()));
+        if (load.linesRead() == 0) {
             return new StagingResult(0, 0);
         }
 
-        int totalLines = lines.size();
-        log.info("Read {} lines from file in {}ms", totalLines, System.currentTimeMillis() - startTime);
-
-        // Phase 2: Process in BATCHES to avoid OOM
-        int totalValidationErrors = 0;
-        int totalParsed = 0;
-        int batchNumber = 0;
-
-        List<Soggetti> batchSoggetti = new ArrayList<>(MERCHANT_PARSE_BATCH_SIZE);
-        List<ErrorRecord> batchErrors = new ArrayList<>();
-        Set<String> fileLevelMerchants = new HashSet<>(); // For intra-file duplicate detection (kept across batches)
-
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            try {
-                ErrorRecord error = processSoggettiLine(line, ingestion, submission, batchSoggetti, fileLevelMerchants);
-                if (error != null) {
-                    batchErrors.add(error);
-                }
-            } catch (Exception e) {
-                if (totalValidationErrors < 10) {
-                    log.warn("Error processing merchant line {}: {}", i + 1, e.getMessage());
-                }
-                try {
-                    ErrorRecord error = createErrorRecordFromException(e, line, ingestion, submission);
-                    batchErrors.add(error);
-                } catch (NotFoundRecordException ex) {
-                    log.error("Failed to create error record for exception", ex);
-                }
-            }
-
-            // When batch is full OR at end of file, load to staging
-            if (batchSoggetti.size() >= MERCHANT_PARSE_BATCH_SIZE || i == lines.size() - 1) {
-                if (!batchSoggetti.isEmpty() || !batchErrors.isEmpty()) {
-                    batchNumber++;
-                    log.info("Processing batch {}: {} merchants, {} errors (total parsed: {}/{})",
-                            batchNumber, batchSoggetti.size(), batchErrors.size(),
-                            i + 1, lines.size());
-
-                    // Save errors for this batch
-                    if (!batchErrors.isEmpty()) {
-                        errorRecordRepository.bulkInsertRecordsWithCauses(batchErrors, ingestion.getId());
-                        totalValidationErrors += batchErrors.size();
-                    }
-
-                    // Load merchants to staging (NOT final insert yet)
-                    if (!batchSoggetti.isEmpty()) {
-                        stagingRepository.bulkLoadSoggettiToStaging(batchSoggetti, ingestion.getId(), submission.getId());
-                        totalParsed += batchSoggetti.size();
-                    }
-
-                    // CRITICAL: Clear batch lists to free memory (but keep fileLevelMerchants for dedup)
-                    batchSoggetti.clear();
-                    batchErrors.clear();
-                }
-            }
-        }
-
-        // Clear original lines list to free memory before final processing
-        lines.clear();
+        int totalValidationErrors = load.validationErrors();
+        int totalParsed = load.parsed();
+        int batchNumber = load.batches();
 
         log.info("Loaded {} merchants to staging in {} batches, {} validation errors, in {}ms",
                 totalParsed, batchNumber, totalValidationErrors, System.currentTimeMillis() - startTime);
@@ -160,13 +138,15 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
         StagingResult stagingResult = stagingRepository.processSoggettiFromStaging(submission.getId());
         log.info("Set-based processing completed in {}ms", System.currentTimeMillis() - processStart);
 
+        // A resumed file may have been classified by the previous run, whose counts are lost: look at the
+        // flagged staging rows instead (rows the previous run already reported are skipped)
         // Phase 4: Create ErrorRecords for DB duplicates
-        if (stagingResult.duplicateCount() > 0) {
+        if (stagingResult.duplicateCount() > 0 || load.resumed()) {
             createErrorRecordsForDuplicateSoggetti(ingestion, submission);
         }
 
         // Phase 5: Create ErrorRecords for missing Collegamenti parent (already marked in staging)
-        if (stagingResult.missingMerchantCount() > 0) {
+        if (stagingResult.missingMerchantCount() > 0 || load.resumed()) {
             log.warn("Found {} soggetti records with missing Collegamenti parent", stagingResult.missingMerchantCount());
             createErrorRecordsForMissingSoggettiCollegamenti(ingestion, submission);
         }
@@ -178,427 +158,182 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
         return new StagingResult(stagingResult.insertedCount(), stagingResult.duplicateCount(), stagingResult.missingMerchantCount(), totalValidationErrors);
     }
 
+    private static final String SOGGETTI_DUPLICATE_MSG = "Soggetti already exists in the same file";
+    private static final String RECORD_DUPLICATE_MSG = "Record already exists in the same file";
+
     /**
-     * Process a single merchant line with full validation (same logic as FileProcessingService).
+     * Parse and validate a single merchant line (same logic as FileProcessingService).
+     * Runs on a parse worker: the intra-file duplicate check is resolved later, in file order, by the writer.
      */
-    private ErrorRecord processSoggettiLine(
+    private ParsedLine<Soggetti> parseSoggettiLine(
             String line,
             Ingestion ingestion,
-            Submission submission,
-            List<Soggetti> soggettiList,
-            Set<String> fileLevelSoggetti) throws NotFoundRecordException {
+            Submission submission) {
 
         SoggettiRecord record = parser.parseSoggettiLine(line);
 
         // Validate with all business rules (format, mandatory fields, values)
-        List<ErrorRecordCause> errorCauses = validator.validateSoggetti(record, fileLevelSoggetti);
-
-        // Check for intra-file duplicates
-        String merchantRecordKey = record.getIntermediario() + "_" + record.getNdg() + "_" + submission.getId();
-        if (fileLevelSoggetti.contains(merchantRecordKey)) {
-            errorCauses.add(new ErrorRecordCause(
-                    "Soggetti already exists in the same file",
-                    ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode()
-            ));
-        }
+        List<ErrorRecordCause> errorCauses = validator.validateSoggetti(record);
 
+        // Intra-file key (the submission is the same for the whole file)
+        DuplicateKeyIndex.Fingerprint merchantRecordKey = DuplicateKeyIndex.Fingerprint.of(record.getIntermediario(), record.getNdg());
+
+        Soggetti soggetti = null;
         if (errorCauses.isEmpty()) {
-            // Valid record - add to list for staging
-            Soggetti soggetti = mapperFacade.map(record, Soggetti.class);
+            // Valid record - map it for staging
+            soggetti = mapperFacade.map(record, Soggetti.class);
             soggetti.setIngestion(ingestion);
             soggetti.setSubmission(submission);
             soggetti.setRawRow(line);
-            soggettiList.add(soggetti);
-            fileLevelSoggetti.add(merchantRecordKey);
-            return null;
-        } else {
-            // Invalid record - create error
-            return createErrorRecord(errorCauses, line, ingestion, submission);
         }
+        return new ParsedLine<>(line, soggetti, merchantRecordKey, SOGGETTI_DUPLICATE_MSG, errorCauses, null);
     }
 
     /**
-     * Process a single rapporti line with full validation.
+     * Parse and validate a single rapporti line.
      */
-    private ErrorRecord processRapportiLine(
+    private ParsedLine<it.deloitte.postrxade.entity.Rapporti> parseRapportiLine(
             String line,
             Ingestion ingestion,
-            Submission submission,
-            List<it.deloitte.postrxade.entity.Rapporti> rapportiList,
-            Set<String> fileLevelRapporti) throws NotFoundRecordException {
+            Submission submission) {
 
         it.deloitte.postrxade.parser.merchants.types.RapportiRecord record = parser.parseRapportoLine(line);
 
         // Validate with all business rules (format, mandatory fields, values)
         List<ErrorRecordCause> errorCauses = validator.validateRapporto(record);
 
-        // Check for intra-file duplicates
-        String recordKey = record.getIntermediario() + "_" + record.getChiaveRapporto() + "_" + submission.getId();
-        if (fileLevelRapporti.contains(recordKey)) {
-            errorCauses.add(new ErrorRecordCause(
-                    "Record already exists in the same file",
-                    ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode()
-            ));
-        }
+        DuplicateKeyIndex.Fingerprint recordKey = DuplicateKeyIndex.Fingerprint.of(record.getIntermediario(), record.getChiaveRapporto());
 
+        it.deloitte.postrxade.entity.Rapporti entity = null;
         if (errorCauses.isEmpty()) {
-            // Valid record - add to list for staging
-            it.deloitte.postrxade.entity.Rapporti entity = mapperFacade.map(record, it.deloitte.postrxade.entity.Rapporti.class);
+            // Valid record - map it for staging
+            entity = mapperFacade.map(record, it.deloitte.postrxade.entity.Rapporti.class);
             entity.setIngestion(ingestion);
             entity.setSubmission(submission);
             entity.setRawRow(line);
-            rapportiList.add(entity);
-            fileLevelRapporti.add(recordKey);
-            return null;
-        } else {
-            // Invalid record - create error
-            return createErrorRecord(errorCauses, line, ingestion, submission);
         }
+        return new ParsedLine<>(line, entity, recordKey, RECORD_DUPLICATE_MSG, errorCauses, null);
     }
 
     /**
-     * Process a single daticontabili line with full validation.
+     * Parse and validate a single daticontabili line.
      */
-    private ErrorRecord processDaticontabiliLine(
+    private ParsedLine<DatiContabili> parseDaticontabiliLine(
             String line,
             Ingestion ingestion,
-            Submission submission,
-            List<it.deloitte.postrxade.entity.DatiContabili> daticontabiliList,
-            Set<String> fileLevelDaticontabili) throws NotFoundRecordException {
+            Submission submission) {
 
         DatiContabiliRecord record = parser.parseDatiContabiliLine(line);
 
         // Validate with all business rules (format, mandatory fields, values)
-        List<ErrorRecordCause> errorCauses = validator.validateDatiContabili(record, fileLevelDaticontabili);
-
-        // Check for intra-file duplicates
-        String recordKey = record.getIntermediario() + "_" + record.getChiaveRapporto() + "_" + submission.getId();
-        if (fileLevelDaticontabili.contains(recordKey)) {
-            errorCauses.add(new ErrorRecordCause(
-                    "Record already exists in the same file",
-                    ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode()
-            ));
-        }
+        List<ErrorRecordCause> errorCauses = validator.validateDatiContabili(record);
 
+        DuplicateKeyIndex.Fingerprint recordKey = DuplicateKeyIndex.Fingerprint.of(record.getIntermediario(), record.getChiaveRapporto());
+
+        DatiContabili entity = null;
         if (errorCauses.isEmpty()) {
-            // Valid record - add to list for staging
-            DatiContabili entity = mapperFacade.map(record, it.deloitte.postrxade.entity.DatiContabili.class);
+            // Valid record - map it for staging
+            entity = mapperFacade.map(record, it.deloitte.postrxade.entity.DatiContabili.class);
             entity.setIngestion(ingestion);
             entity.setSubmission(submission);
             entity.setRawRow(line);
-            daticontabiliList.add(entity);
-            fileLevelDaticontabili.add(recordKey);
-            return null;
-        } else {
-            // Invalid record - create error
-            return createErrorRecord(errorCauses, line, ingestion, submission);
         }
+        return new ParsedLine<>(line, entity, recordKey, RECORD_DUPLICATE_MSG, errorCauses, null);
     }
 
     /**
-     * Process a single collegamenti line with full validation.
+     * Parse and validate a single collegamenti line.
      */
-    private ErrorRecord processCollegamentiLine(
+    private ParsedLine<it.deloitte.postrxade.entity.Collegamenti> parseCollegamentiLine(
             String line,
             Ingestion ingestion,
-            Submission submission,
-            List<it.deloitte.postrxade.entity.Collegamenti> collegamentiList,
-            Set<String> fileLevelCollegamenti) throws NotFoundRecordException {
+            Submission submission) {
 
         it.deloitte.postrxade.parser.merchants.types.CollegamentiRecord record = parser.parseCollegamentiLine(line);
 
         // Validate with all business rules (format, mandatory fields, values)
-        List<ErrorRecordCause> errorCauses = validator.validateCollegamenti(record, fileLevelCollegamenti);
+        List<ErrorRecordCause> errorCauses = validator.validateCollegamenti(record);
 
-        // Check for intra-file duplicates
-        String recordKey = record.getIntermediario() + "_" + record.getChiaveRapporto() + "_" + record.getNdg() + "_" + submission.getId();
-
-        if (fileLevelCollegamenti.contains(recordKey)) {
-            errorCauses.add(new ErrorRecordCause(
-                    "Record already exists in the same file",
-                    ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode()
-            ));
-        }
+        DuplicateKeyIndex.Fingerprint recordKey = DuplicateKeyIndex.Fingerprint.of(
+                record.getIntermediario(), record.getChiaveRapporto(), record.getNdg());
 
+        it.deloitte.postrxade.entity.Collegamenti entity = null;
         if (errorCauses.isEmpty()) {
-            // Valid record - add to list for staging
-            it.deloitte.postrxade.entity.Collegamenti entity = mapperFacade.map(record, it.deloitte.postrxade.entity.Collegamenti.class);
+            // Valid record - map it for staging
+            entity = mapperFacade.map(record, it.deloitte.postrxade.entity.Collegamenti.class);
             entity.setIngestion(ingestion);
             entity.setSubmission(submission);
             entity.setRawRow(line);
-            collegamentiList.add(entity);
-            fileLevelCollegamenti.add(recordKey);
-            return null;
-        } else {
-            // Invalid record - create error
-            return createErrorRecord(errorCauses, line, ingestion, submission);
         }
+        return new ParsedLine<>(line, entity, recordKey, RECORD_DUPLICATE_MSG, errorCauses, null);
     }
 
     /**
-     * Process a single collegamenti line with full validation.
+     * Parse and validate a single cambio NDG line.
      */
-    private ErrorRecord processCambioNdgLine(
+    private ParsedLine<it.deloitte.postrxade.entity.CambioNdg> parseCambioNdgLine(
             String line,
             Ingestion ingestion,
-            Submission submission,
-            List<it.deloitte.postrxade.entity.CambioNdg> cambioNdgList,
-            Set<String> fileLevelCambioNdg) throws NotFoundRecordException {
+            Submission submission) {
 
         CambioNdgRecord record = parser.parseCambioNdgLine(line);
 
         // Validate with all business rules (format, mandatory fields, values)
-        List<ErrorRecordCause> errorCauses = validator.validateCambioNdg(record, fileLevelCambioNdg);
-
-        // Check for intra-file duplicates
-        String recordKey = record.getIntermediario() + "_" + record.getNdgVecchio() + "_" + record.getNdgVecchio() + "_" + submission.getId();
-        if (fileLevelCambioNdg.contains(recordKey)) {
-            errorCauses.add(new ErrorRecordCause(
-                    "Record already exists in the same file",
-                    ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode()
-            ));
-        }
+        List<ErrorRecordCause> errorCauses = validator.validateCambioNdg(record);
+
+        DuplicateKeyIndex.Fingerprint recordKey = DuplicateKeyIndex.Fingerprint.of(
+                record.getIntermediario(), record.getNdgVecchio(), record.getNdgVecchio());
 
+        it.deloitte.postrxade.entity.CambioNdg entity = null;
         if (errorCauses.isEmpty()) {
-            // Valid record - add to list for staging
-            it.deloitte.postrxade.entity.CambioNdg entity = mapperFacade.map(record, it.deloitte.postrxade.entity.CambioNdg.class);
+            // Valid record - map it for staging
+            entity = mapperFacade.map(record, it.deloitte.postrxade.entity.CambioNdg.class);
             entity.setIngestion(ingestion);
             entity.setSubmission(submission);
             entity.setRawRow(line);
-            cambioNdgList.add(entity);
-            fileLevelCambioNdg.add(recordKey);
-            return null;
-        } else {
-            // Invalid record - create error
-            return createErrorRecord(errorCauses, line, ingestion, submission);
         }
+        return new ParsedLine<>(line, entity, recordKey, RECORD_DUPLICATE_MSG, errorCauses, null);
     }
 
-    // ==================== TRANSACTION FILE PROCESSING ====================
-
-    // Batch size for streaming - process transactions in chunks to avoid OOM
-    // Reduced from 50000 to 10000 for very large files (11M+ records) to prevent memory issues
-    // Each Transaction object is ~500-1000 bytes, so 10000 = ~5-10MB per batch (safe)
-    private static final int TRANSACTION_PARSE_BATCH_SIZE = 10000;
-
     // ==================== STAGING TABLE PROCESSING ====================
 
-//    @Override
-//    @Transactional
-//    public StagingResult processSoggetti(List<Soggetti> soggettiList, List<ErrorRecord> validationErrors,
-//                                         Ingestion ingestion, Submission submission) {
-//        // Save validation errors first
-//        if (!validationErrors.isEmpty()) {
-//            log.info("Saving {} validation error records for merchants", validationErrors.size());
-//            errorRecordRepository.bulkInsertRecordsWithCauses(validationErrors, ingestion.getId());
-//        }
-//
-//        if (soggettiList == null || soggettiList.isEmpty()) {
-//            return new StagingResult(0, 0, 0, validationErrors.size());
-//        }
-//
-//        log.info("Processing {} valid soggetti via staging tables", soggettiList.size());
-//        long startTime = System.currentTimeMillis();
-//
-//        // Phase 1: Bulk load into staging table
-//        long loadStart = System.currentTimeMillis();
-//        stagingRepository.bulkLoadSoggettiToStaging(soggettiList, ingestion.getId(), submission.getId());
-//        log.info("Load phase completed in {}ms", System.currentTimeMillis() - loadStart);
-//
-//        // Phase 2: Set-based processing (DB duplicate detection + insert)
-//        long processStart = System.currentTimeMillis();
-//        StagingResult result = stagingRepository.processSoggettiFromStaging(submission.getId());
-//        log.info("Process phase completed in {}ms", System.currentTimeMillis() - processStart);
-//
-//        // Phase 3: Create ErrorRecords for DB duplicates
-//        if (result.duplicateCount() > 0) {
-//            long errorStart = System.currentTimeMillis();
-//            int errorCount = createErrorRecordsForDuplicateSoggetti(ingestion, submission);
-//            log.info("Created {} error records for DB duplicate merchants in {}ms",
-//                    errorCount, System.currentTimeMillis() - errorStart);
-//        }
-//
-//        long elapsed = System.currentTimeMillis() - startTime;
-//        log.info("Merchant staging processing completed in {}ms: inserted={}, duplicates={}",
-//                elapsed, result.insertedCount(), result.duplicateCount());
-//
-//        return new StagingResult(result.insertedCount(), result.duplicateCount(), 0, validationErrors.size());
-//    }
-
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void cleanupStaging(Long submissionId) {
         log.info("Cleaning up staging tables for submission: {}", submissionId);
         stagingRepository.clearStaging(submissionId);
     }
 
-//    @Override
-//    @Transactional
-//    public void cleanupTransactionStaging(Long submissionId) {
-//        log.info("Cleaning up transaction staging table for submission: {}", submissionId);
-//        stagingRepository.clearTransactionStaging(submissionId);
-//    }
-
     // ==================== ERROR RECORD CREATION ====================
 
-    /**
-     * Create ErrorRecords for duplicate merchants found in staging (DB duplicates).
-     */
-//    private int createErrorRecordsForDuplicateMerchants(Ingestion ingestion, Submission submission) {
-//        List<Object[]> duplicates = stagingRepository.getDuplicateMerchantDetails(submission.getId());
-//        if (duplicates.isEmpty()) {
-//            return 0;
-//        }
-//
-//        List<ErrorRecord> errorRecords = new ArrayList<>();
-//        for (Object[] row : duplicates) {
-//            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-//            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Merchant already exists in database";
-//
-//            try {
-//                ErrorRecord errorRecord = createErrorRecord(
-//                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())),
-//                        rawRow, ingestion, submission
-//                );
-//                errorRecords.add(errorRecord);
-//            } catch (NotFoundRecordException e) {
-//                log.warn("Failed to create error record for duplicate merchant: {}", e.getMessage());
-//            }
-//        }
-//
-//        if (!errorRecords.isEmpty()) {
-//            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-//        }
-//        return errorRecords.size();
-//    }
     private int createErrorRecordsForDuplicateSoggetti(Ingestion ingestion, Submission submission) {
-        List<Object[]> duplicates = stagingRepository.getDuplicateSoggettiDetails(submission.getId());
-        if (duplicates.isEmpty()) return 0;
-
-        List<ErrorRecord> errorRecords = new ArrayList<>();
-        for (Object[] row : duplicates) {
-            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Soggetto already exists";
-
-            try {
-                ErrorRecord errorRecord = createErrorRecord(
-                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())),
-                        rawRow, ingestion, submission
-                );
-                errorRecords.add(errorRecord);
-            } catch (NotFoundRecordException e) {
-                log.warn("Failed to create error record for duplicate soggetti: {}", e.getMessage());
-            }
-        }
-
-        if (!errorRecords.isEmpty()) {
-            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-        }
-        return errorRecords.size();
+        return stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.SOGGETTI_DUPLICATE,
+                ingestion.getId(), submission.getId(), ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode(),
+                "Soggetto already exists", null);
     }
 
     private int createErrorRecordsForDuplicateRapporti(Ingestion ingestion, Submission submission) {
-        List<Object[]> duplicates = stagingRepository.getDuplicateRapportiDetails(submission.getId());
-        if (duplicates.isEmpty()) return 0;
-
-        List<ErrorRecord> errorRecords = new ArrayList<>();
-        for (Object[] row : duplicates) {
-            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Rapporto already exists";
-
-            try {
-                ErrorRecord errorRecord = createErrorRecord(
-                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())),
-                        rawRow, ingestion, submission
-                );
-                errorRecords.add(errorRecord);
-            } catch (NotFoundRecordException e) {
-                log.warn("Failed to create error record for duplicate rapporti: {}", e.getMessage());
-            }
-        }
-
-        if (!errorRecords.isEmpty()) {
-            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-        }
-        return errorRecords.size();
+        return stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.RAPPORTI_DUPLICATE,
+                ingestion.getId(), submission.getId(), ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode(),
+                "Rapporto already exists", null);
     }
 
     private int createErrorRecordsForDuplicateDatiContabili(Ingestion ingestion, Submission submission) {
-        List<Object[]> duplicates = stagingRepository.getDuplicateDatiContabiliDetails(submission.getId());
-        if (duplicates.isEmpty()) return 0;
-
-        List<ErrorRecord> errorRecords = new ArrayList<>();
-        for (Object[] row : duplicates) {
-            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Dati Contabili record already exists";
-
-            try {
-                ErrorRecord errorRecord = createErrorRecord(
-                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())),
-                        rawRow, ingestion, submission
-                );
-                errorRecords.add(errorRecord);
-            } catch (NotFoundRecordException e) {
-                log.warn("Failed to create error record for duplicate dati contabili: {}", e.getMessage());
-            }
-        }
-
-        if (!errorRecords.isEmpty()) {
-            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-        }
-        return errorRecords.size();
+        return stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.DATI_CONTABILI_DUPLICATE,
+                ingestion.getId(), submission.getId(), ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode(),
+                "Dati Contabili record already exists", null);
     }
 
     private int createErrorRecordsForDuplicateCollegamenti(Ingestion ingestion, Submission submission) {
-        List<Object[]> duplicates = stagingRepository.getDuplicateCollegamentiDetails(submission.getId());
-        if (duplicates.isEmpty()) return 0;
-
-        List<ErrorRecord> errorRecords = new ArrayList<>();
-        for (Object[] row : duplicates) {
-            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Collegamento already exists";
-
-            try {
-                ErrorRecord errorRecord = createErrorRecord(
-                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())),
-                        rawRow, ingestion, submission
-                );
-                errorRecords.add(errorRecord);
-            } catch (NotFoundRecordException e) {
-                log.warn("Failed to create error record for duplicate collegamenti: {}", e.getMessage());
-            }
-        }
-
-        if (!errorRecords.isEmpty()) {
-            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-        }
-        return errorRecords.size();
+        return stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.COLLEGAMENTI_DUPLICATE,
+                ingestion.getId(), submission.getId(), ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode(),
+                "Collegamento already exists", null);
     }
 
     private int createErrorRecordsForMissingReferenceCollegamenti(Ingestion ingestion, Submission submission) {
-        List<Object[]> missingReferences = stagingRepository.getMissingReferenceCollegamentiDetails(submission.getId());
-        if (missingReferences.isEmpty()) return 0;
-
-        List<ErrorRecord> errorRecords = new ArrayList<>();
-        for (Object[] row : missingReferences) {
-            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Foreign key violation: ndg not found in MERCHANT_SOGGETTI";
-
-            try {
-                ErrorRecord errorRecord = createErrorRecord(
-                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.FOREIGN_KEY_ERROR.getErrorCode())),
-                        rawRow, ingestion, submission
-                );
-                errorRecords.add(errorRecord);
-            } catch (NotFoundRecordException e) {
-                log.warn("Failed to create error record for missing reference in collegamenti: {}", e.getMessage());
-            }
-        }
-
-        if (!errorRecords.isEmpty()) {
-            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-        }
-        return errorRecords.size();
+        return stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.COLLEGAMENTI_MISSING_REFERENCE,
+                ingestion.getId(), submission.getId(), ErrorTypeCode.FOREIGN_KEY_ERROR.getErrorCode(),
+                "Foreign key violation: ndg not found in MERCHANT_SOGGETTI", null);
     }
 
     /**
@@ -606,29 +341,9 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
      * This is CRITICAL for data integrity - children must have valid parent references.
      */
     private int createErrorRecordsForMissingSoggettiCollegamenti(Ingestion ingestion, Submission submission) {
-        List<Object[]> missingParents = stagingRepository.getMissingSoggettiCollegamentiDetails(submission.getId());
-        if (missingParents.isEmpty()) return 0;
-
-        List<ErrorRecord> errorRecords = new ArrayList<>();
-        for (Object[] row : missingParents) {
-            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Missing Collegamenti parent for Soggetti";
-
-            try {
-                ErrorRecord errorRecord = createErrorRecord(
-                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.FOREIGN_KEY_ERROR.getErrorCode())),
-                        rawRow, ingestion, submission
-                );
-                errorRecords.add(errorRecord);
-            } catch (NotFoundRecordException e) {
-                log.warn("Failed to create error record for missing Collegamenti parent in soggetti: {}", e.getMessage());
-            }
-        }
-
-        if (!errorRecords.isEmpty()) {
-            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-        }
-        return errorRecords.size();
+        return stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.SOGGETTI_MISSING_PARENT,
+                ingestion.getId(), submission.getId(), ErrorTypeCode.FOREIGN_KEY_ERROR.getErrorCode(),
+                "Missing Collegamenti parent for Soggetti", null);
     }
 
     /**
@@ -636,29 +351,9 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
      * This is CRITICAL for data integrity - children must have valid parent references.
      */
     private int createErrorRecordsForMissingRapportiCollegamenti(Ingestion ingestion, Submission submission) {
-        List<Object[]> missingParents = stagingRepository.getMissingRapportiCollegamentiDetails(submission.getId());
-        if (missingParents.isEmpty()) return 0;
-
-        List<ErrorRecord> errorRecords = new ArrayList<>();
-        for (Object[] row : missingParents) {
-            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Missing Collegamenti parent for Rapporti";
-
-            try {
-                ErrorRecord errorRecord = createErrorRecord(
-                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.FOREIGN_KEY_ERROR.getErrorCode())),
-                        rawRow, ingestion, submission
-                );
-                errorRecords.add(errorRecord);
-            } catch (NotFoundRecordException e) {
-                log.warn("Failed to create error record for missing Collegamenti parent in rapporti: {}", e.getMessage());
-            }
-        }
-
-        if (!errorRecords.isEmpty()) {
-            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-        }
-        return errorRecords.size();
+        return stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.RAPPORTI_MISSING_PARENT,
+                ingestion.getId(), submission.getId(), ErrorTypeCode.FOREIGN_KEY_ERROR.getErrorCode(),
+                "Missing Collegamenti parent for Rapporti", null);
     }
 
     /**
@@ -666,190 +361,34 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
      * This is CRITICAL for data integrity - children must have valid parent references.
      */
     private int createErrorRecordsForMissingDatiContabiliCollegamenti(Ingestion ingestion, Submission submission) {
-        List<Object[]> missingParents = stagingRepository.getMissingDatiContabiliCollegamentiDetails(submission.getId());
-        if (missingParents.isEmpty()) return 0;
-
-        List<ErrorRecord> errorRecords = new ArrayList<>();
-        for (Object[] row : missingParents) {
-            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Missing Collegamenti parent for DatiContabili";
-
-            try {
-                ErrorRecord errorRecord = createErrorRecord(
-                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.FOREIGN_KEY_ERROR.getErrorCode())),
-                        rawRow, ingestion, submission
-                );
-                errorRecords.add(errorRecord);
-            } catch (NotFoundRecordException e) {
-                log.warn("Failed to create error record for missing Collegamenti parent in daticontabili: {}", e.getMessage());
-            }
-        }
-
-        if (!errorRecords.isEmpty()) {
-            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-        }
-        return errorRecords.size();
+        return stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.DATI_CONTABILI_MISSING_PARENT,
+                ingestion.getId(), submission.getId(), ErrorTypeCode.FOREIGN_KEY_ERROR.getErrorCode(),
+                "Missing Collegamenti parent for DatiContabili", null);
     }
 
     private int createErrorRecordsForDuplicateCambioNdg(Ingestion ingestion, Submission submission) {
-        List<Object[]> duplicates = stagingRepository.getDuplicateCambioNdgDetails(submission.getId());
-        if (duplicates.isEmpty()) return 0;
-
-        List<ErrorRecord> errorRecords = new ArrayList<>();
-        for (Object[] row : duplicates) {
-            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Cambio NDG record already exists";
-
-            try {
-                ErrorRecord errorRecord = createErrorRecord(
-                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode())),
-                        rawRow, ingestion, submission
-                );
-                errorRecords.add(errorRecord);
-            } catch (NotFoundRecordException e) {
-                log.warn("Failed to create error record for duplicate cambio ndg: {}", e.getMessage());
-            }
-        }
-
-        if (!errorRecords.isEmpty()) {
-            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-        }
-        return errorRecords.size();
+        return stagingRepository.insertErrorRecordsFromStaging(StagingErrorSourceEnum.CAMBIO_NDG_DUPLICATE,
+                ingestion.getId(), submission.getId(), ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode(),
+                "Cambio NDG record already exists", null);
     }
 
-    /**
-     * Create ErrorRecords for duplicate transactions found in staging (DB duplicates).
-     */
-//    private int createErrorRecordsForDuplicateTransactions(Ingestion ingestion, Submission submission) {
-//        List<Object[]> duplicates = stagingRepository.getDuplicateTransactionDetails(submission.getId());
-//        if (duplicates.isEmpty()) {
-//            return 0;
-//        }
-//
-//        List<ErrorRecord> errorRecords = new ArrayList<>();
-//        for (Object[] row : duplicates) {
-//            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-//            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Transaction already exists in database";
-//
-//            try {
-//                ErrorRecord errorRecord = createErrorRecord(
-//                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.TRANSACTION_ALREADY_EXISTS.getErrorCode())),
-//                        rawRow, ingestion, submission
-//                );
-//                errorRecords.add(errorRecord);
-//            } catch (NotFoundRecordException e) {
-//                log.warn("Failed to create error record for duplicate transaction: {}", e.getMessage());
-//            }
-//        }
-//
-//        if (!errorRecords.isEmpty()) {
-//            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-//        }
-//        return errorRecords.size();
-//    }
-
-    /**
-     * Create ErrorRecords for transactions with missing merchants.
-     */
-//    private int createErrorRecordsForMissingMerchantTransactions(Ingestion ingestion, Submission submission) {
-//        List<Object[]> missingMerchants = stagingRepository.getMissingMerchantTransactionDetails(submission.getId());
-//        if (missingMerchants.isEmpty()) {
-//            return 0;
-//        }
-//
-//        List<ErrorRecord> errorRecords = new ArrayList<>();
-//        for (Object[] row : missingMerchants) {
-//            String rawRow = row[0] != null ? String.valueOf(row[0]) : "";
-//            String errorMessage = row[1] != null ? String.valueOf(row[1]) : "Merchant not found for transaction";
-//
-//            try {
-//                ErrorRecord errorRecord = createErrorRecord(
-//                        List.of(new ErrorRecordCause(errorMessage, ErrorTypeCode.FOREIGN_KEY_ERROR.getErrorCode())),
-//                        rawRow, ingestion, submission
-//                );
-//                errorRecords.add(errorRecord);
-//            } catch (NotFoundRecordException e) {
-//                log.warn("Failed to create error record for missing merchant: {}", e.getMessage());
-//            }
-//        }
-//
-//        if (!errorRecords.isEmpty()) {
-//            errorRecordRepository.bulkInsertRecordsWithCauses(errorRecords, ingestion.getId());
-//        }
-//        return errorRecords.size();
-//    }
     @Override
     public StagingResult processRapportiFile(RemoteFile file, Ingestion ingestion, Submission submission) throws IOException {
         log.info("Starting STREAMING staging-based rapporti ingestion for file: {}, submission: {}",
                 file.name(), submission.getId());
         long startTime = System.currentTimeMillis();
 
-        List<String> lines = readAllLines(file);
-        if (lines.isEmpty()) {
+        // Stream lines straight off the file in bounded chunks (never holds the whole file)
+        StreamingLoadResult load = this.<it.deloitte.postrxade.entity.Rapporti>streamFileToStaging(file, "rapporti", ingestion, submission,
+                line -> parseRapportiLine(line, ingestion, submission),
+                chunk -> stagingRepository.bulkLoadRapportiToStaging(chunk, ingestion.getId(), submission.getId()));
+        if (load.linesRead() == 0) {
             return new StagingResult(0, 0);
         }
 
-        int totalLines = lines.size();
-        log.info("Read {} lines from file in {}ms", totalLines, System.currentTimeMillis() - startTime);
-
-        // Validate header/footer
-//        validator.validateHeader(lines.getFirst(), ingestion.getIngestionType().getName());
-//        validator.validateFooter(lines.getLast(), lines.size(), ingestion.getIngestionType().getName());
-//        lines.removeFirst();
-//        lines.removeLast();
-
-        // Phase 2: Process in BATCHES to avoid OOM
-        int totalValidationErrors = 0;
-        int totalParsed = 0;
-        int batchNumber = 0;
-
-        List<it.deloitte.postrxade.entity.Rapporti> batchRapporti = new ArrayList<>();
-        List<ErrorRecord> batchErrors = new ArrayList<>();
-        Set<String> fileLevelRapporti = new HashSet<>();
-
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            try {
-                ErrorRecord error = processRapportiLine(line, ingestion, submission, batchRapporti, fileLevelRapporti);
-                if (error != null) {
-                    batchErrors.add(error);
-                }
-            } catch (Exception e) {
-                if (totalValidationErrors < 10) {
-                    log.warn("Error processing rapporti line {}: {}", i + 1, e.getMessage());
-                }
-                try {
-                    ErrorRecord error = createErrorRecordFromException(e, line, ingestion, submission);
-                    batchErrors.add(error);
-                } catch (NotFoundRecordException ex) {
-                    log.error("Failed to create error record for exception", ex);
-                }
-            }
-
-            if (batchRapporti.size() >= MERCHANT_PARSE_BATCH_SIZE || i == lines.size() - 1) {
-                if (!batchRapporti.isEmpty() || !batchErrors.isEmpty()) {
-                    batchNumber++;
-                    log.info("Processing batch {}: {} rapporti, {} errors (total parsed: {}/{})",
-                            batchNumber, batchRapporti.size(), batchErrors.size(),
-                            i + 1, lines.size());
-
-                    if (!batchErrors.isEmpty()) {
-                        errorRecordRepository.bulkInsertRecordsWithCauses(batchErrors, ingestion.getId());
-                        totalValidationErrors += batchErrors.size();
-                    }
-
-                    if (!batchRapporti.isEmpty()) {
-                        stagingRepository.bulkLoadRapportiToStaging(batchRapporti, ingestion.getId(), submission.getId());
-                        totalParsed += batchRapporti.size();
-                    }
-
-                    batchRapporti.clear();
-                    batchErrors.clear();
-                }
-            }
-        }
-
-        lines.clear();
+        int totalValidationErrors = load.validationErrors();
+        int totalParsed = load.parsed();
+        int batchNumber = load.batches();
 
         log.info("Loaded {} rapporti to staging in {} batches, {} validation errors, in {}ms",
                 totalParsed, batchNumber, totalValidationErrors, System.currentTimeMillis() - startTime);
@@ -858,12 +397,14 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
         StagingResult stagingResult = stagingRepository.processRapportiFromStaging(submission.getId());
         log.info("Set-based processing completed in {}ms", System.currentTimeMillis() - processStart);
 
-        if (stagingResult.duplicateCount() > 0) {
+        // A resumed file may have been classified by the previous run, whose counts are lost: look at the
+        // flagged staging rows instead (rows the previous run already reported are skipped)
+        if (stagingResult.duplicateCount() > 0 || load.resumed()) {
             createErrorRecordsForDuplicateRapporti(ingestion, submission);
         }
 
         // Create ErrorRecords for missing Collegamenti parent (already marked in staging)
-        if (stagingResult.missingMerchantCount() > 0) {
+        if (stagingResult.missingMerchantCount() > 0 || load.resumed()) {
             log.warn("Found {} rapporti records with missing Collegamenti parent", stagingResult.missingMerchantCount());
             createErrorRecordsForMissingRapportiCollegamenti(ingestion, submission);
         }
@@ -881,72 +422,17 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
                 file.name(), submission.getId());
         long startTime = System.currentTimeMillis();
 
-        List<String> lines = readAllLines(file);
-        if (lines.isEmpty()) {
+        // Stream lines straight off the file in bounded chunks (never holds the whole file)
+        StreamingLoadResult load = this.<DatiContabili>streamFileToStaging(file, "daticontabili", ingestion, submission,
+                line -> parseDaticontabiliLine(line, ingestion, submission),
+                chunk -> stagingRepository.bulkLoadDatiContabiliToStaging(chunk, ingestion.getId(), submission.getId()));
+        if (load.linesRead() == 0) {
             return new StagingResult(0, 0);
         }
 
-        int totalLines = lines.size();
-        log.info("Read {} lines from file in {}ms", totalLines, System.currentTimeMillis() - startTime);
-
-        // Validate header/footer
-//        validator.validateHeader(lines.getFirst(), ingestion.getIngestionType().getName());
-//        validator.validateFooter(lines.getLast(), lines.size(), ingestion.getIngestionType().getName());
-//        lines.removeFirst();
-//        lines.removeLast();
-
-        // Phase 2: Process in BATCHES to avoid OOM
-        int totalValidationErrors = 0;
-        int totalParsed = 0;
-        int batchNumber = 0;
-
-        List<it.deloitte.postrxade.entity.DatiContabili> batchDaticontabili = new ArrayList<>();
-        List<ErrorRecord> batchErrors = new ArrayList<>();
-        Set<String> fileLevelDaticontabili = new HashSet<>();
-
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            try {
-                ErrorRecord error = processDaticontabiliLine(line, ingestion, submission, batchDaticontabili, fileLevelDaticontabili);
-                if (error != null) {
-                    batchErrors.add(error);
-                }
-            } catch (Exception e) {
-                if (totalValidationErrors < 10) {
-                    log.warn("Error processing daticontabili line {}: {}", i + 1, e.getMessage());
-                }
-                try {
-                    ErrorRecord error = createErrorRecordFromException(e, line, ingestion, submission);
-                    batchErrors.add(error);
-                } catch (NotFoundRecordException ex) {
-                    log.error("Failed to create error record for exception", ex);
-                }
-            }
-
-            if (batchDaticontabili.size() >= MERCHANT_PARSE_BATCH_SIZE || i == lines.size() - 1) {
-                if (!batchDaticontabili.isEmpty() || !batchErrors.isEmpty()) {
-                    batchNumber++;
-                    log.info("Processing batch {}: {} daticontabili, {} errors (total parsed: {}/{})",
-                            batchNumber, batchDaticontabili.size(), batchErrors.size(),
-                            i + 1, lines.size());
-
-                    if (!batchErrors.isEmpty()) {
-                        errorRecordRepository.bulkInsertRecordsWithCauses(batchErrors, ingestion.getId());
-                        totalValidationErrors += batchErrors.size();
-                    }
-
-                    if (!batchDaticontabili.isEmpty()) {
-                        stagingRepository.bulkLoadDatiContabiliToStaging(batchDaticontabili, ingestion.getId(), submission.getId());
-                        totalParsed += batchDaticontabili.size();
-                    }
-
-                    batchDaticontabili.clear();
-                    batchErrors.clear();
-                }
-            }
-        }
-
-        lines.clear();
+        int totalValidationErrors = load.validationErrors();
+        int totalParsed = load.parsed();
+        int batchNumber = load.batches();
 
         log.info("Loaded {} daticontabili to staging in {} batches, {} validation errors, in {}ms",
                 totalParsed, batchNumber, totalValidationErrors, System.currentTimeMillis() - startTime);
@@ -955,12 +441,14 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
         StagingResult stagingResult = stagingRepository.processDatiContabiliFromStaging(submission.getId());
         log.info("Set-based processing completed in {}ms", System.currentTimeMillis() - processStart);
 
-        if (stagingResult.duplicateCount() > 0) {
+        // A resumed file may have been classified by the previous run, whose counts are lost: look at the
+        // flagged staging rows instead (rows the previous run already reported are skipped)
+        if (stagingResult.duplicateCount() > 0 || load.resumed()) {
             createErrorRecordsForDuplicateDatiContabili(ingestion, submission);
         }
 
         // Create ErrorRecords for missing Collegamenti parent (already marked in staging)
-        if (stagingResult.missingMerchantCount() > 0) {
+        if (stagingResult.missingMerchantCount() > 0 || load.resumed()) {
             log.warn("Found {} daticontabili records with missing Collegamenti parent", stagingResult.missingMerchantCount());
             createErrorRecordsForMissingDatiContabiliCollegamenti(ingestion, submission);
         }
@@ -978,72 +466,17 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
                 file.name(), submission.getId());
         long startTime = System.currentTimeMillis();
 
-        List<String> lines = readAllLines(file);
-        if (lines.isEmpty()) {
+        // Stream lines straight off the file in bounded chunks (never holds the whole file)
+        StreamingLoadResult load = this.<it.deloitte.postrxade.entity.Collegamenti>streamFileToStaging(file, "collegamenti", ingestion, submission,
+                line -> parseCollegamentiLine(line, ingestion, submission),
+                chunk -> stagingRepository.bulkLoadCollegamentiToStaging(chunk, ingestion.getId(), submission.getId()));
+        if (load.linesRead() == 0) {
             return new StagingResult(0, 0);
         }
 
-        int totalLines = lines.size();
-        log.info("Read {} lines from file in {}ms", totalLines, System.currentTimeMillis() - startTime);
-
-        // Validate header/footer
-//        validator.validateHeader(lines.getFirst(), ingestion.getIngestionType().getName());
-//        validator.validateFooter(lines.getLast(), lines.size(), ingestion.getIngestionType().getName());
-//        lines.removeFirst();
-//        lines.removeLast();
-
-        // Phase 2: Process in BATCHES to avoid OOM
-        int totalValidationErrors = 0;
-        int totalParsed = 0;
-        int batchNumber = 0;
-
-        List<it.deloitte.postrxade.entity.Collegamenti> batchCollegamenti = new ArrayList<>();
-        List<ErrorRecord> batchErrors = new ArrayList<>();
-        Set<String> fileLevelCollegamenti = new HashSet<>();
-
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            try {
-                ErrorRecord error = processCollegamentiLine(line, ingestion, submission, batchCollegamenti, fileLevelCollegamenti);
-                if (error != null) {
-                    batchErrors.add(error);
-                }
-            } catch (Exception e) {
-                if (totalValidationErrors < 10) {
-                    log.warn("Error processing collegamenti line {}: {}", i + 1, e.getMessage());
-                }
-                try {
-                    ErrorRecord error = createErrorRecordFromException(e, line, ingestion, submission);
-                    batchErrors.add(error);
-                } catch (NotFoundRecordException ex) {
-                    log.error("Failed to create error record for exception", ex);
-                }
-            }
-
-            if (batchCollegamenti.size() >= MERCHANT_PARSE_BATCH_SIZE || i == lines.size() - 1) {
-                if (!batchCollegamenti.isEmpty() || !batchErrors.isEmpty()) {
-                    batchNumber++;
-                    log.info("Processing batch {}: {} collegamenti, {} errors (total parsed: {}/{})",
-                            batchNumber, batchCollegamenti.size(), batchErrors.size(),
-                            i + 1, lines.size());
-
-                    if (!batchErrors.isEmpty()) {
-                        errorRecordRepository.bulkInsertRecordsWithCauses(batchErrors, ingestion.getId());
-                        totalValidationErrors += batchErrors.size();
-                    }
-
-                    if (!batchCollegamenti.isEmpty()) {
-                        stagingRepository.bulkLoadCollegamentiToStaging(batchCollegamenti, ingestion.getId(), submission.getId());
-                        totalParsed += batchCollegamenti.size();
-                    }
-
-                    batchCollegamenti.clear();
-                    batchErrors.clear();
-                }
-            }
-        }
-
-        lines.clear();
+        int totalValidationErrors = load.validationErrors();
+        int totalParsed = load.parsed();
+        int batchNumber = load.batches();
 
         log.info("Loaded {} collegamenti to staging in {} batches, {} validation errors, in {}ms",
                 totalParsed, batchNumber, totalValidationErrors, System.currentTimeMillis() - startTime);
@@ -1052,7 +485,9 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
         StagingResult stagingResult = stagingRepository.processCollegamentiFromStaging(submission.getId());
         log.info("Set-based processing completed in {}ms", System.currentTimeMillis() - processStart);
 
-        if (stagingResult.duplicateCount() > 0) {
+        // A resumed file may have been classified by the previous run, whose counts are lost: look at the
+        // flagged staging rows instead (rows the previous run already reported are skipped)
+        if (stagingResult.duplicateCount() > 0 || load.resumed()) {
             createErrorRecordsForDuplicateCollegamenti(ingestion, submission);
         }
 
@@ -1069,72 +504,17 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
                 file.name(), submission.getId());
         long startTime = System.currentTimeMillis();
 
-        List<String> lines = readAllLines(file);
-        if (lines.isEmpty()) {
+        // Stream lines straight off the file in bounded chunks (never holds the whole file)
+        StreamingLoadResult load = this.<it.deloitte.postrxade.entity.CambioNdg>streamFileToStaging(file, "cambiondg", ingestion, submission,
+                line -> parseCambioNdgLine(line, ingestion, submission),
+                chunk -> stagingRepository.bulkLoadCambioNdgToStaging(chunk, ingestion.getId(), submission.getId()));
+        if (load.linesRead() == 0) {
             return new StagingResult(0, 0);
         }
 
-        int totalLines = lines.size();
-        log.info("Read {} lines from file in {}ms", totalLines, System.currentTimeMillis() - startTime);
-
-        // Validate header/footer
-//        validator.validateHeader(lines.getFirst(), ingestion.getIngestionType().getName());
-//        validator.validateFooter(lines.getLast(), lines.size(), ingestion.getIngestionType().getName());
-//        lines.removeFirst();
-//        lines.removeLast();
-
-        // Phase 2: Process in BATCHES to avoid OOM
-        int totalValidationErrors = 0;
-        int totalParsed = 0;
-        int batchNumber = 0;
-
-        List<it.deloitte.postrxade.entity.CambioNdg> batchCambioNdg = new ArrayList<>();
-        List<ErrorRecord> batchErrors = new ArrayList<>();
-        Set<String> fileLevelCambioNdg = new HashSet<>();
-
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            try {
-                ErrorRecord error = processCambioNdgLine(line, ingestion, submission, batchCambioNdg, fileLevelCambioNdg);
-                if (error != null) {
-                    batchErrors.add(error);
-                }
-            } catch (Exception e) {
-                if (totalValidationErrors < 10) {
-                    log.warn("Error processing cambiondg line {}: {}", i + 1, e.getMessage());
-                }
-                try {
-                    ErrorRecord error = createErrorRecordFromException(e, line, ingestion, submission);
-                    batchErrors.add(error);
-                } catch (NotFoundRecordException ex) {
-                    log.error("Failed to create error record for exception", ex);
-                }
-            }
-
-            if (batchCambioNdg.size() >= MERCHANT_PARSE_BATCH_SIZE || i == lines.size() - 1) {
-                if (!batchCambioNdg.isEmpty() || !batchErrors.isEmpty()) {
-                    batchNumber++;
-                    log.info("Processing batch {}: {} cambiondg, {} errors (total parsed: {}/{})",
-                            batchNumber, batchCambioNdg.size(), batchErrors.size(),
-                            i + 1, lines.size());
-
-                    if (!batchErrors.isEmpty()) {
-                        errorRecordRepository.bulkInsertRecordsWithCauses(batchErrors, ingestion.getId());
-                        totalValidationErrors += batchErrors.size();
-                    }
-
-                    if (!batchCambioNdg.isEmpty()) {
-                        stagingRepository.bulkLoadCambioNdgToStaging(batchCambioNdg, ingestion.getId(), submission.getId());
-                        totalParsed += batchCambioNdg.size();
-                    }
-
-                    batchCambioNdg.clear();
-                    batchErrors.clear();
-                }
-            }
-        }
-
-        lines.clear();
+        int totalValidationErrors = load.validationErrors();
+        int totalParsed = load.parsed();
+        int batchNumber = load.batches();
 
         log.info("Loaded {} cambiondg to staging in {} batches, {} validation errors, in {}ms",
                 totalParsed, batchNumber, totalValidationErrors, System.currentTimeMillis() - startTime);
@@ -1143,7 +523,9 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
         StagingResult stagingResult = stagingRepository.processCambioNdgFromStaging(submission.getId());
         log.info("Set-based processing completed in {}ms", System.currentTimeMillis() - processStart);
 
-        if (stagingResult.duplicateCount() > 0) {
+        // A resumed file may have been classified by the previous run, whose counts are lost: look at the
+        // flagged staging rows instead (rows the previous run already reported are skipped)
+        if (stagingResult.duplicateCount() > 0 || load.resumed()) {
             createErrorRecordsForDuplicateCambioNdg(ingestion, submission);
         }
 
@@ -1211,92 +593,408 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
 
     // ==================== UTILITY METHODS ====================
 
+    // Non-blank lines handed to a parse worker as a single unit of work
+    private static final int PARSE_CHUNK_LINES = 2000;
+
+    /**
+     * Parses, validates and maps a single line. Runs on a parse worker, so it must not touch
+     * shared mutable state: the intra-file duplicate check is resolved by the writer.
+     */
+    @FunctionalInterface
+    private interface LineParser<T> {
+        ParsedLine<T> parse(String line);
+    }
+
+    /**
+     * Outcome of parsing one line.
+     *
+     * @param entity           mapped entity, only when the line passed validation
+     * @param key              fingerprint of the intra-file duplicate key
+     * @param duplicateMessage cause description used when the key was already seen earlier in the file
+     * @param causes           validation causes (immutable when empty, the writer copies before appending the duplicate cause)
+     * @param failure          parse/validation exception, when the line could not be processed at all
+     */
+    private record ParsedLine<T>(String line, T entity, DuplicateKeyIndex.Fingerprint key, String duplicateMessage,
+                                 List<ErrorRecordCause> causes, Exception failure) {
+
+        static <T> ParsedLine<T> failed(String line, Exception failure) {
+            return new ParsedLine<>(line, null, null, null, null, failure);
+        }
+    }
+
+    /**
+     * Consecutive non-blank lines parsed by one worker; {@code firstLineNumber} is 1-based.
+     */
+    private record ParsedChunk<T>(long firstLineNumber, List<ParsedLine<T>> lines) {
+    }
+
+    /**
+     * Totals accumulated by the writer side of the pipeline.
+     */
+    private record WriterResult(int parsed, int validationErrors, int batches, int peakBufferedRows) {
+    }
+
     /**
-     * Read all lines from file.
+     * Outcome of streaming a file into staging; {@code resumed} when part of the file had been
+     * committed by a previous run (totals include that part).
      */
-    private List<String> readAllLines(RemoteFile file) throws IOException {
-        List<String> lines = new ArrayList<>();
+    private record StreamingLoadResult(long linesRead, int parsed, int validationErrors, int batches,
+                                       int peakBufferedRows, double rowsPerSecond, boolean resumed) {
+    }
+
+    /**
+     * Stream a file line by line straight off {@link RemoteFile#stream()} into staging.
+     *
+     * <p>Three stages overlap: the calling thread reads the file and cuts it into chunks of
+     * {@link #PARSE_CHUNK_LINES} lines, the {@code stagingParseExecutor} workers parse, validate
+     * and map the chunks in parallel, and a single writer on {@code stagingWriterExecutor} takes
+     * the chunks back <em>in file order</em> from a bounded hand-off queue and flushes them to
+     * ERROR_RECORD and to the STG_* table every {@link #MERCHANT_PARSE_BATCH_SIZE} buffered rows.
+     * The hand-off queue bounds the number of chunks in flight, so heap usage stays flat whatever
+     * the file size; only the intra-file {@link DuplicateKeyIndex} grows with the file, by about
+     * 32 bytes per distinct key.</p>
+     *
+     * <p>Intra-file duplicates: workers record, for every line that passed validation, the lowest
+     * line number seen for its key fingerprint in the {@link DuplicateKeyIndex}.
+     * The writer flags a line as duplicate when an earlier line owns its key. Since the writer
+     * consumes chunks in order, every earlier line has been registered by then, so the first
+     * occurrence always wins exactly as in a single-threaded pass.</p>
+     *
+     * <p>Checkpoints: when the ingestion has an INGESTION_PROGRESS row, every flush commits the
+     * errors, the staging rows and the number of non-blank lines they cover in one transaction.
+     * A rerun after a crash still parses the committed lines, so that their keys take part in the
+     * duplicate check, but only writes the lines after the checkpoint.</p>
+     *
+     * <p>Rows/sec and peak buffered rows are logged and published as
+     * {@code staging.ingestion.rows.per.second} / {@code staging.ingestion.peak.buffered.rows}
+     * tagged with the record type.</p>
+     */
+    private <T> StreamingLoadResult streamFileToStaging(
+            RemoteFile file,
+            String recordType,
+            Ingestion ingestion,
+            Submission submission,
+            LineParser<T> lineParser,
+            Consumer<List<T>> stagingLoader) throws IOException {
+
+        long startNanos = System.nanoTime();
+        long linesRead = 0;
+
+        IngestionProgress progress = ingestionProgressRepository.findFirstByIngestion_Id(ingestion.getId()).orElse(null);
+        if (progress != null && progress.getLinesCommitted() > 0) {
+            log.info("Resuming {} file {} after line {} ({} rows already staged)",
+                    recordType, file.name(), progress.getLinesCommitted(), progress.getRowsStaged());
+        }
+
+        // Intra-file duplicate detection (kept across batches): key -> first valid line number
+        DuplicateKeyIndex firstValidLineByKey = new DuplicateKeyIndex();
 
+        BlockingQueue<CompletableFuture<ParsedChunk<T>>> handOff = new ArrayBlockingQueue<>(maxInFlightChunks);
+        CompletableFuture<ParsedChunk<T>> endOfFile = CompletableFuture.completedFuture(null);
+        AtomicBoolean aborted = new AtomicBoolean();
+
+        CompletableFuture<WriterResult> writer = stagingWriterExecutor.submitCompletable(() ->
+                drainToStaging(handOff, endOfFile, aborted, firstValidLineByKey, recordType, ingestion, submission,
+                        progress, stagingLoader));
+
+        boolean completed = false;
         try (BufferedReader reader = new BufferedReader(
                 new InputStreamReader(file.stream(), StandardCharsets.UTF_8))) {
 
+            List<String> lines = new ArrayList<>(PARSE_CHUNK_LINES);
+            long firstLineNumber = 1;
             String line;
             while ((line = reader.readLine()) != null) {
-                if (!line.isBlank()) {
-                    lines.add(line);
+                if (line.isBlank()) {
+                    continue;
+                }
+                linesRead++;
+                lines.add(line);
+
+                if (lines.size() == PARSE_CHUNK_LINES) {
+                    if (!offerChunk(handOff, parseChunk(firstLineNumber, lines, lineParser, firstValidLineByKey), writer)) {
+                        break;
+                    }
+                    firstLineNumber = linesRead + 1;
+                    lines = new ArrayList<>(PARSE_CHUNK_LINES);
                 }
             }
+            if (!lines.isEmpty() && !writer.isDone()) {
+                offerChunk(handOff, parseChunk(firstLineNumber, lines, lineParser, firstValidLineByKey), writer);
+            }
+            completed = !writer.isDone();
+        } finally {
+            if (!completed) {
+                // Read failure (or dead writer): whatever is still queued is dropped, not flushed
+                aborted.set(true);
+            }
+            offerChunk(handOff, endOfFile, writer);
+            if (!completed) {
+                // Never let the failure propagate while the writer may still be inside a flush
+                writer.exceptionally(failure -> null).join();
+            }
         }
 
-        return lines;
-    }
+        WriterResult written = awaitWriter(writer, recordType);
 
-    // ==================== LOAD-ONLY METHODS (FOR ORPHAN VALIDATION WORKFLOW) ====================
+        long elapsedNanos = Math.max(System.nanoTime() - startNanos, 1L);
+        double rowsPerSecond = linesRead * 1_000_000_000d / elapsedNanos;
+
+        meterRegistry.summary("staging.ingestion.rows.per.second", "type", recordType).record(rowsPerSecond);
+        meterRegistry.summary("staging.ingestion.peak.buffered.rows", "type", recordType).record(written.peakBufferedRows());
+
+        log.info("Streamed {} {} lines to staging in {}ms: batches={}, parsed={}, validationErrors={}, rowsPerSec={}, peakBufferedRows={}, "
+                        + "duplicateIndexKeys={}, duplicateIndexKB={}",
+                linesRead, recordType, elapsedNanos / 1_000_000, written.batches(), written.parsed(), written.validationErrors(),
+                Math.round(rowsPerSecond), written.peakBufferedRows(), firstValidLineByKey.size(),
+                firstValidLineByKey.allocatedBytes() / 1024);
+
+        return new StreamingLoadResult(linesRead, written.parsed(), written.validationErrors(), written.batches(),
+                written.peakBufferedRows(), rowsPerSecond, progress != null && progress.getLinesCommitted() > 0);
+    }
 
     /**
-     * Load collegamenti file to staging ONLY - does NOT process to main tables.
-     * This allows orphan validation to run before data reaches main tables.
+     * Submit one chunk to the parse workers. Lines that passed validation register their
+     * duplicate key with the lowest line number, so the index content does not depend on timing.
      */
-    @Override
-    public StagingResult loadCollegamentiToStagingOnly(RemoteFile file, Ingestion ingestion, Submission submission) throws IOException {
-        log.info("Loading collegamenti to STAGING ONLY for file: {}, submission: {}", file.name(), submission.getId());
-        long startTime = System.currentTimeMillis();
+    private <T> CompletableFuture<ParsedChunk<T>> parseChunk(
+            long firstLineNumber,
+            List<String> lines,
+            LineParser<T> lineParser,
+            DuplicateKeyIndex firstValidLineByKey) {
+
+        return CompletableFuture.supplyAsync(() -> {
+            List<ParsedLine<T>> parsed = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                ParsedLine<T> result;
+                try {
+                    result = lineParser.parse(line);
+                } catch (Exception e) {
+                    result = ParsedLine.failed(line, e);
+                }
+                if (result.failure() == null && result.causes().isEmpty()) {
+                    firstValidLineByKey.register(result.key(), firstLineNumber + i);
+                }
+                parsed.add(result);
+            }
+            return new ParsedChunk<>(firstLineNumber, parsed);
+        }, stagingParseExecutor);
+    }
 
-        List<String> lines = readAllLines(file);
-        if (lines.isEmpty()) {
-            return new StagingResult(0, 0);
+    /**
+     * Put a chunk on the hand-off queue, waiting while it is full.
+     *
+     * @return false if the writer has already terminated (it failed), in which case the chunk is dropped
+     */
+    private <T> boolean offerChunk(
+            BlockingQueue<CompletableFuture<ParsedChunk<T>>> handOff,
+            CompletableFuture<ParsedChunk<T>> chunk,
+            CompletableFuture<WriterResult> writer) {
+        try {
+            while (!handOff.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (writer.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.cancel(true);
+            throw new IllegalStateException("Interrupted while streaming file to staging", e);
         }
+    }
+
+    /**
+     * Single writer: takes parsed chunks in file order, resolves intra-file duplicates and
+     * flushes errors + staging rows every {@link #MERCHANT_PARSE_BATCH_SIZE} buffered rows.
+     * Lines up to the checkpoint of {@code progress} (if any) were committed by a previous run
+     * and are skipped.
+     */
+    private <T> WriterResult drainToStaging(
+            BlockingQueue<CompletableFuture<ParsedChunk<T>>> handOff,
+            CompletableFuture<ParsedChunk<T>> endOfFile,
+            AtomicBoolean aborted,
+            DuplicateKeyIndex firstValidLineByKey,
+            String recordType,
+            Ingestion ingestion,
+            Submission submission,
+            IngestionProgress progress,
+            Consumer<List<T>> stagingLoader) throws InterruptedException {
 
-        int totalValidationErrors = 0;
-        int totalParsed = 0;
+        long committedLines = progress != null ? progress.getLinesCommitted() : 0;
+        int totalValidationErrors = progress != null ? (int) progress.getErrorCount() : 0;
+        int totalParsed = progress != null ? (int) progress.getRowsStaged() : 0;
         int batchNumber = 0;
+        int peakBufferedRows = 0;
 
-        List<it.deloitte.postrxade.entity.Collegamenti> batchCollegamenti = new ArrayList<>(MERCHANT_PARSE_BATCH_SIZE);
+        List<T> batchEntities = new ArrayList<>(MERCHANT_PARSE_BATCH_SIZE);
         List<ErrorRecord> batchErrors = new ArrayList<>();
-        Set<String> fileLevelRecords = new HashSet<>();
-
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            try {
-                ErrorRecord error = processCollegamentiLine(line, ingestion, submission, batchCollegamenti, fileLevelRecords);
-                if (error != null) {
-                    batchErrors.add(error);
+
+        long lastLine = committedLines;
+        CompletableFuture<ParsedChunk<T>> next;
+        while ((next = handOff.take()) != endOfFile) {
+            if (aborted.get()) {
+                continue;
+            }
+            ParsedChunk<T> chunk = next.join();
+            long lineNumber = chunk.firstLineNumber();
+
+            for (ParsedLine<T> parsed : chunk.lines()) {
+                if (lineNumber <= committedLines) {
+                    lineNumber++;
+                    continue;
                 }
-            } catch (Exception e) {
-                if (totalValidationErrors < 10) {
-                    log.warn("Error processing collegamenti line {}: {}", i + 1, e.getMessage());
+                if (parsed.failure() != null) {
+                    addExceptionErrorRecord(parsed.failure(), parsed.line(), lineNumber, recordType,
+                            totalValidationErrors + batchErrors.size(), batchErrors, ingestion, submission);
+                } else {
+                    // Check for intra-file duplicates: an earlier valid line owns this key
+                    List<ErrorRecordCause> errorCauses = parsed.causes();
+                    if (firstValidLineByKey.firstLine(parsed.key()) < lineNumber) {
+                        errorCauses = new ArrayList<>(errorCauses);
+                        errorCauses.add(new ErrorRecordCause(
+                                parsed.duplicateMessage(),
+                                ErrorTypeCode.MERCHANT_ALREADY_EXISTS.getErrorCode()
+                        ));
+                    }
+
+                    if (errorCauses.isEmpty()) {
+                        batchEntities.add(parsed.entity());
+                    } else {
+                        try {
+                            batchErrors.add(createErrorRecord(errorCauses, parsed.line(), ingestion, submission));
+                        } catch (NotFoundRecordException e) {
+                            addExceptionErrorRecord(e, parsed.line(), lineNumber, recordType,
+                                    totalValidationErrors + batchErrors.size(), batchErrors, ingestion, submission);
+                        }
+                    }
                 }
-                try {
-                    ErrorRecord error = createErrorRecordFromException(e, line, ingestion, submission);
-                    batchErrors.add(error);
-                } catch (NotFoundRecordException ex) {
-                    log.error("Failed to create error record for exception", ex);
+                lineNumber++;
+
+                int buffered = batchEntities.size() + batchErrors.size();
+                peakBufferedRows = Math.max(peakBufferedRows, buffered);
+
+                // When chunk is full, flush to staging and release it
+                if (buffered >= MERCHANT_PARSE_BATCH_SIZE) {
+                    batchNumber++;
+                    log.info("Processing batch {}: {} {}, {} errors (lines read: {})",
+                            batchNumber, batchEntities.size(), recordType, batchErrors.size(), lineNumber - 1);
+                    totalValidationErrors += batchErrors.size();
+                    totalParsed += batchEntities.size();
+                    flushChunk(batchEntities, batchErrors, stagingLoader, ingestion,
+                            progress, lineNumber - 1, totalParsed, totalValidationErrors);
                 }
             }
+            lastLine = lineNumber - 1;
+        }
 
-            if (batchCollegamenti.size() >= MERCHANT_PARSE_BATCH_SIZE || i == lines.size() - 1) {
-                if (!batchCollegamenti.isEmpty() || !batchErrors.isEmpty()) {
-                    batchNumber++;
-                    log.info("Loading batch {}: {} collegamenti, {} errors (total parsed: {}/{})",
-                            batchNumber, batchCollegamenti.size(), batchErrors.size(), i + 1, lines.size());
+        // Flush the last (partial) chunk, unless the reader gave up half-way
+        if (!aborted.get() && (!batchEntities.isEmpty() || !batchErrors.isEmpty())) {
+            batchNumber++;
+            log.info("Processing batch {}: {} {}, {} errors (end of file)",
+                    batchNumber, batchEntities.size(), recordType, batchErrors.size());
+            totalValidationErrors += batchErrors.size();
+            totalParsed += batchEntities.size();
+            flushChunk(batchEntities, batchErrors, stagingLoader, ingestion,
+                    progress, lastLine, totalParsed, totalValidationErrors);
+        }
 
-                    if (!batchErrors.isEmpty()) {
-                        errorRecordRepository.bulkInsertRecordsWithCauses(batchErrors, ingestion.getId());
-                        totalValidationErrors += batchErrors.size();
-                    }
+        return new WriterResult(totalParsed, totalValidationErrors, batchNumber, peakBufferedRows);
+    }
 
-                    if (!batchCollegamenti.isEmpty()) {
-                        stagingRepository.bulkLoadCollegamentiToStaging(batchCollegamenti, ingestion.getId(), submission.getId());
-                        totalParsed += batchCollegamenti.size();
-                    }
+    /**
+     * Turn a line that could not be processed into an INVALID_FORMAT error record.
+     */
+    private void addExceptionErrorRecord(
+            Exception exception,
+            String line,
+            long lineNumber,
+            String recordType,
+            int errorsSoFar,
+            List<ErrorRecord> batchErrors,
+            Ingestion ingestion,
+            Submission submission) {
+        if (errorsSoFar < 10) {
+            log.warn("Error processing {} line {}: {}", recordType, lineNumber, exception.getMessage());
+        }
+        try {
+            batchErrors.add(createErrorRecordFromException(exception, line, ingestion, submission));
+        } catch (NotFoundRecordException ex) {
+            log.error("Failed to create error record for exception", ex);
+        }
+    }
 
-                    batchCollegamenti.clear();
-                    batchErrors.clear();
-                }
+    /**
+     * Wait for the writer and surface its failure unchanged (RuntimeExceptions from the
+     * repositories keep their original type and message).
+     */
+    private WriterResult awaitWriter(CompletableFuture<WriterResult> writer, String recordType) {
+        try {
+            return writer.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Staging writer for " + recordType + " failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Persist one chunk (errors first, then staging rows) and clear both lists to free memory.
+     * Both writes and the progress checkpoint, when there is one, commit in a single transaction.
+     */
+    private <T> void flushChunk(
+            List<T> batchEntities,
+            List<ErrorRecord> batchErrors,
+            Consumer<List<T>> stagingLoader,
+            Ingestion ingestion,
+            IngestionProgress progress,
+            long linesCommitted,
+            int rowsStaged,
+            int errorCount) {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!batchErrors.isEmpty()) {
+                errorRecordRepository.bulkInsertRecordsWithCauses(batchErrors, ingestion.getId());
+            }
+            if (!batchEntities.isEmpty()) {
+                stagingLoader.accept(batchEntities);
+            }
+            if (progress != null) {
+                ingestionProgressRepository.updateCheckpoint(progress.getId(), linesCommitted, rowsStaged, errorCount,
+                        LocalDateTime.now());
             }
+        });
+        batchEntities.clear();
+        batchErrors.clear();
+    }
+
+    // ==================== LOAD-ONLY METHODS (FOR ORPHAN VALIDATION WORKFLOW) ====================
+
+    /**
+     * Load collegamenti file to staging ONLY - does NOT process to main tables.
+     * This allows orphan validation to run before data reaches main tables.
+     */
+    @Override
+    public StagingResult loadCollegamentiToStagingOnly(RemoteFile file, Ingestion ingestion, Submission submission) throws IOException {
+        log.info("Loading collegamenti to STAGING ONLY for file: {}, submission: {}", file.name(), submission.getId());
+        long startTime = System.currentTimeMillis();
+
+        // Stream lines straight off the file in bounded chunks (never holds the whole file)
+        StreamingLoadResult load = this.<it.deloitte.postrxade.entity.Collegamenti>streamFileToStaging(file, "collegamenti", ingestion, submission,
+                line -> parseCollegamentiLine(line, ingestion, submission),
+                chunk -> stagingRepository.bulkLoadCollegamentiToStaging(chunk, ingestion.getId(), submission.getId()));
+        if (load.linesRead() == 0) {
+            return new StagingResult(0, 0);
         }
 
-        lines.clear();
+        int totalValidationErrors = load.validationErrors();
+        int totalParsed = load.parsed();
 
         long elapsed = System.currentTimeMillis() - startTime;
         log.info("Loaded {} collegamenti to STAGING ONLY in {}ms, {} validation errors", totalParsed, elapsed, totalValidationErrors);
@@ -1313,61 +1011,16 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
         log.info("Loading soggetti to STAGING ONLY for file: {}, submission: {}", file.name(), submission.getId());
         long startTime = System.currentTimeMillis();
 
-        List<String> lines = readAllLines(file);
-        if (lines.isEmpty()) {
+        // Stream lines straight off the file in bounded chunks (never holds the whole file)
+        StreamingLoadResult load = this.<Soggetti>streamFileToStaging(file, "soggetti", ingestion, submission,
+                line -> parseSoggettiLine(line, ingestion, submission),
+                chunk -> stagingRepository.bulkLoadSoggettiToStaging(chunk, ingestion.getId(), submission.getId()));
+        if (load.linesRead() == 0) {
             return new StagingResult(0, 0);
         }
 
-        int totalValidationErrors = 0;
-        int totalParsed = 0;
-        int batchNumber = 0;
-
-        List<Soggetti> batchSoggetti = new ArrayList<>(MERCHANT_PARSE_BATCH_SIZE);
-        List<ErrorRecord> batchErrors = new ArrayList<>();
-        Set<String> fileLevelMerchants = new HashSet<>();
-
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            try {
-                ErrorRecord error = processSoggettiLine(line, ingestion, submission, batchSoggetti, fileLevelMerchants);
-                if (error != null) {
-                    batchErrors.add(error);
-                }
-            } catch (Exception e) {
-                if (totalValidationErrors < 10) {
-                    log.warn("Error processing soggetti line {}: {}", i + 1, e.getMessage());
-                }
-                try {
-                    ErrorRecord error = createErrorRecordFromException(e, line, ingestion, submission);
-                    batchErrors.add(error);
-                } catch (NotFoundRecordException ex) {
-                    log.error("Failed to create error record for exception", ex);
-                }
-            }
-
-            if (batchSoggetti.size() >= MERCHANT_PARSE_BATCH_SIZE || i == lines.size() - 1) {
-                if (!batchSoggetti.isEmpty() || !batchErrors.isEmpty()) {
-                    batchNumber++;
-                    log.info("Loading batch {}: {} soggetti, {} errors (total parsed: {}/{})",
-                            batchNumber, batchSoggetti.size(), batchErrors.size(), i + 1, lines.size());
-
-                    if (!batchErrors.isEmpty()) {
-                        errorRecordRepository.bulkInsertRecordsWithCauses(batchErrors, ingestion.getId());
-                        totalValidationErrors += batchErrors.size();
-                    }
-
-                    if (!batchSoggetti.isEmpty()) {
-                        stagingRepository.bulkLoadSoggettiToStaging(batchSoggetti, ingestion.getId(), submission.getId());
-                        totalParsed += batchSoggetti.size();
-                    }
-
-                    batchSoggetti.clear();
-                    batchErrors.clear();
-                }
-            }
-        }
-
-        lines.clear();
+        int totalValidationErrors = load.validationErrors();
+        int totalParsed = load.parsed();
 
         long elapsed = System.currentTimeMillis() - startTime;
         log.info("Loaded {} soggetti to STAGING ONLY in {}ms, {} validation errors", totalParsed, elapsed, totalValidationErrors);
@@ -1384,61 +1037,16 @@ public class StagingIngestionServiceImpl implements StagingIngestionService {
         log.info("Loading rapporti to STAGING ONLY for file: {}, submission: {}", file.name(), submission.getId());
         long startTime = System.currentTimeMillis();
 
-        List<String> lines = readAllLines(file);
-        if (lines.isEmpty()) {
+        // Stream lines straight off the file in bounded chunks (never holds the whole file)
+        StreamingLoadResult load = this.<it.deloitte.postrxade.entity.Rapporti>streamFileToStaging(file, "rapporti", ingestion, submission,
+                line -> parseRapportiLine(line, ingestion, submission),
+                chunk -> stagingRepository.bulkLoadRapportiToStaging(chunk, ingestion.getId(), submission.getId()));
+        if (load.linesRead() == 0) {
             return new StagingResult(0, 0);
         }
 
-        int totalValidationErrors = 0;
-        int totalParsed = 0;
-        int batchNumber = 0;
-
-        List<it.deloitte.postrxade.entity.Rapporti> batchRapporti = new ArrayList<>(MERCHANT_PARSE_BATCH_SIZE);
-        List<ErrorRecord> batchErrors = new ArrayList<>();
-        Set<String> fileLevelRecords = new HashSet<>();
-
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            try {
-                ErrorRecord error = processRapportiLine(line, ingestion, submission, batchRapporti, fileLevelRecords);
-                if (error != null) {
-                    batchErrors.add(error);
-                }
-            } catch (Exception e) {
-                if (totalValidationErrors < 10) {
-                    log.warn("Error processing rapporti line {}: {}", i + 1, e.getMessage());
-                }
-                try {
-                    ErrorRecord error = createErrorRecordFromException(e, line, ingestion, submission);
-                    batchErrors.add(error);
-                } catch (NotFoundRecordException ex) {
-                    log.error("Failed to create error record for exception", ex);
-                }
-            }
-
-            if (batchRapporti.size() >= MERCHANT_PARSE_BATCH_SIZE || i == lines.size() - 1) {
-                if (!batchRapporti.isEmpty() || !batchErrors.isEmpty()) {
-                    batchNumber++;
-                    log.info("Loading batch {}: {} rapporti, {} errors (total parsed: {}/{})",
-                            batchNumber, batchRapporti.size(), batchErrors.size(), i + 1, lines.size());
-
-                    if (!batchErrors.isEmpty()) {
-                        errorRecordRepository.bulkInsertRecordsWithCauses(batchErrors, ingestion.getId());
-                        totalValidationErrors += batchErrors.size();
-                    }
-
-                    if (!batchRapporti.isEmpty()) {
-                        stagingRepository.bulkLoadRapportiToStaging(batchRapporti, ingestion.getId(), submission.getId());
-                        totalParsed += batchRapporti.size();
-                    }
-
-                    batchRapporti.clear();
-                    batchErrors.clear();
-                }
-            }
-        }
-
-        lines.clear();
+        int totalValidationErrors = load.validationErrors();
+        int totalParsed = load.parsed();
 
         long elapsed = System.currentTimeMillis() - startTime;
         log.info("Loaded {} rapporti to STAGING ONLY in {}ms, {} validation errors", totalParsed, elapsed, totalValidationErrors);
@@ -0,0 +1,172 @@
+package it.deloitte.postrxade.service.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import it.deloitte.postrxade.repository.IngestionProgressRepository;
+import it.deloitte.postrxade.repository.StagingRepository;
+import it.deloitte.postrxade.service.SubmissionPurgeService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implementation of the SubmissionPurgeService.
+ * <p>
+ * Each table is emptied by keyset over its primary key: the upper bound of the next
+ * {@code application.ingestion.purge-chunk-size} rows of the submission is read from the
+ * fk_submission index, then that pk range is deleted and committed on its own, followed by a
+ * pause of {@code purge-pause-millis} to leave room to the other tenants on the cluster.
+ * Progress is logged per table and published as {@code submission.purge.rows}.
+ */
+@Service
+@Slf4j
+public class SubmissionPurgeServiceImpl implements SubmissionPurgeService {
+
+    /**
+     * Tables of a submission with their primary key, in FK-safe delete order:
+     * the independent table and the children of MERCHANT_COLLEGAMENTI first, ERROR_CAUSE before ERROR_RECORD.
+     */
+    private record PurgeTable(String name, String pkColumn) {
+    }
+
+    private static final List<PurgeTable> PURGE_ORDER = List.of(
+            new PurgeTable("MERCHANT_CAMBIO_NDG", "pk_cambio_ndg"),
+            new PurgeTable("MERCHANT_DATI_CONTABILI", "pk_dati_contabili"),
+            new PurgeTable("MERCHANT_RAPPORTI", "pk_rapporti"),
+            new PurgeTable("MERCHANT_SOGGETTI", "pk_soggetti"),
+            new PurgeTable("MERCHANT_COLLEGAMENTI", "pk_collegamenti"),
+            new PurgeTable("ERROR_CAUSE", "pk_error_cause"),
+            new PurgeTable("ERROR_RECORD", "pk_error_record"),
+            new PurgeTable("INGESTION_STATS", "pk_ingestion_stats"));
+
+    // Log a progress line every this many chunks
+    private static final int PROGRESS_LOG_EVERY_CHUNKS = 20;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final StagingRepository stagingRepository;
+    private final IngestionProgressRepository ingestionProgressRepository;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor submissionPurgeExecutor;
+
+    @Value("${application.ingestion.purge-chunk-size:10000}")
+    private int purgeChunkSize;
+
+    @Value("${application.ingestion.purge-pause-millis:50}")
+    private long purgePauseMillis;
+
+    public SubmissionPurgeServiceImpl(
+            PlatformTransactionManager transactionManager,
+            StagingRepository stagingRepository,
+            IngestionProgressRepository ingestionProgressRepository,
+            MeterRegistry meterRegistry,
+            @Qualifier("submissionPurgeExecutor") ThreadPoolTaskExecutor submissionPurgeExecutor) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stagingRepository = stagingRepository;
+        this.ingestionProgressRepository = ingestionProgressRepository;
+        this.meterRegistry = meterRegistry;
+        this.submissionPurgeExecutor = submissionPurgeExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Void> purgeSubmissionAsync(Long submissionId) {
+        log.info("Scheduling purge of submission {}", submissionId);
+        return submissionPurgeExecutor.submitCompletable(() -> {
+            try {
+                purgeSubmission(submissionId);
+            } catch (RuntimeException e) {
+                log.error("Purge of submission {} failed, it can be run again to delete the remaining rows: {}",
+                        submissionId, e.getMessage(), e);
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    private void purgeSubmission(Long submissionId) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        log.info("Purging submission {}: chunk size {}, pause {}ms", submissionId, purgeChunkSize, purgePauseMillis);
+
+        // Staging partitions go with a metadata operation, no chunking needed
+        stagingRepository.clearStaging(submissionId);
+
+        long totalDeleted = 0;
+        for (PurgeTable table : PURGE_ORDER) {
+            totalDeleted += purgeTable(table, submissionId);
+        }
+
+        int progressDeleted = ingestionProgressRepository.deleteBySubmissionId(submissionId);
+        log.info("Purged submission {} in {}ms: {} rows deleted, {} progress checkpoints removed",
+                submissionId, System.currentTimeMillis() - startTime, totalDeleted, progressDeleted);
+    }
+
+    private long purgeTable(PurgeTable table, Long submissionId) throws InterruptedException {
+        long tableStart = System.currentTimeMillis();
+        long total = ((Number) entityManager.createNativeQuery(
+                        "SELECT COUNT(*) FROM " + table.name() + " WHERE fk_submission = :submissionId")
+                .setParameter("submissionId", submissionId)
+                .getSingleResult()).longValue();
+        if (total == 0) {
+            log.debug("No {} rows to purge for submission {}", table.name(), submissionId);
+            return 0;
+        }
+        log.info("Purging {} {} rows of submission {}", total, table.name(), submissionId);
+
+        long deleted = 0;
+        long afterPk = 0;
+        int chunks = 0;
+        while (true) {
+            long fromPk = afterPk;
+            Long toPk = transactionTemplate.execute(status -> nextChunkUpperBound(table, submissionId, fromPk));
+            if (toPk == null) {
+                break;
+            }
+            int chunkDeleted = transactionTemplate.execute(status -> entityManager.createNativeQuery(
+                            "DELETE FROM " + table.name() + " WHERE fk_submission = :submissionId AND "
+                                    + table.pkColumn() + " > :fromPk AND " + table.pkColumn() + " <= :toPk")
+                    .setParameter("submissionId", submissionId)
+                    .setParameter("fromPk", fromPk)
+                    .setParameter("toPk", toPk)
+                    .executeUpdate());
+            deleted += chunkDeleted;
+            afterPk = toPk;
+            chunks++;
+            meterRegistry.counter("submission.purge.rows", "table", table.name()).increment(chunkDeleted);
+            if (chunks % PROGRESS_LOG_EVERY_CHUNKS == 0) {
+                log.info("Purging {} of submission {}: {}/{} rows ({}%)",
+                        table.name(), submissionId, deleted, total, deleted * 100 / total);
+            }
+            if (purgePauseMillis > 0) {
+                Thread.sleep(purgePauseMillis);
+            }
+        }
+
+        log.info("Purged {} {} rows of submission {} in {} chunk(s), {}ms",
+                deleted, table.name(), submissionId, chunks, System.currentTimeMillis() - tableStart);
+        return deleted;
+    }
+
+    // Highest pk of the next chunk of rows after fromPk, null when none is left
+    private Long nextChunkUpperBound(PurgeTable table, Long submissionId, long fromPk) {
+        Number upperBound = (Number) entityManager.createNativeQuery(
+                        "SELECT MAX(pk) FROM (SELECT " + table.pkColumn() + " AS pk FROM " + table.name()
+                                + " WHERE fk_submission = :submissionId AND " + table.pkColumn() + " > :fromPk"
+                                + " ORDER BY " + table.pkColumn() + " LIMIT :chunkSize) chunk")
+                .setParameter("submissionId", submissionId)
+                .setParameter("fromPk", fromPk)
+                .setParameter("chunkSize", purgeChunkSize)
+                .getSingleResult();
+        return upperBound != null ? upperBound.longValue() : null;
+    }
+}
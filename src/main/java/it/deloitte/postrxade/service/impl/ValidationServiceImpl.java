@@ -6,18 +6,30 @@ import it.deloitte.postrxade.enums.IngestionTypeEnum;
 import it.deloitte.postrxade.enums.SeverityEnum;
 import it.deloitte.postrxade.enums.SubmissionStatusEnum;
 import it.deloitte.postrxade.exception.NotFoundRecordException;
+import it.deloitte.postrxade.records.IngestionCounts;
+import it.deloitte.postrxade.records.ValidationReportRow;
 import it.deloitte.postrxade.repository.*;
 import it.deloitte.postrxade.service.*;
 import it.deloitte.postrxade.utils.AuditLogger;
 import it.deloitte.postrxade.utils.ReportJob;
 import lombok.extern.slf4j.Slf4j;
 import ma.glasnost.orika.MapperFacade;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,6 +46,11 @@ import java.util.stream.Collectors;
  * <li>Filtering specific error rows for detail views.</li>
  * <li>Asynchronously generating Excel exports to avoid HTTP timeouts.</li>
  * </ul>
+ * <p>
+ * The Excel report is streamed: error causes are read in keyset pages of
+ * {@value #REPORT_PAGE_SIZE} rows and written through an {@link SXSSFWorkbook} that keeps
+ * only a small window of rows in memory, into a temporary file that the client downloads:
+ * heap use does not grow with the number of error causes.
  */
 @Service
 @Slf4j
@@ -63,19 +80,7 @@ public class ValidationServiceImpl implements ValidationService {
     private TransactionRepository transactionRepository;
 
     @Autowired
-    private SoggettiRepository soggettiRepository;
-
-    @Autowired
-    private RapportiRepository rapportiRepository;
-
-    @Autowired
-    private DatiContabiliRepository datiContabiliRepository;
-
-    @Autowired
-    private CollegamentiRepository collegamentiRepository;
-
-    @Autowired
-    private IngestionRepository ingestionRepository;
+    private IngestionStatsService ingestionStatsService;
 
     @Autowired
     private ObligationService obligationService;
@@ -90,6 +95,29 @@ public class ValidationServiceImpl implements ValidationService {
     @Qualifier("alternativeMapperFacade")
     private MapperFacade alternativeMapperFacade;
 
+    @Autowired
+    @Qualifier("reportExportExecutor")
+    private AsyncTaskExecutor reportExportExecutor;
+
+    /**
+     * Minutes a finished report is kept (job and file) when it is never downloaded.
+     */
+    @Value("${application.validation.report-retention-minutes:60}")
+    private long reportRetentionMinutes;
+
+    // Error causes read per query while writing the report
+    private static final int REPORT_PAGE_SIZE = 5000;
+
+    // Rows of each sheet kept in memory by SXSSF, older ones are flushed to disk
+    private static final int REPORT_ROW_WINDOW = 100;
+
+    // Last row of an .xlsx sheet (1,048,576 rows)
+    private static final int REPORT_LAST_ROW_INDEX = SpreadsheetVersion.EXCEL2007.getLastRowIndex();
+
+    private static final String[] REPORT_HEADER = {
+            "raw_record", "error_level", "error_name", "error_description", "batch_id", "timestamp", "file_type"
+    };
+
     /**
      * In-memory storage for tracking asynchronous report jobs.
      * Uses ConcurrentHashMap to ensure thread safety during async access.
@@ -188,38 +216,43 @@ public class ValidationServiceImpl implements ValidationService {
 // ==================================================================================
 
     /**
-     * Initializes the report job and starts the async process.
+     * Initializes the report job and hands it to the report executor.
+     * Expired reports of earlier jobs are cleaned up on the way.
      *
      * @return The Job ID.
      */
     public String startReportJob(Integer fy, String period) {
+        purgeExpiredReportJobs();
+
         String jobId = UUID.randomUUID().toString();
 
         ReportJob job = ReportJob.builder()
                 .jobId(jobId)
                 .status("ACCEPTED")
+                .fileName("validation-report-" + fy + "-" + period + ".xlsx")
+                .createdAt(Instant.now())
                 .build();
 
         jobStorage.put(jobId, job);
 
         // Trigger the actual async processing
-        generateExcelDataAsync(jobId, fy, period);
+        reportExportExecutor.execute(() -> generateExcelDataAsync(jobId, fy, period));
 
         return jobId;
     }
 
     /**
-     * Checks the status of a job.
+     * Returns the job, or null if unknown.
      */
-    public String getJobStatus(String jobId) {
-        ReportJob job = jobStorage.get(jobId);
-        return (job != null) ? job.getStatus() : "NOT_FOUND";
+    public ReportJob getJob(String jobId) {
+        return jobStorage.get(jobId);
     }
 
     /**
-     * Retrieves the result, logs the action, and cleans up the job.
+     * Retrieves the completed job, logs the action, and cleans up the job.
+     * The caller streams {@link ReportJob#getResultFile()} and deletes it afterwards.
      */
-    public ExcelExportDTO getJobResult(String jobId) {
+    public ReportJob getJobResult(String jobId) {
         ReportJob job = jobStorage.get(jobId);
 
         if (job == null || !"COMPLETED".equals(job.getStatus())) {
@@ -232,7 +265,7 @@ public class ValidationServiceImpl implements ValidationService {
         // Perform Audit Logging
         logReportDownload();
 
-        return job.getResult();
+        return job;
     }
 
     private void logReportDownload() {
@@ -252,54 +285,153 @@ public class ValidationServiceImpl implements ValidationService {
     }
 
     /**
-     * Asynchronously generates the Excel report data.
+     * Generates the Excel report file of a job, on the report executor.
      * <p>
-     * This method is annotated with {@link Async} to run on a separate thread.
-     * It updates the {@link ReportJob} status in {@link #jobStorage} as it progresses.
+     * Error causes are read by keyset pages and written to an "Errors" and a "Warnings" sheet;
+     * {@link ReportJob#getRowsWritten()} and {@link ReportJob#getProgressPercent()} are updated
+     * after each page. It updates the {@link ReportJob} status in {@link #jobStorage} as it progresses.
      *
      * @param jobId  The unique ID of the job to update.
      * @param fy     The Fiscal Year.
      * @param period The month name.
      */
-    @Async
     public void generateExcelDataAsync(String jobId, Integer fy, String period) {
-        try {
-            // 1. Update status to processing
-            ReportJob job = jobStorage.get(jobId);
-            if (job == null) return; // Safety check
-            job.setStatus("PROCESSING");
+        ReportJob job = jobStorage.get(jobId);
+        if (job == null) return; // Safety check
+        job.setStatus("PROCESSING");
 
-            // 2. Fetch Data
+        long startTime = System.currentTimeMillis();
+        Path file = null;
+        try {
+            file = Files.createTempFile("validation-report-", ".xlsx");
             Optional<Submission> submission = obligationService.getActiveSubmissionForStats(fy, period);
-            List<ExcelRowDTO> errors = new ArrayList<>();
-            List<ExcelRowDTO> warnings = new ArrayList<>();
 
-            if (submission.isPresent()) {
-                List<Ingestion> ingestions = ingestionRepository.findBySubmission_Id(submission.get().getId());
-                List<ErrorCause> causes = errorCauseRepository.findBySubmissionId(submission.get().getId());
+            SXSSFWorkbook workbook = new SXSSFWorkbook(REPORT_ROW_WINDOW);
+            workbook.setCompressTempFiles(true);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                ReportSheet errors = new ReportSheet(workbook, "Errors", REPORT_LAST_ROW_INDEX);
+                ReportSheet warnings = new ReportSheet(workbook, "Warnings", REPORT_LAST_ROW_INDEX);
 
-                for (Ingestion ingestion : ingestions) {
-                    List<ExcelRowDTO> rows = causes.stream().map(c -> mapToExcelRow(c, submission.get(), ingestion)).toList();
-                    errors.addAll(rows.stream().filter(r -> r.getType().equals("error")).toList());
-                    warnings.addAll(rows.stream().filter(r -> r.getType().equals("warning")).toList());
+                if (submission.isPresent()) {
+                    writeReportRows(job, submission.get(), errors, warnings);
                 }
+                workbook.write(out);
+            } finally {
+                // Removes the temporary sheet files of SXSSF
+                workbook.dispose();
+                workbook.close();
             }
 
-            ExcelExportDTO result = ExcelExportDTO.builder()
-                    .errors(errors)
-                    .warnings(warnings)
-                    .build();
-
-            job.setResult(result);
+            job.setResultFile(file);
+            job.setProgressPercent(100);
             job.setStatus("COMPLETED");
+            log.info("Validation report {} written in {}ms: {} rows, {} bytes",
+                    jobId, System.currentTimeMillis() - startTime, job.getRowsWritten(), Files.size(file));
 
         } catch (Exception e) {
-            ReportJob job = jobStorage.get(jobId);
-            if (job != null) {
-                job.setStatus("FAILED");
-                job.setErrorMessage(e.getMessage());
+            log.error("Validation report {} failed: {}", jobId, e.getMessage(), e);
+            deleteReportFile(file);
+            job.setStatus("FAILED");
+            job.setErrorMessage(e.getMessage());
+        }
+    }
+
+    private void writeReportRows(ReportJob job, Submission submission, ReportSheet errors, ReportSheet warnings) {
+        Long submissionId = submission.getId();
+        long totalRows = errorCauseRepository.countBySubmissionIdNative(submissionId);
+        job.setTotalRows(totalRows);
+
+        long afterErrorCauseId = 0;
+        long rowsWritten = 0;
+        while (true) {
+            List<ValidationReportRow> page = errorCauseRepository.findReportRowsBySubmissionId(
+                    submissionId, afterErrorCauseId, REPORT_PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            for (ValidationReportRow reportRow : page) {
+                ExcelRowDTO row = mapToExcelRow(reportRow, submission);
+                (row.getType().equals("warning") ? warnings : errors).writeRow(row);
+            }
+            rowsWritten += page.size();
+            afterErrorCauseId = page.get(page.size() - 1).errorCauseId();
+
+            job.setRowsWritten(rowsWritten);
+            // Causes may still be added while the report runs, never report more than 99 before the end
+            job.setProgressPercent(totalRows > 0 ? (int) Math.min(99, rowsWritten * 100 / totalRows) : 99);
+        }
+    }
+
+    /**
+     * Report sheet of one level. A sheet holds at most {@code lastRowIndex} data rows after its
+     * header: the next rows continue on "Errors (2)", "Errors (3)"... instead of failing past
+     * the last row of the .xlsx format.
+     */
+    static final class ReportSheet {
+        private final SXSSFWorkbook workbook;
+        private final String name;
+        private final int lastRowIndex;
+        private Sheet sheet;
+        private int sheetCount = 1;
+
+        ReportSheet(SXSSFWorkbook workbook, String name, int lastRowIndex) {
+            this.workbook = workbook;
+            this.name = name;
+            this.lastRowIndex = lastRowIndex;
+            this.sheet = createSheet(name);
+        }
+
+        void writeRow(ExcelRowDTO dto) {
+            int rowIndex = sheet.getLastRowNum() + 1;
+            if (rowIndex > lastRowIndex) {
+                sheetCount++;
+                sheet = createSheet(name + " (" + sheetCount + ")");
+                rowIndex = 1;
+            }
+            Row row = sheet.createRow(rowIndex);
+            String[] values = {
+                    dto.getRawRecord(), dto.getType(), dto.getName(), dto.getDescription(),
+                    dto.getBatchId(), dto.getTimestamp(), dto.getFileType()
+            };
+            for (int i = 0; i < values.length; i++) {
+                row.createCell(i).setCellValue(values[i]);
             }
         }
+
+        private Sheet createSheet(String sheetName) {
+            Sheet newSheet = workbook.createSheet(sheetName);
+            Row header = newSheet.createRow(0);
+            for (int i = 0; i < REPORT_HEADER.length; i++) {
+                header.createCell(i).setCellValue(REPORT_HEADER[i]);
+            }
+            return newSheet;
+        }
+    }
+
+    /**
+     * Drops the finished jobs older than the retention, with their file: reports that were
+     * never downloaded must not pile up in memory and in the temporary directory.
+     */
+    private void purgeExpiredReportJobs() {
+        Instant expiry = Instant.now().minus(Duration.ofMinutes(reportRetentionMinutes));
+        jobStorage.values().removeIf(job -> {
+            boolean finished = "COMPLETED".equals(job.getStatus()) || "FAILED".equals(job.getStatus());
+            if (!finished || job.getCreatedAt() == null || job.getCreatedAt().isAfter(expiry)) {
+                return false;
+            }
+            log.info("Discarding validation report {} not downloaded since {}", job.getJobId(), job.getCreatedAt());
+            deleteReportFile(job.getResultFile());
+            return true;
+        });
+    }
+
+    private void deleteReportFile(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete validation report file {}: {}", file, e.getMessage());
+        }
     }
 
 // ==================================================================================
@@ -307,18 +439,18 @@ public class ValidationServiceImpl implements ValidationService {
 // ==================================================================================
 
     /**
-     * Maps an ErrorRecord entity to an ExcelRowDTO for reporting.
+     * Maps an error cause of the report to an ExcelRowDTO, with the ingestion of its own error record.
      */
-    private ExcelRowDTO mapToExcelRow(ErrorCause errorCause, Submission submission, Ingestion ingestion) {
-        String type = errorCause.getErrorType().getSeverityLevel() == 1 ? "warning" : "error";
+    private ExcelRowDTO mapToExcelRow(ValidationReportRow reportRow, Submission submission) {
+        String type = Integer.valueOf(1).equals(reportRow.severityLevel()) ? "warning" : "error";
         return ExcelRowDTO.builder()
-                .rawRecord(errorCause.getErrorRecord().getRawRow())
+                .rawRecord(reportRow.rawRow())
                 .type(type)
-                .name(errorCause.getErrorType().getName())
-                .description(errorCause.getErrorType().getDescription())
+                .name(reportRow.errorName())
+                .description(reportRow.errorDescription())
                 .batchId(submission.getBatchId())
-                .timestamp(String.valueOf(ingestion.getIngestedAt()))
-                .fileType(ingestion.getIngestionType().getName())
+                .timestamp(String.valueOf(reportRow.ingestedAt()))
+                .fileType(reportRow.ingestionType())
                 .build();
     }
 
@@ -336,14 +468,15 @@ public class ValidationServiceImpl implements ValidationService {
 
         // 1. Aggregated Data Fetching (Reduce DB Roundtrips)
         // You should create a projection or DTO to hold counts grouped by Type and Severity
+        Map<String, IngestionCounts> countsByType = ingestionStatsService.getCountsByIngestionType(List.of(submissionId));
         Map<String, Long> totalsMap = new HashMap<>();
-        totalsMap.put(IngestionTypeEnum.SOGGETTI.getLabel(), soggettiRepository.countBySubmissionId(submissionId));
-        totalsMap.put(IngestionTypeEnum.RAPPORTI.getLabel(), rapportiRepository.countBySubmissionId(submissionId));
-        totalsMap.put(IngestionTypeEnum.DATI_CONTABILI.getLabel(), datiContabiliRepository.countBySubmissionId(submissionId));
-        totalsMap.put(IngestionTypeEnum.COLLEGAMENTI.getLabel(), collegamentiRepository.countBySubmissionId(submissionId));
+        for (IngestionTypeEnum type : List.of(IngestionTypeEnum.SOGGETTI, IngestionTypeEnum.RAPPORTI,
+                IngestionTypeEnum.DATI_CONTABILI, IngestionTypeEnum.COLLEGAMENTI)) {
+            totalsMap.put(type.getLabel(), countsByType.getOrDefault(type.getLabel(), IngestionCounts.EMPTY).acceptedCount());
+        }
 
         long totalTransactions = totalsMap.values().stream().mapToLong(Long::longValue).sum();
-        long totalErrorRecords = errorRecordRepository.countBySubmissionId(submissionId);
+        long totalErrorRecords = countsByType.values().stream().mapToLong(IngestionCounts::errorRecordCount).sum();
 
         // 2. Build Issues Groups using a helper to avoid boilerplate
         IssuesGroup soggettiIssues = buildIssuesGroup(submissionId, IngestionTypeEnum.SOGGETTI);
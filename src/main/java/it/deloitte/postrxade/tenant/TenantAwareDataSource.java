@@ -2,14 +2,26 @@ package it.deloitte.postrxade.tenant;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.deloitte.postrxade.enums.DataSourceWorkloadEnum;
+import it.deloitte.postrxade.enums.StagingLoadModeEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -19,18 +31,33 @@ import java.util.concurrent.ConcurrentHashMap;
  * This implementation uses Spring's AbstractRoutingDataSource to dynamically select
  * the appropriate DataSource for each tenant at runtime.
  * Non attivo con profilo "output": il task ECS output usa un unico DB da variabili d'ambiente (spring.datasource).
+ * <p>
+ * Each tenant gets one HikariDataSource sized for the workload of the process (multi-tenant.workload),
+ * from {@code multi-tenant.tenants.<id>.pool.<workload>} and {@code multi-tenant.pool-defaults.<workload>}.
+ * The pools are created and warmed up at startup (every configured tenant for the web workload, the bootstrap
+ * tenant for the one-tenant batch runs), publish the hikaricp.* Micrometer metrics under the pool name
+ * {@code Hikari-<tenant>-<workload>}, and are closed at shutdown, or dropped when their warm-up fails.
  */
 @Component
 @Profile("!output")
-public class TenantAwareDataSource extends AbstractRoutingDataSource {
+public class TenantAwareDataSource extends AbstractRoutingDataSource implements SmartInitializingSingleton, DisposableBean {
     
     private static final Logger LOGGER = LoggerFactory.getLogger(TenantAwareDataSource.class);
+
+    private static final String POOL_NAME_PREFIX = "Hikari-";
+
+    private static final String MARIADB_URL_PREFIX = "jdbc:mariadb:";
+
+    /** How long an evicted pool may keep serving the connections already borrowed before being closed. */
+    private static final Duration EVICTION_GRACE = Duration.ofSeconds(30);
     
     private final TenantConfiguration tenantConfiguration;
-    private final Map<String, DataSource> dataSourceCache = new ConcurrentHashMap<>();
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<String, HikariDataSource> dataSourceCache = new ConcurrentHashMap<>();
     
-    public TenantAwareDataSource(TenantConfiguration tenantConfiguration) {
+    public TenantAwareDataSource(TenantConfiguration tenantConfiguration, ObjectProvider<MeterRegistry> meterRegistry) {
         this.tenantConfiguration = tenantConfiguration;
+        this.meterRegistry = meterRegistry;
         setTargetDataSources(new HashMap<>());
         setDefaultTargetDataSource(null);
     }
@@ -73,50 +100,190 @@ public class TenantAwareDataSource extends AbstractRoutingDataSource {
             return dataSource;
         }
         
-        // Get tenant configuration
-        TenantConfiguration.TenantProperties tenantProps = tenantConfiguration.getTenantProperties(tenantId);
-        if (tenantProps == null) {
-            LOGGER.error("No configuration found for tenant: {}", tenantId);
-            throw new IllegalStateException("Tenant not configured: " + tenantId);
+        // Created once per tenant, even when its first requests arrive concurrently
+        return dataSourceCache.computeIfAbsent(tenantId, this::createDataSourceForTenant);
+    }
+
+    /**
+     * Creates and warms up the pools at startup, so that the first user of each tenant does not pay
+     * the pool startup: every configured tenant for the web workload, only the bootstrap tenant for the
+     * batch workload (one tenant per run). A tenant whose database is not reachable is only logged,
+     * its pool being created again on its first request.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!tenantConfiguration.isWarmUpPools()) {
+            return;
+        }
+        Collection<String> tenantIds;
+        if (tenantConfiguration.getWorkload() == DataSourceWorkloadEnum.WEB) {
+            tenantIds = tenantConfiguration.getTenants().keySet();
+        } else {
+            String bootstrapTenant = tenantConfiguration.getBootstrapTenantResolved();
+            if (bootstrapTenant == null || bootstrapTenant.isBlank()) {
+                LOGGER.warn("No bootstrap tenant configured, no DataSource warmed up");
+                return;
+            }
+            tenantIds = List.of(bootstrapTenant);
+        }
+        for (String tenantId : tenantIds) {
+            warmUp(tenantId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // Shutting down: the borrowed connections are not waited for
+        for (String tenantId : new ArrayList<>(dataSourceCache.keySet())) {
+            HikariDataSource dataSource = dataSourceCache.remove(tenantId);
+            if (dataSource != null) {
+                dataSource.close();
+            }
+        }
+    }
+
+    /**
+     * Tenant of a pool created by this class, from its name (as found in the "pool" tag of the hikaricp.* metrics).
+     *
+     * @return the tenant identifier, or null for any other pool
+     */
+    public static String tenantOfPool(String poolName) {
+        if (poolName == null || !poolName.startsWith(POOL_NAME_PREFIX)) {
+            return null;
+        }
+        int workloadSeparator = poolName.lastIndexOf('-');
+        return workloadSeparator > POOL_NAME_PREFIX.length() ? poolName.substring(POOL_NAME_PREFIX.length(), workloadSeparator) : null;
+    }
+
+    private boolean warmUp(String tenantId) {
+        long start = System.currentTimeMillis();
+        try {
+            DataSource dataSource = dataSourceCache.computeIfAbsent(tenantId, this::createDataSourceForTenant);
+            try (Connection connection = dataSource.getConnection()) {
+                if (!connection.isValid(5)) {
+                    throw new IllegalStateException("connection not valid");
+                }
+            }
+            LOGGER.info("DataSource for tenant {} warmed up in {} ms", tenantId, System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            LOGGER.warn("Warm-up of the DataSource for tenant {} failed, it will be created on first use: {}", tenantId, e.getMessage());
+            evict(tenantId);
+            return false;
         }
-        
-        // Create new DataSource for this tenant
-        LOGGER.info("Creating new DataSource for tenant: {} with database: {}", tenantId, tenantProps.getDatabaseName());
-        dataSource = createDataSourceForTenant(tenantId, tenantProps);
-        
-        // Cache it
-        dataSourceCache.put(tenantId, dataSource);
-        
-        return dataSource;
+    }
+
+    /**
+     * Closes the pool of a tenant, if any; the next request for the tenant creates a new one.
+     * Does not wait for the connections already borrowed from the pool: they are closed as they are returned,
+     * and the pool itself in the background once they all are, or after {@link #EVICTION_GRACE}.
+     */
+    private void evict(String tenantId) {
+        HikariDataSource dataSource = tenantId != null ? dataSourceCache.remove(tenantId) : null;
+        if (dataSource == null) {
+            return;
+        }
+        LOGGER.info("Evicting DataSource for tenant: {}", tenantId);
+        closePool(dataSource, EVICTION_GRACE);
+    }
+
+    private static void closePool(HikariDataSource dataSource, Duration grace) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null || pool.getActiveConnections() == 0) {
+            dataSource.close();
+            return;
+        }
+        // Idle connections are closed now, borrowed ones when returned; the pool is closed off the caller's thread
+        pool.softEvictConnections();
+        Thread.ofPlatform()
+                .name("close-" + dataSource.getPoolName())
+                .daemon()
+                .start(() -> closeWhenReturned(dataSource, pool, grace));
+    }
+
+    private static void closeWhenReturned(HikariDataSource dataSource, HikariPoolMXBean pool, Duration grace) {
+        long deadline = System.currentTimeMillis() + grace.toMillis();
+        try {
+            while (pool.getActiveConnections() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (pool.getActiveConnections() > 0) {
+            LOGGER.warn("Closing pool {} with {} connections still in use", dataSource.getPoolName(), pool.getActiveConnections());
+        }
+        dataSource.close();
     }
     
     /**
-     * Creates a HikariDataSource for a specific tenant.
+     * Creates a HikariDataSource for a specific tenant, sized for the workload of this process.
      */
-    private DataSource createDataSourceForTenant(String tenantId, TenantConfiguration.TenantProperties tenantProps) {
+    private HikariDataSource createDataSourceForTenant(String tenantId) {
+        TenantConfiguration.TenantProperties tenantProps = tenantConfiguration.getTenantProperties(tenantId);
+        if (tenantProps == null) {
+            LOGGER.error("No configuration found for tenant: {}", tenantId);
+            throw new IllegalStateException("Tenant not configured: " + tenantId);
+        }
+        DataSourceWorkloadEnum workload = tenantConfiguration.getWorkload();
+        LOGGER.info("Creating new DataSource for tenant: {} with database: {} (workload {})",
+                tenantId, tenantProps.getDatabaseName(), workload);
+
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(tenantProps.getDatabaseUrl());
         config.setUsername(tenantProps.getDatabaseUsername());
         config.setPassword(tenantProps.getDatabasePassword());
         config.setDriverClassName("org.mariadb.jdbc.Driver");
-        config.setPoolName("Hikari-" + tenantId);
+        config.setPoolName(POOL_NAME_PREFIX + tenantId + "-" + workload.name().toLowerCase());
         config.setAutoCommit(false);
+        applyPoolProperties(config, tenantConfiguration.getPoolProperties(tenantId, workload));
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            config.setMetricRegistry(registry);
+        }
         config.addDataSourceProperty("cachePrepStmts", "true");
         config.addDataSourceProperty("prepStmtCacheSize", "250");
         config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
         config.addDataSourceProperty("useServerPrepStmts", "true");
+        // Driver-side batching for PreparedStatement executeBatch (staging JDBC loader): MariaDB Connector/J 3.x
+        // bulk protocol, pipelined statements on MySQL servers
+        config.addDataSourceProperty("useBulkStmts", "true");
+        if (tenantConfiguration.getEffectiveStagingLoadMode(tenantId) == StagingLoadModeEnum.LOAD_DATA_LOCAL_INFILE) {
+            // The staging LOAD DATA LOCAL INFILE loader registers its stream on org.mariadb.jdbc.Statement
+            if (tenantProps.getDatabaseUrl() == null || !tenantProps.getDatabaseUrl().startsWith(MARIADB_URL_PREFIX)) {
+                throw new IllegalStateException("Tenant " + tenantId + " uses staging load mode LOAD_DATA_LOCAL_INFILE, "
+                        + "which requires a " + MARIADB_URL_PREFIX + " database-url");
+            }
+            config.addDataSourceProperty("allowLocalInfile", "true");
+        }
         config.addDataSourceProperty("useSSL", "true");
         config.addDataSourceProperty("serverTimezone", "UTC");
         config.addDataSourceProperty("allowPublicKeyRetrieval", "true");
         
         return new HikariDataSource(config);
     }
-    
-    /**
-     * Clears the DataSource cache. Useful for testing or when tenant configuration changes.
-     */
-    public void clearCache() {
-        LOGGER.info("Clearing DataSource cache");
-        dataSourceCache.clear();
+
+    private static void applyPoolProperties(HikariConfig config, TenantConfiguration.PoolProperties pool) {
+        if (pool.getMaximumPoolSize() != null) {
+            config.setMaximumPoolSize(pool.getMaximumPoolSize());
+        }
+        if (pool.getMinimumIdle() != null) {
+            config.setMinimumIdle(pool.getMinimumIdle());
+        }
+        if (pool.getConnectionTimeout() != null) {
+            config.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        }
+        if (pool.getIdleTimeout() != null) {
+            config.setIdleTimeout(pool.getIdleTimeout().toMillis());
+        }
+        if (pool.getMaxLifetime() != null) {
+            config.setMaxLifetime(pool.getMaxLifetime().toMillis());
+        }
+        if (pool.getKeepaliveTime() != null) {
+            config.setKeepaliveTime(pool.getKeepaliveTime().toMillis());
+        }
+        if (pool.getLeakDetectionThreshold() != null) {
+            config.setLeakDetectionThreshold(pool.getLeakDetectionThreshold().toMillis());
+        }
     }
 }
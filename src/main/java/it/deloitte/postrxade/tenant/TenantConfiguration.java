@@ -1,10 +1,13 @@
 package it.deloitte.postrxade.tenant;
 
+import it.deloitte.postrxade.enums.DataSourceWorkloadEnum;
+import it.deloitte.postrxade.enums.StagingLoadModeEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +30,18 @@ public class TenantConfiguration {
     /** Tenant used when no request context is available (e.g. startup, session schema init). */
     private String bootstrapTenant = "nexi";
 
+    /** Workload of this process: selects the pool sizing of each tenant (pool.web, pool.batch, pool.output). */
+    private DataSourceWorkloadEnum workload = DataSourceWorkloadEnum.WEB;
+
+    /** Pool sizing per workload for the tenants not setting their own (or only some of the values). */
+    private Map<DataSourceWorkloadEnum, PoolProperties> poolDefaults = new HashMap<>();
+
+    /** Create and warm up the tenant pools at startup instead of on the first request of each tenant. */
+    private boolean warmUpPools = true;
+
+    /** Staging load mode of the tenants not setting their own; the profiles set it from application.ingestion.staging-load-mode. */
+    private StagingLoadModeEnum defaultStagingLoadMode = StagingLoadModeEnum.JDBC_BATCH;
+
     public String getTenantHostBaseDomain() {
         return tenantHostBaseDomain;
     }
@@ -63,6 +78,38 @@ public class TenantConfiguration {
         this.bootstrapTenant = bootstrapTenant;
     }
     
+    public DataSourceWorkloadEnum getWorkload() {
+        return workload;
+    }
+    
+    public void setWorkload(DataSourceWorkloadEnum workload) {
+        this.workload = workload != null ? workload : DataSourceWorkloadEnum.WEB;
+    }
+    
+    public Map<DataSourceWorkloadEnum, PoolProperties> getPoolDefaults() {
+        return poolDefaults;
+    }
+    
+    public void setPoolDefaults(Map<DataSourceWorkloadEnum, PoolProperties> poolDefaults) {
+        this.poolDefaults = poolDefaults;
+    }
+    
+    public boolean isWarmUpPools() {
+        return warmUpPools;
+    }
+    
+    public void setWarmUpPools(boolean warmUpPools) {
+        this.warmUpPools = warmUpPools;
+    }
+    
+    public StagingLoadModeEnum getDefaultStagingLoadMode() {
+        return defaultStagingLoadMode;
+    }
+    
+    public void setDefaultStagingLoadMode(StagingLoadModeEnum defaultStagingLoadMode) {
+        this.defaultStagingLoadMode = defaultStagingLoadMode != null ? defaultStagingLoadMode : StagingLoadModeEnum.JDBC_BATCH;
+    }
+    
     public Map<String, TenantProperties> getTenants() {
         return tenants;
     }
@@ -101,6 +148,24 @@ public class TenantConfiguration {
         return tenants.get(resolved);
     }
 
+    /**
+     * Gets the pool sizing of a tenant for a workload: the values of {@code multi-tenant.tenants.<id>.pool.<workload>},
+     * completed with {@code multi-tenant.pool-defaults.<workload>}. Values set in neither are null (Hikari default).
+     *
+     * @param tenantId the tenant identifier
+     * @param workload the workload the pool serves
+     * @return the pool properties, never null
+     */
+    public PoolProperties getPoolProperties(String tenantId, DataSourceWorkloadEnum workload) {
+        PoolProperties defaults = poolDefaults != null ? poolDefaults.get(workload) : null;
+        TenantProperties props = getTenantProperties(tenantId);
+        PoolProperties tenantPool = props != null && props.getPool() != null ? props.getPool().get(workload) : null;
+        if (tenantPool == null) {
+            return defaults != null ? defaults : new PoolProperties();
+        }
+        return tenantPool.withDefaults(defaults);
+    }
+
     /**
      * Checks if a tenant is configured.
      * 
@@ -167,6 +232,21 @@ public class TenantConfiguration {
         return List.of();
     }
     
+    /**
+     * Staging load mode of a tenant: its own staging-load-mode if set, otherwise multi-tenant.default-staging-load-mode.
+     * Used both to choose the STG_* loader and to enable LOAD DATA LOCAL INFILE on the tenant pool.
+     *
+     * @param tenantId the tenant identifier (aliases accepted)
+     * @return the staging load mode, never null
+     */
+    public StagingLoadModeEnum getEffectiveStagingLoadMode(String tenantId) {
+        TenantProperties tenantProps = getTenantProperties(tenantId);
+        if (tenantProps != null && tenantProps.getStagingLoadMode() != null) {
+            return tenantProps.getStagingLoadMode();
+        }
+        return defaultStagingLoadMode;
+    }
+
     /**
      * Tenant-specific properties.
      */
@@ -177,7 +257,11 @@ public class TenantConfiguration {
         private String databasePassword;
         /** Codice fiscale usato in header/footer dei file di output (dipende dal tenant: Nexi 04107060966, Amex 14778691007). */
         private String outputCodiceFiscale;
+        /** Modalità di caricamento delle tabelle STG_* per questo tenant; se null vale application.ingestion.staging-load-mode. */
+        private StagingLoadModeEnum stagingLoadMode;
         private SsoConfiguration sso;
+        /** Dimensionamento del pool per workload (web, batch, output); i valori non impostati vengono da multi-tenant.pool-defaults. */
+        private Map<DataSourceWorkloadEnum, PoolProperties> pool = new HashMap<>();
         
         public String getDatabaseName() {
             return databaseName;
@@ -219,6 +303,14 @@ public class TenantConfiguration {
             this.outputCodiceFiscale = outputCodiceFiscale;
         }
         
+        public StagingLoadModeEnum getStagingLoadMode() {
+            return stagingLoadMode;
+        }
+        
+        public void setStagingLoadMode(StagingLoadModeEnum stagingLoadMode) {
+            this.stagingLoadMode = stagingLoadMode;
+        }
+        
         public SsoConfiguration getSso() {
             return sso;
         }
@@ -226,6 +318,101 @@ public class TenantConfiguration {
         public void setSso(SsoConfiguration sso) {
             this.sso = sso;
         }
+        
+        public Map<DataSourceWorkloadEnum, PoolProperties> getPool() {
+            return pool;
+        }
+        
+        public void setPool(Map<DataSourceWorkloadEnum, PoolProperties> pool) {
+            this.pool = pool;
+        }
+    }
+    
+    /**
+     * Hikari pool sizing for one tenant and workload. Null values are left to the defaults.
+     */
+    public static class PoolProperties {
+        private Integer maximumPoolSize;
+        private Integer minimumIdle;
+        private Duration connectionTimeout;
+        private Duration idleTimeout;
+        private Duration maxLifetime;
+        private Duration keepaliveTime;
+        private Duration leakDetectionThreshold;
+        
+        /**
+         * Copy of these properties where the unset values are taken from {@code defaults}.
+         */
+        public PoolProperties withDefaults(PoolProperties defaults) {
+            if (defaults == null) {
+                return this;
+            }
+            PoolProperties merged = new PoolProperties();
+            merged.maximumPoolSize = maximumPoolSize != null ? maximumPoolSize : defaults.maximumPoolSize;
+            merged.minimumIdle = minimumIdle != null ? minimumIdle : defaults.minimumIdle;
+            merged.connectionTimeout = connectionTimeout != null ? connectionTimeout : defaults.connectionTimeout;
+            merged.idleTimeout = idleTimeout != null ? idleTimeout : defaults.idleTimeout;
+            merged.maxLifetime = maxLifetime != null ? maxLifetime : defaults.maxLifetime;
+            merged.keepaliveTime = keepaliveTime != null ? keepaliveTime : defaults.keepaliveTime;
+            merged.leakDetectionThreshold = leakDetectionThreshold != null ? leakDetectionThreshold : defaults.leakDetectionThreshold;
+            return merged;
+        }
+        
+        public Integer getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+        
+        public void setMaximumPoolSize(Integer maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+        
+        public Integer getMinimumIdle() {
+            return minimumIdle;
+        }
+        
+        public void setMinimumIdle(Integer minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+        
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+        
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+        
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+        
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+        
+        public Duration getMaxLifetime() {
+            return maxLifetime;
+        }
+        
+        public void setMaxLifetime(Duration maxLifetime) {
+            this.maxLifetime = maxLifetime;
+        }
+        
+        public Duration getKeepaliveTime() {
+            return keepaliveTime;
+        }
+        
+        public void setKeepaliveTime(Duration keepaliveTime) {
+            this.keepaliveTime = keepaliveTime;
+        }
+        
+        public Duration getLeakDetectionThreshold() {
+            return leakDetectionThreshold;
+        }
+        
+        public void setLeakDetectionThreshold(Duration leakDetectionThreshold) {
+            this.leakDetectionThreshold = leakDetectionThreshold;
+        }
     }
     
     /**
@@ -0,0 +1,294 @@
+package it.deloitte.postrxade.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a ZIP archive out of entries that were deflated beforehand, possibly concurrently.
+ * <p>
+ * {@link java.util.zip.ZipOutputStream} compresses every entry itself, on the thread writing the archive.
+ * Here each entry is compressed on its own by an {@link EntryOutputStream} (raw deflate into a file,
+ * with its CRC-32 and sizes), then {@link #addEntry} copies the compressed bytes behind a local header,
+ * in the order the entries are added; {@link #finish} writes the central directory.
+ * ZIP64 records are used only for sizes, offsets or entry counts that do not fit the classic format.
+ * <p>
+ * The underlying stream is not closed: closing is up to its owner.
+ */
+public final class DeflatedZipWriter {
+
+    /**
+     * An entry compressed by {@link EntryOutputStream}, its data being in {@code file}.
+     */
+    public record DeflatedEntry(String name, Path file, long crc, long size, long compressedSize,
+                                LocalDateTime lastModified) {
+    }
+
+    /**
+     * Raw-deflates what is written to it into a file, computing what the ZIP headers need.
+     */
+    public static final class EntryOutputStream extends FilterOutputStream {
+
+        private final String name;
+        private final Path file;
+        private final CRC32 crc = new CRC32();
+        private final Deflater deflater;
+        private final LocalDateTime lastModified = LocalDateTime.now();
+        private long size;
+        private boolean closed;
+
+        public EntryOutputStream(String name, Path file) throws IOException {
+            this(name, file, new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+        }
+
+        private EntryOutputStream(String name, Path file, Deflater deflater) throws IOException {
+            super(new DeflaterOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024), deflater, 64 * 1024));
+            this.name = name;
+            this.file = file;
+            this.deflater = deflater;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            crc.update(b);
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            crc.update(b, off, len);
+            size += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        /**
+         * The finished entry, once the stream is closed.
+         */
+        public DeflatedEntry toEntry() throws IOException {
+            if (!closed) {
+                throw new IllegalStateException("Entry " + name + " is still being written");
+            }
+            return new DeflatedEntry(name, file, crc.getValue(), size, Files.size(file), lastModified);
+        }
+    }
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int VERSION_DEFLATE = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_UTF8_NAME = 0x0800;
+    private static final int METHOD_DEFLATED = 8;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    private record CentralEntry(DeflatedEntry entry, byte[] name, long offset) {
+    }
+
+    private final OutputStream out;
+    private final boolean forceZip64;
+    private final List<CentralEntry> centralEntries = new ArrayList<>();
+    private final byte[] header = new byte[64];
+    private long written;
+
+    public DeflatedZipWriter(OutputStream out) {
+        this(out, false);
+    }
+
+    // forceZip64: ZIP64 records for every size, offset and count, so that tests cover them without 4 GiB archives
+    DeflatedZipWriter(OutputStream out, boolean forceZip64) {
+        this.out = out;
+        this.forceZip64 = forceZip64;
+    }
+
+    /**
+     * Appends the entry to the archive, copying its compressed data.
+     */
+    public void addEntry(DeflatedEntry entry) throws IOException {
+        byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+        long offset = written;
+        boolean zip64 = overflows(entry.size()) || overflows(entry.compressedSize());
+
+        int p = 0;
+        p = putInt(p, LOCAL_HEADER_SIGNATURE);
+        p = putShort(p, zip64 ? VERSION_ZIP64 : VERSION_DEFLATE);
+        p = putShort(p, FLAG_UTF8_NAME);
+        p = putShort(p, METHOD_DEFLATED);
+        p = putInt(p, dosTime(entry.lastModified()));
+        p = putInt(p, (int) entry.crc());
+        p = putInt(p, (int) (zip64 ? ZIP64_MAGIC : entry.compressedSize()));
+        p = putInt(p, (int) (zip64 ? ZIP64_MAGIC : entry.size()));
+        p = putShort(p, name.length);
+        p = putShort(p, zip64 ? 20 : 0);
+        write(header, p);
+        write(name, name.length);
+        if (zip64) {
+            p = 0;
+            p = putShort(p, ZIP64_EXTRA_ID);
+            p = putShort(p, 16);
+            p = putLong(p, entry.size());
+            p = putLong(p, entry.compressedSize());
+            write(header, p);
+        }
+
+        long copied = Files.copy(entry.file(), out);
+        if (copied != entry.compressedSize()) {
+            throw new IOException("Entry " + entry.name() + ": copied " + copied + " bytes, expected " + entry.compressedSize());
+        }
+        written += copied;
+
+        centralEntries.add(new CentralEntry(entry, name, offset));
+    }
+
+    /**
+     * Writes the central directory, closing the archive. Nothing can be added afterwards.
+     */
+    public void finish() throws IOException {
+        long centralOffset = written;
+        for (CentralEntry central : centralEntries) {
+            writeCentralHeader(central);
+        }
+        long centralSize = written - centralOffset;
+        int entries = centralEntries.size();
+
+        boolean zip64 = forceZip64 || entries >= ZIP64_MAGIC_COUNT || overflows(centralSize) || overflows(centralOffset);
+        if (zip64) {
+            long zip64EndOffset = written;
+            int p = 0;
+            p = putInt(p, ZIP64_END_SIGNATURE);
+            p = putLong(p, 44);
+            p = putShort(p, VERSION_ZIP64);
+            p = putShort(p, VERSION_ZIP64);
+            p = putInt(p, 0);
+            p = putInt(p, 0);
+            p = putLong(p, entries);
+            p = putLong(p, entries);
+            p = putLong(p, centralSize);
+            p = putLong(p, centralOffset);
+            write(header, p);
+
+            p = 0;
+            p = putInt(p, ZIP64_LOCATOR_SIGNATURE);
+            p = putInt(p, 0);
+            p = putLong(p, zip64EndOffset);
+            p = putInt(p, 1);
+            write(header, p);
+        }
+
+        int p = 0;
+        p = putInt(p, END_SIGNATURE);
+        p = putShort(p, 0);
+        p = putShort(p, 0);
+        p = putShort(p, zip64 ? ZIP64_MAGIC_COUNT : entries);
+        p = putShort(p, zip64 ? ZIP64_MAGIC_COUNT : entries);
+        p = putInt(p, (int) (zip64 ? ZIP64_MAGIC : centralSize));
+        p = putInt(p, (int) (zip64 ? ZIP64_MAGIC : centralOffset));
+        p = putShort(p, 0);
+        write(header, p);
+        out.flush();
+    }
+
+    private void writeCentralHeader(CentralEntry central) throws IOException {
+        DeflatedEntry entry = central.entry();
+        boolean sizeOverflow = overflows(entry.size());
+        boolean compressedOverflow = overflows(entry.compressedSize());
+        boolean offsetOverflow = overflows(central.offset());
+        // The ZIP64 extra field holds only the values that overflow, in this order
+        int extraLength = (sizeOverflow ? 8 : 0) + (compressedOverflow ? 8 : 0) + (offsetOverflow ? 8 : 0);
+        boolean zip64 = extraLength > 0;
+
+        int p = 0;
+        p = putInt(p, CENTRAL_HEADER_SIGNATURE);
+        p = putShort(p, VERSION_ZIP64);
+        p = putShort(p, zip64 ? VERSION_ZIP64 : VERSION_DEFLATE);
+        p = putShort(p, FLAG_UTF8_NAME);
+        p = putShort(p, METHOD_DEFLATED);
+        p = putInt(p, dosTime(entry.lastModified()));
+        p = putInt(p, (int) entry.crc());
+        p = putInt(p, (int) (compressedOverflow ? ZIP64_MAGIC : entry.compressedSize()));
+        p = putInt(p, (int) (sizeOverflow ? ZIP64_MAGIC : entry.size()));
+        p = putShort(p, central.name().length);
+        p = putShort(p, zip64 ? 4 + extraLength : 0);
+        p = putShort(p, 0);
+        p = putShort(p, 0);
+        p = putShort(p, 0);
+        p = putInt(p, 0);
+        p = putInt(p, (int) (offsetOverflow ? ZIP64_MAGIC : central.offset()));
+        write(header, p);
+        write(central.name(), central.name().length);
+        if (zip64) {
+            p = 0;
+            p = putShort(p, ZIP64_EXTRA_ID);
+            p = putShort(p, extraLength);
+            if (sizeOverflow) p = putLong(p, entry.size());
+            if (compressedOverflow) p = putLong(p, entry.compressedSize());
+            if (offsetOverflow) p = putLong(p, central.offset());
+            write(header, p);
+        }
+    }
+
+    private boolean overflows(long value) {
+        return forceZip64 || value >= ZIP64_MAGIC;
+    }
+
+    // MS-DOS date (high 16 bits) and time (low 16 bits), 2-second precision
+    private static int dosTime(LocalDateTime time) {
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (time.getYear() - 1980) << 25
+                | time.getMonthValue() << 21
+                | time.getDayOfMonth() << 16
+                | time.getHour() << 11
+                | time.getMinute() << 5
+                | time.getSecond() >> 1;
+    }
+
+    private void write(byte[] bytes, int length) throws IOException {
+        out.write(bytes, 0, length);
+        written += length;
+    }
+
+    // Little-endian writers into the header buffer, returning the next position
+    private int putShort(int p, int value) {
+        header[p] = (byte) value;
+        header[p + 1] = (byte) (value >> 8);
+        return p + 2;
+    }
+
+    private int putInt(int p, int value) {
+        putShort(p, value);
+        return putShort(p + 2, value >>> 16);
+    }
+
+    private int putLong(int p, long value) {
+        putInt(p, (int) value);
+        return putInt(p + 4, (int) (value >>> 32));
+    }
+}
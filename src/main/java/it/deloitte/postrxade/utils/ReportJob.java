@@ -1,16 +1,21 @@
 package it.deloitte.postrxade.utils;
 
-import it.deloitte.postrxade.dto.ExcelExportDTO;
 import it.deloitte.postrxade.service.impl.ValidationServiceImpl;
 import lombok.Builder;
 import lombok.Data;
 
+import java.nio.file.Path;
+import java.time.Instant;
+
 /**
  * Model class representing the state of an asynchronous report generation job.
  * <p>
  * This class is stored in the {@link ValidationServiceImpl#jobStorage} map to track
- * the progress of long-running tasks. It holds the status, the final result (once ready),
- * or error details if the job failed.
+ * the progress of long-running tasks. It holds the status, the progress, the generated
+ * file (once ready), or error details if the job failed.
+ * <p>
+ * The report worker updates the progress fields while the status endpoint reads them,
+ * hence the volatile fields.
  */
 @Builder
 @Data
@@ -25,17 +30,42 @@ public class ReportJob {
      * Current status of the job.
      * Common values: "ACCEPTED", "PROCESSING", "COMPLETED", "FAILED", "NOT_FOUND".
      */
-    private String status;
+    private volatile String status;
+
+    /**
+     * Rows expected in the report, known once the job is PROCESSING.
+     */
+    private volatile long totalRows;
+
+    /**
+     * Rows written to the report so far.
+     */
+    private volatile long rowsWritten;
+
+    /**
+     * Completion percentage (0-100), derived from rowsWritten and totalRows.
+     */
+    private volatile int progressPercent;
+
+    /**
+     * The generated report, a temporary .xlsx file.
+     * This field is null until the status is "COMPLETED"; the file is deleted once downloaded.
+     */
+    private volatile Path resultFile;
+
+    /**
+     * File name proposed to the client for the download.
+     */
+    private String fileName;
 
     /**
-     * The generated report data.
-     * This field is null until the status is "COMPLETED".
+     * When the job was started, used to expire reports that are never downloaded.
      */
-    private ExcelExportDTO result;
+    private Instant createdAt;
 
     /**
      * Error message if the job failed.
      * This field is populated only when status is "FAILED".
      */
-    private String errorMessage;
+    private volatile String errorMessage;
 }
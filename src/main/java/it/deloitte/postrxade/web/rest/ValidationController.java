@@ -3,7 +3,6 @@ package it.deloitte.postrxade.web.rest;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import it.deloitte.postrxade.dto.DataQualityIssueDTO;
-import it.deloitte.postrxade.dto.ExcelExportDTO;
 import it.deloitte.postrxade.dto.ValidationPageDTO;
 import it.deloitte.postrxade.enums.AuthIdProfilo;
 import it.deloitte.postrxade.exception.NotFoundRecordException;
@@ -11,13 +10,21 @@ import it.deloitte.postrxade.security.RequireAuthorities;
 import it.deloitte.postrxade.service.UserService;
 import it.deloitte.postrxade.service.ValidationService;
 import it.deloitte.postrxade.utils.AuditLogger;
+import it.deloitte.postrxade.utils.ReportJob;
 import ma.glasnost.orika.MapperFacade;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 
@@ -132,7 +139,8 @@ public class ValidationController {
      * Endpoint: GET /api/validations/download/status/{jobId}
      *
      * @param jobId The UUID string of the job returned by the start endpoint.
-     * @return A Map containing the current "status" of the job (e.g., ACCEPTED, PROCESSING, COMPLETED).
+     * @return A Map containing the current "status" of the job (e.g., ACCEPTED, PROCESSING, COMPLETED),
+     * its "progress" percentage and the "rowsWritten" so far.
      * Returns 404 NOT_FOUND if the jobId does not exist.
      */
     @GetMapping("/download/status/{jobId}")
@@ -143,13 +151,20 @@ public class ValidationController {
     })
     public ResponseEntity<Map<String, String>> getJobStatus(@PathVariable String jobId) {
 
-        String status = validationService.getJobStatus(jobId);
+        ReportJob job = validationService.getJob(jobId);
 
-        if ("NOT_FOUND".equals(status)) {
+        if (job == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("status", "NOT_FOUND"));
         }
 
-        return ResponseEntity.ok(Map.of("status", status));
+        Map<String, String> body = new HashMap<>();
+        body.put("status", job.getStatus());
+        body.put("progress", String.valueOf(job.getProgressPercent()));
+        body.put("rowsWritten", String.valueOf(job.getRowsWritten()));
+        if (job.getErrorMessage() != null) {
+            body.put("errorMessage", job.getErrorMessage());
+        }
+        return ResponseEntity.ok(body);
     }
 
     /**
@@ -159,6 +174,8 @@ public class ValidationController {
      * 1. Checking if the job is COMPLETED.
      * 2. Removing the job from memory.
      * 3. Logging the audit event.
+     * <p>
+     * The report is streamed from its temporary .xlsx file, which is deleted once sent.
      */
     @GetMapping("/download/result/{jobId}")
     @RequireAuthorities({
@@ -166,10 +183,28 @@ public class ValidationController {
             AuthIdProfilo.REVIEWER,
             AuthIdProfilo.APPROVER
     })
-    public ResponseEntity<ExcelExportDTO> getJobResult(@PathVariable String jobId) {
+    public ResponseEntity<StreamingResponseBody> getJobResult(@PathVariable String jobId) {
         try {
-            ExcelExportDTO result = validationService.getJobResult(jobId);
-            return ResponseEntity.ok(result);
+            ReportJob job = validationService.getJobResult(jobId);
+            Path file = job.getResultFile();
+
+            StreamingResponseBody body = out -> {
+                try {
+                    Files.copy(file, out);
+                } finally {
+                    Files.deleteIfExists(file);
+                }
+            };
+
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(job.getFileName()).build().toString())
+                    .contentType(MediaType.parseMediaType(
+                            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                    .contentLength(Files.size(file))
+                    .body(body);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
         } catch (IllegalStateException e) {
             // Service throws IllegalStateException if job is not found or not completed
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -0,0 +1,161 @@
+package it.deloitte.postrxade.formatter;
+
+import it.deloitte.postrxade.records.CollegamentiOutputRow;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link OutputRecordWriter} must write exactly the UTF-8 bytes of the {@link OutputFileFormatter} records,
+ * or fail the same way, on the benchmark sample rows and on random rows.
+ */
+class OutputRecordWriterTest {
+
+    private static final int RANDOM_ROWS = 50_000;
+
+    // Sample rows of OutputRecordWriterBenchmark
+    private static final List<CollegamentiOutputRow> SAMPLE_ROWS = List.of(
+            new CollegamentiOutputRow(1L, "RAP0000000000000000001", "T", true, "001", null, "01012020", "01234",
+                    true, "RSSMRA80A01F205X", "F", "ROSSI", "MARIO", "M", "01011980", "MILANO", "MI"),
+            new CollegamentiOutputRow(2L, "RAP0000000000000000002", "E", true, "099", "CONTO DI PAGAMENTO", " ", "ITA",
+                    true, "04107060966", "G", "NEXI PAYMENTS", "SPA", null, null, "MILANO", "MI"),
+            new CollegamentiOutputRow(3L, "RAP0000000000000000003", "d", true, "002", null, "15062021", "",
+                    true, "", "F", "MÜLLER", "JOSÉ", "M", "", "SÃO PAULO", "EE"),
+            new CollegamentiOutputRow(4L, "RAP0000000000000000004", null, false, "003", null, null, null,
+                    false, null, null, null, null, null, null, null, null));
+
+    // Whitespace, non-ASCII, surrogate pairs (possibly cut by the field length) and unpaired surrogates
+    private static final String[] TEXT_PARTS = {
+            "", " ", "  ", "\t", "A", "ROSSI", "D'ANGELO", "É", "Ü", "ß", "€", "中文", "😀", "\uD83D", "\uDE00", "0", "99"
+    };
+    private static final String[] TIPI_RAPPORTO = {"001", "002", "099", "99", "999", " 99", "99 ", "9", "X99", "0€"};
+    private static final String[] CABS = {null, "", " ", "01234", " 01234 ", "123456", "ITA", "ita", " FRA ", "XYZ", "12A", "É"};
+    private static final String[] RUOLI = {null, "", "T", "I", "d", " O ", "E", "g", "A", "Z", "TT"};
+    private static final String[] TIPI_SOGGETTO = {null, "", "F", "f", " F ", "G", "FF"};
+
+    private final OutputRecordWriter recordWriter = new OutputRecordWriter();
+
+    @Test
+    void sampleRowsMatchStringFormatter() {
+        for (int i = 0; i < SAMPLE_ROWS.size(); i++) {
+            assertSameRecords(SAMPLE_ROWS.get(i), i);
+        }
+    }
+
+    @Test
+    void randomRowsMatchStringFormatter() {
+        Random random = new Random(21);
+        // One writer for all rows, as for an output file: the reused buffer must not leak between records
+        for (int i = 0; i < RANDOM_ROWS; i++) {
+            assertSameRecords(randomRow(random, i), randomCount(random, i));
+        }
+    }
+
+    @Test
+    void failsLikeStringFormatterOnMissingTipoRapporto() {
+        CollegamentiOutputRow empty = withTipoRapporto(SAMPLE_ROWS.get(0), "");
+        CollegamentiOutputRow missing = withTipoRapporto(SAMPLE_ROWS.get(0), null);
+
+        assertThat(rapporti(empty)).isEqualTo(StringIndexOutOfBoundsException.class);
+        assertThat(rapporti(missing)).isEqualTo(NullPointerException.class);
+        assertSameRecords(empty, 0);
+        assertSameRecords(missing, 0);
+    }
+
+    private void assertSameRecords(CollegamentiOutputRow row, int count) {
+        assertThat(rapporti(row)).as("Type 1 record of %s", row)
+                .isEqualTo(outcome(() -> OutputFileFormatter.toRapportiOutputString(row)));
+        assertThat(anagrafica(row, count)).as("Type 2 record %d of %s", count, row)
+                .isEqualTo(outcome(() -> OutputFileFormatter.toAnagraficaOutputString(row, count)));
+    }
+
+    private Object rapporti(CollegamentiOutputRow row) {
+        return written(out -> recordWriter.writeRapporti(row, out));
+    }
+
+    private Object anagrafica(CollegamentiOutputRow row, int count) {
+        return written(out -> recordWriter.writeAnagrafica(row, count, out));
+    }
+
+    // Hex of the bytes written, or the type of the exception thrown
+    private static Object written(RecordWrite write) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write.to(out);
+            return HexFormat.of().formatHex(out.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    private static Object outcome(Supplier<String> format) {
+        try {
+            return HexFormat.of().formatHex(format.get().getBytes(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    private static CollegamentiOutputRow randomRow(Random random, long pk) {
+        return new CollegamentiOutputRow(pk, text(random, 60), pick(random, RUOLI), random.nextInt(5) > 0,
+                pick(random, TIPI_RAPPORTO), text(random, 30), date(random), pick(random, CABS),
+                random.nextInt(5) > 0, text(random, 20), pick(random, TIPI_SOGGETTO), text(random, 40),
+                text(random, 40), text(random, 2), date(random), text(random, 50), text(random, 3));
+    }
+
+    // Mostly progressive counts, sometimes at the 9-digit limit or beyond
+    private static int randomCount(Random random, int row) {
+        return switch (random.nextInt(20)) {
+            case 0 -> 999_999_998 + random.nextInt(3);
+            case 1 -> random.nextInt();
+            default -> row;
+        };
+    }
+
+    // Null, or random parts up to about maxLength characters, so that fields get cut and padded
+    private static String text(Random random, int maxLength) {
+        if (random.nextInt(10) == 0) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        while (text.length() < length) {
+            text.append(random.nextInt(3) == 0 ? pick(random, TEXT_PARTS) : (char) ('A' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+
+    private static String date(Random random) {
+        return switch (random.nextInt(5)) {
+            case 0 -> null;
+            case 1 -> " ";
+            case 2 -> " 01012020 ";
+            default -> String.format("%02d%02d%04d", 1 + random.nextInt(28), 1 + random.nextInt(12), 1950 + random.nextInt(80));
+        };
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static CollegamentiOutputRow withTipoRapporto(CollegamentiOutputRow row, String tipoRapportoInterno) {
+        return new CollegamentiOutputRow(row.pkCollegamenti(), row.chiaveRapporto(), row.ruolo(), row.hasRapporto(),
+                tipoRapportoInterno, row.note(), row.dataInizioRapporto(), row.cab(), row.hasSoggetto(),
+                row.codiceFiscale(), row.tipoSoggetto(), row.cognome(), row.nome(), row.sesso(), row.dataNascita(),
+                row.comune(), row.provincia());
+    }
+
+    private interface RecordWrite {
+        void to(ByteArrayOutputStream out) throws IOException;
+    }
+}
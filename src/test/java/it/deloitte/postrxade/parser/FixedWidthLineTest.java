@@ -0,0 +1,115 @@
+package it.deloitte.postrxade.parser;
+
+import it.deloitte.postrxade.parser.merchants.MerchantFileLineParser;
+import it.deloitte.postrxade.parser.merchants.slices.SoggettiSliceLayout;
+import it.deloitte.postrxade.parser.merchants.types.SoggettiRecord;
+import it.deloitte.postrxade.records.RawRecordSlice;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FixedWidthLineTest {
+
+    private static final RawRecordSlice SLICE = new RawRecordSlice(3, 10);
+
+    @Test
+    void fieldIsTrimmedSliceOfTheLine() {
+        assertThat(FixedWidthLine.field("ABC  X Y  DEF", SLICE)).isEqualTo("X Y");
+        assertThat(FixedWidthLine.field("ABCXXXXXXXDEF", SLICE)).isEqualTo("XXXXXXX");
+        assertThat(FixedWidthLine.field("ABC\tX\u0000   \tDEF", SLICE)).isEqualTo("X");
+    }
+
+    @Test
+    void blankFieldIsEmpty() {
+        assertThat(FixedWidthLine.field("ABC       DEF", SLICE)).isEmpty();
+        assertThat(FixedWidthLine.view("ABC       DEF", SLICE)).isEmpty();
+    }
+
+    @Test
+    void fieldIsClippedToShortLines() {
+        assertThat(FixedWidthLine.field("ABC  XY", SLICE)).isEqualTo("XY");
+        assertThat(FixedWidthLine.field("ABC", SLICE)).isEmpty();
+        assertThat(FixedWidthLine.field("AB", SLICE)).isEmpty();
+        assertThat(FixedWidthLine.field(null, SLICE)).isEmpty();
+        assertThat(FixedWidthLine.view("AB", SLICE)).isEmpty();
+        assertThat(FixedWidthLine.view(null, SLICE)).isEmpty();
+    }
+
+    @Test
+    void viewIsWindowOverTheLine() {
+        CharSequence view = FixedWidthLine.view("ABC 20240131DEF", new RawRecordSlice(3, 12));
+
+        assertThat(view).hasToString("20240131");
+        assertThat(view.length()).isEqualTo(8);
+        assertThat(view.charAt(0)).isEqualTo('2');
+        assertThat(view.charAt(7)).isEqualTo('1');
+        assertThat(view.subSequence(4, 6)).hasToString("01");
+        assertThat(view.subSequence(4, 6).subSequence(1, 2)).hasToString("1");
+        assertThatThrownBy(() -> view.charAt(8)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> view.charAt(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> view.subSequence(5, 9)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> view.subSequence(5, 4)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void matchesSubstringTrimOnRandomLines() {
+        Random random = new Random(7);
+        char[] alphabet = {' ', ' ', ' ', '\t', 'A', 'z', '0', '9', 'É', '\'', '-'};
+        for (int i = 0; i < 10_000; i++) {
+            char[] chars = new char[random.nextInt(30)];
+            for (int c = 0; c < chars.length; c++) {
+                chars[c] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String line = new String(chars);
+            int start = random.nextInt(25);
+            RawRecordSlice slice = new RawRecordSlice(start, start + random.nextInt(10));
+
+            String expected = substringTrim(line, slice);
+            assertThat(FixedWidthLine.field(line, slice)).as("field %s of [%s]", slice, line).isEqualTo(expected);
+            assertThat(FixedWidthLine.view(line, slice).toString()).as("view %s of [%s]", slice, line).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void soggettiLineParsesAsBefore() {
+        String line = soggettiLine();
+        SoggettiRecord soggetti = new MerchantFileLineParser().parseSoggettiLine(line);
+
+        assertThat(soggetti.getIntermediario()).isEqualTo(substringTrim(line, SoggettiSliceLayout.INTERMEDIARIO)).isEqualTo("08000000001");
+        assertThat(soggetti.getNdg()).isEqualTo(substringTrim(line, SoggettiSliceLayout.NDG)).isEqualTo("NDG0001");
+        assertThat(soggetti.getDataEstinzioneAnagrafico()).isEmpty();
+        assertThat(soggetti.getCognome()).isEqualTo(substringTrim(line, SoggettiSliceLayout.COGNOME)).isEqualTo("D'ANGELO");
+        assertThat(soggetti.getNome()).isEqualTo(substringTrim(line, SoggettiSliceLayout.NOME)).isEqualTo("JOSÉ MARIA");
+        assertThat(soggetti.getNazione()).isEqualTo("ITALIA");
+        assertThat(soggetti.getControlloDiFineRiga()).isEqualTo("A");
+    }
+
+    // Path of the parsers before FixedWidthLine
+    private static String substringTrim(String line, RawRecordSlice slice) {
+        if (line == null || line.length() <= slice.start()) {
+            return "";
+        }
+        return line.substring(slice.start(), Math.min(line.length(), slice.end())).trim();
+    }
+
+    private static String soggettiLine() {
+        char[] line = new char[SoggettiSliceLayout.CONTROLLO_DI_FINE_RIGA.end()];
+        Arrays.fill(line, ' ');
+        put(line, SoggettiSliceLayout.INTERMEDIARIO, "08000000001");
+        put(line, SoggettiSliceLayout.NDG, "NDG0001");
+        put(line, SoggettiSliceLayout.DATA_CENSIMENTO_ANAGRAFICO, "20200101");
+        put(line, SoggettiSliceLayout.COGNOME, "D'ANGELO");
+        put(line, SoggettiSliceLayout.NOME, "JOSÉ MARIA");
+        put(line, SoggettiSliceLayout.NAZIONE, "ITALIA");
+        put(line, SoggettiSliceLayout.CONTROLLO_DI_FINE_RIGA, "A");
+        return new String(line);
+    }
+
+    private static void put(char[] line, RawRecordSlice slice, String value) {
+        value.getChars(0, value.length(), line, slice.start());
+    }
+}
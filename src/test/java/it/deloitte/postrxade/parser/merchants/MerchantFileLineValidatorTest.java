@@ -0,0 +1,193 @@
+package it.deloitte.postrxade.parser.merchants;
+
+import it.deloitte.postrxade.parser.merchants.types.CambioNdgRecord;
+import it.deloitte.postrxade.parser.merchants.types.CollegamentiRecord;
+import it.deloitte.postrxade.parser.merchants.types.DatiContabiliRecord;
+import it.deloitte.postrxade.parser.merchants.types.RapportiRecord;
+import it.deloitte.postrxade.parser.merchants.types.SoggettiRecord;
+import it.deloitte.postrxade.records.ErrorRecordCause;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static java.util.Map.entry;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * The rule-table validator must return the same causes, in the same order, and leave the records with the
+ * same (rewritten) dates as {@link LegacyMerchantFileLineValidator}, on valid records and on records with
+ * random fields replaced by edge-case values.
+ */
+class MerchantFileLineValidatorTest {
+
+    private static final int RECORDS_PER_TYPE = 20_000;
+
+    // A valid value for every field of the record types
+    private static final Map<String, String> VALID_VALUES = Map.ofEntries(
+            entry("intermediario", "08000000001"),
+            entry("chiaveRapporto", "RAP_0001"),
+            entry("ndg", "0000000000123456"),
+            entry("ndgVecchio", "NDG0001"),
+            entry("ndgNuovo", "NDG0002"),
+            entry("tipoRapportoInterno", "001"),
+            entry("formaTecnica", "01234"),
+            entry("filiale", "01234"),
+            entry("cab", "ITA"),
+            entry("numeroConto", "IT00012345"),
+            entry("cin", "AB"),
+            entry("divisa", "EUR"),
+            entry("dataInizioRapporto", "20200101"),
+            entry("dataFineRapporto", ""),
+            entry("note", ""),
+            entry("flagStatoRapporto", " "),
+            entry("dataPredisposizione", "20241231"),
+            entry("controlloDiFineRiga", "A"),
+            entry("dataCensimentoAnagrafico", "20200101"),
+            entry("dataEstinzioneAnagrafico", ""),
+            entry("filialeCensimentoAnagrafico", "01234"),
+            entry("tipoSoggetto", "F"),
+            entry("naturaGiuridica", "00001"),
+            entry("sesso", "M"),
+            entry("codiceFiscale", "RSSMRA80A01F205X"),
+            entry("cognome", "ROSSI"),
+            entry("nome", "MARIO"),
+            entry("dataNascita", "19800229"),
+            entry("comune", "MILANO"),
+            entry("provincia", "MI"),
+            entry("nazione", "ITALIA"),
+            entry("dataPredisposizioneFlusso", "20241231"),
+            entry("ruolo", "T"),
+            entry("dataInizioCollegamento", "20200101"),
+            entry("dataFineCollegamento", ""),
+            entry("ruoloInterno", "01"),
+            entry("flagStatoCollegamento", "C"),
+            entry("annoDiRiferimento", "2024"),
+            entry("periodicita", "000"),
+            entry("progressivoPeriodicita", "001"),
+            entry("dataInizioRiferimento", "20240101"),
+            entry("dataFineRiferimento", "20241231"),
+            entry("importoSaldoIniziale", "000000000000012345"),
+            entry("importoSaldoFinale", "000000000000054321"),
+            entry("totaleOperazioniAttive", "12345"),
+            entry("totaleOperazioniPassive", "0"),
+            entry("giacenzaMedia", "000000000000000100"),
+            entry("flagSogliaSaldoIniziale", "0"),
+            entry("flagSogliaSaldoFinale", "1"),
+            entry("flagSogliaOperazioniAttive", "0"),
+            entry("flagSogliaOperazioniPassive", "0"),
+            entry("flagSogliaGiacenzaMedia", "1"),
+            entry("altreInformazioni", ""),
+            entry("flagStatoImporto", "C"),
+            entry("flagSogliaAltreInformazioni", "0"));
+
+    // Values that break one check or another: lengths, character classes, calendar, code lists
+    private static final String[] EDGE_VALUES = {
+            "", " ", "  ", "0", "1", "2", "A", "C", "E", "T", "Z", "F", "G", "M", "a", "EUR", "eur", "000", "001", "002",
+            "012", "099", "380", "999", "ITA", "XYZ", "ΑΙΑ", "I1", "mi", "MI", "M1", "MI1", "01234", "0123A", "00001",
+            "20240229", "20230229", "20231301", "20240100", "2024010", "202401011", "abcdefgh", "2024-01-", " 2024010",
+            "08000000001", "0800000000A", "0800000000", "RAP_0001", "RAP_0001 ", "RAP 0001", "_RAP", "rap", "RAP-1",
+            "ÀB", "NDG_1", "NDG-1", "١٢٣", "１２３", "12345678901234567", "000000000000012345", "-00000000000012345",
+            "0".repeat(19), "A".repeat(24), "A".repeat(25), "B".repeat(40), "B".repeat(41), "C".repeat(50),
+            "C".repeat(51), "D".repeat(75), "D".repeat(76), "E".repeat(27), "E".repeat(28)
+    };
+
+    private final MerchantFileLineValidator validator = new MerchantFileLineValidator();
+    private final LegacyMerchantFileLineValidator legacyValidator = new LegacyMerchantFileLineValidator();
+
+    @Test
+    void rapportiMatchLegacyValidator() {
+        assertSameValidation(RapportiRecord.class, validator::validateRapporto, legacyValidator::validateRapporto);
+    }
+
+    @Test
+    void soggettiMatchLegacyValidator() {
+        assertSameValidation(SoggettiRecord.class, validator::validateSoggetti, legacyValidator::validateSoggetti);
+    }
+
+    @Test
+    void datiContabiliMatchLegacyValidator() {
+        assertSameValidation(DatiContabiliRecord.class, validator::validateDatiContabili, legacyValidator::validateDatiContabili);
+    }
+
+    @Test
+    void collegamentiMatchLegacyValidator() {
+        assertSameValidation(CollegamentiRecord.class, validator::validateCollegamenti, legacyValidator::validateCollegamenti);
+    }
+
+    @Test
+    void cambioNdgMatchLegacyValidator() {
+        assertSameValidation(CambioNdgRecord.class, validator::validateCambioNdg, legacyValidator::validateCambioNdg);
+    }
+
+    @Test
+    void validRecordHasNoCausesAndRewrittenDates() {
+        SoggettiRecord soggetti = newRecord(SoggettiRecord.class, new Random(1), 0);
+
+        assertThat(validator.validateSoggetti(soggetti)).isEmpty();
+        assertThat(soggetti.getDataNascita()).isEqualTo("29021980");
+        assertThat(soggetti.getDataCensimentoAnagrafico()).isEqualTo("20200101");
+    }
+
+    private static <T> void assertSameValidation(Class<T> type, Function<T, List<ErrorRecordCause>> validate,
+                                                 Function<T, List<ErrorRecordCause>> legacyValidate) {
+        for (int i = 0; i < RECORDS_PER_TYPE; i++) {
+            // Record 0 is the valid one, then more and more fields replaced
+            double replacedShare = i == 0 ? 0 : (i % 10) / 10.0;
+            long seed = i;
+            T record = newRecord(type, new Random(seed), replacedShare);
+            T legacyRecord = newRecord(type, new Random(seed), replacedShare);
+            String description = type.getSimpleName() + " " + fieldValues(legacyRecord);
+
+            Object causes = outcome(validate, record);
+            Object legacyCauses = outcome(legacyValidate, legacyRecord);
+
+            assertThat(causes).as(description).isEqualTo(legacyCauses);
+            assertThat(fieldValues(record)).as("fields after validation of %s", description).isEqualTo(fieldValues(legacyRecord));
+        }
+    }
+
+    // The causes, or the type of the exception thrown (e.g. non-numeric Tipo Rapporto Interno in the CAB check)
+    private static <T> Object outcome(Function<T, List<ErrorRecordCause>> validate, T record) {
+        try {
+            return validate.apply(record);
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    private static <T> T newRecord(Class<T> type, Random random, double replacedShare) {
+        try {
+            T record = type.getDeclaredConstructor().newInstance();
+            for (Field field : type.getDeclaredFields()) {
+                String valid = VALID_VALUES.get(field.getName());
+                if (valid == null) {
+                    fail("No valid value for " + type.getSimpleName() + "." + field.getName());
+                }
+                field.setAccessible(true);
+                field.set(record, random.nextDouble() < replacedShare ? EDGE_VALUES[random.nextInt(EDGE_VALUES.length)] : valid);
+            }
+            return record;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<String> fieldValues(Object record) {
+        List<String> values = new ArrayList<>();
+        for (Field field : record.getClass().getDeclaredFields()) {
+            try {
+                field.setAccessible(true);
+                values.add(field.getName() + "=[" + field.get(record) + "]");
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return values;
+    }
+}
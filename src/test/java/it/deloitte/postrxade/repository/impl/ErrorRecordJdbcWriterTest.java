@@ -0,0 +1,77 @@
+package it.deloitte.postrxade.repository.impl;
+
+import it.deloitte.postrxade.entity.ErrorCause;
+import it.deloitte.postrxade.entity.ErrorRecord;
+import it.deloitte.postrxade.entity.ErrorType;
+import it.deloitte.postrxade.entity.Ingestion;
+import it.deloitte.postrxade.entity.Submission;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link ErrorRecordJdbcWriter} attaches every cause to its own record through the generated keys, even
+ * when several failing lines are identical.
+ */
+class ErrorRecordJdbcWriterTest extends StagingDatabaseTest {
+
+    private static final long INGESTION_ID = 3L;
+    private static final long SUBMISSION_ID = 5L;
+    private static final long ERROR_TYPE_ID = 7L;
+
+    private final ErrorRecordJdbcWriter writer = new ErrorRecordJdbcWriter(dataSource);
+
+    @BeforeEach
+    void createErrorTables() {
+        createTables("ERROR_RECORD", "ERROR_CAUSE");
+    }
+
+    @Test
+    void causesFollowTheirRecordWithIdenticalRawRows() {
+        // Identical lines: only the generated keys tell the records apart
+        List<ErrorRecord> records = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            records.add(errorRecord("1SOG08000000001 DUPLICATE LINE", "cause " + i));
+        }
+
+        int causes = transactionTemplate.execute(status -> writer.insertCauses(records, writer.insertRecords(records)));
+
+        assertThat(causes).isEqualTo(records.size());
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+                SELECT er.pk_error_record, er.fk_ingestion, ec.error_message, ec.fk_error_type
+                FROM ERROR_RECORD er JOIN ERROR_CAUSE ec ON ec.fk_error_record = er.pk_error_record
+                ORDER BY er.pk_error_record
+                """);
+        assertThat(rows).hasSize(records.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertThat(rows.get(i).get("error_message")).as("cause of record %d", i).isEqualTo("cause " + i);
+        }
+        assertThat(rows).extracting(row -> ((Number) row.get("fk_ingestion")).longValue()).containsOnly(INGESTION_ID);
+        assertThat(rows).extracting(row -> ((Number) row.get("fk_error_type")).longValue()).containsOnly(ERROR_TYPE_ID);
+    }
+
+    private static ErrorRecord errorRecord(String rawRow, String message) {
+        Ingestion ingestion = new Ingestion();
+        ingestion.setId(INGESTION_ID);
+        Submission submission = new Submission();
+        submission.setId(SUBMISSION_ID);
+        ErrorType errorType = new ErrorType();
+        errorType.setId(ERROR_TYPE_ID);
+
+        ErrorRecord record = new ErrorRecord();
+        record.setIngestion(ingestion);
+        record.setSubmission(submission);
+        record.setRawRow(rawRow);
+        ErrorCause cause = new ErrorCause();
+        cause.setErrorType(errorType);
+        cause.setSubmission(submission);
+        cause.setErrorMessage(message);
+        record.setErrorCauses(List.of(cause));
+        return record;
+    }
+}
@@ -0,0 +1,149 @@
+package it.deloitte.postrxade.repository.impl;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Base of the tests running the staging SQL on a MySQL 8 container, through the MariaDB driver with the
+ * tenant pool settings of TenantAwareDataSource. Tables are created from Script_DB_Initialization_NEW, so
+ * the tests run against the schema that is deployed.
+ * <p>
+ * The JPA transaction manager exposes its connection to {@link org.springframework.jdbc.datasource.DataSourceUtils},
+ * so the EntityManager-based and the JDBC writers share the transactions of {@link #transactionTemplate}, as in
+ * the application. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+abstract class StagingDatabaseTest {
+
+    private static final Pattern REFERENCES = Pattern.compile("FOREIGN KEY .* REFERENCES `?(\\w+)`?");
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0").withCommand("--local-infile=1");
+
+    static HikariDataSource dataSource;
+    static EntityManagerFactory entityManagerFactory;
+    // Transaction-bound EntityManager, as injected by @PersistenceContext
+    static EntityManager entityManager;
+    static JpaTransactionManager transactionManager;
+    static JdbcTemplate jdbcTemplate;
+    static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void openDatabase() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:mariadb://" + MYSQL.getHost() + ":" + MYSQL.getFirstMappedPort() + "/" + MYSQL.getDatabaseName());
+        config.setUsername(MYSQL.getUsername());
+        config.setPassword(MYSQL.getPassword());
+        config.setAutoCommit(false);
+        config.setMaximumPoolSize(4);
+        // As TenantAwareDataSource
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("useBulkStmts", "true");
+        config.addDataSourceProperty("allowLocalInfile", "true");
+        config.addDataSourceProperty("allowPublicKeyRetrieval", "true");
+        dataSource = new HikariDataSource(config);
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("it.deloitte.postrxade.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+                "hibernate.implicit_naming_strategy", "org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy"));
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+
+        transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionManager.setDataSource(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        if (entityManagerFactory != null) {
+            entityManagerFactory.close();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * (Re)creates the tables, empty, with their Script_DB_Initialization_NEW definition. Foreign keys to
+     * tables that are not in the list are left out, so a test only needs the tables it exercises.
+     */
+    static void createTables(String... tables) {
+        Set<String> created = Set.of(tables);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SET foreign_key_checks = 0");
+            for (String table : tables) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+                jdbcTemplate.execute(withoutForeignKeysOutside(createTableStatement(table), created));
+            }
+            jdbcTemplate.execute("SET foreign_key_checks = 1");
+        });
+    }
+
+    // The script declares one foreign key per line
+    private static String withoutForeignKeysOutside(String createTable, Set<String> tables) {
+        List<String> lines = new ArrayList<>();
+        for (String line : createTable.split("\n")) {
+            Matcher reference = REFERENCES.matcher(line);
+            if (!reference.find() || tables.contains(reference.group(1))) {
+                lines.add(line);
+            }
+        }
+        // The last definition before the closing parenthesis must not keep its comma
+        int closing = 0;
+        while (!lines.get(closing).startsWith(")")) {
+            closing++;
+        }
+        lines.set(closing - 1, lines.get(closing - 1).replaceFirst(",\\s*$", ""));
+        return String.join("\n", lines);
+    }
+
+    // CREATE TABLE statement of the table, from the DB initialization script
+    static String createTableStatement(String table) {
+        String script;
+        try {
+            script = Files.readString(Path.of("Script_DB_Initialization_NEW"), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int start = script.indexOf("CREATE TABLE " + table + " (");
+        if (start < 0) {
+            start = script.indexOf("CREATE TABLE `" + table + "` (");
+        }
+        assertThat(start).as("CREATE TABLE %s in Script_DB_Initialization_NEW", table).isNotNegative();
+        return script.substring(start, script.indexOf(';', start));
+    }
+}
@@ -0,0 +1,130 @@
+package it.deloitte.postrxade.repository.impl;
+
+import it.deloitte.postrxade.entity.Soggetti;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Staging load throughput on the MySQL 8 container of {@link StagingDatabaseTest}: STG_SOGGETTI loaded with
+ * the legacy multi-row INSERT strings (NATIVE_SQL), with {@link StagingJdbcBatchWriter} (JDBC_BATCH) and with
+ * {@link StagingLoadDataWriter} (LOAD_DATA_LOCAL_INFILE). Rows/sec are logged per mode, and every mode must land the same rows.
+ * <p>
+ * Opt-in, as it takes minutes at full size and needs Docker:
+ * {@code mvn test -Dtest=StagingLoadBenchmarkTest -Dstaging.benchmark.rows=5000000}
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "staging.benchmark.rows", matches = "\\d+")
+class StagingLoadBenchmarkTest extends StagingDatabaseTest {
+
+    // Rows handed to each bulkLoad call, as the streaming ingestion does per chunk
+    private static final int CHUNK_ROWS = 50_000;
+    // Rows per legacy INSERT statement (StagingRepositoryImpl.STAGING_BATCH_SIZE)
+    private static final int NATIVE_SQL_BATCH_ROWS = 5_000;
+    private static final long INGESTION_ID = 1L;
+    // Partition p0 of the STG_* tables
+    private static final long SUBMISSION_ID = 0L;
+
+    @BeforeAll
+    static void setUp() {
+        createTables("STG_SOGGETTI");
+    }
+
+    @Test
+    void compareStagingLoadModes() {
+        int rows = Integer.getInteger("staging.benchmark.rows");
+        Map<String, Long> rowsPerSecond = new LinkedHashMap<>();
+        Map<String, String> checksums = new LinkedHashMap<>();
+
+        StagingJdbcBatchWriter jdbcBatchWriter = new StagingJdbcBatchWriter(dataSource);
+        runMode("NATIVE_SQL", rows, chunk -> {
+            for (int i = 0; i < chunk.size(); i += NATIVE_SQL_BATCH_ROWS) {
+                List<Soggetti> batch = chunk.subList(i, Math.min(i + NATIVE_SQL_BATCH_ROWS, chunk.size()));
+                jdbcTemplate.execute(StagingRepositoryImpl.soggettiInsertSql(batch, INGESTION_ID, SUBMISSION_ID));
+            }
+        }, rowsPerSecond, checksums);
+        runMode("JDBC_BATCH", rows,
+                chunk -> jdbcBatchWriter.insert(StagingTables.SOGGETTI, chunk, INGESTION_ID, SUBMISSION_ID),
+                rowsPerSecond, checksums);
+        StagingLoadDataWriter loadDataWriter = new StagingLoadDataWriter(dataSource);
+        runMode("LOAD_DATA_LOCAL_INFILE", rows,
+                chunk -> loadDataWriter.load(StagingTables.SOGGETTI, chunk, INGESTION_ID, SUBMISSION_ID),
+                rowsPerSecond, checksums);
+
+        rowsPerSecond.forEach((mode, rate) -> log.info("STG_SOGGETTI {} rows, {}: {} rows/sec", rows, mode, rate));
+        assertThat(checksums.values()).as("rows landed by each mode").containsOnly(checksums.get("NATIVE_SQL"));
+    }
+
+    private static void runMode(String mode, int rows, Consumer<List<Soggetti>> load,
+                                Map<String, Long> rowsPerSecond, Map<String, String> checksums) {
+        jdbcTemplate.execute("TRUNCATE TABLE STG_SOGGETTI");
+        // Same seed for every mode: identical rows
+        Random random = new Random(42);
+        long loadNanos = 0;
+        for (int loaded = 0; loaded < rows; loaded += CHUNK_ROWS) {
+            List<Soggetti> chunk = randomSoggetti(random, loaded, Math.min(CHUNK_ROWS, rows - loaded));
+            long start = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> load.accept(chunk));
+            loadNanos += System.nanoTime() - start;
+        }
+        rowsPerSecond.put(mode, rows * 1_000_000_000L / Math.max(loadNanos, 1L));
+
+        Map<String, Object> summary = jdbcTemplate.queryForMap("""
+                SELECT COUNT(*) AS row_count,
+                       BIT_XOR(CRC32(CONCAT_WS('|', intermediario, ndg, data_censimento_anagrafico,
+                           data_estinzione_anagrafica, filiale_censimento_anagrafico, tipo_soggetto, natura_giuridica,
+                           sesso, codice_fiscale, cognome, nome, data_nascita, comune, provincia, nazione,
+                           data_predisposizione_flusso, controllo_di_fine_riga, fk_ingestion, raw_row))) AS checksum
+                FROM STG_SOGGETTI
+                """);
+        assertThat(((Number) summary.get("row_count")).intValue()).as("%s row count", mode).isEqualTo(rows);
+        checksums.put(mode, String.valueOf(summary.get("checksum")));
+    }
+
+    private static List<Soggetti> randomSoggetti(Random random, int firstRow, int count) {
+        List<Soggetti> soggetti = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int row = firstRow + i;
+            Soggetti s = new Soggetti();
+            s.setIntermediario("08000000001");
+            s.setNdg(String.format("%016d", row));
+            s.setDataCensimentoAnagrafico("01012020");
+            s.setDataEstinzioneAnagrafica("");
+            s.setFilialeCensimentoAnagrafico(String.format("%05d", random.nextInt(100_000)));
+            s.setTipoSoggetto(random.nextBoolean() ? "F" : "G");
+            s.setNaturaGiuridica("PF");
+            s.setSesso(random.nextBoolean() ? "M" : "F");
+            s.setCodiceFiscale(randomText(random, 16));
+            // Quotes, backslashes and non-ASCII letters exercise the escaping of every mode
+            s.setCognome(randomText(random, 5 + random.nextInt(30)) + (row % 7 == 0 ? " D'ANGELO\\" : ""));
+            s.setNome(randomText(random, 3 + random.nextInt(20)) + (row % 11 == 0 ? " JOSÉ" : ""));
+            s.setDataNascita("15061980");
+            s.setComune(randomText(random, 4 + random.nextInt(20)));
+            s.setProvincia("MI");
+            s.setNazione("ITALIA");
+            s.setDataPredisposizioneFlusso("31122024");
+            s.setControlloDiFineRiga("A");
+            s.setRawRow(String.join("", s.getIntermediario(), s.getNdg(), s.getCognome(), s.getNome()));
+            soggetti.add(s);
+        }
+        return soggetti;
+    }
+
+    private static String randomText(Random random, int length) {
+        char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = (char) ('A' + random.nextInt(26));
+        }
+        return new String(text);
+    }
+}
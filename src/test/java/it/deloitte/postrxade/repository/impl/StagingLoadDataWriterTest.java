@@ -0,0 +1,103 @@
+package it.deloitte.postrxade.repository.impl;
+
+import com.zaxxer.hikari.HikariDataSource;
+import it.deloitte.postrxade.entity.CambioNdg;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * {@link StagingLoadDataWriter} must land every row it is given or fail the load: LOAD DATA LOCAL
+ * silently truncates or skips bad rows, as IGNORE does.
+ */
+class StagingLoadDataWriterTest extends StagingDatabaseTest {
+
+    private static final long INGESTION_ID = 1L;
+    // Partition p0 of the STG_* tables
+    private static final long SUBMISSION_ID = 0L;
+
+    private final StagingLoadDataWriter writer = new StagingLoadDataWriter(dataSource);
+
+    @BeforeEach
+    void createStagingTable() {
+        createTables("STG_CAMBIO_NDG");
+    }
+
+    @Test
+    void loadsEveryRowVerbatim() {
+        List<CambioNdg> rows = List.of(
+                cambioNdg("NDG0001", "NDG0002", "tab\there"),
+                cambioNdg("NDG\\0003", "NDG'0004", "back\\slash and 'quote'"),
+                cambioNdg("JOSÉ", null, "new\nline"));
+
+        int loaded = transactionTemplate.execute(status ->
+                writer.load(StagingTables.CAMBIO_NDG, rows, INGESTION_ID, SUBMISSION_ID));
+
+        assertThat(loaded).isEqualTo(3);
+        List<Map<String, Object>> staged = jdbcTemplate.queryForList(
+                "SELECT ndg_vecchio, ndg_nuovo, raw_row, fk_ingestion FROM STG_CAMBIO_NDG ORDER BY pk_stg_cambio_ndg");
+        assertThat(staged).extracting(row -> row.get("ndg_vecchio"), row -> row.get("ndg_nuovo"), row -> row.get("raw_row"))
+                .containsExactly(
+                        tuple("NDG0001", "NDG0002", "tab\there"),
+                        tuple("NDG\\0003", "NDG'0004", "back\\slash and 'quote'"),
+                        tuple("JOSÉ", "", "new\nline"));
+        assertThat(staged).extracting(row -> ((Number) row.get("fk_ingestion")).longValue()).containsOnly(INGESTION_ID);
+    }
+
+    @Test
+    void badRowFailsTheLoad() {
+        // ndg_vecchio is VARCHAR(16): the server would store the row truncated, with a warning
+        List<CambioNdg> rows = List.of(
+                cambioNdg("NDG0001", "NDG0002", "good"),
+                cambioNdg("NDG0000000000000000003", "NDG0004", "too long"),
+                cambioNdg("NDG0005", "NDG0006", "good"));
+
+        DataAccessException failure = catchThrowableOfType(DataAccessException.class, () ->
+                transactionTemplate.executeWithoutResult(status ->
+                        writer.load(StagingTables.CAMBIO_NDG, rows, INGESTION_ID, SUBMISSION_ID)));
+
+        assertThat(failure).isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("STG_CAMBIO_NDG")
+                .hasMessageContaining("ndg_vecchio");
+        assertThat(StagingLoadDataWriter.isLocalInfileDisabled(failure))
+                .as("a bad row must not fall back to the INSERT path").isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM STG_CAMBIO_NDG", Integer.class)).isZero();
+    }
+
+    @Test
+    void refusedLocalInfileIsReportedAsDisabled() {
+        try (HikariDataSource refusing = new HikariDataSource()) {
+            refusing.setJdbcUrl(dataSource.getJdbcUrl());
+            refusing.setUsername(dataSource.getUsername());
+            refusing.setPassword(dataSource.getPassword());
+            refusing.addDataSourceProperty("allowLocalInfile", "false");
+            StagingLoadDataWriter refusingWriter = new StagingLoadDataWriter(refusing);
+
+            DataAccessException failure = catchThrowableOfType(DataAccessException.class, () ->
+                    refusingWriter.load(StagingTables.CAMBIO_NDG, List.of(cambioNdg("NDG0001", "NDG0002", "row")),
+                            INGESTION_ID, SUBMISSION_ID));
+
+            assertThat(failure).isNotNull();
+            assertThat(StagingLoadDataWriter.isLocalInfileDisabled(failure)).isTrue();
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM STG_CAMBIO_NDG", Integer.class)).isZero();
+    }
+
+    private static CambioNdg cambioNdg(String ndgVecchio, String ndgNuovo, String rawRow) {
+        CambioNdg cambioNdg = new CambioNdg();
+        cambioNdg.setIntermediario("08000000001");
+        cambioNdg.setNdgVecchio(ndgVecchio);
+        cambioNdg.setNdgNuovo(ndgNuovo);
+        cambioNdg.setControlloDiFineRiga("A");
+        cambioNdg.setRawRow(rawRow);
+        return cambioNdg;
+    }
+}
@@ -0,0 +1,83 @@
+package it.deloitte.postrxade.repository.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link StagingPartitionManager} gives each submission its own staging partition and drops only that one;
+ * tables still in the unpartitioned layout are cleared with a committed DELETE.
+ */
+class StagingPartitionManagerTest extends StagingDatabaseTest {
+
+    private static final long SUBMISSION_ID = 7L;
+    private static final long OTHER_SUBMISSION_ID = 8L;
+
+    private final StagingPartitionManager partitionManager = new StagingPartitionManager(dataSource);
+
+    @BeforeEach
+    void createStagingTables() {
+        createTables(StagingPartitionManager.STAGING_TABLES.toArray(String[]::new));
+    }
+
+    @Test
+    void dropRemovesOnlyTheSubmissionPartition() {
+        partitionManager.addPartitions(SUBMISSION_ID);
+        partitionManager.addPartitions(OTHER_SUBMISSION_ID);
+        // Already there: nothing to do
+        partitionManager.addPartitions(SUBMISSION_ID);
+        stageCambioNdg(SUBMISSION_ID);
+        stageCambioNdg(OTHER_SUBMISSION_ID);
+
+        for (String table : StagingPartitionManager.STAGING_TABLES) {
+            assertThat(partitions(table)).as(table).containsExactly("p0", "p_7", "p_8");
+        }
+
+        partitionManager.dropPartitions(SUBMISSION_ID);
+        partitionManager.dropPartitions(SUBMISSION_ID);
+
+        for (String table : StagingPartitionManager.STAGING_TABLES) {
+            assertThat(partitions(table)).as(table).containsExactly("p0", "p_8");
+        }
+        assertThat(stagedSubmissions()).containsExactly(OTHER_SUBMISSION_ID);
+    }
+
+    @Test
+    void unpartitionedTableIsClearedWithDelete() {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.execute("ALTER TABLE STG_CAMBIO_NDG REMOVE PARTITIONING"));
+        partitionManager.addPartitions(SUBMISSION_ID);
+        assertThat(partitions("STG_CAMBIO_NDG")).isEmpty();
+        stageCambioNdg(SUBMISSION_ID);
+        stageCambioNdg(OTHER_SUBMISSION_ID);
+
+        partitionManager.dropPartitions(SUBMISSION_ID);
+
+        // Read from another pooled connection: the DELETE must have been committed
+        assertThat(stagedSubmissions()).containsExactly(OTHER_SUBMISSION_ID);
+        assertThat(partitions("STG_SOGGETTI")).containsExactly("p0");
+    }
+
+    private static void stageCambioNdg(long submissionId) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("""
+                INSERT INTO STG_CAMBIO_NDG (fk_ingestion, fk_submission, intermediario, ndg_vecchio, ndg_nuovo, raw_row)
+                VALUES (1, ?, '08000000001', 'NDG1', 'NDG2', 'row')
+                """, submissionId));
+    }
+
+    private static List<Long> stagedSubmissions() {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForList(
+                "SELECT fk_submission FROM STG_CAMBIO_NDG ORDER BY fk_submission", Long.class));
+    }
+
+    private static List<String> partitions(String table) {
+        return jdbcTemplate.queryForList("""
+                SELECT PARTITION_NAME FROM information_schema.PARTITIONS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL
+                ORDER BY PARTITION_ORDINAL_POSITION
+                """, String.class, table);
+    }
+}
@@ -0,0 +1,143 @@
+package it.deloitte.postrxade.repository.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link StagingPromoter} copies the valid staging rows in committed, checkpointed pk ranges, resumes after the
+ * checkpoint and leaves {@code foreign_key_checks} on for the next users of the pooled connections.
+ */
+class StagingPromoterTest extends StagingDatabaseTest {
+
+    // Partition p0 of the STG_* tables, with no SUBMISSION row: only promotable without foreign key checks
+    private static final long SUBMISSION_ID = 0L;
+    private static final String INSERT_SQL = """
+            INSERT INTO MERCHANT_CAMBIO_NDG (fk_ingestion, fk_submission, intermediario, ndg_vecchio, ndg_nuovo, created_at)
+            SELECT fk_ingestion, fk_submission, intermediario, ndg_vecchio, ndg_nuovo, CURRENT_TIMESTAMP
+            FROM STG_CAMBIO_NDG
+            WHERE fk_submission = :submissionId
+              AND process_status = 1
+              AND pk_stg_cambio_ndg BETWEEN :firstPk AND :lastPk
+            """;
+
+    private final StagingPromoter promoter = new StagingPromoter(transactionManager);
+
+    @BeforeEach
+    void createTablesAndPromoter() {
+        ReflectionTestUtils.setField(promoter, "entityManager", entityManager);
+        ReflectionTestUtils.setField(promoter, "promotionChunkSize", 2);
+        createTables("SUBMISSION", "STG_CAMBIO_NDG", "MERCHANT_CAMBIO_NDG", "STG_PROMOTION_CHECKPOINT");
+    }
+
+    @Test
+    void promotesValidRowsInCheckpointedChunks() throws SQLException {
+        stageCambioNdg("NDG1", 1);
+        stageCambioNdg("NDG2", 1);
+        stageCambioNdg("NDG3", 2);
+        stageCambioNdg("NDG4", 1);
+        stageCambioNdg("NDG5", 1);
+
+        int promoted = promote(true);
+
+        assertThat(promoted).isEqualTo(4);
+        assertThat(promotedNdgs()).containsExactly("NDG1", "NDG2", "NDG4", "NDG5");
+        assertThat(checkpoint()).isEqualTo(5L);
+        assertThat(foreignKeyChecksOfPooledConnections()).containsOnly(1);
+        // Everything is behind the checkpoint: a rerun promotes nothing
+        assertThat(promote(true)).isZero();
+        assertThat(promotedNdgs()).hasSize(4);
+    }
+
+    @Test
+    void resumesAfterTheCheckpoint() {
+        stageCambioNdg("NDG1", 1);
+        stageCambioNdg("NDG2", 1);
+        stageCambioNdg("NDG3", 1);
+        // A previous run committed the first chunk, then crashed
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("""
+                INSERT INTO STG_PROMOTION_CHECKPOINT (fk_submission, table_name, last_pk) VALUES (?, 'STG_CAMBIO_NDG', 2)
+                """, SUBMISSION_ID));
+
+        assertThat(promote(true)).isEqualTo(1);
+        assertThat(promotedNdgs()).containsExactly("NDG3");
+        assertThat(checkpoint()).isEqualTo(3L);
+    }
+
+    @Test
+    void failedChunkKeepsTheCheckpoint() throws SQLException {
+        stageCambioNdg("NDG1", 1);
+
+        // With foreign key checks the missing SUBMISSION row fails the INSERT
+        assertThatThrownBy(() -> promote(false)).isInstanceOf(RuntimeException.class);
+
+        assertThat(promotedNdgs()).isEmpty();
+        assertThat(checkpoint()).isZero();
+        assertThat(foreignKeyChecksOfPooledConnections()).containsOnly(1);
+    }
+
+    @Test
+    void refusesToJoinATransaction() {
+        stageCambioNdg("NDG1", 1);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> promote(true)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("STG_CAMBIO_NDG");
+        assertThat(promotedNdgs()).isEmpty();
+    }
+
+    private int promote(boolean disableForeignKeyChecks) {
+        return promoter.promote("STG_CAMBIO_NDG", "pk_stg_cambio_ndg", SUBMISSION_ID, INSERT_SQL, disableForeignKeyChecks);
+    }
+
+    private static void stageCambioNdg(String ndg, int processStatus) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("""
+                INSERT INTO STG_CAMBIO_NDG (fk_ingestion, fk_submission, intermediario, ndg_vecchio, ndg_nuovo, raw_row, process_status)
+                VALUES (1, ?, '08000000001', ?, 'NEW', 'row', ?)
+                """, SUBMISSION_ID, ndg, processStatus));
+    }
+
+    private static List<String> promotedNdgs() {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForList(
+                "SELECT ndg_vecchio FROM MERCHANT_CAMBIO_NDG ORDER BY pk_cambio_ndg", String.class));
+    }
+
+    private static long checkpoint() {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("""
+                SELECT COALESCE(MAX(last_pk), 0) FROM STG_PROMOTION_CHECKPOINT
+                WHERE fk_submission = ? AND table_name = 'STG_CAMBIO_NDG'
+                """, Long.class, SUBMISSION_ID));
+    }
+
+    // Session value of every connection of the pool, held at once so that each is a different one
+    private static List<Integer> foreignKeyChecksOfPooledConnections() throws SQLException {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            List<Integer> values = new ArrayList<>();
+            for (int i = 0; i < dataSource.getMaximumPoolSize(); i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery("SELECT @@SESSION.foreign_key_checks")) {
+                    rs.next();
+                    values.add(rs.getInt(1));
+                }
+            }
+            return values;
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+}
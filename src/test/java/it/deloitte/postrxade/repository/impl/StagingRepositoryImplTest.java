@@ -0,0 +1,124 @@
+package it.deloitte.postrxade.repository.impl;
+
+import it.deloitte.postrxade.enums.StagingErrorSourceEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Set-based error record creation of {@link StagingRepositoryImpl#insertErrorRecordsFromStaging}: one
+ * ERROR_RECORD and one ERROR_CAUSE per flagged staging row, each cause on the record of its own row, and
+ * none for a row already reported by an interrupted run.
+ */
+class StagingRepositoryImplTest extends StagingDatabaseTest {
+
+    private static final long INGESTION_ID = 11L;
+    private static final long OTHER_INGESTION_ID = 12L;
+    // Partition p0 of the STG_* tables
+    private static final long SUBMISSION_ID = 0L;
+    private static final String ERROR_CODE = "DUP";
+
+    private final StagingRepositoryImpl repository = new StagingRepositoryImpl();
+
+    @BeforeEach
+    void createTablesAndErrorType() {
+        ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+        createTables("STG_SOGGETTI", "ERROR_TYPE", "ERROR_RECORD", "ERROR_CAUSE");
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "INSERT INTO ERROR_TYPE (pk_error_type, name, error_code) VALUES (7, 'Duplicate', ?)", ERROR_CODE));
+    }
+
+    @Test
+    void causesArePairedWithTheirStagingRow() {
+        // Identical lines, and lines equal only under the case and trailing-space insensitive collation
+        stageSoggetto("NDG1", "SAME LINE", 2, "first duplicate");
+        stageSoggetto("NDG2", "SAME LINE", 2, "second duplicate");
+        stageSoggetto("NDG3", "valid line", 1, null);
+        stageSoggetto("NDG4", "Mixed Case ", 2, "third duplicate");
+        stageSoggetto("NDG5", "mixed case", 2, null);
+        // Records of another ingestion still waiting for their cause must not be taken
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("""
+                INSERT INTO ERROR_RECORD (fk_ingestion, fk_submission, raw_row, stg_table, fk_stg_row)
+                VALUES (?, ?, 'SAME LINE', 'STG_SOGGETTI', 1)
+                """, OTHER_INGESTION_ID, SUBMISSION_ID));
+
+        int created = insertDuplicateErrorRecords();
+
+        assertThat(created).isEqualTo(4);
+        assertThat(errorRecords(INGESTION_ID))
+                .extracting(row -> row.get("ndg"), row -> row.get("raw_row"), row -> row.get("error_message"))
+                .containsExactly(
+                        tuple("NDG1", "SAME LINE", "first duplicate"),
+                        tuple("NDG2", "SAME LINE", "second duplicate"),
+                        tuple("NDG4", "Mixed Case ", "third duplicate"),
+                        tuple("NDG5", "mixed case", "Soggetto already exists"));
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM ERROR_RECORD er JOIN ERROR_CAUSE ec ON ec.fk_error_record = er.pk_error_record
+                WHERE er.fk_ingestion = ?
+                """, Integer.class, OTHER_INGESTION_ID)).isZero();
+    }
+
+    @Test
+    void resumedRunReportsEachRowOnce() {
+        stageSoggetto("NDG1", "line 1", 2, "first duplicate");
+        stageSoggetto("NDG2", "line 2", 2, "second duplicate");
+        // The interrupted run committed the records of the rows flagged so far
+        assertThat(insertDuplicateErrorRecords()).isEqualTo(2);
+        // The resumed run stages and flags the rest of the file, then creates the records again
+        stageSoggetto("NDG3", "line 3", 2, "third duplicate");
+
+        assertThat(insertDuplicateErrorRecords()).isEqualTo(1);
+        assertThat(insertDuplicateErrorRecords()).isZero();
+        assertThat(errorRecords(INGESTION_ID))
+                .extracting(row -> row.get("ndg"), row -> row.get("error_message"))
+                .containsExactly(
+                        tuple("NDG1", "first duplicate"),
+                        tuple("NDG2", "second duplicate"),
+                        tuple("NDG3", "third duplicate"));
+    }
+
+    @Test
+    void missingErrorTypeFailsOnlyWithFlaggedRows() {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("DELETE FROM ERROR_TYPE"));
+
+        assertThat(insertDuplicateErrorRecords()).isZero();
+
+        stageSoggetto("NDG1", "line", 2, "duplicate");
+        assertThatThrownBy(this::insertDuplicateErrorRecords)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(ERROR_CODE);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ERROR_RECORD", Integer.class)).isZero();
+    }
+
+    private int insertDuplicateErrorRecords() {
+        return transactionTemplate.execute(status -> repository.insertErrorRecordsFromStaging(
+                StagingErrorSourceEnum.SOGGETTI_DUPLICATE, INGESTION_ID, SUBMISSION_ID, ERROR_CODE,
+                "Soggetto already exists", null));
+    }
+
+    private static void stageSoggetto(String ndg, String rawRow, int processStatus, String errorMessage) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("""
+                INSERT INTO STG_SOGGETTI (fk_ingestion, fk_submission, intermediario, ndg, raw_row, process_status, error_message)
+                VALUES (?, ?, '08000000001', ?, ?, ?, ?)
+                """, INGESTION_ID, SUBMISSION_ID, ndg, rawRow, processStatus, errorMessage));
+    }
+
+    // Records of the ingestion with their staging ndg and cause message, in staging order
+    private static List<Map<String, Object>> errorRecords(long ingestionId) {
+        return jdbcTemplate.queryForList("""
+                SELECT stg.ndg, er.raw_row, ec.error_message
+                FROM ERROR_RECORD er
+                JOIN ERROR_CAUSE ec ON ec.fk_error_record = er.pk_error_record
+                JOIN STG_SOGGETTI stg ON stg.pk_stg_merchant = er.fk_stg_row
+                WHERE er.fk_ingestion = ? AND er.stg_table = 'STG_SOGGETTI'
+                ORDER BY stg.pk_stg_merchant
+                """, ingestionId);
+    }
+}
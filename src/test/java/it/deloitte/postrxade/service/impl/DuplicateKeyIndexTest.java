@@ -0,0 +1,125 @@
+package it.deloitte.postrxade.service.impl;
+
+import it.deloitte.postrxade.service.impl.DuplicateKeyIndex.Fingerprint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DuplicateKeyIndexTest {
+
+    @Test
+    void lowestRegisteredLineWins() {
+        DuplicateKeyIndex index = new DuplicateKeyIndex();
+        Fingerprint key = Fingerprint.of("08000000001", "NDG0001");
+
+        assertThat(index.firstLine(key)).isEqualTo(DuplicateKeyIndex.ABSENT);
+
+        index.register(key, 7);
+        index.register(key, 3);
+        index.register(key, 12);
+
+        assertThat(index.firstLine(key)).isEqualTo(3);
+        assertThat(index.firstLine(Fingerprint.of("08000000001", "NDG0002"))).isEqualTo(DuplicateKeyIndex.ABSENT);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void fingerprintDependsOnFieldBoundariesAndNulls() {
+        assertThat(Fingerprint.of("ab", "c")).isEqualTo(Fingerprint.of("ab", "c"));
+        assertThat(Fingerprint.of("ab", "c")).isNotEqualTo(Fingerprint.of("a", "bc"));
+        assertThat(Fingerprint.of("abc")).isNotEqualTo(Fingerprint.of("ab", "c"));
+        assertThat(Fingerprint.of("a", null)).isNotEqualTo(Fingerprint.of("a", ""));
+        assertThat(Fingerprint.of("a", null)).isNotEqualTo(Fingerprint.of("a"));
+        assertThat(Fingerprint.of("a", "\u0000")).isNotEqualTo(Fingerprint.of("a", null));
+        assertThat(Fingerprint.of("", "")).isNotEqualTo(Fingerprint.of(""));
+    }
+
+    @Test
+    void fingerprintsOfDistinctKeysDoNotCollide() {
+        Set<Fingerprint> fingerprints = new HashSet<>();
+        Set<Long> hashes = new HashSet<>();
+        // Near-identical keys, as in a file: same intermediario, sequential chiave_rapporto
+        for (int i = 0; i < 1_000_000; i++) {
+            Fingerprint fingerprint = Fingerprint.of("08000000001", String.format("RAP%013d", i));
+            fingerprints.add(fingerprint);
+            hashes.add(fingerprint.hash());
+        }
+
+        assertThat(fingerprints).hasSize(1_000_000);
+        assertThat(hashes).hasSize(1_000_000);
+    }
+
+    @Test
+    void matchesMapOfKeysAcrossGrowth() {
+        Random random = new Random(17);
+        DuplicateKeyIndex index = new DuplicateKeyIndex();
+        Map<List<String>, Long> expected = new HashMap<>();
+
+        // Few distinct keys for many lines: lots of duplicates, every segment grows several times
+        for (long line = 1; line <= 300_000; line++) {
+            List<String> key = randomKey(random, 100_000);
+            index.register(fingerprint(key), line);
+            expected.merge(key, line, Math::min);
+        }
+
+        assertThat(index.size()).isEqualTo(expected.size());
+        expected.forEach((key, line) -> assertThat(index.firstLine(fingerprint(key))).as("%s", key).isEqualTo(line));
+        for (int i = 0; i < 10_000; i++) {
+            List<String> absent = List.of("09000000001", "NDG" + i, "X");
+            assertThat(index.firstLine(fingerprint(absent))).isEqualTo(DuplicateKeyIndex.ABSENT);
+        }
+        // Three longs per slot, at least one slot per key
+        assertThat(index.allocatedBytes()).isGreaterThanOrEqualTo(expected.size() * 3L * Long.BYTES);
+    }
+
+    @Test
+    void concurrentRegistrationKeepsLowestLine() throws Exception {
+        int threads = 8;
+        int linesPerThread = 50_000;
+        DuplicateKeyIndex index = new DuplicateKeyIndex();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Line n carries key n % 20_000, so the first line of key k is k + 1 whatever thread registers it
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                // Each thread walks its own range of lines backwards, so the lowest line often comes last
+                long lastLine = linesPerThread * (long) (threads - t);
+                workers.add(executor.submit(() -> {
+                    for (long line = lastLine; line > lastLine - linesPerThread; line--) {
+                        index.register(Fingerprint.of("08000000001", "NDG" + (line - 1) % 20_000), line);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(index.size()).isEqualTo(20_000);
+        for (int k = 0; k < 20_000; k++) {
+            assertThat(index.firstLine(Fingerprint.of("08000000001", "NDG" + k))).isEqualTo(k + 1L);
+        }
+    }
+
+    private static List<String> randomKey(Random random, int distinctKeys) {
+        int n = random.nextInt(distinctKeys);
+        return List.of("0800000000" + n % 3, "RAP_" + n, n % 5 == 0 ? "" : "NDG" + n / 7);
+    }
+
+    private static Fingerprint fingerprint(List<String> key) {
+        return Fingerprint.of(key.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,223 @@
+package it.deloitte.postrxade.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3MultipartOutputStreamTest {
+
+    private static final int PART_SIZE = S3MultipartOutputStream.MIN_PART_SIZE;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final StubS3Client s3Client = new StubS3Client();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void smallObjectIsSentWithSinglePut() throws IOException {
+        byte[] data = randomBytes(1000);
+        S3MultipartOutputStream out = newStream();
+
+        out.write(data);
+        out.complete();
+
+        assertThat(s3Client.putObjects).containsOnlyKeys("out/file.zip");
+        assertThat(s3Client.putObjects.get("out/file.zip")).isEqualTo(data);
+        assertThat(s3Client.createdUploads).isZero();
+        assertThat(s3Client.completedParts).isEmpty();
+    }
+
+    @Test
+    void largeObjectIsUploadedInPartsAndCompletedInOrder() throws IOException {
+        byte[] data = randomBytes(2 * PART_SIZE + 12_345);
+        S3MultipartOutputStream out = newStream();
+
+        // Single bytes and arrays straddling the part boundaries
+        out.write(data[0]);
+        for (int off = 1; off < data.length; off += 100_003) {
+            out.write(data, off, Math.min(100_003, data.length - off));
+        }
+        out.complete();
+
+        assertThat(s3Client.createdUploads).isEqualTo(1);
+        assertThat(s3Client.completedParts).extracting(CompletedPart::partNumber).containsExactly(1, 2, 3);
+        assertThat(s3Client.completedParts).extracting(CompletedPart::eTag).containsExactly("etag-1", "etag-2", "etag-3");
+        assertThat(s3Client.partSizes()).containsExactly(PART_SIZE, PART_SIZE, 12_345);
+        assertThat(s3Client.assembledParts()).isEqualTo(data);
+        assertThat(s3Client.abortedUploads).isEmpty();
+        assertThat(s3Client.putObjects).isEmpty();
+    }
+
+    @Test
+    void failedPartAbortsUploadAndIsNeverCompleted() {
+        s3Client.failingPart = 2;
+        byte[] data = randomBytes(3 * PART_SIZE + 1);
+        S3MultipartOutputStream out = newStream();
+
+        // As the output job does: complete on success, abort on any failure
+        assertThatThrownBy(() -> {
+            try {
+                out.write(data);
+                out.complete();
+            } catch (IOException e) {
+                out.abort();
+                throw e;
+            }
+        }).isInstanceOf(IOException.class).hasRootCauseInstanceOf(S3Exception.class);
+
+        assertThat(s3Client.abortedUploads).containsExactly(StubS3Client.UPLOAD_ID);
+        assertThat(s3Client.completedParts).isEmpty();
+    }
+
+    @Test
+    void abortDiscardsStreamWithoutCompletingIt() throws IOException {
+        S3MultipartOutputStream out = newStream();
+        out.write(randomBytes(PART_SIZE + 10));
+        out.close();
+
+        out.abort();
+        out.abort();
+
+        assertThat(s3Client.abortedUploads).containsExactly(StubS3Client.UPLOAD_ID);
+        assertThat(s3Client.completedParts).isEmpty();
+        assertThatThrownBy(() -> out.write(1)).isInstanceOf(IOException.class);
+        assertThatThrownBy(out::complete).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void abortBeforeFirstPartSendsNothing() throws IOException {
+        S3MultipartOutputStream out = newStream();
+        out.write(randomBytes(10));
+
+        out.abort();
+
+        assertThat(s3Client.createdUploads).isZero();
+        assertThat(s3Client.abortedUploads).isEmpty();
+        assertThat(s3Client.putObjects).isEmpty();
+    }
+
+    @Test
+    void partSizeBelowS3MinimumIsRejected() {
+        assertThatThrownBy(() -> new S3MultipartOutputStream(s3Client, "bucket", "key", "application/zip",
+                PART_SIZE - 1, 2, executor)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private S3MultipartOutputStream newStream() {
+        return new S3MultipartOutputStream(s3Client, "bucket", "out/file.zip", "application/zip", PART_SIZE, 2, executor);
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * In-memory S3Client for the calls made by S3MultipartOutputStream; any other call fails.
+     */
+    private static final class StubS3Client implements S3Client {
+
+        static final String UPLOAD_ID = "upload-1";
+
+        final Map<String, byte[]> putObjects = new ConcurrentHashMap<>();
+        final Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+        final List<CompletedPart> completedParts = new ArrayList<>();
+        final List<String> abortedUploads = new ArrayList<>();
+        int createdUploads;
+        volatile int failingPart;
+
+        @Override
+        public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+            putObjects.put(request.key(), read(body));
+            return PutObjectResponse.builder().eTag("etag").build();
+        }
+
+        @Override
+        public synchronized CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+            createdUploads++;
+            return CreateMultipartUploadResponse.builder().uploadId(UPLOAD_ID).build();
+        }
+
+        @Override
+        public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+            if (request.partNumber() == failingPart) {
+                throw (S3Exception) S3Exception.builder().message("Part " + failingPart + " rejected").statusCode(500).build();
+            }
+            byte[] data = read(body);
+            assertThat(data).hasSize(request.contentLength().intValue());
+            uploadedParts.put(request.partNumber(), data);
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        }
+
+        @Override
+        public synchronized CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            assertThat(request.uploadId()).isEqualTo(UPLOAD_ID);
+            completedParts.addAll(request.multipartUpload().parts());
+            return CompleteMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public synchronized AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+            abortedUploads.add(request.uploadId());
+            return AbortMultipartUploadResponse.builder().build();
+        }
+
+        List<Integer> partSizes() {
+            return completedParts.stream().map(p -> uploadedParts.get(p.partNumber()).length).toList();
+        }
+
+        byte[] assembledParts() {
+            ByteArrayOutputStream object = new ByteArrayOutputStream();
+            completedParts.forEach(p -> object.writeBytes(uploadedParts.get(p.partNumber())));
+            return object.toByteArray();
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private static byte[] read(RequestBody body) {
+            try (InputStream in = body.contentStreamProvider().newStream()) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
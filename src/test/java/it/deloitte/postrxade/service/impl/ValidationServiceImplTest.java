@@ -0,0 +1,70 @@
+package it.deloitte.postrxade.service.impl;
+
+import it.deloitte.postrxade.dto.ExcelRowDTO;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationServiceImplTest {
+
+    // Data rows per sheet in the test, instead of the 1,048,575 of an .xlsx sheet
+    private static final int LAST_ROW_INDEX = 3;
+
+    @Test
+    void fullSheetContinuesOnANumberedSheet() throws IOException {
+        byte[] report;
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(2)) {
+            ValidationServiceImpl.ReportSheet errors = new ValidationServiceImpl.ReportSheet(workbook, "Errors", LAST_ROW_INDEX);
+            ValidationServiceImpl.ReportSheet warnings = new ValidationServiceImpl.ReportSheet(workbook, "Warnings", LAST_ROW_INDEX);
+            for (int i = 1; i <= 7; i++) {
+                errors.writeRow(row("error " + i));
+            }
+            warnings.writeRow(row("warning 1"));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            workbook.dispose();
+            report = out.toByteArray();
+        }
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(report))) {
+            List<String> names = new ArrayList<>();
+            workbook.forEach(sheet -> names.add(sheet.getSheetName()));
+            assertThat(names).containsExactly("Errors", "Warnings", "Errors (2)", "Errors (3)");
+            assertThat(rawRecords(workbook.getSheet("Errors"))).containsExactly("error 1", "error 2", "error 3");
+            assertThat(rawRecords(workbook.getSheet("Errors (2)"))).containsExactly("error 4", "error 5", "error 6");
+            assertThat(rawRecords(workbook.getSheet("Errors (3)"))).containsExactly("error 7");
+            assertThat(rawRecords(workbook.getSheet("Warnings"))).containsExactly("warning 1");
+            assertThat(workbook.getSheet("Errors (2)").getRow(0).getCell(0).getStringCellValue()).isEqualTo("raw_record");
+        }
+    }
+
+    private static List<String> rawRecords(Sheet sheet) {
+        List<String> values = new ArrayList<>();
+        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+            values.add(sheet.getRow(i).getCell(0).getStringCellValue());
+        }
+        return values;
+    }
+
+    private static ExcelRowDTO row(String rawRecord) {
+        return ExcelRowDTO.builder()
+                .rawRecord(rawRecord)
+                .type("error")
+                .name("name")
+                .description("description")
+                .batchId("1")
+                .timestamp("2026-01-01")
+                .fileType("SOGGETTI")
+                .build();
+    }
+}
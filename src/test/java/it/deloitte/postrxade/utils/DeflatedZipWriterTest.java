@@ -0,0 +1,173 @@
+package it.deloitte.postrxade.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeflatedZipWriterTest {
+
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    // End of central directory record, without comment
+    private static final int END_LENGTH = 22;
+    private static final int ZIP64_LOCATOR_LENGTH = 20;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void classicArchiveReadsBack() throws IOException {
+        Map<String, byte[]> contents = sampleContents();
+
+        Path archive = writeArchive(contents, false);
+
+        assertThat(hasZip64Locator(archive)).isFalse();
+        assertReadsBack(archive, contents);
+    }
+
+    @Test
+    void zip64ArchiveReadsBack() throws IOException {
+        Map<String, byte[]> contents = sampleContents();
+
+        Path archive = writeArchive(contents, true);
+
+        assertThat(hasZip64Locator(archive)).isTrue();
+        assertReadsBack(archive, contents);
+    }
+
+    @Test
+    void emptyArchiveReadsBack() throws IOException {
+        assertReadsBack(writeArchive(Map.of(), false), Map.of());
+        assertReadsBack(writeArchive(Map.of(), true), Map.of());
+    }
+
+    @Test
+    void entryIsAvailableOnlyOnceClosed() throws IOException {
+        DeflatedZipWriter.EntryOutputStream entryOut = new DeflatedZipWriter.EntryOutputStream("a.txt", tempDir.resolve("a.part"));
+        entryOut.write("abc".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(entryOut::toEntry).isInstanceOf(IllegalStateException.class);
+
+        entryOut.close();
+        entryOut.close();
+        DeflatedZipWriter.DeflatedEntry entry = entryOut.toEntry();
+        assertThat(entry.size()).isEqualTo(3);
+        assertThat(entry.crc()).isEqualTo(crc("abc".getBytes(StandardCharsets.UTF_8)));
+        assertThat(entry.compressedSize()).isEqualTo(Files.size(entry.file()));
+    }
+
+    // Entries in the order they must appear: empty, text, non-ASCII name, incompressible, highly compressible
+    private static Map<String, byte[]> sampleContents() {
+        Random random = new Random(22);
+        byte[] incompressible = new byte[1_500_000];
+        random.nextBytes(incompressible);
+        StringBuilder records = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            records.append("1RAP").append(String.format("%046d", i)).append(" ".repeat(340)).append("A\r\n");
+        }
+
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        contents.put("empty.txt", new byte[0]);
+        contents.put("header.txt", "0ARU001\r\n".getBytes(StandardCharsets.UTF_8));
+        contents.put("sezione_anagrafica_è.txt", "2 MÜLLER JOSÉ SÃO PAULO\r\n".getBytes(StandardCharsets.UTF_8));
+        contents.put("random.bin", incompressible);
+        contents.put("sezione_rapporti.txt", records.toString().getBytes(StandardCharsets.UTF_8));
+        return contents;
+    }
+
+    // Deflates the entries in reverse order, as parallel parts may finish, then adds them in map order
+    private Path writeArchive(Map<String, byte[]> contents, boolean forceZip64) throws IOException {
+        List<String> names = new ArrayList<>(contents.keySet());
+        Collections.reverse(names);
+        Map<String, DeflatedZipWriter.DeflatedEntry> entries = new LinkedHashMap<>();
+        for (String name : names) {
+            DeflatedZipWriter.EntryOutputStream entryOut =
+                    new DeflatedZipWriter.EntryOutputStream(name, Files.createTempFile(tempDir, "part", ".deflate"));
+            byte[] data = contents.get(name);
+            // Both write paths
+            if (data.length > 0) {
+                entryOut.write(data[0]);
+                entryOut.write(data, 1, data.length - 1);
+            }
+            entryOut.close();
+            entries.put(name, entryOut.toEntry());
+        }
+
+        Path archive = Files.createTempFile(tempDir, "archive", ".zip");
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            DeflatedZipWriter zipWriter = new DeflatedZipWriter(out, forceZip64);
+            for (String name : contents.keySet()) {
+                zipWriter.addEntry(entries.get(name));
+            }
+            zipWriter.finish();
+        }
+        return archive;
+    }
+
+    private static void assertReadsBack(Path archive, Map<String, byte[]> contents) throws IOException {
+        List<String> expectedNames = List.copyOf(contents.keySet());
+
+        // Through the central directory
+        List<String> names = new ArrayList<>();
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                names.add(entry.getName());
+                byte[] expected = contents.get(entry.getName());
+                assertThat(entry.getMethod()).isEqualTo(ZipEntry.DEFLATED);
+                assertThat(entry.getSize()).as("size of %s", entry.getName()).isEqualTo(expected.length);
+                assertThat(entry.getCrc()).as("CRC of %s", entry.getName()).isEqualTo(crc(expected));
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    assertThat(in.readAllBytes()).as("content of %s", entry.getName()).isEqualTo(expected);
+                }
+            }
+        }
+        assertThat(names).isEqualTo(expectedNames);
+
+        // Through the local headers, as a streaming reader does
+        names.clear();
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(archive), StandardCharsets.UTF_8)) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                names.add(entry.getName());
+                byte[] expected = contents.get(entry.getName());
+                assertThat(in.readAllBytes()).as("content of %s", entry.getName()).isEqualTo(expected);
+                assertThat(entry.getSize()).as("size of %s", entry.getName()).isEqualTo(expected.length);
+                assertThat(entry.getCrc()).as("CRC of %s", entry.getName()).isEqualTo(crc(expected));
+            }
+        }
+        assertThat(names).isEqualTo(expectedNames);
+    }
+
+    // The ZIP64 end of central directory locator comes right before the end record
+    private static boolean hasZip64Locator(Path archive) throws IOException {
+        byte[] bytes = Files.readAllBytes(archive);
+        int locator = bytes.length - END_LENGTH - ZIP64_LOCATOR_LENGTH;
+        return locator >= 0
+                && ByteBuffer.wrap(bytes, locator, 4).order(ByteOrder.LITTLE_ENDIAN).getInt() == ZIP64_LOCATOR_SIGNATURE;
+    }
+
+    private static long crc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+}